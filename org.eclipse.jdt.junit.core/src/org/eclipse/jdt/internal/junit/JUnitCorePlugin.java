@@ -36,6 +36,7 @@ import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 
+import org.eclipse.jdt.internal.junit.launcher.TestClassIndex;
 import org.eclipse.jdt.internal.junit.model.JUnitModel;
 
 /**
@@ -79,6 +80,8 @@ public class JUnitCorePlugin extends Plugin {
 
 	private final JUnitModel fJUnitModel= new JUnitModel();
 
+	private final TestClassIndex fTestClassIndex= new TestClassIndex();
+
 
 	/**
 	 * List storing the registered test run listeners
@@ -123,6 +126,7 @@ public class JUnitCorePlugin extends Plugin {
 		super.start(context);
 		fBundleContext= context;
 		fJUnitModel.start();
+		fTestClassIndex.start();
 	}
 
 	/**
@@ -132,6 +136,7 @@ public class JUnitCorePlugin extends Plugin {
 		fIsStopped= true;
 		try {
 			InstanceScope.INSTANCE.getNode(JUnitCorePlugin.CORE_PLUGIN_ID).flush();
+			fTestClassIndex.stop();
 			fJUnitModel.stop();
 		} finally {
 			super.stop(context);
@@ -157,6 +162,14 @@ public class JUnitCorePlugin extends Plugin {
 		return getDefault().fJUnitModel;
 	}
 
+	/**
+	 * @return the index of the JUnit 4 test classes in the workspace
+	 * @since 3.8
+	 */
+	public static TestClassIndex getTestClassIndex() {
+		return getDefault().fTestClassIndex;
+	}
+
 	/**
 	 * Initializes TestRun Listener extensions
 	 * @deprecated to avoid deprecation warning
@@ -49,6 +49,8 @@ public final class JUnitMessages extends NLS {
 
 	public static String JUnitLaunchConfigurationDelegate_verifying_attriburtes_description;
 
+	public static String TestClassIndex_restore_job_name;
+
 	public static String TestRunnerViewPart_configName;
 	public static String TestRunSession_unrootedTests;
 
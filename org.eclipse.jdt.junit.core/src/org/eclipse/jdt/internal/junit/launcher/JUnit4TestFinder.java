@@ -22,6 +22,7 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
 import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IMethod;
@@ -56,6 +57,16 @@ import org.eclipse.jdt.internal.junit.util.CoreTestSearchEngine;
 
 public class JUnit4TestFinder implements ITestFinder {
 
+	/**
+	 * Flag of a type which is a test.
+	 */
+	static final int FLAG_TEST= 1;
+
+	/**
+	 * Flag of a type whose subclasses are tests unless they are abstract or not accessible.
+	 */
+	static final int FLAG_TEST_SUPERCLASS= 2;
+
 	private static class Annotation {
 
 		private static final Annotation RUN_WITH= new Annotation("org.junit.runner.RunWith"); //$NON-NLS-1$
@@ -118,6 +129,22 @@ public class JUnit4TestFinder implements ITestFinder {
 			}
 		}
 
+		if (JUnitCorePlugin.getTestClassIndex().findTests(element, result, pm))
+			return;
+		searchTests(element, result, null, pm);
+	}
+
+	/**
+	 * Searches the tests in the given container.
+	 *
+	 * @param element the container
+	 * @param result the set to add the tests to
+	 * @param testSuperclasses if not <code>null</code>, the set to add the classes in the container to
+	 * whose subclasses are tests, see {@link #FLAG_TEST_SUPERCLASS}
+	 * @param pm the progress monitor or <code>null</code>
+	 * @throws CoreException if the search failed
+	 */
+	void searchTests(IJavaElement element, Set result, Set testSuperclasses, IProgressMonitor pm) throws CoreException {
 		if (pm == null)
 			pm= new NullProgressMonitor();
 
@@ -144,8 +171,13 @@ public class JUnit4TestFinder implements ITestFinder {
 			// find all classes in the region
 			for (Iterator iterator= candidates.iterator(); iterator.hasNext();) {
 				IType curr= (IType) iterator.next();
-				if (CoreTestSearchEngine.isAccessibleClass(curr) && !Flags.isAbstract(curr.getFlags()) && region.contains(curr)) {
-					result.add(curr);
+				if (region.contains(curr)) {
+					if (CoreTestSearchEngine.isAccessibleClass(curr) && !Flags.isAbstract(curr.getFlags()))
+						result.add(curr);
+				}
+				if (testSuperclasses != null && curr.getCompilationUnit() != null) {
+					// includes source superclasses outside of the region
+					testSuperclasses.add(curr);
 				}
 			}
 
@@ -153,6 +185,13 @@ public class JUnit4TestFinder implements ITestFinder {
 			IType testInterface= element.getJavaProject().findType(JUnitCorePlugin.TEST_INTERFACE_NAME);
 			if (testInterface != null) {
 				CoreTestSearchEngine.findTestImplementorClasses(hierarchy, testInterface, region, result);
+				if (testSuperclasses != null) {
+					IType[] implementors= hierarchy.getAllSubtypes(testInterface);
+					for (int i= 0; i < implementors.length; i++) {
+						if (!Flags.isInterface(hierarchy.getCachedFlags(implementors[i])) && region.contains(implementors[i]))
+							testSuperclasses.add(implementors[i]);
+					}
+				}
 			}
 
 			//JUnit 4.3 can also run JUnit-3.8-style public static Test suite() methods:
@@ -194,9 +233,50 @@ public class JUnit4TestFinder implements ITestFinder {
 	}
 
 	public boolean isTest(IType type) throws JavaModelException {
+		Boolean indexed= JUnitCorePlugin.getTestClassIndex().isTest(type);
+		if (indexed != null)
+			return indexed.booleanValue();
 		return internalIsTest(type, null);
 	}
 
+	/**
+	 * Evaluates the given types of a compilation unit, parsing the compilation unit once.
+	 *
+	 * @param cu the compilation unit
+	 * @param types the types declared in the compilation unit
+	 * @param monitor the progress monitor or <code>null</code>
+	 * @return for each type, a combination of {@link #FLAG_TEST} and {@link #FLAG_TEST_SUPERCLASS}
+	 * @throws JavaModelException if the types can't be accessed
+	 */
+	int[] getTestFlags(ICompilationUnit cu, IType[] types, IProgressMonitor monitor) throws JavaModelException {
+		int[] flags= new int[types.length];
+		CompilationUnit root= null;
+		for (int i= 0; i < types.length; i++) {
+			IType type= types[i];
+			if (type.isInterface())
+				continue;
+			if (root == null) {
+				ASTParser parser= ASTParser.newParser(AST.JLS4);
+				parser.setSource(cu);
+				parser.setFocalPosition(0);
+				parser.setResolveBindings(true);
+				root= (CompilationUnit) parser.createAST(monitor);
+			}
+			ASTNode node= root.findDeclaringNode(type.getKey());
+			if (node instanceof TypeDeclaration) {
+				ITypeBinding binding= ((TypeDeclaration) node).resolveBinding();
+				if (binding != null && isTestSuperclass(binding)) {
+					flags[i]|= FLAG_TEST_SUPERCLASS;
+					if (!Modifier.isAbstract(binding.getModifiers()) && CoreTestSearchEngine.isAccessibleClass(type))
+						flags[i]|= FLAG_TEST;
+				}
+			}
+			if (CoreTestSearchEngine.isAccessibleClass(type) && CoreTestSearchEngine.hasSuiteMethod(type))
+				flags[i]|= FLAG_TEST;
+		}
+		return flags;
+	}
+
 	private boolean internalIsTest(IType type, IProgressMonitor monitor) throws JavaModelException {
 		if (CoreTestSearchEngine.isAccessibleClass(type)) {
 			if (CoreTestSearchEngine.hasSuiteMethod(type)) { // since JUnit 4.3.1
@@ -248,6 +328,10 @@ public class JUnit4TestFinder implements ITestFinder {
 		if (Modifier.isAbstract(binding.getModifiers()))
 			return false;
 
+		return isTestSuperclass(binding);
+	}
+
+	private static boolean isTestSuperclass(ITypeBinding binding) {
 		if (Annotation.RUN_WITH.annotatesTypeOrSuperTypes(binding) || Annotation.TEST.annotatesAtLeastOneMethod(binding)) {
 			return true;
 		}
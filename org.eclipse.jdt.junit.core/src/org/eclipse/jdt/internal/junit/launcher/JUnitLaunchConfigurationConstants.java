@@ -39,6 +39,20 @@ public class JUnitLaunchConfigurationConstants {
 
 	public static final String ATTR_PORT= JUnitCorePlugin.PLUGIN_ID+".PORT"; //$NON-NLS-1$
 
+	/**
+	 * The ports of the runner VMs of a launch whose test classes are distributed to
+	 * several VMs, separated by commas. The first port is also the {@link #ATTR_PORT}.
+	 * @since 3.8
+	 */
+	public static final String ATTR_SHARD_PORTS= JUnitCorePlugin.PLUGIN_ID+".SHARD_PORTS"; //$NON-NLS-1$
+
+	/**
+	 * The number of runner VMs the test classes are distributed to, or 1 to run all tests in
+	 * one VM. Only applies to launches of more than one test class in run mode.
+	 * @since 3.8
+	 */
+	public static final String ATTR_SHARD_COUNT= JUnitCorePlugin.PLUGIN_ID+".SHARD_COUNT"; //$NON-NLS-1$
+
 	/**
 	 * The test method, or "" iff running the whole test type.
 	 */
@@ -52,6 +66,25 @@ public class JUnitLaunchConfigurationConstants {
 
 	public static final String ATTR_FAILURES_NAMES= JUnitCorePlugin.PLUGIN_ID+".FAILURENAMES"; //$NON-NLS-1$
 
+	/**
+	 * The order in which the tests are run, based on the {@link org.eclipse.jdt.internal.junit.model.TestHistory}:
+	 * {@link #TEST_ORDER_FAILURES_FIRST}, {@link #TEST_ORDER_SLOWEST_FIRST}, or "" to run them in the order of the test classes.
+	 * @since 3.8
+	 */
+	public static final String ATTR_TEST_ORDER= JUnitCorePlugin.PLUGIN_ID+".TEST_ORDER"; //$NON-NLS-1$
+
+	/**
+	 * Value of {@link #ATTR_TEST_ORDER}: runs the tests which failed most often in the past first.
+	 * @since 3.8
+	 */
+	public static final String TEST_ORDER_FAILURES_FIRST= "failuresFirst"; //$NON-NLS-1$
+
+	/**
+	 * Value of {@link #ATTR_TEST_ORDER}: runs the tests which took longest in the past first.
+	 * @since 3.8
+	 */
+	public static final String TEST_ORDER_SLOWEST_FIRST= "slowestFirst"; //$NON-NLS-1$
+
 	public static final String ATTR_TEST_RUNNER_KIND= JUnitCorePlugin.PLUGIN_ID+".TEST_KIND"; //$NON-NLS-1$
 
 	public static ITestKind getTestRunnerKind(ILaunchConfiguration launchConfiguration) {
@@ -0,0 +1,909 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.launcher;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.ISavedState;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.JUnitMessages;
+
+/**
+ * A persistent index of the JUnit 4 test classes in the source folders of Java projects.
+ * <p>
+ * A project is indexed by a search for its tests the first time they are asked for.
+ * Afterwards, the index is kept up to date from Java element deltas: changed compilation
+ * units are only marked, their types are evaluated again the next time the tests are
+ * asked for. If a type turns into a superclass of tests or stops being one, its subclasses
+ * are evaluated again as well. Class path changes remove the index of a project.
+ * </p>
+ * <p>
+ * Only saved contents are indexed. The index doesn't answer for projects with compilation
+ * units with unsaved changes, the tests of these projects are searched as before.
+ * </p>
+ * <p>
+ * The index is saved with the workspace. On startup, a job reads it and brings it up to
+ * date with the resource changes since the last save. Until then, the index doesn't answer.
+ * </p>
+ *
+ * @since 3.8
+ */
+public class TestClassIndex implements IElementChangedListener, ISaveParticipant {
+
+	private static final String INDEX_FILE_KEY= "testClassIndex"; //$NON-NLS-1$
+	private static final String ENCODING= "UTF-8"; //$NON-NLS-1$
+
+	private static final class ProjectIndex {
+		/**
+		 * Maps handle identifiers of compilation units to maps from the handle identifiers
+		 * of their types to their flags (<code>Integer</code>). Only types with flags are contained.
+		 */
+		final Map/*<String, Map<String, Integer>>*/ fTypes= new HashMap();
+		/** Handle identifiers of compilation units whose types must be evaluated again */
+		final Set/*<String>*/ fDirty= new HashSet();
+		/** Whether the search which indexes the project has finished */
+		boolean fComplete;
+	}
+
+	private final JUnit4TestFinder fFinder= new JUnit4TestFinder();
+
+	/** Maps project names to their {@link ProjectIndex} */
+	private final Map/*<String, ProjectIndex>*/ fProjects= new HashMap();
+
+	/**
+	 * Handle identifiers of the superclasses of tests which are declared in other projects
+	 * than the tests, these projects may not be indexed
+	 */
+	private final Set/*<String>*/ fExternalSuperclasses= new HashSet();
+
+	/** Handle identifiers of changed compilation units in projects which are not indexed */
+	private final Set/*<String>*/ fExternalDirty= new HashSet();
+
+	/**
+	 * The Java element deltas received while the saved index is restored, or <code>null</code>
+	 * if the index isn't being restored
+	 */
+	private List/*<IJavaElementDelta>*/ fPendingDeltas;
+
+	private Job fRestoreJob;
+
+	/**
+	 * Starts listening to changes and schedules a job which restores the index saved
+	 * with the workspace.
+	 *
+	 * @throws CoreException if the save participant could not be registered
+	 */
+	public void start() throws CoreException {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
+
+		final ISavedState savedState= ResourcesPlugin.getWorkspace().addSaveParticipant(JUnitCorePlugin.CORE_PLUGIN_ID, this);
+		if (savedState == null)
+			return;
+		IPath indexPath= savedState.lookup(new Path(INDEX_FILE_KEY));
+		if (indexPath == null)
+			return;
+		final File file= JUnitCorePlugin.getDefault().getStateLocation().append(indexPath).toFile();
+		synchronized (this) {
+			fPendingDeltas= new ArrayList();
+		}
+		fRestoreJob= new Job(JUnitMessages.TestClassIndex_restore_job_name) {
+			protected IStatus run(IProgressMonitor monitor) {
+				final boolean[] restored= { false };
+				savedState.processResourceChangeEvents(new IResourceChangeListener() {
+					public void resourceChanged(IResourceChangeEvent event) {
+						IResourceDelta delta= event.getDelta();
+						if (delta != null) {
+							restored[0]= true;
+							restore(file, delta);
+						}
+					}
+				});
+				if (!restored[0]) {
+					// the changes since the index was saved are unknown
+					restore(null, null);
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		fRestoreJob.setSystem(true);
+		fRestoreJob.schedule();
+	}
+
+	public void stop() {
+		JavaCore.removeElementChangedListener(this);
+		ResourcesPlugin.getWorkspace().removeSaveParticipant(JUnitCorePlugin.CORE_PLUGIN_ID);
+		if (fRestoreJob != null)
+			fRestoreJob.cancel();
+	}
+
+	/**
+	 * Replaces the index by the one in the given file and brings it up to date with
+	 * the given changes and the Java element deltas received while it was restored.
+	 *
+	 * @param file the file written by {@link #save(File)}, or <code>null</code> to start with an empty index
+	 * @param delta the resource changes since the file was written, or <code>null</code> if the file
+	 * is up to date
+	 */
+	public synchronized void restore(File file, IResourceDelta delta) {
+		clear();
+		if (file != null)
+			load(file);
+		if (delta != null)
+			processResourceDelta(delta);
+		List pendingDeltas= fPendingDeltas;
+		fPendingDeltas= null;
+		if (pendingDeltas != null) {
+			for (Iterator iter= pendingDeltas.iterator(); iter.hasNext();)
+				processDelta((IJavaElementDelta) iter.next());
+		}
+	}
+
+	/**
+	 * Adds the tests in the given container to the result, indexing the container's project if required.
+	 *
+	 * @param container the container
+	 * @param result the set to add the tests ({@link IType}s) to
+	 * @param pm the progress monitor or <code>null</code>
+	 * @return <code>true</code> if the tests have been added, <code>false</code> if the
+	 * index can't answer for the container
+	 * @throws CoreException if the working copies can't be accessed
+	 */
+	public boolean findTests(IJavaElement container, Set result, IProgressMonitor pm) throws CoreException {
+		if (!canIndex(container) || hasUnsavedChanges(container.getJavaProject()))
+			return false;
+		if (pm == null)
+			pm= new NullProgressMonitor();
+		try {
+			pm.beginTask(JUnitMessages.JUnit4TestFinder_searching_description, 10);
+			IJavaProject project= container.getJavaProject();
+			ProjectIndex index;
+			try {
+				index= getIndex(project, new SubProgressMonitor(pm, 8));
+				if (index == null)
+					return false;
+				update(new SubProgressMonitor(pm, 2));
+			} catch (CoreException e) {
+				// the index can't be built or brought up to date, the tests are searched instead
+				JUnitCorePlugin.log(e);
+				synchronized (this) {
+					fProjects.remove(project.getElementName());
+				}
+				return false;
+			}
+
+			synchronized (this) {
+				if (fProjects.get(project.getElementName()) != index || !index.fDirty.isEmpty())
+					return false; // changed in the meantime
+				for (Iterator iter= index.fTypes.values().iterator(); iter.hasNext();) {
+					Map types= (Map) iter.next();
+					for (Iterator typesIter= types.entrySet().iterator(); typesIter.hasNext();) {
+						Map.Entry entry= (Map.Entry) typesIter.next();
+						if ((((Integer) entry.getValue()).intValue() & JUnit4TestFinder.FLAG_TEST) == 0)
+							continue;
+						IJavaElement type= JavaCore.create((String) entry.getKey());
+						if (type instanceof IType && isContainedIn(type, container))
+							result.add(type);
+					}
+				}
+			}
+			return true;
+		} finally {
+			pm.done();
+		}
+	}
+
+	/**
+	 * Looks up whether the given type is a test, without evaluating changed types. Changed
+	 * compilation units in projects which are not indexed are only considered if the type's
+	 * project requires their projects, they are evaluated when the tests are asked for.
+	 *
+	 * @param type the type
+	 * @return whether the type is a test, or <code>null</code> if the index doesn't know
+	 */
+	public synchronized Boolean isTest(IType type) {
+		ICompilationUnit cu= type.getCompilationUnit();
+		if (cu == null || fPendingDeltas != null || hasUnsavedChanges(cu))
+			return null;
+		IJavaProject project= type.getJavaProject();
+		ProjectIndex index= (ProjectIndex) fProjects.get(project.getElementName());
+		String cuHandle= cu.getHandleIdentifier();
+		if (index == null || !index.fComplete || index.fDirty.contains(cuHandle) || requiresExternalDirty(project))
+			return null;
+		Map types= (Map) index.fTypes.get(cuHandle);
+		Integer flags= types != null ? (Integer) types.get(type.getHandleIdentifier()) : null;
+		return Boolean.valueOf(flags != null && (flags.intValue() & JUnit4TestFinder.FLAG_TEST) != 0);
+	}
+
+	/**
+	 * Tells whether the given project requires a project with changed compilation units
+	 * which are not evaluated yet, i.e. whether superclasses of its tests may have changed.
+	 *
+	 * @param project the indexed project
+	 * @return <code>true</code> if a required project has changed compilation units
+	 */
+	private boolean requiresExternalDirty(IJavaProject project) {
+		if (fExternalDirty.isEmpty())
+			return false;
+		Set dirtyProjects= new HashSet();
+		for (Iterator iter= fExternalDirty.iterator(); iter.hasNext();) {
+			IJavaElement element= JavaCore.create((String) iter.next());
+			if (element != null)
+				dirtyProjects.add(element.getJavaProject().getElementName());
+		}
+		// the required projects of the project and, transitively, of its required projects
+		Set visited= new HashSet();
+		List queue= new ArrayList();
+		queue.add(project.getElementName());
+		while (!queue.isEmpty()) {
+			String name= (String) queue.remove(queue.size() - 1);
+			if (!visited.add(name))
+				continue;
+			if (dirtyProjects.contains(name))
+				return true;
+			try {
+				IJavaProject curr= JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject(name));
+				queue.addAll(Arrays.asList(curr.getRequiredProjectNames()));
+			} catch (JavaModelException e) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean canIndex(IJavaElement container) throws JavaModelException {
+		switch (container.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				// the finder also searches class folders of projects
+				IPackageFragmentRoot[] roots= ((IJavaProject) container).getPackageFragmentRoots();
+				for (int i= 0; i < roots.length; i++) {
+					if (!roots[i].isArchive() && roots[i].getKind() != IPackageFragmentRoot.K_SOURCE)
+						return false;
+				}
+				return true;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			case IJavaElement.PACKAGE_FRAGMENT:
+				IPackageFragmentRoot root= (IPackageFragmentRoot) container.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+				return root.getKind() == IPackageFragmentRoot.K_SOURCE;
+			case IJavaElement.COMPILATION_UNIT:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Tells whether a compilation unit of the given project has unsaved changes. The tests of the
+	 * project are then searched, so that the result reflects the contents of the working copies.
+	 *
+	 * @param project the project
+	 * @return whether a primary working copy in the project has unsaved changes
+	 * @throws JavaModelException if the working copies can't be accessed
+	 */
+	private static boolean hasUnsavedChanges(IJavaProject project) throws JavaModelException {
+		ICompilationUnit[] workingCopies= JavaCore.getWorkingCopies(null);
+		for (int i= 0; i < workingCopies.length; i++) {
+			if (project.equals(workingCopies[i].getJavaProject()) && workingCopies[i].hasUnsavedChanges())
+				return true;
+		}
+		return false;
+	}
+
+	private static boolean hasUnsavedChanges(ICompilationUnit cu) {
+		try {
+			return cu.isWorkingCopy() && cu.hasUnsavedChanges();
+		} catch (JavaModelException e) {
+			return true;
+		}
+	}
+
+	private static boolean isContainedIn(IJavaElement element, IJavaElement container) {
+		if (container.getElementType() == IJavaElement.JAVA_PROJECT)
+			return true;
+		return container.equals(element.getAncestor(container.getElementType()));
+	}
+
+	/**
+	 * Returns the complete index of the given project, searching the tests of the project
+	 * if it isn't indexed yet.
+	 *
+	 * @param project the project
+	 * @param pm the progress monitor
+	 * @return the index, or <code>null</code> if the project is being indexed by another thread
+	 * or has changed while it was indexed
+	 * @throws CoreException if the search failed
+	 */
+	private ProjectIndex getIndex(IJavaProject project, IProgressMonitor pm) throws CoreException {
+		String projectName= project.getElementName();
+		ProjectIndex index;
+		synchronized (this) {
+			if (fPendingDeltas != null)
+				return null; // being restored
+			index= (ProjectIndex) fProjects.get(projectName);
+			if (index != null)
+				return index.fComplete ? index : null;
+			index= new ProjectIndex();
+			fProjects.put(projectName, index);
+		}
+
+		Set tests= new HashSet();
+		Set superclasses= new HashSet();
+		boolean searched= false;
+		try {
+			fFinder.searchTests(project, tests, superclasses, pm);
+			searched= true;
+		} finally {
+			if (!searched) {
+				synchronized (this) {
+					if (fProjects.get(projectName) == index)
+						fProjects.remove(projectName);
+				}
+			}
+		}
+
+		synchronized (this) {
+			if (fProjects.get(projectName) != index)
+				return null;
+			for (Iterator iter= superclasses.iterator(); iter.hasNext();) {
+				IType type= (IType) iter.next();
+				if (project.equals(type.getJavaProject()))
+					addFlag(index, type, JUnit4TestFinder.FLAG_TEST_SUPERCLASS);
+				else if (type.getCompilationUnit() != null)
+					fExternalSuperclasses.add(type.getHandleIdentifier());
+			}
+			for (Iterator iter= tests.iterator(); iter.hasNext();) {
+				addFlag(index, (IType) iter.next(), JUnit4TestFinder.FLAG_TEST);
+			}
+			index.fComplete= true;
+		}
+		return index;
+	}
+
+	private static void addFlag(ProjectIndex index, IType type, int flag) {
+		ICompilationUnit cu= type.getCompilationUnit();
+		if (cu == null)
+			return;
+		String cuHandle= cu.getHandleIdentifier();
+		Map types= (Map) index.fTypes.get(cuHandle);
+		if (types == null) {
+			types= new HashMap();
+			index.fTypes.put(cuHandle, types);
+		}
+		String typeHandle= type.getHandleIdentifier();
+		Integer flags= (Integer) types.get(typeHandle);
+		types.put(typeHandle, new Integer(flags != null ? flags.intValue() | flag : flag));
+	}
+
+	/**
+	 * Evaluates the types of all changed compilation units again. A compilation unit stays
+	 * marked as changed until it has been evaluated successfully.
+	 *
+	 * @param pm the progress monitor
+	 * @throws CoreException if the types could not be evaluated
+	 */
+	private void update(IProgressMonitor pm) throws CoreException {
+		pm.beginTask("", IProgressMonitor.UNKNOWN); //$NON-NLS-1$
+		try {
+			while (true) {
+				String cuHandle= null;
+				ProjectIndex index= null;
+				synchronized (this) {
+					if (!fExternalDirty.isEmpty()) {
+						cuHandle= (String) fExternalDirty.iterator().next();
+						fExternalDirty.remove(cuHandle);
+					} else {
+						for (Iterator iter= fProjects.values().iterator(); iter.hasNext() && cuHandle == null;) {
+							ProjectIndex curr= (ProjectIndex) iter.next();
+							if (curr.fComplete && !curr.fDirty.isEmpty()) {
+								index= curr;
+								cuHandle= (String) curr.fDirty.iterator().next();
+								curr.fDirty.remove(cuHandle);
+							}
+						}
+					}
+				}
+				if (cuHandle == null)
+					return;
+				boolean updated= false;
+				try {
+					if (pm.isCanceled())
+						throw new OperationCanceledException();
+					update(cuHandle, index, pm);
+					updated= true;
+				} finally {
+					if (!updated)
+						markDirty(cuHandle, index);
+				}
+				pm.worked(1);
+			}
+		} finally {
+			pm.done();
+		}
+	}
+
+	/**
+	 * Marks a compilation unit as changed again after its evaluation failed.
+	 *
+	 * @param cuHandle the handle identifier of the compilation unit
+	 * @param index the index of the compilation unit's project, or <code>null</code> if the
+	 * project is not indexed
+	 */
+	private synchronized void markDirty(String cuHandle, ProjectIndex index) {
+		if (index == null)
+			fExternalDirty.add(cuHandle);
+		else if (fProjects.containsValue(index))
+			index.fDirty.add(cuHandle);
+	}
+
+	private void update(String cuHandle, ProjectIndex index, IProgressMonitor pm) throws CoreException {
+		IJavaElement element= JavaCore.create(cuHandle);
+		if (!(element instanceof ICompilationUnit))
+			return;
+		ICompilationUnit cu= (ICompilationUnit) element;
+		IType[] types= cu.exists() ? cu.getAllTypes() : new IType[0];
+		int[] flags= fFinder.getTestFlags(cu, types, new SubProgressMonitor(pm, 0));
+
+		List changedSuperclasses= new ArrayList();
+		synchronized (this) {
+			if (index == null) {
+				for (int i= 0; i < types.length; i++) {
+					String typeHandle= types[i].getHandleIdentifier();
+					boolean superclass= (flags[i] & JUnit4TestFinder.FLAG_TEST_SUPERCLASS) != 0;
+					if (superclass || fExternalSuperclasses.contains(typeHandle))
+						changedSuperclasses.add(types[i]);
+					if (superclass)
+						fExternalSuperclasses.add(typeHandle);
+					else
+						fExternalSuperclasses.remove(typeHandle);
+				}
+			} else {
+				if (fProjects.get(cu.getJavaProject().getElementName()) != index)
+					return;
+				Map oldTypes= (Map) index.fTypes.remove(cuHandle);
+				Map newTypes= new HashMap();
+				for (int i= 0; i < types.length; i++) {
+					String typeHandle= types[i].getHandleIdentifier();
+					if (flags[i] != 0)
+						newTypes.put(typeHandle, new Integer(flags[i]));
+					Integer oldFlags= oldTypes != null ? (Integer) oldTypes.remove(typeHandle) : null;
+					int oldSuperclass= oldFlags != null ? oldFlags.intValue() & JUnit4TestFinder.FLAG_TEST_SUPERCLASS : 0;
+					if (oldSuperclass != (flags[i] & JUnit4TestFinder.FLAG_TEST_SUPERCLASS))
+						changedSuperclasses.add(types[i]);
+				}
+				if (!newTypes.isEmpty())
+					index.fTypes.put(cuHandle, newTypes);
+				if (oldTypes != null && hasFlag(oldTypes, JUnit4TestFinder.FLAG_TEST_SUPERCLASS)) {
+					// a removed type had subclasses which are tests, they can't be found anymore
+					removeDependentProjects(cu.getJavaProject());
+					return;
+				}
+			}
+		}
+
+		for (Iterator iter= changedSuperclasses.iterator(); iter.hasNext();) {
+			IType type= (IType) iter.next();
+			ITypeHierarchy hierarchy= type.newTypeHierarchy(new SubProgressMonitor(pm, 0));
+			IType[] subclasses= hierarchy.getAllSubclasses(type);
+			synchronized (this) {
+				for (int i= 0; i < subclasses.length; i++) {
+					ICompilationUnit subclassCu= subclasses[i].getCompilationUnit();
+					if (subclassCu == null)
+						continue;
+					ProjectIndex subclassIndex= (ProjectIndex) fProjects.get(subclassCu.getJavaProject().getElementName());
+					if (subclassIndex != null)
+						subclassIndex.fDirty.add(subclassCu.getHandleIdentifier());
+				}
+			}
+		}
+	}
+
+	private static boolean hasFlag(Map types, int flag) {
+		for (Iterator iter= types.values().iterator(); iter.hasNext();) {
+			if ((((Integer) iter.next()).intValue() & flag) != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	public void elementChanged(ElementChangedEvent event) {
+		synchronized (this) {
+			if (fPendingDeltas != null) {
+				fPendingDeltas.add(event.getDelta());
+				return;
+			}
+			if (fProjects.isEmpty())
+				return;
+			processDelta(event.getDelta());
+		}
+	}
+
+	private void processDelta(IJavaElementDelta delta) {
+		IJavaElement element= delta.getElement();
+		int kind= delta.getKind();
+		int flags= delta.getFlags();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+				if (kind != IJavaElementDelta.CHANGED) {
+					removeDependentProjects((IJavaProject) element);
+					return;
+				}
+				if ((flags & (IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED
+						| IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+					fProjects.remove(element.getElementName());
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_ADDED_TO_CLASSPATH
+						| IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0) {
+					removeDependentProjects(element.getJavaProject());
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (kind == IJavaElementDelta.ADDED) {
+					try {
+						ICompilationUnit[] cus= ((IPackageFragment) element).getCompilationUnits();
+						for (int i= 0; i < cus.length; i++)
+							compilationUnitChanged(cus[i], false);
+					} catch (JavaModelException e) {
+						removeDependentProjects(element.getJavaProject());
+					}
+					return;
+				} else if (kind == IJavaElementDelta.REMOVED) {
+					packageRemoved((IPackageFragment) element);
+					return;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				compilationUnitChanged((ICompilationUnit) element, kind == IJavaElementDelta.REMOVED);
+				return;
+			default:
+				return;
+		}
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++) {
+			processDelta(children[i]);
+		}
+	}
+
+	private void packageRemoved(IPackageFragment fragment) {
+		ProjectIndex index= (ProjectIndex) fProjects.get(fragment.getJavaProject().getElementName());
+		if (index == null)
+			return;
+		for (Iterator iter= new ArrayList(index.fTypes.keySet()).iterator(); iter.hasNext();) {
+			String cuHandle= (String) iter.next();
+			IJavaElement cu= JavaCore.create(cuHandle);
+			if (cu != null && fragment.equals(cu.getParent()))
+				compilationUnitChanged((ICompilationUnit) cu, true);
+		}
+	}
+
+	private void compilationUnitChanged(ICompilationUnit cu, boolean removed) {
+		IJavaProject project= cu.getJavaProject();
+		String cuHandle= cu.getHandleIdentifier();
+		ProjectIndex index= (ProjectIndex) fProjects.get(project.getElementName());
+		if (index == null) {
+			if (removed)
+				removeExternalCompilationUnit(cu);
+			else
+				fExternalDirty.add(cuHandle);
+		} else if (removed) {
+			index.fDirty.remove(cuHandle);
+			Map types= (Map) index.fTypes.remove(cuHandle);
+			if (types != null && hasFlag(types, JUnit4TestFinder.FLAG_TEST_SUPERCLASS))
+				removeDependentProjects(project);
+		} else {
+			index.fDirty.add(cuHandle);
+		}
+	}
+
+	private void removeExternalCompilationUnit(ICompilationUnit cu) {
+		String prefix= cu.getHandleIdentifier();
+		for (Iterator iter= fExternalSuperclasses.iterator(); iter.hasNext();) {
+			if (((String) iter.next()).startsWith(prefix)) {
+				removeDependentProjects(cu.getJavaProject());
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes the index of the given project and of all projects which require it.
+	 *
+	 * @param project the project
+	 */
+	private void removeDependentProjects(IJavaProject project) {
+		String projectName= project.getElementName();
+		fProjects.remove(projectName);
+		for (Iterator iter= fProjects.keySet().iterator(); iter.hasNext();) {
+			IJavaProject curr= JavaCore.create(ResourcesPlugin.getWorkspace().getRoot().getProject((String) iter.next()));
+			try {
+				if (!Arrays.asList(curr.getRequiredProjectNames()).contains(projectName))
+					continue;
+			} catch (JavaModelException e) {
+				// remove
+			}
+			iter.remove();
+		}
+	}
+
+	/**
+	 * Processes the resource changes since the index has been saved.
+	 *
+	 * @param delta the resource delta
+	 */
+	private void processResourceDelta(IResourceDelta delta) {
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+				public boolean visit(IResourceDelta resourceDelta) {
+					IResource resource= resourceDelta.getResource();
+					switch (resource.getType()) {
+						case IResource.PROJECT:
+							if (resourceDelta.getKind() != IResourceDelta.CHANGED || (resourceDelta.getFlags() & IResourceDelta.OPEN) != 0) {
+								synchronized (TestClassIndex.this) {
+									removeDependentProjects(JavaCore.create(resource.getProject()));
+								}
+								return false;
+							}
+							return true;
+						case IResource.FILE:
+							String name= resource.getName();
+							if (JavaCore.isJavaLikeFileName(name)) {
+								IJavaElement element= JavaCore.create((IFile) resource);
+								if (element instanceof ICompilationUnit) {
+									synchronized (TestClassIndex.this) {
+										compilationUnitChanged((ICompilationUnit) element, resourceDelta.getKind() == IResourceDelta.REMOVED);
+									}
+								}
+							} else if (".classpath".equals(name) || isArchiveName(name)) { //$NON-NLS-1$
+								synchronized (TestClassIndex.this) {
+									removeDependentProjects(JavaCore.create(resource.getProject()));
+								}
+							}
+							return false;
+						default:
+							return true;
+					}
+				}
+			});
+		} catch (CoreException e) {
+			JUnitCorePlugin.log(e);
+			synchronized (this) {
+				clear();
+			}
+		}
+	}
+
+	private static boolean isArchiveName(String name) {
+		String lowerCase= name.toLowerCase();
+		return lowerCase.endsWith(".jar") || lowerCase.endsWith(".zip"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private void clear() {
+		fProjects.clear();
+		fExternalSuperclasses.clear();
+		fExternalDirty.clear();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.core.resources.ISaveParticipant#prepareToSave(org.eclipse.core.resources.ISaveContext)
+	 */
+	public void prepareToSave(ISaveContext context) throws CoreException {
+		// nothing to do
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.core.resources.ISaveParticipant#saving(org.eclipse.core.resources.ISaveContext)
+	 */
+	public void saving(ISaveContext context) throws CoreException {
+		if (context.getKind() != ISaveContext.FULL_SAVE)
+			return;
+		String fileName= getIndexFileName(context.getSaveNumber());
+		try {
+			save(JUnitCorePlugin.getDefault().getStateLocation().append(fileName).toFile());
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, JUnitCorePlugin.CORE_PLUGIN_ID, IStatus.ERROR, "", e)); //$NON-NLS-1$
+		}
+		context.map(new Path(INDEX_FILE_KEY), new Path(fileName));
+		context.needSaveNumber();
+		context.needDelta();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.core.resources.ISaveParticipant#doneSaving(org.eclipse.core.resources.ISaveContext)
+	 */
+	public void doneSaving(ISaveContext context) {
+		if (context.getKind() == ISaveContext.FULL_SAVE)
+			deleteIndexFile(context.getPreviousSaveNumber());
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.core.resources.ISaveParticipant#rollback(org.eclipse.core.resources.ISaveContext)
+	 */
+	public void rollback(ISaveContext context) {
+		if (context.getKind() == ISaveContext.FULL_SAVE)
+			deleteIndexFile(context.getSaveNumber());
+	}
+
+	private static String getIndexFileName(int saveNumber) {
+		return INDEX_FILE_KEY + '-' + saveNumber;
+	}
+
+	private static void deleteIndexFile(int saveNumber) {
+		JUnitCorePlugin.getDefault().getStateLocation().append(getIndexFileName(saveNumber)).toFile().delete();
+	}
+
+	/*
+	 * File format, one entry per line:
+	 *   P <project name>           a complete project index, followed by its compilation units
+	 *   C <compilation unit>       a compilation unit with types with flags
+	 *   T <flags> <type>           a type of the last compilation unit
+	 *   D <compilation unit>       a changed compilation unit of the last project
+	 *   X <type>                   an external superclass of tests
+	 *   E <compilation unit>       a changed compilation unit in a project which is not indexed
+	 * The parts of the lines are separated by tabs.
+	 */
+
+	/**
+	 * Writes the complete project indexes to the given file.
+	 *
+	 * @param file the file
+	 * @throws IOException if the file could not be written
+	 */
+	public synchronized void save(File file) throws IOException {
+		Writer writer= new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), ENCODING));
+		try {
+			for (Iterator iter= fProjects.entrySet().iterator(); iter.hasNext();) {
+				Map.Entry projectEntry= (Map.Entry) iter.next();
+				ProjectIndex index= (ProjectIndex) projectEntry.getValue();
+				if (!index.fComplete)
+					continue;
+				writeLine(writer, 'P', (String) projectEntry.getKey());
+				for (Iterator cuIter= index.fTypes.entrySet().iterator(); cuIter.hasNext();) {
+					Map.Entry cuEntry= (Map.Entry) cuIter.next();
+					writeLine(writer, 'C', (String) cuEntry.getKey());
+					Map types= (Map) cuEntry.getValue();
+					for (Iterator typeIter= types.entrySet().iterator(); typeIter.hasNext();) {
+						Map.Entry typeEntry= (Map.Entry) typeIter.next();
+						writeLine(writer, 'T', typeEntry.getValue() + "\t" + typeEntry.getKey()); //$NON-NLS-1$
+					}
+				}
+				for (Iterator dirtyIter= index.fDirty.iterator(); dirtyIter.hasNext();) {
+					writeLine(writer, 'D', (String) dirtyIter.next());
+				}
+			}
+			for (Iterator iter= fExternalSuperclasses.iterator(); iter.hasNext();) {
+				writeLine(writer, 'X', (String) iter.next());
+			}
+			for (Iterator iter= fExternalDirty.iterator(); iter.hasNext();) {
+				writeLine(writer, 'E', (String) iter.next());
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static void writeLine(Writer writer, char kind, String value) throws IOException {
+		writer.write(kind);
+		writer.write('\t');
+		writer.write(value);
+		writer.write('\n');
+	}
+
+	private void load(File file) {
+		if (!file.isFile())
+			return;
+		try {
+			BufferedReader reader= new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING));
+			try {
+				ProjectIndex index= null;
+				Map types= null;
+				String line;
+				while ((line= reader.readLine()) != null) {
+					if (line.length() < 2 || line.charAt(1) != '\t')
+						throw new IOException("Corrupt test class index: " + line); //$NON-NLS-1$
+					String value= line.substring(2);
+					switch (line.charAt(0)) {
+						case 'P':
+							index= new ProjectIndex();
+							index.fComplete= true;
+							fProjects.put(value, index);
+							types= null;
+							break;
+						case 'C':
+							types= new HashMap();
+							index.fTypes.put(value, types);
+							break;
+						case 'T':
+							int tab= value.indexOf('\t');
+							types.put(value.substring(tab + 1), Integer.valueOf(value.substring(0, tab)));
+							break;
+						case 'D':
+							index.fDirty.add(value);
+							break;
+						case 'X':
+							fExternalSuperclasses.add(value);
+							break;
+						case 'E':
+							fExternalDirty.add(value);
+							break;
+						default:
+							throw new IOException("Corrupt test class index: " + line); //$NON-NLS-1$
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			JUnitCorePlugin.log(e);
+			clear();
+		} catch (RuntimeException e) {
+			// malformed entries
+			JUnitCorePlugin.log(e);
+			clear();
+		}
+	}
+}
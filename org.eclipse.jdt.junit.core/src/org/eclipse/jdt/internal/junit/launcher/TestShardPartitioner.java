@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.launcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.IType;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.model.TestHistory;
+
+/**
+ * Distributes test classes to the runner VMs of a launch. The classes are balanced
+ * by the durations of their tests in the {@link TestHistory}.
+ *
+ * @since 3.8
+ */
+public class TestShardPartitioner {
+
+	/**
+	 * Assumed duration of the classes if no previous run is known, in seconds
+	 */
+	private static final double DEFAULT_DURATION= 1.0d;
+
+	private final Map/*<String, Double>*/ fDurations;
+
+	public TestShardPartitioner() {
+		this(JUnitCorePlugin.getModel().getTestHistory().getClassDurations());
+	}
+
+	/**
+	 * @param durations a map from class names to durations in seconds (<code>Double</code>),
+	 * see {@link TestHistory#getClassDurations()}
+	 */
+	public TestShardPartitioner(Map/*<String, Double>*/ durations) {
+		fDurations= durations;
+	}
+
+	/**
+	 * Distributes the given test classes to the given number of shards. The classes
+	 * with the longest durations are distributed first, each to the shard with the
+	 * smallest total duration so far. The classes of a shard keep their order.
+	 *
+	 * @param types the test classes
+	 * @param shardCount the number of shards
+	 * @return the test classes of each shard, no shard is empty
+	 */
+	public IType[][] partition(IType[] types, int shardCount) {
+		shardCount= Math.min(shardCount, types.length);
+		final double[] durations= new double[types.length];
+		double knownDurations= 0;
+		int knownCount= 0;
+		for (int i= 0; i < types.length; i++) {
+			Double duration= (Double) fDurations.get(types[i].getFullyQualifiedName('.'));
+			if (duration != null) {
+				durations[i]= duration.doubleValue();
+				knownDurations+= durations[i];
+				knownCount++;
+			} else {
+				durations[i]= Double.NaN;
+			}
+		}
+		// classes which haven't run before are expected to take as long as the average class
+		double defaultDuration= knownCount > 0 ? knownDurations / knownCount : DEFAULT_DURATION;
+		Integer[] order= new Integer[types.length];
+		for (int i= 0; i < types.length; i++) {
+			if (Double.isNaN(durations[i]))
+				durations[i]= defaultDuration;
+			order[i]= new Integer(i);
+		}
+		Arrays.sort(order, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				return Double.compare(durations[((Integer) o2).intValue()], durations[((Integer) o1).intValue()]);
+			}
+		});
+
+		List[] shards= new List[shardCount];
+		double[] loads= new double[shardCount];
+		for (int i= 0; i < shardCount; i++)
+			shards[i]= new ArrayList();
+		for (int i= 0; i < order.length; i++) {
+			int index= order[i].intValue();
+			int shard= 0;
+			for (int j= 1; j < shardCount; j++) {
+				if (loads[j] < loads[shard])
+					shard= j;
+			}
+			shards[shard].add(order[i]);
+			loads[shard]+= durations[index];
+		}
+
+		IType[][] result= new IType[shardCount][];
+		for (int i= 0; i < shardCount; i++) {
+			Collections.sort(shards[i]);
+			result[i]= new IType[shards[i].size()];
+			for (int j= 0; j < result[i].length; j++)
+				result[i][j]= types[((Integer) shards[i].get(j)).intValue()];
+		}
+		return result;
+	}
+}
@@ -58,6 +58,10 @@ public interface IXMLTags {
 	 * value: Boolean
 	 */
 	public static final String ATTR_IGNORED= "ignored"; //$NON-NLS-1$
+	/**
+	 * value: Integer, the number of skipped tests of a suite in Ant's 'junitreport' files
+	 */
+	public static final String ATTR_SKIPPED= "skipped"; //$NON-NLS-1$
 	/**
 	 * value: String
 	 */
@@ -12,16 +12,23 @@
 
 package org.eclipse.jdt.internal.junit.model;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.StringTokenizer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
@@ -37,6 +44,7 @@ import javax.xml.transform.stream.StreamResult;
 
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import org.eclipse.jdt.junit.TestRunListener;
 
@@ -119,16 +127,25 @@ public final class JUnitModel {
 			if (portStr == null)
 				return;
 			try {
-				final int port= Integer.parseInt(portStr);
+				int[] ports;
+				String shardPortsStr= launch.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_PORTS);
+				if (shardPortsStr != null) {
+					StringTokenizer tokenizer= new StringTokenizer(shardPortsStr, ","); //$NON-NLS-1$
+					ports= new int[tokenizer.countTokens()];
+					for (int i= 0; i < ports.length; i++)
+						ports[i]= Integer.parseInt(tokenizer.nextToken());
+				} else {
+					ports= new int[] { Integer.parseInt(portStr) };
+				}
 				fTrackedLaunches.remove(launch);
-				connectTestRunner(launch, javaProject, port);
+				connectTestRunner(launch, javaProject, ports);
 			} catch (NumberFormatException e) {
 				return;
 			}
 		}
 
-		private void connectTestRunner(ILaunch launch, IJavaProject javaProject, int port) {
-			TestRunSession testRunSession= new TestRunSession(launch, javaProject, port);
+		private void connectTestRunner(ILaunch launch, IJavaProject javaProject, int[] ports) {
+			TestRunSession testRunSession= new TestRunSession(launch, javaProject, ports);
 			addTestRunSession(testRunSession);
 			
 			Object[] listeners= JUnitCorePlugin.getDefault().getNewTestRunListeners().getListeners();
@@ -236,6 +253,7 @@ public final class JUnitModel {
 	 */
 	private final LinkedList/*<TestRunSession>*/ fTestRunSessions= new LinkedList();
 	private final ILaunchListener fLaunchListener= new JUnitLaunchListener();
+	private final TestHistory fTestHistory= new TestHistory();
 
 	/**
 	 * Starts the model (called by the {@link JUnitCorePlugin} on startup).
@@ -282,6 +300,8 @@ public final class JUnitModel {
 		ILaunchManager launchManager= DebugPlugin.getDefault().getLaunchManager();
 		launchManager.removeLaunchListener(fLaunchListener);
 
+		fTestHistory.save();
+
 		File historyDirectory= JUnitCorePlugin.getHistoryDirectory();
 		File[] swapFiles= historyDirectory.listFiles();
 		if (swapFiles != null) {
@@ -304,6 +324,13 @@ public final class JUnitModel {
 	}
 
 
+	/**
+	 * @return the durations and outcomes of the tests of past test runs
+	 */
+	public TestHistory getTestHistory() {
+		return fTestHistory;
+	}
+
 	public void addTestRunSessionListener(ITestRunSessionListener listener) {
 		fTestRunSessionListeners.add(listener);
 	}
@@ -358,7 +385,11 @@ public final class JUnitModel {
 	}
 
 	/**
-	 * Imports a test run session from the given file.
+	 * Imports a test run session from the given file. The file can be compressed with gzip.
+	 * <p>
+	 * Only the name and the counters of the test run are read up front. The file is copied
+	 * to the history directory, and the tests are read from the copy when they are accessed first.
+	 * </p>
 	 *
 	 * @param file a file containing a test run session transcript
 	 * @return the imported test run session
@@ -366,12 +397,21 @@ public final class JUnitModel {
 	 */
 	public static TestRunSession importTestRunSession(File file) throws CoreException {
 		try {
-			SAXParserFactory parserFactory= SAXParserFactory.newInstance();
-//			parserFactory.setValidating(true); // TODO: add DTD and debug flag
-			SAXParser parser= parserFactory.newSAXParser();
-			TestRunHandler handler= new TestRunHandler();
-			parser.parse(file, handler);
-			TestRunSession session= handler.getTestRunSession();
+			TestRunSession session;
+			TestRunSummaryHandler summaryHandler= new TestRunSummaryHandler();
+			try {
+				parse(file, summaryHandler);
+			} catch (TestRunSummaryHandler.StopParsingException e) {
+				// summary is complete
+			}
+			if (summaryHandler.hasSummary()) {
+				session= summaryHandler.createTestRunSession();
+				session.setTranscript(file);
+			} else {
+				TestRunHandler handler= new TestRunHandler();
+				parse(file, handler);
+				session= handler.getTestRunSession();
+			}
 			JUnitCorePlugin.getModel().addTestRunSession(session);
 			return session;
 		} catch (ParserConfigurationException e) {
@@ -383,6 +423,9 @@ public final class JUnitModel {
 		} catch (IllegalArgumentException e) {
 			// Bug in parser: can throw IAE even if file is not null
 			throwImportError(file, e);
+		} catch (IllegalStateException e) {
+			// no history directory to copy the transcript to
+			throwImportError(file, e);
 		}
 		return null; // does not happen
 	}
@@ -411,7 +454,14 @@ public final class JUnitModel {
 					SAXParserFactory parserFactory= SAXParserFactory.newInstance();
 //					parserFactory.setValidating(true); // TODO: add DTD and debug flag
 					SAXParser parser= parserFactory.newSAXParser();
-					parser.parse(trimmedUrl, handler);
+					InputStream in= openTranscript(new URL(trimmedUrl).openStream());
+					try {
+						InputSource source= new InputSource(in);
+						source.setSystemId(trimmedUrl);
+						parser.parse(source, handler);
+					} finally {
+						in.close();
+					}
 					session[0]= handler.getTestRunSession();
 				} catch (OperationCanceledException e) {
 					// canceled
@@ -456,11 +506,7 @@ public final class JUnitModel {
 
 	public static void importIntoTestRunSession(File swapFile, TestRunSession testRunSession) throws CoreException {
 		try {
-			SAXParserFactory parserFactory= SAXParserFactory.newInstance();
-//			parserFactory.setValidating(true); // TODO: add DTD and debug flag
-			SAXParser parser= parserFactory.newSAXParser();
-			TestRunHandler handler= new TestRunHandler(testRunSession);
-			parser.parse(swapFile, handler);
+			parse(swapFile, new TestRunHandler(testRunSession));
 		} catch (ParserConfigurationException e) {
 			throwImportError(swapFile, e);
 		} catch (SAXException e) {
@@ -474,16 +520,60 @@ public final class JUnitModel {
 	}
 
 	/**
-	 * Exports the given test run session.
+	 * Parses a test run session transcript, which can be compressed with gzip.
+	 *
+	 * @param file the transcript
+	 * @param handler the handler
+	 * @throws ParserConfigurationException if no parser is available
+	 * @throws SAXException if the transcript is malformed
+	 * @throws IOException if the transcript could not be read
+	 */
+	private static void parse(File file, DefaultHandler handler) throws ParserConfigurationException, SAXException, IOException {
+		SAXParserFactory parserFactory= SAXParserFactory.newInstance();
+//		parserFactory.setValidating(true); // TODO: add DTD and debug flag
+		SAXParser parser= parserFactory.newSAXParser();
+		InputStream in= openTranscript(new FileInputStream(file));
+		try {
+			InputSource source= new InputSource(in);
+			source.setSystemId(file.toURI().toString());
+			parser.parse(source, handler);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Returns a stream of the uncompressed transcript, decompressing it on the fly
+	 * if it is compressed with gzip.
+	 *
+	 * @param in the stream of the transcript
+	 * @return the stream of the uncompressed transcript
+	 * @throws IOException if the stream could not be read
+	 */
+	private static InputStream openTranscript(InputStream in) throws IOException {
+		BufferedInputStream buffered= new BufferedInputStream(in);
+		buffered.mark(2);
+		int magic= buffered.read() | (buffered.read() << 8);
+		buffered.reset();
+		if (magic == GZIPInputStream.GZIP_MAGIC)
+			return new GZIPInputStream(buffered);
+		return buffered;
+	}
+
+	/**
+	 * Exports the given test run session. If the name of the file ends with
+	 * <code>.gz</code>, the transcript is compressed with gzip.
 	 *
 	 * @param testRunSession the test run session
 	 * @param file the destination
 	 * @throws CoreException if an error occurred
 	 */
 	public static void exportTestRunSession(TestRunSession testRunSession, File file) throws CoreException {
-		FileOutputStream out= null;
+		OutputStream out= null;
 		try {
 			out= new FileOutputStream(file);
+			if (file.getName().endsWith(".gz")) //$NON-NLS-1$
+				out= new GZIPOutputStream(out);
             exportTestRunSession(testRunSession, out);
 
 		} catch (IOException e) {
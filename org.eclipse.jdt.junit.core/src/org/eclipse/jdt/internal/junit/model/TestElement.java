@@ -261,6 +261,7 @@ public abstract class TestElement implements ITestElement {
 	}
 
 	public void setStatus(Status status) {
+		Status oldStatus= getStatus();
 		if (status == Status.RUNNING) {
 			fTime= - System.currentTimeMillis() / 1000d ;
 		} else if (status.convertToProgressState() == ProgressState.COMPLETED) {
@@ -273,7 +274,7 @@ public abstract class TestElement implements ITestElement {
 		fStatus= status;
 		TestSuiteElement parent= getParent();
 		if (parent != null)
-			parent.childChangedStatus(this, status);
+			parent.childChangedStatus(this, oldStatus, status);
 	}
 
 	public void setStatus(Status status, String trace, String expected, String actual) {
@@ -317,7 +318,7 @@ public abstract class TestElement implements ITestElement {
 		return extractClassName(getTestName());
 	}
 
-	private static String extractClassName(String testNameString) {
+	static String extractClassName(String testNameString) {
 		testNameString= extractRawClassName(testNameString);
 		testNameString= testNameString.replace('$', '.'); // see bug 178503
 		return testNameString;
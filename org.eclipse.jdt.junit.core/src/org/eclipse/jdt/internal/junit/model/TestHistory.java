@@ -0,0 +1,369 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.junit.model.ITestElement;
+import org.eclipse.jdt.junit.model.ITestElement.Result;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
+import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
+
+/**
+ * The durations and outcomes of the tests of past test runs, keyed by test name.
+ * <p>
+ * For every test, the history keeps a moving average of the duration and of the
+ * failure rate, so that recent runs weigh more than old ones. The history is updated
+ * whenever a test run session ends or is stopped and is stored in the plug-in's state location
+ * when the model is stopped.
+ * </p>
+ *
+ * @since 3.8
+ */
+public final class TestHistory {
+
+	private static final String HISTORY_FILE_NAME= "testHistory.txt"; //$NON-NLS-1$
+	private static final String ENCODING= "UTF-8"; //$NON-NLS-1$
+
+	/**
+	 * Maximum number of tests in the history, the tests which haven't run for the
+	 * longest time are removed first
+	 */
+	private static final int MAX_ENTRIES= 50000;
+
+	/**
+	 * Weight of the latest run in the moving averages
+	 */
+	private static final double WEIGHT= 0.3d;
+
+	private static final class Entry {
+		double fDuration;
+		double fFailureRate;
+		int fRunCount;
+
+		void add(double duration, boolean failed) {
+			double failure= failed ? 1.0d : 0.0d;
+			if (fRunCount == 0) {
+				fDuration= duration;
+				fFailureRate= failure;
+			} else {
+				fDuration= WEIGHT * duration + (1.0d - WEIGHT) * fDuration;
+				fFailureRate= WEIGHT * failure + (1.0d - WEIGHT) * fFailureRate;
+			}
+			fRunCount++;
+		}
+	}
+
+	/**
+	 * Maps test names to their {@link Entry}, least recently run first. Entries are
+	 * moved to the end when a run is recorded, but not when they are looked up.
+	 */
+	private final LinkedHashMap/*<String, Entry>*/ fEntries;
+	private final File fHistoryFile;
+	private boolean fLoaded;
+	private boolean fDirty;
+
+	public TestHistory() {
+		this(null, MAX_ENTRIES);
+	}
+
+	/**
+	 * @param historyFile the file to load and save the history, or <code>null</code> to
+	 * use the file in the plug-in's state location
+	 * @param maxEntries the maximum number of tests in the history
+	 */
+	public TestHistory(File historyFile, final int maxEntries) {
+		fHistoryFile= historyFile;
+		fEntries= new LinkedHashMap() {
+			private static final long serialVersionUID= 1L;
+
+			protected boolean removeEldestEntry(Map.Entry eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Returns the average duration of the given test.
+	 *
+	 * @param testName the name of the test, see {@link TestElement#getTestName()}
+	 * @return the duration in seconds, or {@link Double#NaN} if the test hasn't run yet
+	 */
+	public synchronized double getDuration(String testName) {
+		Entry entry= getEntry(testName);
+		return entry != null ? entry.fDuration : Double.NaN;
+	}
+
+	/**
+	 * Returns the probability that the given test fails, estimated from its past runs.
+	 *
+	 * @param testName the name of the test, see {@link TestElement#getTestName()}
+	 * @return the failure rate between 0 and 1, or {@link Double#NaN} if the test hasn't run yet
+	 */
+	public synchronized double getFailureRate(String testName) {
+		Entry entry= getEntry(testName);
+		return entry != null ? entry.fFailureRate : Double.NaN;
+	}
+
+	/**
+	 * @param testName the name of the test, see {@link TestElement#getTestName()}
+	 * @return the number of recorded runs of the given test
+	 */
+	public synchronized int getRunCount(String testName) {
+		Entry entry= getEntry(testName);
+		return entry != null ? entry.fRunCount : 0;
+	}
+
+	/**
+	 * Returns the durations of the test classes, i.e. the sums of the average durations of their tests.
+	 *
+	 * @return a map from class names to durations in seconds (<code>Double</code>)
+	 */
+	public synchronized Map/*<String, Double>*/ getClassDurations() {
+		load();
+		Map durations= new HashMap();
+		for (Iterator iter= fEntries.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry mapEntry= (Map.Entry) iter.next();
+			String className= TestElement.extractClassName((String) mapEntry.getKey());
+			double duration= ((Entry) mapEntry.getValue()).fDuration;
+			Double sum= (Double) durations.get(className);
+			durations.put(className, new Double(sum != null ? sum.doubleValue() + duration : duration));
+		}
+		return durations;
+	}
+
+	/**
+	 * Returns the names of all tests in the history, in the given order.
+	 *
+	 * @param order {@link JUnitLaunchConfigurationConstants#TEST_ORDER_FAILURES_FIRST} to order the tests by
+	 * decreasing failure rate and then by increasing duration, or {@link JUnitLaunchConfigurationConstants#TEST_ORDER_SLOWEST_FIRST}
+	 * to order them by decreasing duration
+	 * @return the test names
+	 */
+	public synchronized String[] getPrioritizedTestNames(String order) {
+		load();
+		final boolean failuresFirst= JUnitLaunchConfigurationConstants.TEST_ORDER_FAILURES_FIRST.equals(order);
+		final Map.Entry[] entries= (Map.Entry[]) fEntries.entrySet().toArray(new Map.Entry[fEntries.size()]);
+		Arrays.sort(entries, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				Entry e1= (Entry) ((Map.Entry) o1).getValue();
+				Entry e2= (Entry) ((Map.Entry) o2).getValue();
+				if (failuresFirst) {
+					int result= Double.compare(e2.fFailureRate, e1.fFailureRate);
+					if (result != 0)
+						return result;
+					return Double.compare(e1.fDuration, e2.fDuration);
+				}
+				return Double.compare(e2.fDuration, e1.fDuration);
+			}
+		});
+		String[] names= new String[entries.length];
+		for (int i= 0; i < entries.length; i++)
+			names[i]= (String) entries[i].getKey();
+		return names;
+	}
+
+	/**
+	 * Returns the names of the classes of the tests in the history, in the order of
+	 * their first test in {@link #getPrioritizedTestNames(String)}.
+	 *
+	 * @param order the test order, see {@link #getPrioritizedTestNames(String)}
+	 * @return the class names
+	 */
+	public List/*<String>*/ getPrioritizedClassNames(String order) {
+		String[] testNames= getPrioritizedTestNames(order);
+		LinkedHashMap classNames= new LinkedHashMap();
+		for (int i= 0; i < testNames.length; i++)
+			classNames.put(TestElement.extractClassName(testNames[i]), null);
+		return new ArrayList(classNames.keySet());
+	}
+
+	/**
+	 * Writes the names of the tests of the given classes in the given order to a
+	 * temporary file, one name per line.
+	 *
+	 * @param order the test order, see {@link #getPrioritizedTestNames(String)}
+	 * @param classNames the names of the test classes of the launch (<code>String</code>)
+	 * @return the file, or <code>null</code> if none of the tests is in the history
+	 * @throws CoreException if the file could not be written
+	 */
+	public File createPrioritiesFile(String order, Set/*<String>*/ classNames) throws CoreException {
+		String[] testNames= getPrioritizedTestNames(order);
+		List names= new ArrayList();
+		for (int i= 0; i < testNames.length; i++) {
+			if (classNames.contains(TestElement.extractClassName(testNames[i])))
+				names.add(testNames[i]);
+		}
+		if (names.isEmpty())
+			return null;
+		try {
+			File file= File.createTempFile("testPriorities", ".txt"); //$NON-NLS-1$ //$NON-NLS-2$
+			file.deleteOnExit();
+			Writer writer= new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), ENCODING));
+			try {
+				for (Iterator iter= names.iterator(); iter.hasNext();) {
+					writer.write((String) iter.next());
+					writer.write('\n');
+				}
+			} finally {
+				writer.close();
+			}
+			return file;
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, JUnitCorePlugin.CORE_PLUGIN_ID, IStatus.ERROR, "", e)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Adds the durations and outcomes of the tests of a finished test run to the history.
+	 *
+	 * @param session the test run session
+	 */
+	public synchronized void addSession(TestRunSession session) {
+		load();
+		record(session.getTestRoot());
+	}
+
+	private void record(ITestElement element) {
+		if (element instanceof TestCaseElement) {
+			TestCaseElement testCase= (TestCaseElement) element;
+			double time= testCase.getElapsedTimeInSeconds();
+			Result result= testCase.getTestResult(false);
+			if (Double.isNaN(time) || !(result == Result.OK || result == Result.ERROR || result == Result.FAILURE))
+				return;
+			addRun(testCase.getTestName(), time, result != Result.OK);
+		} else if (element instanceof TestSuiteElement) {
+			ITestElement[] children= ((TestSuiteElement) element).getChildren();
+			for (int i= 0; i < children.length; i++)
+				record(children[i]);
+		}
+	}
+
+	/**
+	 * Adds a run of the given test to the history.
+	 *
+	 * @param testName the name of the test, see {@link TestElement#getTestName()}
+	 * @param duration the duration of the run in seconds
+	 * @param failed whether the test failed or had an error
+	 */
+	public synchronized void addRun(String testName, double duration, boolean failed) {
+		load();
+		// remove first, so that the test becomes the most recently run one
+		Entry entry= (Entry) fEntries.remove(testName);
+		if (entry == null)
+			entry= new Entry();
+		entry.add(duration, failed);
+		fEntries.put(testName, entry);
+		fDirty= true;
+	}
+
+	private Entry getEntry(String testName) {
+		load();
+		return (Entry) fEntries.get(testName);
+	}
+
+	private File getHistoryFile() {
+		if (fHistoryFile != null)
+			return fHistoryFile;
+		return JUnitCorePlugin.getDefault().getStateLocation().append(HISTORY_FILE_NAME).toFile();
+	}
+
+	/**
+	 * Reads the history file, unless it has been read already.
+	 */
+	private void load() {
+		if (fLoaded)
+			return;
+		fLoaded= true;
+		File file= getHistoryFile();
+		if (!file.isFile())
+			return;
+		try {
+			BufferedReader reader= new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING));
+			try {
+				String line;
+				while ((line= reader.readLine()) != null) {
+					// <duration>\t<failure rate>\t<run count>\t<test name>
+					int first= line.indexOf('\t');
+					int second= line.indexOf('\t', first + 1);
+					int third= line.indexOf('\t', second + 1);
+					if (first == -1 || second == -1 || third == -1)
+						continue;
+					Entry entry= new Entry();
+					try {
+						entry.fDuration= Double.parseDouble(line.substring(0, first));
+						entry.fFailureRate= Double.parseDouble(line.substring(first + 1, second));
+						entry.fRunCount= Integer.parseInt(line.substring(second + 1, third));
+					} catch (NumberFormatException e) {
+						continue;
+					}
+					fEntries.put(line.substring(third + 1), entry);
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			JUnitCorePlugin.log(e);
+		}
+	}
+
+	/**
+	 * Writes the history file if the history has changed.
+	 */
+	public synchronized void save() {
+		if (!fDirty)
+			return;
+		try {
+			Writer writer= new BufferedWriter(new OutputStreamWriter(new FileOutputStream(getHistoryFile()), ENCODING));
+			try {
+				for (Iterator iter= fEntries.entrySet().iterator(); iter.hasNext();) {
+					Map.Entry mapEntry= (Map.Entry) iter.next();
+					Entry entry= (Entry) mapEntry.getValue();
+					writer.write(String.valueOf((float) entry.fDuration));
+					writer.write('\t');
+					writer.write(String.valueOf((float) entry.fFailureRate));
+					writer.write('\t');
+					writer.write(String.valueOf(entry.fRunCount));
+					writer.write('\t');
+					writer.write((String) mapEntry.getKey());
+					writer.write('\n');
+				}
+			} finally {
+				writer.close();
+			}
+			fDirty= false;
+		} catch (IOException e) {
+			JUnitCorePlugin.log(e);
+		}
+	}
+}
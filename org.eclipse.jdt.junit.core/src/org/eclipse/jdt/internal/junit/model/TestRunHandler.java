@@ -121,6 +121,10 @@ public class TestRunHandler extends DefaultHandler {
 				// support standalone suites and Ant's 'junitreport' task:
 				fTestRunSession= new TestRunSession(name, null);
 				fTestSuite= fTestRunSession.getTestRoot();
+			} else if (fTestSuite == null) {
+				// reading the tests of an imported standalone suite or 'junitreport' file
+				fTestRunSession.reset();
+				fTestSuite= fTestRunSession.getTestRoot();
 			}
 
 			String pack= attributes.getValue(IXMLTags.ATTR_PACKAGE);
@@ -40,6 +40,7 @@ public class TestRunListenerAdapter implements ITestSessionListener {
 	}
 
 	private void fireSessionFinished() {
+		JUnitCorePlugin.getModel().getTestHistory().addSession(fSession);
 		Object[] listeners= getListeners();
 		for (int i= 0; i < listeners.length; i++) {
 			((TestRunListener) listeners[i]).sessionFinished(fSession);
@@ -12,6 +12,11 @@
 package org.eclipse.jdt.internal.junit.model;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -67,9 +72,9 @@ public class TestRunSession implements ITestRunSession {
 	private final ITestKind fTestRunnerKind;
 
 	/**
-	 * Test runner client or <code>null</code>.
+	 * Test runner clients, one per runner VM, or <code>null</code>.
 	 */
-	private RemoteTestRunnerClient fTestRunnerClient;
+	private RemoteTestRunnerClient[] fTestRunnerClients;
 
 	private final ListenerList/*<ITestSessionListener>*/ fSessionListeners;
 
@@ -83,6 +88,12 @@ public class TestRunSession implements ITestRunSession {
 	 */
 	private Result fTestResult;
 
+	/**
+	 * Whether the swap file is a copy of an imported transcript. The tests don't have to be
+	 * exported when they are swapped out, since they can be read from the copy again.
+	 */
+	private boolean fSwapFileIsTranscript;
+
 	/**
 	 * Map from testId to testElement.
 	 */
@@ -151,13 +162,68 @@ public class TestRunSession implements ITestRunSession {
 		fTestRoot= new TestRoot(this);
 		fIdToTest= new HashMap();
 
-		fTestRunnerClient= null;
+		fTestRunnerClients= null;
+
+		fSessionListeners= new ListenerList();
+	}
+
+	/**
+	 * Creates a test run session for an imported transcript. Only the counters are known
+	 * up front, the tests are read from the transcript when they are accessed first,
+	 * see {@link #setTranscript(File)}.
+	 *
+	 * @param testRunName name of the test run
+	 * @param project may be <code>null</code>
+	 * @param totalCount the total number of tests
+	 * @param startedCount the number of started tests
+	 * @param failureCount the number of failures
+	 * @param errorCount the number of errors
+	 * @param ignoredCount the number of ignored tests
+	 * @since 3.8
+	 */
+	public TestRunSession(String testRunName, IJavaProject project, int totalCount, int startedCount, int failureCount, int errorCount, int ignoredCount) {
+		fLaunch= null;
+		fProject= project;
+		fStartTime= -System.currentTimeMillis();
+
+		Assert.isNotNull(testRunName);
+		fTestRunName= testRunName;
+		fTestRunnerKind= ITestKind.NULL;
+
+		fTestRoot= null;
+		fIdToTest= new HashMap();
+		fTotalCount= totalCount;
+		fStartedCount= startedCount;
+		fFailureCount= failureCount;
+		fErrorCount= errorCount;
+		fIgnoredCount= ignoredCount;
+		if (errorCount > 0)
+			fTestResult= Result.ERROR;
+		else if (failureCount > 0)
+			fTestResult= Result.FAILURE;
+		else
+			fTestResult= Result.OK;
+
+		fTestRunnerClients= null;
 
 		fSessionListeners= new ListenerList();
 	}
 
 
 	public TestRunSession(ILaunch launch, IJavaProject project, int port) {
+		this(launch, project, new int[] { port });
+	}
+
+	/**
+	 * Creates a test run session for a launch whose tests are distributed to one
+	 * runner VM per port. The results of all runner VMs are merged into this session.
+	 *
+	 * @param launch the launch
+	 * @param project the launched project
+	 * @param ports the ports the runner VMs connect to
+	 * @since 3.8
+	 */
+	public TestRunSession(ILaunch launch, IJavaProject project, int[] ports) {
 		Assert.isNotNull(launch);
 
 		fLaunch= launch;
@@ -175,24 +241,29 @@ public class TestRunSession implements ITestRunSession {
 		fTestRoot= new TestRoot(this);
 		fIdToTest= new HashMap();
 
-		fTestRunnerClient= new RemoteTestRunnerClient();
-		fTestRunnerClient.startListening(new ITestRunListener2[] { new TestSessionNotifier() }, port);
+		fTestRunnerClients= new RemoteTestRunnerClient[ports.length];
+		ShardedTestRunNotifier shardedNotifier= ports.length > 1 ? new ShardedTestRunNotifier(ports.length) : null;
+		for (int i= 0; i < ports.length; i++) {
+			ITestRunListener2 notifier;
+			if (shardedNotifier != null)
+				notifier= new ShardNotifier(shardedNotifier, i);
+			else
+				notifier= new TestSessionNotifier();
+			fTestRunnerClients[i]= new RemoteTestRunnerClient();
+			fTestRunnerClients[i].startListening(new ITestRunListener2[] { notifier }, ports[i]);
+		}
 
 		final ILaunchManager launchManager= DebugPlugin.getDefault().getLaunchManager();
 		launchManager.addLaunchListener(new ILaunchesListener2() {
 			public void launchesTerminated(ILaunch[] launches) {
 				if (Arrays.asList(launches).contains(fLaunch)) {
-					if (fTestRunnerClient != null) {
-						fTestRunnerClient.stopWaiting();
-					}
+					stopWaiting();
 					launchManager.removeLaunchListener(this);
 				}
 			}
 			public void launchesRemoved(ILaunch[] launches) {
 				if (Arrays.asList(launches).contains(fLaunch)) {
-					if (fTestRunnerClient != null) {
-						fTestRunnerClient.stopWaiting();
-					}
+					stopWaiting();
 					launchManager.removeLaunchListener(this);
 				}
 			}
@@ -206,6 +277,14 @@ public class TestRunSession implements ITestRunSession {
 		addTestSessionListener(new TestRunListenerAdapter(this));
 	}
 
+	private void stopWaiting() {
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null) {
+			for (int i= 0; i < clients.length; i++)
+				clients[i].stopWaiting();
+		}
+	}
+
 	void reset() {
 		fStartedCount= 0;
 		fFailureCount= 0;
@@ -353,12 +432,13 @@ public class TestRunSession implements ITestRunSession {
 		}
 
 		try {
-			File swapFile= getSwapFile();
-
-			JUnitModel.exportTestRunSession(this, swapFile);
+			if (!fSwapFileIsTranscript) {
+				File swapFile= getSwapFile();
+				JUnitModel.exportTestRunSession(this, swapFile);
+			} // else: the tests can be read from the copy of the transcript again
 			fTestResult= fTestRoot.getTestResult(true);
 			fTestRoot= null;
-			fTestRunnerClient= null;
+			fTestRunnerClients= null;
 			fIdToTest= new HashMap();
 			fIncompleteTestSuites= null;
 			fUnrootedSuite= null;
@@ -381,6 +461,37 @@ public class TestRunSession implements ITestRunSession {
 			swapFile.delete();
 	}
 
+	/**
+	 * Copies the given transcript to the history directory. The tests are read from the copy
+	 * when they are accessed first, so that later changes of the transcript don't affect the session.
+	 *
+	 * @param transcript the imported transcript, can be compressed with gzip
+	 * @throws IOException if the transcript could not be copied
+	 * @throws IllegalStateException if the history directory is not available
+	 * @since 3.8
+	 */
+	void setTranscript(File transcript) throws IOException, IllegalStateException {
+		File swapFile= getSwapFile();
+		InputStream in= new FileInputStream(transcript);
+		try {
+			OutputStream out= new FileOutputStream(swapFile);
+			try {
+				byte[] buffer= new byte[8192];
+				int read;
+				while ((read= in.read(buffer)) != -1)
+					out.write(buffer, 0, read);
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			swapFile.delete();
+			throw e;
+		} finally {
+			in.close();
+		}
+		fSwapFileIsTranscript= true;
+	}
+
 	private File getSwapFile() throws IllegalStateException {
 		File historyDir= JUnitCorePlugin.getHistoryDirectory();
 		String isoTime= new SimpleDateFormat("yyyyMMdd-HHmmss.SSS").format(new Date(getStartTime())); //$NON-NLS-1$
@@ -409,17 +520,22 @@ public class TestRunSession implements ITestRunSession {
 	public void stopTestRun() {
 		if (isRunning() || ! isKeptAlive())
 			fIsStopped= true;
-		if (fTestRunnerClient != null)
-			fTestRunnerClient.stopTest();
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null) {
+			for (int i= 0; i < clients.length; i++)
+				clients[i].stopTest();
+		}
 	}
 
 	/**
 	 * @return <code>true</code> iff the runtime VM of this test session is still alive
 	 */
 	public boolean isKeptAlive() {
-		if (fTestRunnerClient != null
+		RemoteTestRunnerClient[] clients= fTestRunnerClients;
+		if (clients != null
+				&& clients.length == 1 // sharded test runs are never kept alive
 				&& fLaunch != null
-				&& fTestRunnerClient.isRunning()
+				&& clients[0].isRunning()
 				&& ILaunchManager.DEBUG_MODE.equals(fLaunch.getLaunchMode())) {
 			ILaunchConfiguration config= fLaunch.getLaunchConfiguration();
 			try {
@@ -460,7 +576,7 @@ public class TestRunSession implements ITestRunSession {
 			} else if (status == Status.FAILURE) {
 				fFailureCount--;
 			}
-			fTestRunnerClient.rerunTest(testId, className, testName);
+			fTestRunnerClients[0].rerunTest(testId, className, testName);
 			return true;
 
 		} else if (fLaunch != null) {
@@ -742,6 +858,126 @@ public class TestRunSession implements ITestRunSession {
 		}
 	}
 
+	/**
+	 * Merges the test run events of the runner VMs of a sharded test run: the session
+	 * starts with the first runner VM and ends when all runner VMs are done.
+	 * The events of all shards are sent to the session while holding the lock of this object.
+	 */
+	private class ShardedTestRunNotifier {
+		private final TestSessionNotifier fNotifier= new TestSessionNotifier();
+		private int fOpenShards;
+		private boolean fStarted;
+		private long fElapsedTime;
+		private boolean fStopped;
+		private boolean fTerminated;
+
+		public ShardedTestRunNotifier(int shardCount) {
+			fOpenShards= shardCount;
+		}
+
+		public void shardStarted(int testCount) {
+			if (!fStarted) {
+				fStarted= true;
+				fNotifier.testRunStarted(testCount);
+			} else {
+				fTotalCount+= testCount;
+			}
+		}
+
+		public void shardFinished(long elapsedTime, boolean stopped, boolean terminated) {
+			fElapsedTime= Math.max(fElapsedTime, elapsedTime);
+			fStopped|= stopped;
+			fTerminated|= terminated;
+			if (--fOpenShards > 0)
+				return;
+
+			if (fTerminated)
+				fNotifier.testRunTerminated();
+			else if (fStopped)
+				fNotifier.testRunStopped(fElapsedTime);
+			else
+				fNotifier.testRunEnded(fElapsedTime);
+		}
+	}
+
+	/**
+	 * Forwards the events of one runner VM of a sharded test run. The test IDs are
+	 * qualified with the shard, since every runner VM numbers its tests from 1.
+	 */
+	private class ShardNotifier implements ITestRunListener2 {
+		private final ShardedTestRunNotifier fRun;
+		private final String fIdPrefix;
+		/**
+		 * The TestSuites of this shard for which additional children are expected.
+		 */
+		private final List/*<IncompleteTestSuite>*/ fShardIncompleteTestSuites= new ArrayList();
+		private boolean fFinished;
+
+		public ShardNotifier(ShardedTestRunNotifier run, int shard) {
+			fRun= run;
+			fIdPrefix= String.valueOf(shard + 1) + ':';
+		}
+
+		public void testRunStarted(int testCount) {
+			synchronized (fRun) {
+				fRun.shardStarted(testCount);
+			}
+		}
+
+		public void testRunEnded(long elapsedTime) {
+			finished(elapsedTime, false, false);
+		}
+
+		public void testRunStopped(long elapsedTime) {
+			finished(elapsedTime, true, false);
+		}
+
+		public void testRunTerminated() {
+			finished(0, false, true);
+		}
+
+		private void finished(long elapsedTime, boolean stopped, boolean terminated) {
+			synchronized (fRun) {
+				// a runner VM which stops also closes the connection
+				if (fFinished)
+					return;
+				fFinished= true;
+				fRun.shardFinished(elapsedTime, stopped, terminated);
+			}
+		}
+
+		public void testTreeEntry(String description) {
+			synchronized (fRun) {
+				fIncompleteTestSuites= fShardIncompleteTestSuites;
+				fRun.fNotifier.testTreeEntry(fIdPrefix + description);
+			}
+		}
+
+		public void testStarted(String testId, String testName) {
+			synchronized (fRun) {
+				fRun.fNotifier.testStarted(fIdPrefix + testId, testName);
+			}
+		}
+
+		public void testEnded(String testId, String testName) {
+			synchronized (fRun) {
+				fRun.fNotifier.testEnded(fIdPrefix + testId, testName);
+			}
+		}
+
+		public void testFailed(int status, String testId, String testName, String trace, String expected, String actual) {
+			synchronized (fRun) {
+				fRun.fNotifier.testFailed(status, fIdPrefix + testId, testName, trace, expected, actual);
+			}
+		}
+
+		public void testReran(String testId, String testClass, String testName, int status, String trace, String expected, String actual) {
+			synchronized (fRun) {
+				fRun.fNotifier.testReran(fIdPrefix + testId, testClass, testName, status, trace, expected, actual);
+			}
+		}
+	}
+
 	private static class IncompleteTestSuite {
 		public TestSuiteElement fTestSuiteElement;
 		public int fOutstandingChildren;
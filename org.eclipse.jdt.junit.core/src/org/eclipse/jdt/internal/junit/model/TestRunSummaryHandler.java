@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.io.File;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.IJavaModel;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Reads the name and the counters of a test run from a test run session transcript,
+ * without creating test elements.
+ * <p>
+ * For transcripts written by {@link TestRunSessionSerializer}, only the root element is
+ * read and parsing is stopped by throwing a {@link StopParsingException}. For Ant's
+ * 'junitreport' files, the counters of the top-level suites are added up.
+ * </p>
+ *
+ * @since 3.8
+ */
+public class TestRunSummaryHandler extends DefaultHandler {
+
+	/**
+	 * Thrown to stop parsing as soon as the summary is known.
+	 */
+	public static final class StopParsingException extends SAXException {
+		private static final long serialVersionUID= 1L;
+
+		public StopParsingException() {
+			super("summary read"); //$NON-NLS-1$
+		}
+	}
+
+	private int fDepth;
+	private boolean fInTestSuites;
+
+	private String fName;
+	private String fProject;
+	private int fTotalCount;
+	private int fStartedCount;
+	private int fFailureCount;
+	private int fErrorCount;
+	private int fIgnoredCount;
+
+	public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+		fDepth++;
+		if (fDepth == 1) {
+			if (qName.equals(IXMLTags.NODE_TESTRUN)) {
+				fName= attributes.getValue(IXMLTags.ATTR_NAME);
+				fProject= attributes.getValue(IXMLTags.ATTR_PROJECT);
+				fTotalCount= getInt(attributes, IXMLTags.ATTR_TESTS);
+				fStartedCount= getInt(attributes, IXMLTags.ATTR_STARTED);
+				fFailureCount= getInt(attributes, IXMLTags.ATTR_FAILURES);
+				fErrorCount= getInt(attributes, IXMLTags.ATTR_ERRORS);
+				fIgnoredCount= getInt(attributes, IXMLTags.ATTR_IGNORED);
+				throw new StopParsingException();
+
+			} else if (qName.equals(IXMLTags.NODE_TESTSUITES)) {
+				fInTestSuites= true;
+
+			} else if (qName.equals(IXMLTags.NODE_TESTSUITE)) {
+				// standalone suite
+				addSuite(attributes);
+				throw new StopParsingException();
+			}
+
+		} else if (fDepth == 2 && fInTestSuites && qName.equals(IXMLTags.NODE_TESTSUITE)) {
+			addSuite(attributes);
+		}
+	}
+
+	public void endElement(String uri, String localName, String qName) throws SAXException {
+		fDepth--;
+	}
+
+	private void addSuite(Attributes attributes) {
+		if (fName == null)
+			fName= attributes.getValue(IXMLTags.ATTR_NAME); // like TestRunHandler
+		int tests= getInt(attributes, IXMLTags.ATTR_TESTS);
+		fTotalCount+= tests;
+		fStartedCount+= tests;
+		fFailureCount+= getInt(attributes, IXMLTags.ATTR_FAILURES);
+		fErrorCount+= getInt(attributes, IXMLTags.ATTR_ERRORS);
+		// skipped tests are ignored tests, see TestRunHandler
+		fIgnoredCount+= getInt(attributes, IXMLTags.ATTR_SKIPPED) + getInt(attributes, IXMLTags.ATTR_IGNORED);
+	}
+
+	private static int getInt(Attributes attributes, String name) {
+		String value= attributes.getValue(name);
+		if (value == null)
+			return 0;
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff a test run has been found
+	 */
+	public boolean hasSummary() {
+		return fName != null;
+	}
+
+	/**
+	 * Creates a test run session with the read summary. Its tests are read from the
+	 * transcript set with {@link TestRunSession#setTranscript(File)}.
+	 *
+	 * @return the test run session
+	 */
+	public TestRunSession createTestRunSession() {
+		IJavaProject javaProject= null;
+		if (fProject != null) {
+			IJavaModel javaModel= JavaCore.create(ResourcesPlugin.getWorkspace().getRoot());
+			javaProject= javaModel.getJavaProject(fProject);
+			if (! javaProject.exists())
+				javaProject= null;
+		}
+		return new TestRunSession(fName, javaProject, fTotalCount, fStartedCount, fFailureCount, fErrorCount, fIgnoredCount);
+	}
+}
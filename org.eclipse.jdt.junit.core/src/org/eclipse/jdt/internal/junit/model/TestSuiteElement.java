@@ -20,9 +20,20 @@ import org.eclipse.jdt.junit.model.ITestSuiteElement;
 
 public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 
+	/**
+	 * The statuses in the order of their {@link Status#getOldCode() codes}
+	 */
+	private static final Status[] STATUSES= { Status.OK, Status.ERROR, Status.FAILURE, Status.RUNNING, Status.NOT_RUN, Status.RUNNING_ERROR, Status.RUNNING_FAILURE };
+
 	private List/*<TestElement>*/ fChildren;
 	private Status fChildrenStatus;
 
+	/**
+	 * The number of children with each status, indexed by the {@link Status#getOldCode() codes}
+	 * of the statuses. Allows to cumulate the children's statuses without visiting all children.
+	 */
+	private final int[] fChildStatusCounts= new int[STATUSES.length];
+
 	public TestSuiteElement(TestSuiteElement parent, String id, String testName, int childrenCount) {
 		super(parent, id, testName);
 		fChildren= new ArrayList(childrenCount);
@@ -55,6 +66,7 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 
 	public void addChild(TestElement child) {
 		fChildren.add(child);
+		fChildStatusCounts[child.getStatus().getOldCode()]++;
 	}
 
 	public Status getStatus() {
@@ -68,15 +80,14 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 	}
 
 	private Status getCumulatedStatus() {
-		TestElement[] children= (TestElement[]) fChildren.toArray(new TestElement[fChildren.size()]); // copy list to avoid concurreny problems
-		if (children.length == 0)
+		if (fChildren.isEmpty())
 			return getSuiteStatus();
 
-		Status cumulated= children[0].getStatus();
-
-		for (int i= 1; i < children.length; i++) {
-			Status childStatus= children[i].getStatus();
-			cumulated= Status.combineStatus(cumulated, childStatus);
+		// combining is commutative and idempotent, so every status only needs to be combined once
+		Status cumulated= null;
+		for (int i= 0; i < STATUSES.length; i++) {
+			if (fChildStatusCounts[i] > 0)
+				cumulated= cumulated == null ? STATUSES[i] : Status.combineStatus(cumulated, STATUSES[i]);
 		}
 		// not necessary, see special code in Status.combineProgress()
 //		if (suiteStatus.isErrorOrFailure() && cumulated.isNotRun())
@@ -88,7 +99,17 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 		return super.getStatus();
 	}
 
-	public void childChangedStatus(TestElement child, Status childStatus) {
+	/**
+	 * Notifies this suite that the status of a child has changed.
+	 *
+	 * @param child the child
+	 * @param oldStatus the child's {@link TestElement#getStatus() status} before the change
+	 * @param childStatus the status which has been set
+	 */
+	public void childChangedStatus(TestElement child, Status oldStatus, Status childStatus) {
+		fChildStatusCounts[oldStatus.getOldCode()]--;
+		fChildStatusCounts[child.getStatus().getOldCode()]++;
+
 		int childCount= fChildren.size();
 		if (child == fChildren.get(0) && childStatus.isRunning()) {
 			// is first child, and is running -> copy status
@@ -141,10 +162,11 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 			}
 		}
 
+		Status oldStatus= getStatus();
 		fChildrenStatus= status;
 		TestSuiteElement parent= getParent();
 		if (parent != null)
-			parent.childChangedStatus(this, getStatus());
+			parent.childChangedStatus(this, oldStatus, getStatus());
 	}
 
 	public String toString() {
@@ -23,9 +23,12 @@ import java.net.URL;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.osgi.framework.Bundle;
 
@@ -57,6 +60,8 @@ import org.eclipse.jdt.internal.junit.launcher.ITestKind;
 import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
 import org.eclipse.jdt.internal.junit.launcher.JUnitRuntimeClasspathEntry;
 import org.eclipse.jdt.internal.junit.launcher.TestKindRegistry;
+import org.eclipse.jdt.internal.junit.launcher.TestShardPartitioner;
+import org.eclipse.jdt.internal.junit.model.TestHistory;
 import org.eclipse.jdt.internal.junit.util.CoreTestSearchEngine;
 import org.eclipse.jdt.internal.junit.util.IJUnitStatusConstants;
 
@@ -81,6 +86,7 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 	private boolean fKeepAlive= false;
 	private int fPort;
 	private IMember[] fTestElements;
+	private File fTestPrioritiesFile;
 
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.core.model.ILaunchConfigurationDelegate#launch(org.eclipse.debug.core.ILaunchConfiguration, java.lang.String, org.eclipse.debug.core.ILaunch, org.eclipse.core.runtime.IProgressMonitor)
@@ -119,10 +125,27 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			}
 
 			fKeepAlive= mode.equals(ILaunchManager.DEBUG_MODE) && configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_KEEPRUNNING, false);
-			fPort= evaluatePort();
-			launch.setAttribute(JUnitLaunchConfigurationConstants.ATTR_PORT, String.valueOf(fPort));
 
-			fTestElements= evaluateTests(configuration, new SubProgressMonitor(monitor, 1));
+			IMember[] testElements= evaluateTests(configuration, new SubProgressMonitor(monitor, 1));
+			String testOrder= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_ORDER, ""); //$NON-NLS-1$
+			if (testOrder.length() > 0) {
+				TestHistory history= JUnitCorePlugin.getModel().getTestHistory();
+				sortTests(testElements, history.getPrioritizedClassNames(testOrder));
+				fTestPrioritiesFile= history.createPrioritiesFile(testOrder, getClassNames(testElements));
+			}
+			IMember[][] shards= evaluateShards(configuration, mode, testElements);
+			int[] ports= evaluatePorts(shards.length);
+			if (shards.length > 1) {
+				StringBuffer shardPorts= new StringBuffer();
+				for (int i= 0; i < ports.length; i++) {
+					if (i > 0)
+						shardPorts.append(',');
+					shardPorts.append(ports[i]);
+				}
+				// must be known before the port, which makes the model connect to the launch
+				launch.setAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_PORTS, shardPorts.toString());
+			}
+			launch.setAttribute(JUnitLaunchConfigurationConstants.ATTR_PORT, String.valueOf(ports[0]));
 
 			String mainTypeName= verifyMainTypeName(configuration);
 			IVMRunner runner= getVMRunner(configuration, mode);
@@ -136,26 +159,34 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			// Environment variables
 			String[] envp= getEnvironment(configuration);
 
-			ArrayList vmArguments= new ArrayList();
-			ArrayList programArguments= new ArrayList();
-			collectExecutionArguments(configuration, vmArguments, programArguments);
-
 			// VM-specific attributes
 			Map vmAttributesMap= getVMSpecificAttributesMap(configuration);
 
 			// Classpath
 			String[] classpath= getClasspath(configuration);
 
-			// Create VM config
-			VMRunnerConfiguration runConfig= new VMRunnerConfiguration(mainTypeName, classpath);
-			runConfig.setVMArguments((String[]) vmArguments.toArray(new String[vmArguments.size()]));
-			runConfig.setProgramArguments((String[]) programArguments.toArray(new String[programArguments.size()]));
-			runConfig.setEnvironment(envp);
-			runConfig.setWorkingDirectory(workingDirName);
-			runConfig.setVMSpecificAttributesMap(vmAttributesMap);
-
 			// Bootpath
-			runConfig.setBootClassPath(getBootpath(configuration));
+			String[] bootpath= getBootpath(configuration);
+
+			// Create VM configs, one per runner VM
+			VMRunnerConfiguration[] runConfigs= new VMRunnerConfiguration[shards.length];
+			for (int i= 0; i < shards.length; i++) {
+				fPort= ports[i];
+				fTestElements= shards[i];
+
+				ArrayList vmArguments= new ArrayList();
+				ArrayList programArguments= new ArrayList();
+				collectExecutionArguments(configuration, vmArguments, programArguments);
+
+				VMRunnerConfiguration runConfig= new VMRunnerConfiguration(mainTypeName, classpath);
+				runConfig.setVMArguments((String[]) vmArguments.toArray(new String[vmArguments.size()]));
+				runConfig.setProgramArguments((String[]) programArguments.toArray(new String[programArguments.size()]));
+				runConfig.setEnvironment(envp);
+				runConfig.setWorkingDirectory(workingDirName);
+				runConfig.setVMSpecificAttributesMap(vmAttributesMap);
+				runConfig.setBootClassPath(bootpath);
+				runConfigs[i]= runConfig;
+			}
 
 			// check for cancellation
 			if (monitor.isCanceled()) {
@@ -171,7 +202,12 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			monitor.worked(1);
 
 			// Launch the configuration - 1 unit of work
-			runner.run(runConfig, launch, monitor);
+			for (int i= 0; i < runConfigs.length; i++) {
+				runner.run(runConfigs[i], launch, monitor);
+				if (monitor.isCanceled()) {
+					return;
+				}
+			}
 
 			// check for cancellation
 			if (monitor.isCanceled()) {
@@ -179,6 +215,7 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			}
 		} finally {
 			fTestElements= null;
+			fTestPrioritiesFile= null;
 			monitor.done();
 		}
 	}
@@ -191,6 +228,83 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 		return port;
 	}
 
+	private int[] evaluatePorts(int count) throws CoreException {
+		int[] ports= new int[count];
+		HashSet used= new HashSet();
+		for (int i= 0; i < count; i++) {
+			int port= evaluatePort();
+			// a port which has been returned for another runner VM may still be free
+			for (int attempts= 0; used.contains(new Integer(port)) && attempts < 10; attempts++)
+				port= evaluatePort();
+			if (used.contains(new Integer(port)))
+				abort(JUnitMessages.JUnitLaunchConfigurationDelegate_error_no_socket, null, IJavaLaunchConfigurationConstants.ERR_NO_SOCKET_AVAILABLE);
+			used.add(new Integer(port));
+			ports[i]= port;
+		}
+		return ports;
+	}
+
+	/**
+	 * Distributes the test elements to the runner VMs as specified by
+	 * {@link JUnitLaunchConfigurationConstants#ATTR_SHARD_COUNT}. Only test classes
+	 * are distributed, and only in run mode.
+	 *
+	 * @param configuration the launch configuration
+	 * @param mode the launch mode
+	 * @param testElements the test elements
+	 * @return the test elements of each runner VM
+	 * @throws CoreException if the configuration can't be read
+	 */
+	private IMember[][] evaluateShards(ILaunchConfiguration configuration, String mode, IMember[] testElements) throws CoreException {
+		int shardCount= configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_COUNT, 1);
+		if (shardCount <= 1 || testElements.length <= 1 || !ILaunchManager.RUN_MODE.equals(mode))
+			return new IMember[][] { testElements };
+
+		IType[] types= new IType[testElements.length];
+		for (int i= 0; i < testElements.length; i++) {
+			if (!(testElements[i] instanceof IType))
+				return new IMember[][] { testElements };
+			types[i]= (IType) testElements[i];
+		}
+		return new TestShardPartitioner().partition(types, shardCount);
+	}
+
+	private static Set/*<String>*/ getClassNames(IMember[] testElements) {
+		Set classNames= new HashSet();
+		for (int i= 0; i < testElements.length; i++) {
+			IType type= testElements[i] instanceof IType ? (IType) testElements[i] : testElements[i].getDeclaringType();
+			if (type != null)
+				classNames.add(type.getFullyQualifiedName('.'));
+		}
+		return classNames;
+	}
+
+	/**
+	 * Sorts the test classes in the order of the given class names. Classes which
+	 * aren't in the list come last, in their original order.
+	 *
+	 * @param testElements the test elements to sort
+	 * @param classNames the class names, see {@link TestHistory#getPrioritizedClassNames(String)}
+	 */
+	private static void sortTests(IMember[] testElements, List/*<String>*/ classNames) {
+		final Map ranks= new HashMap();
+		for (int i= 0; i < classNames.size(); i++)
+			ranks.put(classNames.get(i), new Integer(i));
+		Arrays.sort(testElements, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				return getRank(o1) - getRank(o2);
+			}
+			private int getRank(Object element) {
+				if (element instanceof IType) {
+					Integer rank= (Integer) ranks.get(((IType) element).getFullyQualifiedName('.'));
+					if (rank != null)
+						return rank.intValue();
+				}
+				return Integer.MAX_VALUE / 2;
+			}
+		});
+	}
+
 	/**
 	 * Performs a check on the launch configuration's attributes. If an attribute contains an invalid value, a {@link CoreException}
 	 * with the error is thrown.
@@ -324,6 +438,10 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			programArguments.add("-testfailures"); //$NON-NLS-1$
 			programArguments.add(testFailureNames);
 		}
+		if (fTestPrioritiesFile != null) {
+			programArguments.add("-testpriorities"); //$NON-NLS-1$
+			programArguments.add(fTestPrioritiesFile.getAbsolutePath());
+		}
 	}
 
 	private String createTestNamesFile(IMember[] testElements) throws CoreException {
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit.runner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Vector;
+
+import junit.extensions.TestDecorator;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Orders the tests of every suite by the rank of their names in a list of test names.
+ * A suite is ranked like its best ranked test. Tests which aren't in the list
+ * come last and keep their order.
+ */
+public class RankingPrioritizer implements ITestPrioritizer {
+
+	private static final int UNRANKED= Integer.MAX_VALUE;
+
+	private static class RankedTest implements Comparable {
+		final Test fTest;
+		final int fRank;
+
+		RankedTest(Test test, int rank) {
+			fTest= test;
+			fRank= rank;
+		}
+
+		public int compareTo(Object o) {
+			int otherRank= ((RankedTest) o).fRank;
+			return fRank < otherRank ? -1 : (fRank == otherRank ? 0 : 1);
+		}
+	}
+
+	private final HashMap fRanks;
+
+	/**
+	 * @param testNames the names of the tests, highest priority first
+	 */
+	public RankingPrioritizer(String[] testNames) {
+		fRanks= new HashMap();
+		for (int i= testNames.length - 1; i >= 0; i--) {
+			fRanks.put(testNames[i], new Integer(i));
+		}
+	}
+
+	public Test prioritize(Test suite) {
+		rank(suite);
+		return suite;
+	}
+
+	/**
+	 * Sorts the tests of the given test, if it is a suite.
+	 *
+	 * @param test the test
+	 * @return the rank of the test
+	 */
+	private int rank(Test test) {
+		if (test instanceof TestCase) {
+			Integer rank= (Integer) fRanks.get(test.toString());
+			return rank != null ? rank.intValue() : UNRANKED;
+		} else if (test instanceof TestSuite) {
+			return rankSuite((TestSuite) test);
+		} else if (test instanceof TestDecorator) {
+			return rank(((TestDecorator) test).getTest());
+		}
+		return UNRANKED;
+	}
+
+	private int rankSuite(TestSuite suite) {
+		int best= UNRANKED;
+		Vector tests= (Vector) FailuresFirstPrioritizer.getField(suite, "fTests"); //$NON-NLS-1$
+		if (tests == null) {
+			// can't reorder, only rank the tests
+			for (Enumeration e= suite.tests(); e.hasMoreElements();) {
+				best= Math.min(best, rank((Test) e.nextElement()));
+			}
+			return best;
+		}
+
+		List ranked= new ArrayList(tests.size());
+		for (int i= 0; i < tests.size(); i++) {
+			Test test= (Test) tests.get(i);
+			int rank= rank(test);
+			ranked.add(new RankedTest(test, rank));
+			best= Math.min(best, rank);
+		}
+		Collections.sort(ranked); // stable
+		for (int i= 0; i < ranked.size(); i++) {
+			tests.set(i, ((RankedTest) ranked.get(i)).fTest);
+		}
+		return best;
+	}
+}
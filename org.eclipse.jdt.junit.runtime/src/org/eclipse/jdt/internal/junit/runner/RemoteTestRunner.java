@@ -119,6 +119,11 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	private String[] fFailureNames;
 
+	/**
+	 * The names of the tests in the order in which they should run, or <code>null</code>
+	 */
+	private String[] fPriorityNames;
+
 	private ITestLoader fLoader;
 
 	private MessageSender fSender;
@@ -263,6 +268,15 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 				}
 				i++;
 
+			} else if(args[i].toLowerCase().equals("-testpriorities")) { //$NON-NLS-1$
+				String testPrioritiesFile= args[i+1];
+				try {
+					fPriorityNames= readLines(testPrioritiesFile);
+				} catch (IOException e) {
+					throw new IllegalArgumentException("Cannot read testpriorities file.");		 //$NON-NLS-1$
+				}
+				i++;
+
 			} else if(args[i].toLowerCase().equals("-port")) { //$NON-NLS-1$
 				fPort= Integer.parseInt(args[i+1]);
 				i++;
@@ -354,24 +368,38 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	}
 
 	private void readFailureNames(String testFailureFile) throws IOException {
-		BufferedReader br= new BufferedReader(new InputStreamReader(new FileInputStream(new File(testFailureFile)), "UTF-8")); //$NON-NLS-1$
+		fFailureNames= readLines(testFailureFile);
+		if (fDebugMode) {
+			System.out.println("Failures:"); //$NON-NLS-1$
+			for (int i= 0; i < fFailureNames.length; i++) {
+				System.out.println("    "+fFailureNames[i]); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private static String[] readLines(String fileName) throws IOException {
+		BufferedReader br= new BufferedReader(new InputStreamReader(new FileInputStream(new File(fileName)), "UTF-8")); //$NON-NLS-1$
 		try {
 			String line;
 			Vector list= new Vector();
 			while ((line= br.readLine()) != null) {
 				list.add(line);
 			}
-			fFailureNames= (String[]) list.toArray(new String[list.size()]);
+			return (String[]) list.toArray(new String[list.size()]);
 		}
 		finally {
 			br.close();
 		}
-		if (fDebugMode) {
-			System.out.println("Failures:"); //$NON-NLS-1$
-			for (int i= 0; i < fFailureNames.length; i++) {
-				System.out.println("    "+fFailureNames[i]); //$NON-NLS-1$
-			}
-		}
+	}
+
+	/**
+	 * Returns the names of the tests in the order in which they should run. Test loaders
+	 * order the tests by these names before moving the failures of the previous run first.
+	 *
+	 * @return the test names, highest priority first, or <code>null</code> if the order is unspecified
+	 */
+	public String[] getPriorityNames() {
+		return fPriorityNames;
 	}
 
 	/**
@@ -28,6 +28,7 @@ import org.eclipse.jdt.internal.junit.runner.ITestPrioritizer;
 import org.eclipse.jdt.internal.junit.runner.ITestReference;
 import org.eclipse.jdt.internal.junit.runner.JUnitMessages;
 import org.eclipse.jdt.internal.junit.runner.NullPrioritizer;
+import org.eclipse.jdt.internal.junit.runner.RankingPrioritizer;
 import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
 
 public class JUnit3TestLoader implements ITestLoader {
@@ -53,10 +54,14 @@ public class JUnit3TestLoader implements ITestLoader {
 			prioritizer= new FailuresFirstPrioritizer(failureNames);
 		else
 			prioritizer= new NullPrioritizer();
+		String[] priorityNames= listener.getPriorityNames();
+		ITestPrioritizer rankingPrioritizer= priorityNames != null ? new RankingPrioritizer(priorityNames) : null;
 
 		for (int i= 0; i < suites.length; i++) {
 			Class testClassName= testClasses[i];
 			Test test= getTest(testClassName, testName, listener);
+			if (rankingPrioritizer != null)
+				rankingPrioritizer.prioritize(test);
 			prioritizer.prioritize(test);
 			suites[i]= new JUnit3TestReference(test);
 		}
@@ -60,29 +60,41 @@ public class CopyFailureListAction extends Action {
 	}
 
 	public String getAllFailureTraces() {
-		StringBuffer buf= new StringBuffer();
 		TestElement[] failures= fRunner.getAllFailures();
-
 		String lineDelim= System.getProperty("line.separator", "\n");  //$NON-NLS-1$//$NON-NLS-2$
+
+		int length= 0;
 		for (TestElement failure : failures) {
-			buf.append(failure.getTestName()).append(lineDelim);
 			String failureTrace= failure.getTrace();
-			if (failureTrace != null) {
-				int start= 0;
-				while (start < failureTrace.length()) {
-					int idx= failureTrace.indexOf('\n', start);
-					if (idx != -1) {
-						String line= failureTrace.substring(start, idx);
-						buf.append(line).append(lineDelim);
-						start= idx + 1;
-					} else {
-						start= Integer.MAX_VALUE;
-					}
-				}
-			}
+			length+= failure.getTestName().length() + lineDelim.length();
+			if (failureTrace != null)
+				length+= failureTrace.length();
+		}
+		StringBuilder buf= new StringBuilder(length);
+		for (TestElement failure : failures) {
+			buf.append(failure.getTestName()).append(lineDelim);
+			appendTrace(buf, failure.getTrace(), lineDelim);
 		}
 		return buf.toString();
 	}
 
+	/**
+	 * Appends the lines of the trace which are terminated by a '\n', converting the line delimiters.
+	 * The lines are copied from the trace without creating a string per line.
+	 *
+	 * @param buf the buffer to append to
+	 * @param failureTrace the trace, can be <code>null</code>
+	 * @param lineDelim the line delimiter to use
+	 */
+	private static void appendTrace(StringBuilder buf, String failureTrace, String lineDelim) {
+		if (failureTrace == null)
+			return;
+		int start= 0;
+		int idx;
+		while ((idx= failureTrace.indexOf('\n', start)) != -1) {
+			buf.append(failureTrace, start, idx).append(lineDelim);
+			start= idx + 1;
+		}
+	}
 
 }
@@ -12,6 +12,9 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.junit.ui;
 
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.dnd.Clipboard;
 import org.eclipse.swt.events.SelectionEvent;
@@ -42,6 +45,19 @@ public class FailureTrace implements IMenuListener {
     private static final int MAX_LABEL_LENGTH = 256;
 
     static final String FRAME_PREFIX= "at "; //$NON-NLS-1$
+
+	private static final class FilteredTrace {
+		final StackTraceFilter fFilter;
+		final String fTrace;
+		final String fFilteredTrace;
+
+		FilteredTrace(StackTraceFilter filter, String trace, String filteredTrace) {
+			fFilter= filter;
+			fTrace= trace;
+			fFilteredTrace= filteredTrace;
+		}
+	}
+
 	private Table fTable;
 	private TestRunnerViewPart fTestRunner;
 	private String fInputTrace;
@@ -50,6 +66,12 @@ public class FailureTrace implements IMenuListener {
     private CompareResultsAction fCompareAction;
 	private final FailureTableDisplay fFailureTableDisplay;
 
+	/**
+	 * The filtered traces of the failures which have been shown, with the filter and the
+	 * trace they have been computed from
+	 */
+	private final Map<TestElement, FilteredTrace> fFilteredTraces= new WeakHashMap<TestElement, FilteredTrace>();
+
 	public FailureTrace(Composite parent, Clipboard clipboard, TestRunnerViewPart testRunner, ToolBar toolBar) {
 		Assert.isNotNull(clipboard);
 
@@ -177,18 +199,33 @@ public class FailureTrace implements IMenuListener {
 			clear();
 			return;
 		}
-		trace= trace.trim();
 		fTable.setRedraw(false);
 		fTable.removeAll();
-		new TextualTrace(trace, getFilterPatterns()).display(
+		new TextualTrace(getFilteredTrace(trace)).display(
 				fFailureTableDisplay, MAX_LABEL_LENGTH);
 		fTable.setRedraw(true);
 	}
 
-	private String[] getFilterPatterns() {
-		if (JUnitPreferencesConstants.getFilterStack())
-			return JUnitPreferencesConstants.getFilterPatterns();
-		return new String[0];
+	/**
+	 * Filters the trace, reusing the filtered trace of the failure if it has been filtered before.
+	 *
+	 * @param trace the trace
+	 * @return the trimmed and filtered trace
+	 */
+	private String getFilteredTrace(String trace) {
+		if (!JUnitPreferencesConstants.getFilterStack())
+			return trace.trim();
+		StackTraceFilter filter= StackTraceFilter.forPatterns(JUnitPreferencesConstants.getFilterPatterns());
+		boolean isFailureTrace= fFailure != null && fFailure.getTrace() == trace;
+		if (isFailureTrace) {
+			FilteredTrace filteredTrace= fFilteredTraces.get(fFailure);
+			if (filteredTrace != null && filteredTrace.fFilter == filter && filteredTrace.fTrace == trace)
+				return filteredTrace.fFilteredTrace;
+		}
+		String filtered= filter.filter(trace.trim());
+		if (isFailureTrace)
+			fFilteredTraces.put(fFailure, new FilteredTrace(filter, trace, filtered));
+		return filtered;
 	}
 
 	/**
@@ -122,6 +122,11 @@ public final class JUnitMessages extends NLS {
 	public static String JUnitLaunchConfigurationTab_label_containerTest;
 
 	public static String JUnitLaunchConfigurationTab_label_keeprunning;
+	public static String JUnitLaunchConfigurationTab_label_shard_count;
+	public static String JUnitLaunchConfigurationTab_label_test_order;
+	public static String JUnitLaunchConfigurationTab_test_order_default;
+	public static String JUnitLaunchConfigurationTab_test_order_failures_first;
+	public static String JUnitLaunchConfigurationTab_test_order_slowest_first;
 
 	public static String JUnitLaunchConfigurationTab_label_method;
 
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.ui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Removes the lines of a stack trace which match one of the stack filter patterns.
+ * <p>
+ * The patterns are compiled into an Aho-Corasick automaton, so that every line is
+ * scanned once, no matter how many patterns there are. Filters are immutable, the
+ * filter for the current patterns is shared, see {@link #forPatterns(String[])}.
+ * </p>
+ *
+ * @since 3.8
+ */
+public class StackTraceFilter {
+
+	private static final class Node {
+		private char[] fChars= new char[0];
+		private Node[] fChildren= new Node[0];
+		/** The node of the longest proper suffix of this node's path which is in the trie */
+		Node fFailure;
+		/** The nearest node on the failure path which ends a pattern */
+		Node fOutput;
+		/** The pattern which ends at this node, or <code>null</code> */
+		String fPattern;
+
+		Node get(char c) {
+			char[] chars= fChars;
+			for (int i= 0; i < chars.length; i++) {
+				if (chars[i] == c)
+					return fChildren[i];
+			}
+			return null;
+		}
+
+		Node getOrAdd(char c) {
+			Node child= get(c);
+			if (child == null) {
+				int length= fChars.length;
+				char[] chars= new char[length + 1];
+				System.arraycopy(fChars, 0, chars, 0, length);
+				chars[length]= c;
+				Node[] children= new Node[length + 1];
+				System.arraycopy(fChildren, 0, children, 0, length);
+				child= new Node();
+				children[length]= child;
+				fChars= chars;
+				fChildren= children;
+			}
+			return child;
+		}
+	}
+
+	private static StackTraceFilter fgLastFilter;
+
+	private final String[] fFilterPatterns;
+	private final Node fRoot;
+	private final boolean fEmpty;
+
+	/**
+	 * Returns a filter for the given patterns. The filter is reused as long as the
+	 * patterns don't change.
+	 *
+	 * @param filterPatterns the stack filter patterns, see {@link org.eclipse.jdt.internal.junit.JUnitPreferencesConstants#getFilterPatterns()}
+	 * @return the filter
+	 */
+	public static synchronized StackTraceFilter forPatterns(String[] filterPatterns) {
+		if (fgLastFilter == null || !Arrays.equals(fgLastFilter.fFilterPatterns, filterPatterns))
+			fgLastFilter= new StackTraceFilter(filterPatterns);
+		return fgLastFilter;
+	}
+
+	public StackTraceFilter(String[] filterPatterns) {
+		fFilterPatterns= filterPatterns.clone();
+		fRoot= new Node();
+		boolean empty= true;
+		for (String filterPattern : filterPatterns) {
+			String pattern= toSubstring(filterPattern);
+			if (pattern.length() == 0)
+				continue;
+			Node node= fRoot;
+			for (int i= 0; i < pattern.length(); i++)
+				node= node.getOrAdd(pattern.charAt(i));
+			node.fPattern= pattern;
+			empty= false;
+		}
+		fEmpty= empty;
+		computeFailures();
+	}
+
+	/**
+	 * Converts a filter pattern into the string which a filtered line contains.
+	 *
+	 * @param pattern the filter pattern
+	 * @return the string, or an empty string if the pattern doesn't filter anything
+	 */
+	private static String toSubstring(String pattern) {
+		int len= pattern.length() - 1;
+		if (len < 0)
+			return pattern;
+		if (pattern.charAt(len) == '*') {
+			// strip trailing * from a package filter
+			return pattern.substring(0, len);
+		} else if (Character.isUpperCase(pattern.charAt(0))) {
+			// class in the default package
+			return FailureTrace.FRAME_PREFIX + pattern + '.';
+		} else {
+			// class names start w/ an uppercase letter after the .
+			final int lastDotIndex= pattern.lastIndexOf('.');
+			if ((lastDotIndex != -1)
+				&& (lastDotIndex != len)
+				&& Character.isUpperCase(pattern.charAt(lastDotIndex + 1)))
+				return pattern + '.'; // append . to a class filter
+			return pattern;
+		}
+	}
+
+	private void computeFailures() {
+		LinkedList<Node> queue= new LinkedList<Node>();
+		for (Node child : fRoot.fChildren) {
+			child.fFailure= fRoot;
+			queue.add(child);
+		}
+		while (!queue.isEmpty()) {
+			Node node= queue.removeFirst();
+			for (int i= 0; i < node.fChars.length; i++) {
+				char c= node.fChars[i];
+				Node child= node.fChildren[i];
+				Node failure= node.fFailure;
+				while (failure != fRoot && failure.get(c) == null)
+					failure= failure.fFailure;
+				Node target= failure.get(c);
+				child.fFailure= target != null ? target : fRoot;
+				child.fOutput= child.fFailure.fPattern != null ? child.fFailure : child.fFailure.fOutput;
+				queue.add(child);
+			}
+		}
+	}
+
+	/**
+	 * Tells whether the given line of a stack trace is filtered, i.e. whether
+	 * it contains one of the patterns after its first character.
+	 *
+	 * @param line the line
+	 * @return <code>true</code> if the line is removed from traces
+	 */
+	public boolean isFiltered(String line) {
+		if (fEmpty)
+			return false;
+		Node state= fRoot;
+		for (int i= 0; i < line.length(); i++) {
+			char c= line.charAt(i);
+			Node next= state.get(c);
+			while (next == null && state != fRoot) {
+				state= state.fFailure;
+				next= state.get(c);
+			}
+			state= next != null ? next : fRoot;
+			for (Node match= state.fPattern != null ? state : state.fOutput; match != null; match= match.fOutput) {
+				String pattern= match.fPattern;
+				// a line is filtered if the first occurrence of a pattern is not at the start
+				if (i + 1 - pattern.length() > 0 && !line.startsWith(pattern))
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the filtered lines from the given stack trace.
+	 *
+	 * @param stackTrace the stack trace, can be <code>null</code>
+	 * @return the filtered stack trace, or the given trace if nothing can be filtered
+	 */
+	public String filter(String stackTrace) {
+		if (fEmpty || stackTrace == null)
+			return stackTrace;
+
+		String lineDelim= System.getProperty("line.separator", "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		StringBuilder result= new StringBuilder(stackTrace.length());
+		List<String> lines= splitLines(stackTrace);
+		for (String line : lines) {
+			if (!isFiltered(line))
+				result.append(line).append(lineDelim);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Splits a string into lines like {@link java.io.BufferedReader#readLine()}.
+	 *
+	 * @param string the string
+	 * @return the lines, without line delimiters
+	 */
+	private static List<String> splitLines(String string) {
+		List<String> lines= new ArrayList<String>();
+		int length= string.length();
+		int start= 0;
+		while (start < length) {
+			int end= start;
+			char c= 0;
+			while (end < length && (c= string.charAt(end)) != '\n' && c != '\r')
+				end++;
+			lines.add(string.substring(start, end));
+			if (end < length && c == '\r' && end + 1 < length && string.charAt(end + 1) == '\n')
+				end++;
+			start= end + 1;
+		}
+		return lines;
+	}
+}
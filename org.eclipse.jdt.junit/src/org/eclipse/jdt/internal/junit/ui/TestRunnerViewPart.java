@@ -477,7 +477,7 @@ public class TestRunnerViewPart extends ViewPart {
 			if (lastPath != null) {
 				importDialog.setFilterPath(lastPath);
 			}
-			importDialog.setFilterExtensions(new String[] {"*.xml", "*.*"}); //$NON-NLS-1$ //$NON-NLS-2$
+			importDialog.setFilterExtensions(new String[] {"*.xml;*.xml.gz", "*.*"}); //$NON-NLS-1$ //$NON-NLS-2$
 			String path= importDialog.open();
 			if (path == null)
 				return;
@@ -623,7 +623,7 @@ public class TestRunnerViewPart extends ViewPart {
 				exportDialog.setFilterPath(lastPath);
 			}
 			exportDialog.setFileName(getFileName());
-			exportDialog.setFilterExtensions(new String[] {"*.xml", "*.*"}); //$NON-NLS-1$ //$NON-NLS-2$
+			exportDialog.setFilterExtensions(new String[] {"*.xml", "*.xml.gz", "*.*"}); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 			String path= exportDialog.open();
 			if (path == null)
 				return;
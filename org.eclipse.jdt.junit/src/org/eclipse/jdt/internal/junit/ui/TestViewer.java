@@ -16,6 +16,7 @@ package org.eclipse.jdt.internal.junit.ui;
 import java.util.AbstractList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -30,7 +31,6 @@ import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Menu;
-import org.eclipse.swt.widgets.TableItem;
 
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuListener;
@@ -124,6 +124,18 @@ public class TestViewer {
 		}
 	}
 
+	/**
+	 * Maximum time in milliseconds to spend on updating changed elements in one call to
+	 * {@link #processChangesInUI()} while tests are running. The remaining changes are
+	 * processed in the next call.
+	 */
+	private static final long UPDATE_TIME_BUDGET= 50;
+
+	/**
+	 * Number of changed elements to update between two checks of the time budget
+	 */
+	private static final int UPDATE_CHUNK_SIZE= 100;
+
 	private final FailuresOnlyFilter fFailuresOnlyFilter= new FailuresOnlyFilter();
 
 	private final TestRunnerViewPart fTestRunnerPart;
@@ -146,7 +158,12 @@ public class TestViewer {
 
 	private boolean fTreeNeedsRefresh;
 	private boolean fTableNeedsRefresh;
-	private HashSet<TestElement> fNeedUpdate;
+	private LinkedHashSet<TestElement> fNeedUpdate;
+	/**
+	 * The elements in the table if it is filtered. The table is virtual, so its items
+	 * can't tell which elements it contains.
+	 */
+	private final HashSet<TestElement> fShownInTable= new HashSet<TestElement>();
 	private TestCaseElement fAutoScrollTarget;
 
 	private LinkedList<TestSuiteElement> fAutoClose;
@@ -176,7 +193,7 @@ public class TestViewer {
 		fTreeLabelProvider= new TestSessionLabelProvider(fTestRunnerPart, TestRunnerViewPart.LAYOUT_HIERARCHICAL);
 		fTreeViewer.setLabelProvider(new ColoringLabelProvider(fTreeLabelProvider));
 
-		fTableViewer= new TableViewer(fViewerbook, SWT.V_SCROLL | SWT.H_SCROLL | SWT.SINGLE);
+		fTableViewer= new TableViewer(fViewerbook, SWT.V_SCROLL | SWT.H_SCROLL | SWT.SINGLE | SWT.VIRTUAL);
 		fTableViewer.setUseHashlookup(true);
 		fTableContentProvider= new TestSessionTableContentProvider();
 		fTableViewer.setContentProvider(fTableContentProvider);
@@ -412,6 +429,8 @@ public class TestViewer {
 
 	/**
 	 * To be called periodically by the TestRunnerViewPart (in the UI thread).
+	 * While tests are running, the time spent on updating changed elements is bounded by
+	 * {@link #UPDATE_TIME_BUDGET}, the remaining elements are updated in the next call.
 	 */
 	public void processChangesInUI() {
 		TestRoot testRoot;
@@ -421,6 +440,7 @@ public class TestViewer {
 			fTableNeedsRefresh= false;
 			fTreeViewer.setInput(null);
 			fTableViewer.setInput(null);
+			fShownInTable.clear();
 			return;
 		}
 
@@ -431,41 +451,58 @@ public class TestViewer {
 			clearUpdateAndExpansion();
 			setActiveViewerNeedsRefresh(false);
 			viewer.setInput(testRoot);
+			if (viewer == fTableViewer)
+				initShownInTable(testRoot);
 
 		} else {
-			Object[] toUpdate;
-			synchronized (this) {
-				toUpdate= fNeedUpdate.toArray();
-				fNeedUpdate.clear();
-			}
-			if (! fTreeNeedsRefresh && toUpdate.length > 0) {
-				if (fTreeHasFilter)
-					for (Object element : toUpdate)
-						updateElementInTree((TestElement) element);
-				else {
-					HashSet<Object> toUpdateWithParents= new HashSet<Object>();
-					toUpdateWithParents.addAll(Arrays.asList(toUpdate));
-					for (Object element : toUpdate) {
-						TestElement parent= ((TestElement) element).getParent();
-						while (parent != null) {
-							toUpdateWithParents.add(parent);
-							parent= parent.getParent();
+			boolean limited= fTestRunSession.isRunning();
+			long deadline= System.currentTimeMillis() + UPDATE_TIME_BUDGET;
+			// parents are updated once per call, no matter how many of their children have changed
+			HashSet<TestElement> parents= new HashSet<TestElement>();
+			boolean tableChanged= false;
+			TestElement[] toUpdate;
+			while ((toUpdate= takeUpdates()).length > 0) {
+				if (! fTreeNeedsRefresh) {
+					if (fTreeHasFilter)
+						for (TestElement element : toUpdate)
+							updateElementInTree(element);
+					else {
+						fTreeViewer.update(toUpdate, null);
+						for (TestElement element : toUpdate) {
+							TestElement parent= element.getParent();
+							while (parent != null && parents.add(parent))
+								parent= parent.getParent();
 						}
 					}
-					fTreeViewer.update(toUpdateWithParents.toArray(), null);
 				}
+				if (! fTableNeedsRefresh) {
+					if (fTableHasFilter)
+						tableChanged|= updateShownInTable(toUpdate);
+					else
+						fTableViewer.update(toUpdate, null);
+				}
+				if (limited && System.currentTimeMillis() >= deadline)
+					break;
 			}
-			if (! fTableNeedsRefresh && toUpdate.length > 0) {
-				if (fTableHasFilter)
-					for (Object element : toUpdate)
-						updateElementInTable((TestElement) element);
-				else
-					fTableViewer.update(toUpdate, null);
-			}
+			if (! fTreeNeedsRefresh && ! parents.isEmpty())
+				fTreeViewer.update(parents.toArray(), null);
+			if (! fTableNeedsRefresh && tableChanged)
+				fTableViewer.refresh();
 		}
 		autoScrollInUI();
 	}
 
+	private synchronized TestElement[] takeUpdates() {
+		int count= Math.min(fNeedUpdate.size(), UPDATE_CHUNK_SIZE);
+		TestElement[] elements= new TestElement[count];
+		Iterator<TestElement> iter= fNeedUpdate.iterator();
+		for (int i= 0; i < count; i++) {
+			elements[i]= iter.next();
+			iter.remove();
+		}
+		return elements;
+	}
+
 	private void updateElementInTree(final TestElement testElement) {
 		if (isShown(testElement)) {
 			updateShownElementInTree(testElement);
@@ -498,23 +535,35 @@ public class TestViewer {
 		}
 	}
 
-	private void updateElementInTable(TestElement element) {
-		if (isShown(element)) {
-			if (fTableViewer.testFindItem(element) == null) {
-				TestElement previous= getNextFailure(element, false);
-				int insertionIndex= -1;
-				if (previous != null) {
-					TableItem item= (TableItem) fTableViewer.testFindItem(previous);
-					if (item != null)
-						insertionIndex= fTableViewer.getTable().indexOf(item);
-				}
-				fTableViewer.insert(element, insertionIndex);
-			} else  {
-				fTableViewer.update(element, null);
+	private void initShownInTable(TestRoot testRoot) {
+		fShownInTable.clear();
+		if (! fTableHasFilter)
+			return;
+		for (Object element : fTableContentProvider.getElements(testRoot)) {
+			if (isShown((TestElement) element))
+				fShownInTable.add((TestElement) element);
+		}
+	}
+
+	/**
+	 * Updates the given elements in the filtered table.
+	 *
+	 * @param elements the changed elements
+	 * @return <code>true</code> if elements have to be added to or removed from the table,
+	 * which is done by refreshing the table once
+	 */
+	private boolean updateShownInTable(TestElement[] elements) {
+		boolean changed= false;
+		for (TestElement element : elements) {
+			if (isShown(element)) {
+				changed|= fShownInTable.add(element);
+			} else {
+				changed|= fShownInTable.remove(element);
 			}
-		} else {
-			fTableViewer.remove(element);
 		}
+		if (! changed)
+			fTableViewer.update(elements, null);
+		return changed;
 	}
 
 	private boolean isShown(TestElement current) {
@@ -15,9 +15,7 @@ package org.eclipse.jdt.internal.junit.ui;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.io.StringReader;
-import java.io.StringWriter;
 
 public class TextualTrace {
 	public static final int LINE_TYPE_EXCEPTION = 1;
@@ -29,8 +27,25 @@ public class TextualTrace {
 	private final String fTrace;
 
 	public TextualTrace(String trace, String[] filterPatterns) {
+		this(trace, StackTraceFilter.forPatterns(filterPatterns));
+	}
+
+	/**
+	 * @param trace the stack trace
+	 * @param filter the filter to apply
+	 * @since 3.8
+	 */
+	public TextualTrace(String trace, StackTraceFilter filter) {
+		this(filter.filter(trace));
+	}
+
+	/**
+	 * @param filteredTrace the stack trace, which is already filtered
+	 * @since 3.8
+	 */
+	public TextualTrace(String filteredTrace) {
 		super();
-		fTrace = filterStack(trace, filterPatterns);
+		fTrace = filteredTrace;
 	}
 
 	public void display(ITraceDisplay display, int maxLabelLength) {
@@ -77,55 +92,6 @@ public class TextualTrace {
 		}
 	}
 
-	private boolean filterLine(String[] patterns, String line) {
-		String pattern;
-		int len;
-		for (int i = (patterns.length - 1); i >= 0; --i) {
-			pattern = patterns[i];
-			len = pattern.length() - 1;
-			if (pattern.charAt(len) == '*') {
-				// strip trailing * from a package filter
-				pattern = pattern.substring(0, len);
-			} else if (Character.isUpperCase(pattern.charAt(0))) {
-				// class in the default package
-				pattern = FailureTrace.FRAME_PREFIX + pattern + '.';
-			} else {
-				// class names start w/ an uppercase letter after the .
-				final int lastDotIndex = pattern.lastIndexOf('.');
-				if ((lastDotIndex != -1)
-					&& (lastDotIndex != len)
-					&& Character.isUpperCase(pattern.charAt(lastDotIndex + 1)))
-					pattern += '.'; // append . to a class filter
-			}
-
-			if (line.indexOf(pattern) > 0)
-				return true;
-		}
-		return false;
-	}
-
-	private String filterStack(String stackTrace, String[] filterPatterns) {
-		if (filterPatterns.length == 0 || stackTrace == null)
-			return stackTrace;
-
-		StringWriter stringWriter = new StringWriter();
-		PrintWriter printWriter = new PrintWriter(stringWriter);
-		StringReader stringReader = new StringReader(stackTrace);
-		BufferedReader bufferedReader = new BufferedReader(stringReader);
-
-		String line;
-		String[] patterns = filterPatterns;
-		try {
-			while ((line = bufferedReader.readLine()) != null) {
-				if (!filterLine(patterns, line))
-					printWriter.println(line);
-			}
-		} catch (IOException e) {
-			return stackTrace; // return the stack unfiltered
-		}
-		return stringWriter.toString();
-	}
-
 	private boolean isAStackFrame(String itemLabel) {
 		// heuristic for detecting a stack frame - works for JDK
 		return itemLabel.indexOf(" at ") >= 0; //$NON-NLS-1$
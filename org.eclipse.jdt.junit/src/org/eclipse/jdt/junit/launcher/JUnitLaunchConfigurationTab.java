@@ -15,6 +15,7 @@ package org.eclipse.jdt.junit.launcher;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -29,9 +30,11 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.swt.widgets.Text;
 
 import org.eclipse.core.runtime.CoreException;
@@ -132,11 +135,22 @@ import org.eclipse.jdt.internal.ui.wizards.TypedViewerFilter;
  */
 public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab {
 
+	private static final int MAX_SHARD_COUNT= 64;
+
+	/** Values of {@link JUnitLaunchConfigurationConstants#ATTR_TEST_ORDER}, in the order of the combo items */
+	private static final String[] TEST_ORDERS= {
+		"", //$NON-NLS-1$
+		JUnitLaunchConfigurationConstants.TEST_ORDER_FAILURES_FIRST,
+		JUnitLaunchConfigurationConstants.TEST_ORDER_SLOWEST_FIRST
+	};
+
 	// Project UI widgets
 	private Label fProjLabel;
 	private Text fProjText;
 	private Button fProjButton;
 	private Button fKeepRunning;
+	private Spinner fShardCount;
+	private Combo fTestOrder;
 
 	// Test class UI widgets
 	private Text fTestText;
@@ -398,6 +412,39 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		gd.horizontalAlignment= GridData.FILL;
 		gd.horizontalSpan= 2;
 		fKeepRunning.setLayoutData(gd);
+		new Label(comp, SWT.NONE);
+
+		Label shardLabel= new Label(comp, SWT.NONE);
+		shardLabel.setText(JUnitMessages.JUnitLaunchConfigurationTab_label_shard_count);
+		gd= new GridData();
+		gd.horizontalSpan= 2;
+		shardLabel.setLayoutData(gd);
+
+		fShardCount= new Spinner(comp, SWT.BORDER);
+		fShardCount.setValues(1, 1, MAX_SHARD_COUNT, 0, 1, 4);
+		fShardCount.addModifyListener(new ModifyListener() {
+			public void modifyText(ModifyEvent e) {
+				updateLaunchConfigurationDialog();
+			}
+		});
+
+		Label orderLabel= new Label(comp, SWT.NONE);
+		orderLabel.setText(JUnitMessages.JUnitLaunchConfigurationTab_label_test_order);
+		gd= new GridData();
+		gd.horizontalSpan= 2;
+		orderLabel.setLayoutData(gd);
+
+		fTestOrder= new Combo(comp, SWT.DROP_DOWN | SWT.READ_ONLY);
+		fTestOrder.setItems(new String[] {
+				JUnitMessages.JUnitLaunchConfigurationTab_test_order_default,
+				JUnitMessages.JUnitLaunchConfigurationTab_test_order_failures_first,
+				JUnitMessages.JUnitLaunchConfigurationTab_test_order_slowest_first });
+		fTestOrder.addSelectionListener(new SelectionAdapter() {
+			@Override
+			public void widgetSelected(SelectionEvent e) {
+				updateLaunchConfigurationDialog();
+			}
+		});
 	}
 
 	private static Image createImage(String path) {
@@ -447,6 +494,20 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		} catch (CoreException ce) {
 		}
 		fKeepRunning.setSelection(running);
+
+		int shardCount= 1;
+		try {
+			shardCount= config.getAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_COUNT, 1);
+		} catch (CoreException ce) {
+		}
+		fShardCount.setSelection(shardCount);
+
+		String testOrder= ""; //$NON-NLS-1$
+		try {
+			testOrder= config.getAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_ORDER, ""); //$NON-NLS-1$
+		} catch (CoreException ce) {
+		}
+		fTestOrder.select(Math.max(0, Arrays.asList(TEST_ORDERS).indexOf(testOrder)));
 	}
 
 	private void updateProjectFromConfig(ILaunchConfiguration config) {
@@ -514,6 +575,12 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 			config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_METHOD_NAME, fTestMethodText.getText());
 		}
 		config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_KEEPRUNNING, fKeepRunning.getSelection());
+		if (fShardCount.getSelection() > 1)
+			config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_COUNT, fShardCount.getSelection());
+		else
+			config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_SHARD_COUNT, (String) null);
+		String testOrder= TEST_ORDERS[Math.max(0, fTestOrder.getSelectionIndex())];
+		config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_TEST_ORDER, testOrder.length() > 0 ? testOrder : null);
 		try {
 			mapResources(config);
 		} catch (CoreException e) {
@@ -22,7 +22,11 @@ public class JUnit4TestClassReference extends JUnit4TestReference {
 	protected final Class<?> fClass;
 
 	public JUnit4TestClassReference(Class<?> clazz, String[] failureNames) {
-		super(Request.aClass(clazz), failureNames);
+		this(clazz, failureNames, null);
+	}
+
+	public JUnit4TestClassReference(Class<?> clazz, String[] failureNames, String[] priorityNames) {
+		super(Request.aClass(clazz), failureNames, priorityNames);
 		fClass= clazz;
 	}
 
@@ -45,7 +45,7 @@ public class JUnit4TestLoader implements ITestLoader {
 		if (clazz == null)
 			return null;
 		if (testName == null)
-			return new JUnit4TestClassReference(clazz, failureNames);
+			return new JUnit4TestClassReference(clazz, failureNames, listener.getPriorityNames());
 		else if (isJUnit3SetUpTest(clazz, testName)) {
 			JUnit3TestLoader jUnit3TestLoader= new JUnit3TestLoader();
 			Test test= jUnit3TestLoader.getTest(clazz, testName, listener);
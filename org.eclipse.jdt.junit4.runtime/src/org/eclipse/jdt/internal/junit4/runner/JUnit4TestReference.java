@@ -27,6 +27,19 @@ public abstract class JUnit4TestReference implements ITestReference {
 	protected Runner fRunner;
 
 	public JUnit4TestReference(Request request, String[] failureNames) {
+		this(request, failureNames, null);
+	}
+
+	/**
+	 * @param request the request to run
+	 * @param failureNames the names of the tests which failed in the previous run, or <code>null</code>
+	 * @param priorityNames the names of the tests in the order in which they should run, or <code>null</code>
+	 * @since 3.8
+	 */
+	public JUnit4TestReference(Request request, String[] failureNames, String[] priorityNames) {
+		if (priorityNames != null) {
+			request= request.sortWith(new RankingSorter(priorityNames));
+		}
 		if (failureNames != null) {
 			request= request.sortWith(new FailuresFirstSorter(failureNames));
 		}
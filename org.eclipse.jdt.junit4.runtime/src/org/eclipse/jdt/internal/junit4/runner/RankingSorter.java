@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.internal.junit4.runner;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.runner.Description;
+
+/**
+ * Comparator for descriptions to sort according to the rank of their display names
+ * in a list of test names. A description is ranked like its best ranked transitive child.
+ * Descriptions which aren't in the list come last.
+ *
+ * @since 3.8
+ */
+public class RankingSorter implements Comparator<Description> {
+
+	private static final int UNRANKED= Integer.MAX_VALUE;
+
+	private final Map<String, Integer> fRanks;
+
+	/**
+	 * Creates a sorter.
+	 *
+	 * @param testNames the display names of the tests, highest priority first
+	 */
+	public RankingSorter(String[] testNames) {
+		fRanks= new HashMap<String, Integer>();
+		for (int i= testNames.length - 1; i >= 0; i--) {
+			fRanks.put(testNames[i], Integer.valueOf(i));
+		}
+	}
+
+	public int compare(Description d1, Description d2) {
+		int rank1= getRank(d1);
+		int rank2= getRank(d2);
+		return rank1 < rank2 ? -1 : (rank1 == rank2 ? 0 : 1);
+	}
+
+	private int getRank(Description d) {
+		if (d.isTest()) {
+			Integer rank= fRanks.get(d.getDisplayName());
+			return rank != null ? rank.intValue() : UNRANKED;
+		}
+		int best= UNRANKED;
+		for (Description child : d.getChildren()) {
+			best= Math.min(best, getRank(child));
+		}
+		return best;
+	}
+}
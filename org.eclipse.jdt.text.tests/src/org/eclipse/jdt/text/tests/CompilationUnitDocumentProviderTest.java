@@ -10,41 +10,153 @@
  *******************************************************************************/
 package org.eclipse.jdt.text.tests;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
 import junit.framework.TestCase;
 
 import org.eclipse.jdt.testplugin.JavaProjectHelper;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 
 import org.eclipse.core.filebuffers.tests.ResourceHelper;
 
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.AnnotationModelEvent;
+import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelListenerExtension;
+
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.part.FileEditorInput;
+import org.eclipse.ui.texteditor.MarkerUtilities;
 
 import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IProblemRequestor;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.compiler.IProblem;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.javaeditor.ICompilationUnitDocumentProvider;
+import org.eclipse.jdt.internal.ui.javaeditor.IJavaAnnotation;
+import org.eclipse.jdt.internal.ui.javaeditor.JavaMarkerAnnotation;
+import org.eclipse.jdt.internal.ui.text.java.IProblemRequestorExtension;
 
 
 public class CompilationUnitDocumentProviderTest extends TestCase {
 
+	private static class TestProblem implements IProblem {
+		private final int fId;
+		private int fStart;
+		private int fEnd;
+		private final String fMessage;
+
+		TestProblem(int id, int start, int length, String message) {
+			fId= id;
+			fStart= start;
+			fEnd= start + length - 1;
+			fMessage= message;
+		}
+
+		public String[] getArguments() {
+			return new String[0];
+		}
+
+		public int getID() {
+			return fId;
+		}
+
+		public String getMessage() {
+			return fMessage;
+		}
+
+		public char[] getOriginatingFileName() {
+			return "A.java".toCharArray();
+		}
+
+		public int getSourceStart() {
+			return fStart;
+		}
+
+		public int getSourceEnd() {
+			return fEnd;
+		}
+
+		public int getSourceLineNumber() {
+			return 1;
+		}
+
+		public boolean isError() {
+			return true;
+		}
+
+		public boolean isWarning() {
+			return false;
+		}
+
+		public void setSourceStart(int sourceStart) {
+			fStart= sourceStart;
+		}
+
+		public void setSourceEnd(int sourceEnd) {
+			fEnd= sourceEnd;
+		}
+
+		public void setSourceLineNumber(int lineNumber) {
+		}
+	}
+
+	private static class EventRecorder implements IAnnotationModelListenerExtension {
+		List<AnnotationModelEvent> fEvents= new ArrayList<AnnotationModelEvent>();
+
+		public void modelChanged(AnnotationModelEvent event) {
+			fEvents.add(event);
+		}
+	}
+
+	/**
+	 * A progress monitor which is canceled once {@link #isCanceled()} has been asked a given number of times.
+	 */
+	private static class CancelingMonitor extends NullProgressMonitor {
+		private int fRemainingChecks;
+
+		CancelingMonitor(int checks) {
+			fRemainingChecks= checks;
+		}
+
+		public boolean isCanceled() {
+			if (fRemainingChecks > 0)
+				fRemainingChecks--;
+			else
+				setCanceled(true);
+			return super.isCanceled();
+		}
+	}
+
 	private IJavaProject fJavaProject;
 	private IProject fLinkedProject;
+	private ICompilationUnitDocumentProvider fProvider;
+	private IEditorInput fInput;
 
 	public CompilationUnitDocumentProviderTest(String name) {
 		super(name);
@@ -68,6 +180,9 @@ public class CompilationUnitDocumentProviderTest extends TestCase {
 	 * @throws CoreException if deletion fails
 	 */
 	protected void tearDown() throws CoreException {
+		if (fInput != null)
+			fProvider.disconnect(fInput);
+
 		if (fJavaProject != null)
 			JavaProjectHelper.delete(fJavaProject);
 
@@ -122,6 +237,207 @@ public class CompilationUnitDocumentProviderTest extends TestCase {
 		assertEquals(source, cu.getSource());
 	}
 
+	public void testUnchangedProblemsKeepAnnotations() throws Exception {
+		IAnnotationModel model= connect();
+		EventRecorder recorder= addRecorder(model);
+
+		report(model, new IProblem[] { new TestProblem(1, 10, 5, "one"), new TestProblem(2, 20, 3, "two") });
+		assertEquals(1, recorder.fEvents.size());
+		Annotation one= getProblemAnnotation(model, "one");
+		Annotation two= getProblemAnnotation(model, "two");
+		assertNotNull(one);
+		assertNotNull(two);
+
+		recorder.fEvents.clear();
+		report(model, new IProblem[] { new TestProblem(1, 10, 5, "one"), new TestProblem(2, 20, 3, "two") });
+		assertEquals(0, recorder.fEvents.size());
+		assertSame(one, getProblemAnnotation(model, "one"));
+		assertSame(two, getProblemAnnotation(model, "two"));
+
+		report(model, new IProblem[] { new TestProblem(1, 10, 5, "one"), new TestProblem(3, 20, 3, "three") });
+		assertEquals(1, recorder.fEvents.size());
+		AnnotationModelEvent event= recorder.fEvents.get(0);
+		assertSame(one, getProblemAnnotation(model, "one"));
+		assertNull(getProblemAnnotation(model, "two"));
+		Annotation three= getProblemAnnotation(model, "three");
+		assertNotNull(three);
+		assertEquals(1, event.getRemovedAnnotations().length);
+		assertSame(two, event.getRemovedAnnotations()[0]);
+		assertEquals(1, event.getAddedAnnotations().length);
+		assertSame(three, event.getAddedAnnotations()[0]);
+	}
+
+	public void testEqualProblemsKeepAllAnnotations() throws Exception {
+		IAnnotationModel model= connect();
+		EventRecorder recorder= addRecorder(model);
+
+		report(model, new IProblem[] { new TestProblem(1, 10, 5, "same"), new TestProblem(1, 10, 5, "same") });
+		assertEquals(2, getProblemAnnotations(model, "same").size());
+
+		recorder.fEvents.clear();
+		report(model, new IProblem[] { new TestProblem(1, 10, 5, "same") });
+		assertEquals(1, recorder.fEvents.size());
+		assertEquals(1, recorder.fEvents.get(0).getRemovedAnnotations().length);
+		assertEquals(1, getProblemAnnotations(model, "same").size());
+	}
+
+	public void testMovedProblemKeepsAnnotation() throws Exception {
+		IAnnotationModel model= connect();
+		EventRecorder recorder= addRecorder(model);
+
+		report(model, new IProblem[] { new TestProblem(1, 20, 3, "moved") });
+		Annotation annotation= getProblemAnnotation(model, "moved");
+		assertNotNull(annotation);
+
+		IDocument document= fProvider.getDocument(fInput);
+		document.replace(0, 0, "  ");
+		assertEquals(new Position(22, 3), model.getPosition(annotation));
+
+		recorder.fEvents.clear();
+		report(model, new IProblem[] { new TestProblem(1, 22, 3, "moved") });
+		assertEquals(0, recorder.fEvents.size());
+		assertSame(annotation, getProblemAnnotation(model, "moved"));
+
+		// the old position doesn't match the annotation anymore
+		report(model, new IProblem[] { new TestProblem(1, 20, 3, "moved") });
+		assertEquals(1, recorder.fEvents.size());
+		assertNotSame(annotation, getProblemAnnotation(model, "moved"));
+	}
+
+	public void testMarkerOverlay() throws Exception {
+		IAnnotationModel model= connect();
+		JavaMarkerAnnotation marker= createMarkerAnnotation(model, 10, 5);
+		EventRecorder recorder= addRecorder(model);
+
+		report(model, new IProblem[] { new TestProblem(1, 10, 5, "overlay") });
+		IJavaAnnotation problem= (IJavaAnnotation) getProblemAnnotation(model, "overlay");
+		assertSame(problem, marker.getOverlay());
+		assertEquals(1, recorder.fEvents.size());
+		assertChanged(recorder.fEvents.get(0), marker);
+
+		// the kept problem annotation still overlays the marker, nothing to repaint
+		recorder.fEvents.clear();
+		report(model, new IProblem[] { new TestProblem(1, 10, 5, "overlay") });
+		assertSame(problem, marker.getOverlay());
+		assertEquals(0, recorder.fEvents.size());
+
+		report(model, new IProblem[0]);
+		assertFalse(marker.hasOverlay());
+		assertEquals(1, recorder.fEvents.size());
+		assertChanged(recorder.fEvents.get(0), marker);
+	}
+
+	public void testMarkerOverlayAfterEdit() throws Exception {
+		IAnnotationModel model= connect();
+		JavaMarkerAnnotation marker= createMarkerAnnotation(model, 10, 5);
+
+		report(model, new IProblem[] { new TestProblem(1, 10, 5, "overlay") });
+		assertTrue(marker.hasOverlay());
+
+		IDocument document= fProvider.getDocument(fInput);
+		document.replace(0, 0, "  ");
+		assertEquals(new Position(12, 5), model.getPosition(marker));
+
+		// the marker is found at its new position
+		EventRecorder recorder= addRecorder(model);
+		report(model, new IProblem[] { new TestProblem(2, 12, 5, "moved") });
+		assertSame(getProblemAnnotation(model, "moved"), marker.getOverlay());
+		assertEquals(1, recorder.fEvents.size());
+		assertChanged(recorder.fEvents.get(0), marker);
+	}
+
+	public void testCanceledReportKeepsRemainingAnnotations() throws Exception {
+		IAnnotationModel model= connect();
+		report(model, new IProblem[] { new TestProblem(1, 10, 5, "one"), new TestProblem(2, 20, 3, "two") });
+		Annotation one= getProblemAnnotation(model, "one");
+		Annotation two= getProblemAnnotation(model, "two");
+		assertNotNull(one);
+		assertNotNull(two);
+
+		// canceled after the first problem has been processed
+		((IProblemRequestorExtension) model).setProgressMonitor(new CancelingMonitor(2));
+		report(model, new IProblem[] { new TestProblem(1, 10, 5, "one"), new TestProblem(3, 20, 3, "three") });
+		assertSame(one, getProblemAnnotation(model, "one"));
+		assertSame(two, getProblemAnnotation(model, "two"));
+		assertNull(getProblemAnnotation(model, "three"));
+
+		// the kept annotation is removed by the next complete report
+		((IProblemRequestorExtension) model).setProgressMonitor(null);
+		report(model, new IProblem[] { new TestProblem(1, 10, 5, "one"), new TestProblem(3, 20, 3, "three") });
+		assertSame(one, getProblemAnnotation(model, "one"));
+		assertNull(getProblemAnnotation(model, "two"));
+		assertNotNull(getProblemAnnotation(model, "three"));
+	}
+
+	private IAnnotationModel connect() throws CoreException {
+		setupProject();
+		IFile file= ResourcesPlugin.getWorkspace().getRoot().getFile(new Path("/P/src/testA/testB/A.java"));
+		fProvider= JavaPlugin.getDefault().getCompilationUnitDocumentProvider();
+		fInput= new FileEditorInput(file);
+		fProvider.connect(fInput);
+
+		IAnnotationModel model= fProvider.getAnnotationModel(fInput);
+		assertTrue(model instanceof IProblemRequestor);
+		((IProblemRequestorExtension) model).setIsHandlingTemporaryProblems(true);
+		return model;
+	}
+
+	private static EventRecorder addRecorder(IAnnotationModel model) {
+		EventRecorder recorder= new EventRecorder();
+		model.addAnnotationModelListener(recorder);
+		return recorder;
+	}
+
+	private static void report(IAnnotationModel model, IProblem[] problems) {
+		IProblemRequestor requestor= (IProblemRequestor) model;
+		requestor.beginReporting();
+		for (int i= 0; i < problems.length; i++)
+			requestor.acceptProblem(problems[i]);
+		requestor.endReporting();
+	}
+
+	private static List<Annotation> getProblemAnnotations(IAnnotationModel model, String message) {
+		List<Annotation> annotations= new ArrayList<Annotation>();
+		for (Iterator<?> iter= model.getAnnotationIterator(); iter.hasNext();) {
+			Annotation annotation= (Annotation) iter.next();
+			if (!(annotation instanceof JavaMarkerAnnotation) && message.equals(annotation.getText()))
+				annotations.add(annotation);
+		}
+		return annotations;
+	}
+
+	private static Annotation getProblemAnnotation(IAnnotationModel model, String message) {
+		List<Annotation> annotations= getProblemAnnotations(model, message);
+		assertTrue(annotations.size() <= 1);
+		return annotations.isEmpty() ? null : annotations.get(0);
+	}
+
+	private JavaMarkerAnnotation createMarkerAnnotation(IAnnotationModel model, int offset, int length) throws CoreException {
+		Map<String, Object> attributes= new HashMap<String, Object>();
+		attributes.put(IMarker.SEVERITY, new Integer(IMarker.SEVERITY_ERROR));
+		attributes.put(IMarker.CHAR_START, new Integer(offset));
+		attributes.put(IMarker.CHAR_END, new Integer(offset + length));
+		attributes.put(IMarker.MESSAGE, "marker");
+		MarkerUtilities.createMarker(((FileEditorInput) fInput).getFile(), attributes, IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER);
+
+		for (Iterator<?> iter= model.getAnnotationIterator(); iter.hasNext();) {
+			Object annotation= iter.next();
+			if (annotation instanceof JavaMarkerAnnotation && "marker".equals(((Annotation) annotation).getText()))
+				return (JavaMarkerAnnotation) annotation;
+		}
+		fail("marker annotation not found");
+		return null;
+	}
+
+	private static void assertChanged(AnnotationModelEvent event, Annotation annotation) {
+		Annotation[] changed= event.getChangedAnnotations();
+		for (int i= 0; i < changed.length; i++) {
+			if (changed[i] == annotation)
+				return;
+		}
+		fail("annotation not reported as changed");
+	}
+
 	private void checkFile(IFile file) throws CoreException {
 		assertNotNull(file);
 		IEditorInput input= new FileEditorInput(file);
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.text.tests.performance.EditorTestHelper;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.text.tests.Accessor;
+
+import org.eclipse.jface.text.reconciler.AbstractReconciler;
+
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+import org.eclipse.jdt.internal.ui.text.JavaCompositeReconcilingStrategy;
+import org.eclipse.jdt.internal.ui.text.JavaReconciler;
+
+
+/**
+ * Tests how the Java reconciler adapts its delay to the reconcile time.
+ *
+ * @since 3.9
+ */
+public class JavaReconcilerTest extends TestCase {
+
+	private static final int BASE_DELAY= 500;
+	private static final int MAX_DELAY= 3000;
+
+	private JavaReconciler fReconciler;
+	private Accessor fReconcilerAccessor;
+	private Accessor fDelayAccessor;
+
+	public static Test suite() {
+		return new JUnitProjectTestSetup(new TestSuite(JavaReconcilerTest.class));
+	}
+
+	protected void setUp() throws Exception {
+		IFile file= ResourcesPlugin.getWorkspace().getRoot().getFile(new Path("/" + JUnitProjectTestSetup.getProject().getElementName() + "/src/junit/framework/TestCase.java"));
+		JavaEditor editor= (JavaEditor) EditorTestHelper.openInEditor(file, true);
+		assertNotNull(editor);
+
+		// not installed, thus it doesn't reconcile by itself
+		JavaCompositeReconcilingStrategy strategy= new JavaCompositeReconcilingStrategy(editor.getViewer(), editor, IJavaPartitions.JAVA_PARTITIONING);
+		fReconciler= new JavaReconciler(editor, strategy, false);
+		fReconciler.setDelay(BASE_DELAY);
+		fReconcilerAccessor= new Accessor(fReconciler, JavaReconciler.class);
+		fDelayAccessor= new Accessor(fReconciler, AbstractReconciler.class);
+	}
+
+	protected void tearDown() throws Exception {
+		EditorTestHelper.closeAllEditors();
+	}
+
+	private void reconciled(long time) {
+		fReconcilerAccessor.invoke("reconciled", new Class[] { long.class }, new Object[] { new Long(time) });
+	}
+
+	private int getDelay() {
+		return fDelayAccessor.getInt("fDelay");
+	}
+
+	public void testCheapReconcilesKeepBaseDelay() {
+		assertEquals(BASE_DELAY, getDelay());
+		for (int i= 0; i < 10; i++) {
+			reconciled(100);
+			assertEquals(BASE_DELAY, getDelay());
+		}
+	}
+
+	public void testDelayFollowsAverage() {
+		reconciled(100);
+		assertEquals(BASE_DELAY, getDelay());
+
+		// weighted average: 0.25 * 10000 + 0.75 * 100
+		reconciled(10000);
+		assertEquals(2575, getDelay());
+	}
+
+	public void testDelayIsClampedToMaximum() {
+		for (int i= 0; i < 10; i++)
+			reconciled(10000);
+		assertEquals(MAX_DELAY, getDelay());
+
+		// the average decreases again, but never below the base delay
+		for (int i= 0; i < 50; i++)
+			reconciled(0);
+		assertEquals(BASE_DELAY, getDelay());
+	}
+
+	public void testCanceledReconcileKeepsDelay() {
+		reconciled(2000);
+		assertEquals(2000, getDelay());
+
+		NullProgressMonitor monitor= new NullProgressMonitor();
+		monitor.setCanceled(true);
+		fReconciler.setProgressMonitor(monitor);
+		reconciled(10000);
+		assertEquals(2000, getDelay());
+
+		fReconciler.setProgressMonitor(new NullProgressMonitor());
+		reconciled(2000);
+		assertEquals(2000, getDelay());
+	}
+
+	public void testSetDelayRaisesMinimum() {
+		reconciled(1000);
+		assertEquals(1000, getDelay());
+
+		fReconciler.setDelay(1500);
+		reconciled(1000);
+		assertEquals(1500, getDelay());
+	}
+}
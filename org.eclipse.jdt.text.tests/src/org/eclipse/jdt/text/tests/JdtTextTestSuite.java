@@ -29,6 +29,7 @@ public class JdtTextTestSuite {
 		TestSuite suite = new TestSuite("JDT Text Test Suite"); //$NON-NLS-1$
 		//$JUnit-BEGIN$
 		suite.addTestSuite(CompilationUnitDocumentProviderTest.class);
+		suite.addTest(JavaReconcilerTest.suite());
 		suite.addTest(JavaHeuristicScannerTest.suite());
 		suite.addTest(JavaParameterListValidatorTest.suite());
 		suite.addTest(JavaDoc2HTMLTextReaderTester.suite());
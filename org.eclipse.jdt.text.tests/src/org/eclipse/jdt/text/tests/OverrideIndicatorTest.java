@@ -12,7 +12,9 @@
 package org.eclipse.jdt.text.tests;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -137,6 +139,72 @@ public class OverrideIndicatorTest extends TestCase {
 		}
 	}
 
+	public void testAddAndRemoveOverridingMethod() throws Exception {
+		testCountOverrideIndicators();
+		List previousAnnotations= Arrays.asList(fOverrideAnnotations);
+
+		String method= "public int hashCode() { return 0; }\n";
+		int offset= fDocument.get().lastIndexOf('}');
+		fDocument.replace(offset, 0, method);
+		waitForOverrideIndicators(4, "overrides java.lang.Object.hashCode");
+		assertTrue(Arrays.asList(fOverrideAnnotations).containsAll(previousAnnotations));
+
+		fDocument.replace(offset, method.length(), "");
+		waitForOverrideIndicators(3, null);
+		assertEquals(previousAnnotations.size(), fOverrideAnnotations.length);
+		assertTrue(Arrays.asList(fOverrideAnnotations).containsAll(previousAnnotations));
+	}
+
+	public void testChangedSupertypeInSameFile() throws Exception {
+		testCountOverrideIndicators();
+
+		int offset= fDocument.getLength();
+		fDocument.replace(offset, 0, "\nabstract class Base { void m() {} }\nabstract class Sub extends Base { void m() {} }\n");
+		waitForOverrideIndicators(4, "overrides junit.framework.Base.m");
+
+		// make the overridden method abstract
+		int methodOffset= fDocument.get().indexOf("void m() {}", offset);
+		fDocument.replace(methodOffset, "void m() {}".length(), "abstract void m();");
+		waitForOverrideIndicators(4, "implements junit.framework.Base.m");
+
+		// rename the overridden method
+		methodOffset= fDocument.get().indexOf("abstract void m();", offset);
+		fDocument.replace(methodOffset, "abstract void m();".length(), "abstract void n();");
+		waitForOverrideIndicators(3, null);
+	}
+
+	/**
+	 * Waits until the annotation model has the given number of override indicators.
+	 *
+	 * @param count the number of override indicators
+	 * @param text the text of one of the override indicators, or <code>null</code>
+	 */
+	private void waitForOverrideIndicators(int count, String text) {
+		long timeOut= System.currentTimeMillis() + 60000;
+		while (true) {
+			EditorTestHelper.runEventQueue(fEditor);
+			computeOverrideIndicators();
+			if (fOverrideAnnotations.length == count && (text == null || hasOverrideIndicator(text)))
+				break;
+
+			synchronized (this) {
+				try {
+					wait(200);
+				} catch (InterruptedException e1) {
+				}
+			}
+			assertTrue(System.currentTimeMillis() < timeOut);
+		}
+	}
+
+	private boolean hasOverrideIndicator(String text) {
+		for (int i= 0; i < fOverrideAnnotations.length; i++) {
+			if (text.equals(fOverrideAnnotations[i].getText()))
+				return true;
+		}
+		return false;
+	}
+
 	private void computeOverrideIndicators() {
 		ArrayList annotations= new ArrayList();
 		Iterator iter= fAnnotationModel.getAnnotationIterator();
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.spelling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+
+import org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector;
+import org.eclipse.ui.texteditor.spelling.SpellingContext;
+import org.eclipse.ui.texteditor.spelling.SpellingProblem;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.text.spelling.JavaSpellingEngine;
+import org.eclipse.jdt.internal.ui.text.spelling.SpellCheckEngine;
+import org.eclipse.jdt.text.tests.spelling.SpellCheckEngineTestCase.TestDictionary;
+
+/**
+ * Tests that the spelling problems reported by {@link JavaSpellingEngine} don't depend on
+ * the partitions and words it remembers from previous checks.
+ *
+ * @since 3.9
+ */
+public class JavaSpellingEngineTest extends TestCase {
+
+	private static final String MISSPELLED= "qwzxv"; //$NON-NLS-1$
+	private static final String ADDED= "vxzwq"; //$NON-NLS-1$
+
+	private static class Collector implements ISpellingProblemCollector {
+		final List<String> fProblems= new ArrayList<String>();
+
+		public void accept(SpellingProblem problem) {
+			fProblems.add(problem.getOffset() + ":" + problem.getLength()); //$NON-NLS-1$
+		}
+
+		public void beginCollecting() {
+		}
+
+		public void endCollecting() {
+		}
+	}
+
+	public static Test suite() {
+		return new TestSuite(JavaSpellingEngineTest.class);
+	}
+
+	private final IPreferenceStore fPreferences= PreferenceConstants.getPreferenceStore();
+	private final TestDictionary fDictionary= new TestDictionary();
+	private String fLocale;
+	private int fThreshold;
+
+	public JavaSpellingEngineTest(String name) {
+		super(name);
+	}
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fLocale= fPreferences.getString(PreferenceConstants.SPELLING_LOCALE);
+		fThreshold= fPreferences.getInt(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD);
+		fPreferences.setValue(PreferenceConstants.SPELLING_LOCALE, Locale.US.toString());
+		fPreferences.setValue(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD, 100000);
+		SpellCheckEngine.getInstance().registerGlobalDictionary(fDictionary);
+	}
+
+	protected void tearDown() throws Exception {
+		SpellCheckEngine.getInstance().unregisterDictionary(fDictionary);
+		fDictionary.unload();
+		fPreferences.setValue(PreferenceConstants.SPELLING_LOCALE, fLocale);
+		fPreferences.setValue(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD, fThreshold);
+		super.tearDown();
+	}
+
+	private static IDocument createDocument(String content) {
+		IDocument document= new Document(content);
+		JavaPlugin.getDefault().getJavaTextTools().setupJavaDocumentPartitioner(document, IJavaPartitions.JAVA_PARTITIONING);
+		return document;
+	}
+
+	private static List<String> check(IDocument document) {
+		Collector collector= new Collector();
+		new JavaSpellingEngine().check(document, new IRegion[] { new Region(0, document.getLength()) }, new SpellingContext(), collector, null);
+		return collector.fProblems;
+	}
+
+	private static List<String> getExpectedProblems(IDocument document, String word) {
+		List<String> expected= new ArrayList<String>();
+		String content= document.get();
+		for (int offset= content.indexOf(word); offset != -1; offset= content.indexOf(word, offset + 1))
+			expected.add(offset + ":" + word.length()); //$NON-NLS-1$
+		return expected;
+	}
+
+	private static String createSource(int comments) {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test;\n"); //$NON-NLS-1$
+		buf.append("public class A {\n"); //$NON-NLS-1$
+		for (int i= 0; i < comments; i++) {
+			buf.append("    /** The " + MISSPELLED + " of method " + i + ". */\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			buf.append("    void m" + i + "() {} // " + ADDED + " comment " + i + "\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+		buf.append("}\n"); //$NON-NLS-1$
+		return buf.toString();
+	}
+
+	public void testCheckAgain() throws Exception {
+		IDocument document= createDocument(createSource(3));
+		fDictionary.addWord(ADDED);
+		List<String> expected= getExpectedProblems(document, MISSPELLED);
+		assertEquals(3, expected.size());
+		assertEquals(expected, check(document));
+		assertEquals(expected, check(document));
+	}
+
+	public void testMovedAndChangedPartitions() throws Exception {
+		IDocument document= createDocument(createSource(5));
+		fDictionary.addWord(ADDED);
+		check(document);
+
+		// moves all partitions and changes one of them
+		document.replace(0, 0, "/* " + MISSPELLED + " header */\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		int offset= document.get().indexOf("method 2"); //$NON-NLS-1$
+		document.replace(offset, 0, MISSPELLED + " "); //$NON-NLS-1$
+		List<String> expected= getExpectedProblems(document, MISSPELLED);
+		assertEquals(7, expected.size());
+		assertEquals(expected, check(document));
+		assertEquals(check(createDocument(document.get())), check(document));
+	}
+
+	public void testDictionaryChange() throws Exception {
+		IDocument document= createDocument(createSource(3));
+		List<String> misspelled= getExpectedProblems(document, MISSPELLED);
+		List<String> expected= new ArrayList<String>();
+		List<String> added= getExpectedProblems(document, ADDED);
+		for (int i= 0; i < misspelled.size(); i++) {
+			expected.add(misspelled.get(i));
+			expected.add(added.get(i));
+		}
+		assertEquals(expected, check(document));
+
+		fDictionary.addWord(ADDED);
+		assertEquals(misspelled, check(document));
+
+		fDictionary.unload();
+		assertEquals(expected, check(document));
+	}
+
+	public void testConcurrentCheck() throws Exception {
+		// enough changed partitions to be checked concurrently
+		int comments= 32 * Runtime.getRuntime().availableProcessors();
+		IDocument document= createDocument(createSource(comments));
+		fDictionary.addWord(ADDED);
+		List<String> expected= getExpectedProblems(document, MISSPELLED);
+		assertEquals(comments, expected.size());
+		assertEquals(expected, check(document));
+
+		document.replace(0, 0, "\n\n"); //$NON-NLS-1$
+		assertEquals(getExpectedProblems(document, MISSPELLED), check(document));
+	}
+}
@@ -24,6 +24,7 @@ public class AllRefactoringTests {
 		//--code
 		suite.addTest(ExtractMethodTests.suite());
 		suite.addTest(ExtractMethodTests17.suite());
+		suite.addTest(FlowInfoCacheTests.suite());
 		suite.addTest(InlineMethodTests.suite());
 		suite.addTest(ReplaceInvocationsTests.suite());
 		suite.addTest(SefTests.suite());
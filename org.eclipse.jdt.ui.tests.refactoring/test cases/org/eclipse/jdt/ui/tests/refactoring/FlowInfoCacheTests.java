@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring;
+
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+import org.eclipse.jdt.internal.corext.dom.LocalVariableIndex;
+import org.eclipse.jdt.internal.corext.dom.Selection;
+import org.eclipse.jdt.internal.corext.refactoring.code.flow.FlowContext;
+import org.eclipse.jdt.internal.corext.refactoring.code.flow.FlowInfo;
+import org.eclipse.jdt.internal.corext.refactoring.code.flow.InOutFlowAnalyzer;
+import org.eclipse.jdt.internal.corext.refactoring.code.flow.InputFlowAnalyzer;
+import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
+
+import org.eclipse.jdt.internal.ui.javaeditor.ASTProvider;
+
+/**
+ * Tests that flow infos which are cached on the AST give the same results as a
+ * flow analysis of a freshly parsed AST.
+ */
+public class FlowInfoCacheTests extends RefactoringTest {
+
+	private static final Class clazz= FlowInfoCacheTests.class;
+
+	private static final String CACHE_PROPERTY= "org.eclipse.jdt.internal.corext.refactoring.code.flow.FlowInfoCache";
+
+	private static final int READS= FlowInfo.READ | FlowInfo.READ_POTENTIAL | FlowInfo.UNKNOWN;
+	private static final int WRITES= FlowInfo.WRITE | FlowInfo.WRITE_POTENTIAL | FlowInfo.UNKNOWN;
+
+	public FlowInfoCacheTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new RefactoringTestSetup(new TestSuite(clazz));
+	}
+
+	private ICompilationUnit createCU() throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("class A {\n");
+		buf.append("    int foo(int a, int b) {\n");
+		buf.append("        int x= a;\n");
+		buf.append("        for (int i= 0; i < b; i++) {\n");
+		buf.append("            if (i % 2 == 0)\n");
+		buf.append("                x+= i;\n");
+		buf.append("            else\n");
+		buf.append("                x-= a;\n");
+		buf.append("        }\n");
+		buf.append("        int y= 0;\n");
+		buf.append("        while (x > 0) {\n");
+		buf.append("            y++;\n");
+		buf.append("            x--;\n");
+		buf.append("        }\n");
+		buf.append("        try {\n");
+		buf.append("            y+= b;\n");
+		buf.append("        } finally {\n");
+		buf.append("            a= y;\n");
+		buf.append("        }\n");
+		buf.append("        return x + y + a;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		return createCU(getPackageP(), "A.java", buf.toString());
+	}
+
+	private static MethodDeclaration parse(ICompilationUnit cu) {
+		CompilationUnit root= new RefactoringASTParser(ASTProvider.SHARED_AST_LEVEL).parse(cu, true, null);
+		TypeDeclaration type= (TypeDeclaration) root.types().get(0);
+		return type.getMethods()[0];
+	}
+
+	/**
+	 * Analyzes the selected statements like Extract Method does.
+	 *
+	 * @param method the method
+	 * @param first the index of the first selected statement
+	 * @param last the index of the last selected statement
+	 * @return the names of the locals read and written by the selection, and of the locals read after the selection
+	 */
+	private static String analyze(MethodDeclaration method, int first, int last) {
+		List statements= method.getBody().statements();
+		ASTNode[] selected= (ASTNode[]) statements.subList(first, last + 1).toArray(new ASTNode[last - first + 1]);
+		Statement lastStatement= (Statement) statements.get(last);
+		int start= selected[0].getStartPosition();
+		Selection selection= Selection.createFromStartEnd(start, lastStatement.getStartPosition() + lastStatement.getLength());
+		int maxVariableId= LocalVariableIndex.perform(method);
+
+		FlowContext inputContext= new FlowContext(0, maxVariableId + 1);
+		inputContext.setConsiderAccessMode(true);
+		inputContext.setComputeMode(FlowContext.ARGUMENTS);
+		FlowInfo inputInfo= new InOutFlowAnalyzer(inputContext).perform(selected);
+
+		FlowContext returnContext= new FlowContext(0, maxVariableId + 1);
+		returnContext.setConsiderAccessMode(true);
+		returnContext.setComputeMode(FlowContext.RETURN_VALUES);
+		FlowInfo returnInfo= new InOutFlowAnalyzer(returnContext).perform(selected);
+
+		FlowContext afterContext= new FlowContext(0, maxVariableId + 1);
+		afterContext.setConsiderAccessMode(true);
+		afterContext.setComputeMode(FlowContext.ARGUMENTS);
+		FlowInfo afterInfo= new InputFlowAnalyzer(afterContext, selection, true).perform(method);
+
+		return "in: " + names(inputInfo.get(inputContext, READS))
+				+ ", written: " + names(returnInfo.get(returnContext, WRITES))
+				+ ", read after: " + names(afterInfo.get(afterContext, READS));
+	}
+
+	private static String names(IVariableBinding[] locals) {
+		String[] names= new String[locals.length];
+		for (int i= 0; i < locals.length; i++)
+			names[i]= locals[i].getName();
+		Arrays.sort(names);
+		return Arrays.asList(names).toString();
+	}
+
+	private static void assertSameAnalysis(ICompilationUnit cu, MethodDeclaration cached, int first, int last) {
+		String expected= analyze(parse(cu), first, last);
+		assertEquals(expected, analyze(cached, first, last));
+	}
+
+	public void testCachedSummary() throws Exception {
+		ICompilationUnit cu= createCU();
+		MethodDeclaration method= parse(cu);
+		Statement forStatement= (Statement) method.getBody().statements().get(1);
+
+		assertSameAnalysis(cu, method, 1, 1);
+		assertNotNull(forStatement.getProperty(CACHE_PROPERTY));
+
+		// analyzed again from the cache
+		assertSameAnalysis(cu, method, 1, 1);
+		assertSameAnalysis(cu, method, 1, 1);
+	}
+
+	public void testDifferentSelectionsOnSameAST() throws Exception {
+		ICompilationUnit cu= createCU();
+		MethodDeclaration method= parse(cu);
+
+		int[][] selections= { { 0, 1 }, { 1, 3 }, { 2, 2 }, { 3, 4 }, { 0, 4 }, { 1, 1 }, { 4, 4 }, { 3, 3 } };
+		for (int i= 0; i < selections.length; i++) {
+			int first= selections[i][0];
+			int last= selections[i][1];
+			assertSameAnalysis(cu, method, first, last);
+		}
+		// the same selections in reverse order, now with all summaries cached
+		for (int i= selections.length - 1; i >= 0; i--) {
+			int first= selections[i][0];
+			int last= selections[i][1];
+			assertSameAnalysis(cu, method, first, last);
+		}
+	}
+}
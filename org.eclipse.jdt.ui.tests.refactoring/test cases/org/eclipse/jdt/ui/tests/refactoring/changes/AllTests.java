@@ -21,6 +21,7 @@ public class AllTests {
 		TestSuite suite= new TestSuite("All Change Tests");
 		suite.addTest(TrackPositionTest.suite());
 		suite.addTest(TextDiffContentTest.suite());
+		suite.addTest(TextChangeManagerTest.suite());
 	    return suite;
 	}
 }
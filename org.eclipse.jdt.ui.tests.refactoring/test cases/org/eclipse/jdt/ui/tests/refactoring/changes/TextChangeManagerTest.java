@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring.changes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.text.edits.InsertEdit;
+import org.eclipse.text.edits.MalformedTreeException;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+
+import org.eclipse.ltk.core.refactoring.TextChange;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+
+import org.eclipse.jdt.internal.corext.refactoring.util.TextChangeManager;
+
+import org.eclipse.jdt.ui.tests.refactoring.RefactoringTest;
+import org.eclipse.jdt.ui.tests.refactoring.RefactoringTestSetup;
+
+public class TextChangeManagerTest extends RefactoringTest {
+
+	private static final Class THIS= TextChangeManagerTest.class;
+
+	private static final int THREADS= 8;
+	private static final int EDITS_PER_THREAD= 50;
+
+	public TextChangeManagerTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new RefactoringTestSetup(new TestSuite(THIS));
+	}
+
+	private ICompilationUnit createCU(String name) throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("class " + name + " {\n");
+		for (int i= 0; i < THREADS * EDITS_PER_THREAD; i++)
+			buf.append("    int f" + i + ";\n");
+		buf.append("}\n");
+		return createCU(getPackageP(), name + ".java", buf.toString());
+	}
+
+	/**
+	 * Runs the given appenders in parallel and rethrows the first failure.
+	 *
+	 * @param appenders the runnables to run
+	 * @throws Throwable the first failure of an appender
+	 */
+	private static void runConcurrently(Runnable[] appenders) throws Throwable {
+		final List failures= new ArrayList();
+		Thread[] threads= new Thread[appenders.length];
+		for (int i= 0; i < appenders.length; i++) {
+			final Runnable appender= appenders[i];
+			threads[i]= new Thread("TextChangeManagerTest " + i) {
+				public void run() {
+					try {
+						appender.run();
+					} catch (Throwable e) {
+						synchronized (failures) {
+							failures.add(e);
+						}
+					}
+				}
+			};
+		}
+		for (int i= 0; i < threads.length; i++)
+			threads[i].start();
+		for (int i= 0; i < threads.length; i++)
+			threads[i].join();
+		if (!failures.isEmpty())
+			throw (Throwable) failures.get(0);
+	}
+
+	/**
+	 * Returns a runnable that adds non-overlapping insert edits at the offsets
+	 * <code>first</code>, <code>first + step</code>, ...
+	 *
+	 * @param manager the manager
+	 * @param cu the compilation unit to edit
+	 * @param first the offset of the first edit
+	 * @param step the distance between two edits
+	 * @return the runnable
+	 */
+	private static Runnable appender(final TextChangeManager manager, final ICompilationUnit cu, final int first, final int step) {
+		return new Runnable() {
+			public void run() {
+				for (int i= 0; i < EDITS_PER_THREAD; i++) {
+					int offset= first + i * step;
+					manager.addTextEdit(cu, "edit " + offset, new InsertEdit(offset, "x"));
+				}
+			}
+		};
+	}
+
+	private static void assertEdits(TextChange change, int expected) {
+		TextEdit root= change.getEdit();
+		assertNotNull(root);
+		assertEquals(expected, root.getChildrenSize());
+		assertEquals(expected, change.getTextEditChangeGroups().length);
+		TextEdit[] children= root.getChildren();
+		for (int i= 1; i < children.length; i++)
+			assertTrue(children[i - 1].getOffset() < children[i].getOffset());
+	}
+
+	public void testConcurrentAppendsToSameCU() throws Throwable {
+		ICompilationUnit cu= createCU("A");
+		TextChangeManager manager= new TextChangeManager();
+		Runnable[] appenders= new Runnable[THREADS];
+		for (int i= 0; i < THREADS; i++)
+			appenders[i]= appender(manager, cu, i, THREADS);
+		runConcurrently(appenders);
+
+		assertEquals(1, manager.getAllChanges().length);
+		assertEdits(manager.get(cu), THREADS * EDITS_PER_THREAD);
+	}
+
+	public void testConcurrentAppendsToDifferentCUs() throws Throwable {
+		ICompilationUnit[] cus= new ICompilationUnit[THREADS];
+		for (int i= 0; i < THREADS; i++)
+			cus[THREADS - 1 - i]= createCU("C" + i);
+		TextChangeManager manager= new TextChangeManager();
+		Runnable[] appenders= new Runnable[THREADS * 2];
+		for (int i= 0; i < THREADS; i++) {
+			// two threads per compilation unit, racing to create its change
+			appenders[2 * i]= appender(manager, cus[i], 0, 2);
+			appenders[2 * i + 1]= appender(manager, cus[i], 1, 2);
+		}
+		runConcurrently(appenders);
+
+		TextChange[] changes= manager.getAllChanges();
+		assertEquals(THREADS, changes.length);
+		for (int i= 0; i < THREADS; i++) {
+			// sorted by compilation unit name
+			assertEquals("C" + i + ".java", changes[i].getName());
+			assertSame(manager.get(cus[THREADS - 1 - i]), changes[i]);
+			assertEdits(changes[i], 2 * EDITS_PER_THREAD);
+		}
+	}
+
+	public void testOverlappingEditIsRejected() throws Exception {
+		ICompilationUnit cu= createCU("A");
+		TextChangeManager manager= new TextChangeManager();
+		manager.addTextEdit(cu, "first", new ReplaceEdit(5, 3, "x"));
+		try {
+			manager.addTextEdit(cu, "second", new ReplaceEdit(6, 3, "y"));
+			fail("overlapping edit must be rejected");
+		} catch (MalformedTreeException e) {
+			// expected
+		}
+		assertEdits(manager.get(cu), 1);
+	}
+
+	public void testManageNull() throws Exception {
+		ICompilationUnit cu= createCU("A");
+		TextChangeManager manager= new TextChangeManager();
+		manager.manage(cu, null);
+
+		assertTrue(manager.containsChangesIn(cu));
+		assertEquals(1, manager.getAllCompilationUnits().length);
+		TextChange[] changes= manager.getAllChanges();
+		assertEquals(1, changes.length);
+		assertNull(changes[0]);
+
+		TextChange change= manager.get(cu);
+		assertNotNull(change);
+		assertSame(change, manager.get(cu));
+		assertSame(change, manager.getAllChanges()[0]);
+
+		assertSame(change, manager.remove(cu));
+		assertFalse(manager.containsChangesIn(cu));
+		assertEquals(0, manager.getAllChanges().length);
+	}
+}
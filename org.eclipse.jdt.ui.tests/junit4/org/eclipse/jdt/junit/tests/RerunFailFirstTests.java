@@ -25,6 +25,7 @@ import org.junit.runners.model.InitializationError;
 import org.junit.runners.model.RunnerBuilder;
 
 import org.eclipse.jdt.internal.junit4.runner.FailuresFirstSorter;
+import org.eclipse.jdt.internal.junit4.runner.RankingSorter;
 
 /**
  * Tests for FailuresFirstSorter in org.eclipse.jdt.junit4.runtime.
@@ -123,6 +124,15 @@ public class RerunFailFirstTests {
 		Assert.assertEquals("M0 T2 m3 m1 m2 T3 m1 m2 m3 T1 m2 m3 m1 ", buildDescriptionOrder(runner.getDescription()));
 	}
 
+	@Test
+	public void rankingWithSorter() throws Exception {
+		runner.sort(new Sorter(new RankingSorter(
+				new String[] { "m3(" + Data.T2.class.getName() + ")",
+							   "m1(" + Data.T3.class.getName() + ")",
+							   "m2(" + Data.T2.class.getName() + ")" })));
+		Assert.assertEquals("M0 T2 m3 m2 m1 T3 m1 m2 m3 T1 m2 m3 m1 ", buildDescriptionOrder(runner.getDescription()));
+	}
+
 	private String buildDescriptionOrder(Description description) {
 		StringBuilder sb= new StringBuilder();
 		String displayName= description.getDisplayName();
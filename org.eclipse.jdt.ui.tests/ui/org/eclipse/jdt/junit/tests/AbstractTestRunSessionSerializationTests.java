@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.StringTokenizer;
+import java.util.zip.GZIPOutputStream;
 
 import junit.framework.TestCase;
 
@@ -113,6 +114,26 @@ public class AbstractTestRunSessionSerializationTests extends TestCase {
 					e.printStackTrace();
 				}
 		}
+
+		IFile compressedFile= JUnitWorkspaceTestSetup.getJavaProject().getProject().getFile("testresult.xml.gz");
+		try {
+			ByteArrayOutputStream compressed= new ByteArrayOutputStream();
+			GZIPOutputStream out= new GZIPOutputStream(compressed);
+			out.write(serializationResult.fSerialized.getBytes());
+			out.close();
+			compressedFile.create(new ByteArrayInputStream(compressed.toByteArray()), true, null);
+			TestRunSession imported= JUnitModel.importTestRunSession(compressedFile.getLocation().toFile());
+			// the tests are read from a copy of the imported file
+			compressedFile.delete(true, null);
+			assertEqualSessions(serializationResult.fTestRunSession, imported);
+		} finally {
+			if (compressedFile.exists())
+				try {
+					compressedFile.delete(true, null);
+				} catch (CoreException e) {
+					e.printStackTrace();
+				}
+		}
 	}
 
 	private void assertEqualXML(String expected, String actual) {
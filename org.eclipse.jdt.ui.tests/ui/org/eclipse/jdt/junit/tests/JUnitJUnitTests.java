@@ -37,6 +37,12 @@ public class JUnitJUnitTests {
 
 		suite.addTestSuite(JUnit3TestFinderTest.class);
 		suite.addTestSuite(JUnit4TestFinderTest.class);
+		suite.addTestSuite(TestClassIndexTest.class);
+
+		suite.addTestSuite(StackTraceFilterTest.class);
+		suite.addTestSuite(TestShardPartitionerTest.class);
+		suite.addTestSuite(TestHistoryTest.class);
+		suite.addTestSuite(TestSuiteElementTest.class);
 		//$JUnit-END$
 		return suite;
 	}
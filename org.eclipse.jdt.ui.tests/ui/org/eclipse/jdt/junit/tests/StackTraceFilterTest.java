@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.internal.junit.ui.StackTraceFilter;
+
+public class StackTraceFilterTest extends TestCase {
+
+	private static final String[] PATTERNS= {
+		"org.eclipse.jdt.internal.junit.runner.*",
+		"junit.framework.TestCase",
+		"java.lang.reflect.Method.invoke",
+		"MyTest"
+	};
+
+	public void testPackageFilter() throws Exception {
+		StackTraceFilter filter= new StackTraceFilter(PATTERNS);
+		assertTrue(filter.isFiltered("\tat org.eclipse.jdt.internal.junit.runner.TestExecution.run(TestExecution.java:38)"));
+		assertFalse(filter.isFiltered("\tat org.eclipse.jdt.internal.junit.TestRunner.run(TestRunner.java:38)"));
+	}
+
+	public void testClassFilter() throws Exception {
+		StackTraceFilter filter= new StackTraceFilter(PATTERNS);
+		assertTrue(filter.isFiltered("\tat junit.framework.TestCase.runTest(TestCase.java:168)"));
+		assertFalse(filter.isFiltered("\tat junit.framework.TestCaseExtension.runTest(TestCaseExtension.java:10)"));
+		assertTrue(filter.isFiltered("\tat MyTest.testFoo(MyTest.java:10)"));
+		assertFalse(filter.isFiltered("\tat p.MyTest.testFoo(MyTest.java:10)"));
+	}
+
+	public void testMethodFilter() throws Exception {
+		StackTraceFilter filter= new StackTraceFilter(PATTERNS);
+		assertTrue(filter.isFiltered("\tat java.lang.reflect.Method.invoke(Method.java:597)"));
+		assertFalse(filter.isFiltered("\tat java.lang.reflect.Method.getName(Method.java:20)"));
+	}
+
+	public void testMatchAtLineStart() throws Exception {
+		StackTraceFilter filter= new StackTraceFilter(PATTERNS);
+		assertFalse(filter.isFiltered("junit.framework.TestCase.runTest"));
+	}
+
+	public void testFilter() throws Exception {
+		StackTraceFilter filter= new StackTraceFilter(PATTERNS);
+		String nl= System.getProperty("line.separator");
+		String trace= "java.lang.AssertionError\n"
+			+ "\tat p.FooTest.testFoo(FooTest.java:12)\n"
+			+ "\tat java.lang.reflect.Method.invoke(Method.java:597)\r\n"
+			+ "\tat junit.framework.TestCase.runTest(TestCase.java:168)\n";
+		String expected= "java.lang.AssertionError" + nl
+			+ "\tat p.FooTest.testFoo(FooTest.java:12)" + nl;
+		assertEquals(expected, filter.filter(trace));
+	}
+
+	public void testNoPatterns() throws Exception {
+		String trace= "java.lang.AssertionError\n\tat p.FooTest.testFoo(FooTest.java:12)";
+		assertSame(trace, new StackTraceFilter(new String[0]).filter(trace));
+	}
+
+	public void testSharedFilter() throws Exception {
+		StackTraceFilter filter= StackTraceFilter.forPatterns(PATTERNS);
+		assertSame(filter, StackTraceFilter.forPatterns(PATTERNS.clone()));
+		assertNotSame(filter, StackTraceFilter.forPatterns(new String[] { "org.*" }));
+	}
+}
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.junit.JUnitCore;
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.junit.launcher.TestClassIndex;
+
+public class TestClassIndexTest extends TestCase {
+
+	private IJavaProject fProject;
+	private IPackageFragment fPackage;
+	private TestClassIndex fIndex;
+	private IJavaProject fOtherProject;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject= JavaProjectHelper.createJavaProject("TestProject", "bin");
+		JavaProjectHelper.addRTJar(fProject);
+		IClasspathEntry cpe= JavaCore.newContainerEntry(JUnitCore.JUNIT4_CONTAINER_PATH);
+		JavaProjectHelper.addToClasspath(fProject, cpe);
+		JavaProjectHelper.set15CompilerOptions(fProject);
+		IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fProject, "src");
+		fPackage= root.createPackageFragment("p", true, null);
+
+		fIndex= new TestClassIndex();
+		JavaCore.addElementChangedListener(fIndex, ElementChangedEvent.POST_CHANGE);
+	}
+
+	protected void tearDown() throws Exception {
+		JavaCore.removeElementChangedListener(fIndex);
+		JavaProjectHelper.delete(fProject);
+		if (fOtherProject != null)
+			JavaProjectHelper.delete(fOtherProject);
+		super.tearDown();
+	}
+
+	private ICompilationUnit createTest(String name) throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("import org.junit.Test;\n");
+		buf.append("public class " + name + " {\n");
+		buf.append("    @Test public void testFoo() {}\n");
+		buf.append("}\n");
+		return fPackage.createCompilationUnit(name + ".java", buf.toString(), true, null);
+	}
+
+	private ICompilationUnit createClass(String name, String superclass) throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("public class " + name + (superclass != null ? " extends " + superclass : "") + " {\n");
+		buf.append("    public void foo() {}\n");
+		buf.append("}\n");
+		return fPackage.createCompilationUnit(name + ".java", buf.toString(), true, null);
+	}
+
+	private static void assertTests(TestClassIndex index, IJavaProject project, String[] expected) throws Exception {
+		Set result= new HashSet();
+		assertTrue(index.findTests(project, result, null));
+		Set names= new HashSet();
+		for (Iterator iter= result.iterator(); iter.hasNext();)
+			names.add(((IType) iter.next()).getFullyQualifiedName('.'));
+		assertEquals(new HashSet(Arrays.asList(expected)), names);
+	}
+
+	public void testIndexProject() throws Exception {
+		IType test= createTest("ATest").findPrimaryType();
+		IType other= createClass("Other", null).findPrimaryType();
+		createClass("SubTest", "ATest");
+
+		assertNull(fIndex.isTest(test)); // not indexed yet
+		assertTests(fIndex, fProject, new String[] { "p.ATest", "p.SubTest" });
+		assertEquals(Boolean.TRUE, fIndex.isTest(test));
+		assertEquals(Boolean.FALSE, fIndex.isTest(other));
+
+		Set result= new HashSet();
+		assertTrue(fIndex.findTests(fPackage, result, null));
+		assertEquals(2, result.size());
+		result.clear();
+		assertTrue(fIndex.findTests(test.getCompilationUnit(), result, null));
+		assertEquals(new HashSet(Arrays.asList(new IType[] { test })), result);
+	}
+
+	public void testAddAndRemoveTest() throws Exception {
+		createTest("ATest");
+		assertTests(fIndex, fProject, new String[] { "p.ATest" });
+
+		ICompilationUnit added= createTest("BTest");
+		assertNull(fIndex.isTest(added.findPrimaryType())); // changed, evaluated when asked for tests
+		assertTests(fIndex, fProject, new String[] { "p.ATest", "p.BTest" });
+		assertEquals(Boolean.TRUE, fIndex.isTest(added.findPrimaryType()));
+
+		added.delete(true, null);
+		assertTests(fIndex, fProject, new String[] { "p.ATest" });
+	}
+
+	public void testChangedSuperclass() throws Exception {
+		ICompilationUnit base= createClass("Base", null);
+		createClass("Sub", "Base");
+		assertTests(fIndex, fProject, new String[0]);
+
+		// the superclass becomes a test, so does its subclass in another file
+		StringBuffer buf= new StringBuffer();
+		buf.append("package p;\n");
+		buf.append("import org.junit.Test;\n");
+		buf.append("public class Base {\n");
+		buf.append("    @Test public void foo() {}\n");
+		buf.append("}\n");
+		base.getBuffer().setContents(buf.toString());
+		base.save(null, true);
+		assertTests(fIndex, fProject, new String[] { "p.Base", "p.Sub" });
+
+		// and stops being one
+		base.getBuffer().setContents(base.getSource().replaceAll("@Test ", ""));
+		base.save(null, true);
+		assertTests(fIndex, fProject, new String[0]);
+	}
+
+	public void testUnsavedWorkingCopy() throws Exception {
+		IType test= createTest("ATest").findPrimaryType();
+		assertTests(fIndex, fProject, new String[] { "p.ATest" });
+
+		ICompilationUnit cu= test.getCompilationUnit();
+		cu.becomeWorkingCopy(null);
+		try {
+			cu.getBuffer().setContents(cu.getSource().replaceAll("@Test ", ""));
+			cu.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			// the index doesn't know the working copy's contents
+			assertFalse(fIndex.findTests(fProject, new HashSet(), null));
+			assertNull(fIndex.isTest(test));
+		} finally {
+			cu.discardWorkingCopy();
+		}
+		assertTests(fIndex, fProject, new String[] { "p.ATest" });
+	}
+
+	public void testSaveAndRestore() throws Exception {
+		IType test= createTest("ATest").findPrimaryType();
+		assertTests(fIndex, fProject, new String[] { "p.ATest" });
+		File file= File.createTempFile("testClassIndex", ".txt");
+		try {
+			fIndex.save(file);
+
+			TestClassIndex restored= new TestClassIndex();
+			restored.restore(file, null);
+			assertEquals(Boolean.TRUE, restored.isTest(test));
+
+			// changes since the file was saved are applied from the resource delta
+			final TestClassIndex restoredWithChanges= new TestClassIndex();
+			final File indexFile= file;
+			final boolean[] done= { false };
+			IResourceChangeListener listener= new IResourceChangeListener() {
+				public void resourceChanged(IResourceChangeEvent event) {
+					if (!done[0] && event.getDelta() != null) {
+						done[0]= true;
+						restoredWithChanges.restore(indexFile, event.getDelta());
+					}
+				}
+			};
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+			IType added;
+			try {
+				added= createTest("BTest").findPrimaryType();
+			} finally {
+				ResourcesPlugin.getWorkspace().removeResourceChangeListener(listener);
+			}
+			assertTrue(done[0]);
+			assertEquals(Boolean.TRUE, restoredWithChanges.isTest(test));
+			assertNull(restoredWithChanges.isTest(added));
+			assertTests(restoredWithChanges, fProject, new String[] { "p.ATest", "p.BTest" });
+
+			// no delta means the changes are unknown
+			TestClassIndex cleared= new TestClassIndex();
+			cleared.restore(null, null);
+			assertNull(cleared.isTest(test));
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testCanceledUpdateKeepsChanges() throws Exception {
+		createTest("ATest");
+		assertTests(fIndex, fProject, new String[] { "p.ATest" });
+
+		ICompilationUnit added= createTest("BTest");
+		NullProgressMonitor canceled= new NullProgressMonitor();
+		canceled.setCanceled(true);
+		try {
+			fIndex.findTests(fProject, new HashSet(), canceled);
+			fail("update must be canceled");
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		// the changed compilation unit is evaluated by the next request
+		assertNull(fIndex.isTest(added.findPrimaryType()));
+		assertTests(fIndex, fProject, new String[] { "p.ATest", "p.BTest" });
+		assertEquals(Boolean.TRUE, fIndex.isTest(added.findPrimaryType()));
+	}
+
+	public void testChangesInOtherProjects() throws Exception {
+		fOtherProject= JavaProjectHelper.createJavaProject("OtherProject", "bin");
+		JavaProjectHelper.addRTJar(fOtherProject);
+		IPackageFragment otherPackage= JavaProjectHelper.addSourceContainer(fOtherProject, "src").createPackageFragment("q", true, null);
+
+		IType test= createTest("ATest").findPrimaryType();
+		assertTests(fIndex, fProject, new String[] { "p.ATest" });
+
+		// a change in a project which the indexed project doesn't require
+		otherPackage.createCompilationUnit("Other.java", "package q;\npublic class Other {}\n", true, null);
+		assertEquals(Boolean.TRUE, fIndex.isTest(test));
+	}
+
+	public void testChangesInRequiredProjects() throws Exception {
+		fOtherProject= JavaProjectHelper.createJavaProject("OtherProject", "bin");
+		JavaProjectHelper.addRTJar(fOtherProject);
+		IPackageFragment otherPackage= JavaProjectHelper.addSourceContainer(fOtherProject, "src").createPackageFragment("q", true, null);
+		JavaProjectHelper.addRequiredProject(fProject, fOtherProject);
+
+		IType test= createTest("ATest").findPrimaryType();
+		assertTests(fIndex, fProject, new String[] { "p.ATest" });
+		assertEquals(Boolean.TRUE, fIndex.isTest(test));
+
+		// a class in a required project may become a superclass of tests
+		otherPackage.createCompilationUnit("Base.java", "package q;\npublic class Base {}\n", true, null);
+		assertNull(fIndex.isTest(test));
+		assertTests(fIndex, fProject, new String[] { "p.ATest" });
+		assertEquals(Boolean.TRUE, fIndex.isTest(test));
+	}
+}
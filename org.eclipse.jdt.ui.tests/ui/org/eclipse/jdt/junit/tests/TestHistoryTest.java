@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
+import org.eclipse.jdt.internal.junit.model.TestHistory;
+
+public class TestHistoryTest extends TestCase {
+
+	private static final String FAILURES_FIRST= JUnitLaunchConfigurationConstants.TEST_ORDER_FAILURES_FIRST;
+	private static final String SLOWEST_FIRST= JUnitLaunchConfigurationConstants.TEST_ORDER_SLOWEST_FIRST;
+
+	private File fFile;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fFile= File.createTempFile("testHistory", ".txt");
+		fFile.delete();
+	}
+
+	protected void tearDown() throws Exception {
+		fFile.delete();
+		super.tearDown();
+	}
+
+	private static String[] readLines(File file) throws IOException {
+		List lines= new ArrayList();
+		BufferedReader reader= new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+		try {
+			String line;
+			while ((line= reader.readLine()) != null)
+				lines.add(line);
+		} finally {
+			reader.close();
+		}
+		return (String[]) lines.toArray(new String[lines.size()]);
+	}
+
+	public void testEmpty() throws Exception {
+		TestHistory history= new TestHistory(fFile, 10);
+		assertTrue(Double.isNaN(history.getDuration("testA(p.A)")));
+		assertTrue(Double.isNaN(history.getFailureRate("testA(p.A)")));
+		assertEquals(0, history.getRunCount("testA(p.A)"));
+		assertEquals(0, history.getPrioritizedTestNames(SLOWEST_FIRST).length);
+		assertNull(history.createPrioritiesFile(SLOWEST_FIRST, new HashSet(Arrays.asList(new String[] { "p.A" }))));
+		history.save();
+		assertFalse(fFile.exists());
+	}
+
+	public void testMovingAverage() throws Exception {
+		TestHistory history= new TestHistory(fFile, 10);
+		history.addRun("testA(p.A)", 2.0, false);
+		assertEquals(2.0, history.getDuration("testA(p.A)"), 0.0001);
+		assertEquals(0.0, history.getFailureRate("testA(p.A)"), 0.0001);
+		history.addRun("testA(p.A)", 4.0, true);
+		assertEquals(0.3 * 4.0 + 0.7 * 2.0, history.getDuration("testA(p.A)"), 0.0001);
+		assertEquals(0.3, history.getFailureRate("testA(p.A)"), 0.0001);
+		assertEquals(2, history.getRunCount("testA(p.A)"));
+	}
+
+	public void testSaveAndLoad() throws Exception {
+		TestHistory history= new TestHistory(fFile, 10);
+		history.addRun("testA(p.A)", 1.5, false);
+		history.addRun("testB(p.A)", 0.25, true);
+		history.addRun("testC(p.B$Inner)", 3.0, false);
+		history.save();
+		assertTrue(fFile.isFile());
+		assertEquals(3, readLines(fFile).length);
+
+		TestHistory loaded= new TestHistory(fFile, 10);
+		assertEquals(1.5, loaded.getDuration("testA(p.A)"), 0.0001);
+		assertEquals(0.25, loaded.getDuration("testB(p.A)"), 0.0001);
+		assertEquals(1.0, loaded.getFailureRate("testB(p.A)"), 0.0001);
+		assertEquals(1, loaded.getRunCount("testC(p.B$Inner)"));
+		assertEquals(Arrays.asList(new String[] { "testA(p.A)", "testB(p.A)", "testC(p.B$Inner)" }), Arrays.asList(readNames(fFile)));
+
+		Map durations= loaded.getClassDurations();
+		assertEquals(2, durations.size());
+		assertEquals(1.75, ((Double) durations.get("p.A")).doubleValue(), 0.0001);
+		assertEquals(3.0, ((Double) durations.get("p.B.Inner")).doubleValue(), 0.0001);
+	}
+
+	private static String[] readNames(File file) throws IOException {
+		String[] lines= readLines(file);
+		for (int i= 0; i < lines.length; i++)
+			lines[i]= lines[i].substring(lines[i].lastIndexOf('\t') + 1);
+		return lines;
+	}
+
+	public void testSaveOnlyWhenChanged() throws Exception {
+		TestHistory history= new TestHistory(fFile, 10);
+		history.addRun("testA(p.A)", 1.0, false);
+		history.save();
+		assertTrue(fFile.delete());
+		history.getDuration("testA(p.A)");
+		history.save();
+		assertFalse(fFile.exists());
+	}
+
+	public void testRanking() throws Exception {
+		TestHistory history= new TestHistory(fFile, 10);
+		history.addRun("testFast(p.A)", 0.5, false);
+		history.addRun("testSlow(p.A)", 4.0, false);
+		history.addRun("testFailing(p.B)", 2.0, true);
+		history.addRun("testFailingFast(p.C)", 1.0, true);
+
+		assertEquals(Arrays.asList(new String[] { "testSlow(p.A)", "testFailing(p.B)", "testFailingFast(p.C)", "testFast(p.A)" }),
+				Arrays.asList(history.getPrioritizedTestNames(SLOWEST_FIRST)));
+		assertEquals(Arrays.asList(new String[] { "testFailingFast(p.C)", "testFailing(p.B)", "testFast(p.A)", "testSlow(p.A)" }),
+				Arrays.asList(history.getPrioritizedTestNames(FAILURES_FIRST)));
+		assertEquals(Arrays.asList(new String[] { "p.C", "p.B", "p.A" }), history.getPrioritizedClassNames(FAILURES_FIRST));
+		assertEquals(Arrays.asList(new String[] { "p.A", "p.B", "p.C" }), history.getPrioritizedClassNames(SLOWEST_FIRST));
+	}
+
+	public void testPrioritiesFileOfLaunchedClasses() throws Exception {
+		TestHistory history= new TestHistory(fFile, 10);
+		history.addRun("testA(p.A)", 1.0, false);
+		history.addRun("testB(p.B)", 3.0, false);
+		history.addRun("testC(p.C$Inner)", 2.0, false);
+		history.addRun("testA2(p.A)", 4.0, false);
+
+		File file= history.createPrioritiesFile(SLOWEST_FIRST, new HashSet(Arrays.asList(new String[] { "p.A", "p.C.Inner" })));
+		try {
+			assertEquals(Arrays.asList(new String[] { "testA2(p.A)", "testC(p.C$Inner)", "testA(p.A)" }), Arrays.asList(readLines(file)));
+		} finally {
+			file.delete();
+		}
+		assertNull(history.createPrioritiesFile(SLOWEST_FIRST, new HashSet(Arrays.asList(new String[] { "p.D" }))));
+	}
+
+	public void testEviction() throws Exception {
+		TestHistory history= new TestHistory(fFile, 3);
+		history.addRun("test1(p.A)", 1.0, false);
+		history.addRun("test2(p.A)", 1.0, false);
+		history.addRun("test3(p.A)", 1.0, false);
+		// looking a test up doesn't make it recent
+		history.getDuration("test1(p.A)");
+		history.addRun("test4(p.A)", 1.0, false);
+		assertEquals(0, history.getRunCount("test1(p.A)"));
+		assertEquals(1, history.getRunCount("test2(p.A)"));
+
+		// running a test again does
+		history.addRun("test2(p.A)", 1.0, false);
+		history.addRun("test5(p.A)", 1.0, false);
+		assertEquals(0, history.getRunCount("test3(p.A)"));
+		assertEquals(2, history.getRunCount("test2(p.A)"));
+		assertEquals(1, history.getRunCount("test4(p.A)"));
+		assertEquals(1, history.getRunCount("test5(p.A)"));
+
+		history.save();
+		assertEquals(Arrays.asList(new String[] { "test4(p.A)", "test2(p.A)", "test5(p.A)" }), Arrays.asList(readNames(fFile)));
+	}
+}
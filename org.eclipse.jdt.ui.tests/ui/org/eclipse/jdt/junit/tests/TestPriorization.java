@@ -24,6 +24,7 @@ import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
 import org.eclipse.jdt.internal.junit.runner.FailuresFirstPrioritizer;
+import org.eclipse.jdt.internal.junit.runner.RankingPrioritizer;
 
 public class TestPriorization extends TestCase {
 
@@ -41,6 +42,21 @@ public class TestPriorization extends TestCase {
 		checkOrder(expected, order);
 	}
 
+	public void testRankSimple() {
+		TestSuite suite= createSuiteDEF();
+		String[] priority= {
+				"testF(org.eclipse.jdt.junit.tests.TestPriorizationSuite2)",
+				"testD(org.eclipse.jdt.junit.tests.TestPriorizationSuite2)"
+		};
+		Test prioritized= new RankingPrioritizer(priority).prioritize(suite);
+		List order= new ArrayList();
+		collectOrder(prioritized, order);
+		String[] expected= {
+				"testF", "testD", "testE"
+		};
+		checkOrder(expected, order);
+	}
+
 	public void testReorderCustomSuite() {
 		// custom suite
 		//		D
@@ -12,6 +12,9 @@
 package org.eclipse.jdt.junit.tests;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -21,6 +24,7 @@ import org.eclipse.jdt.testplugin.JavaTestPlugin;
 import org.eclipse.core.runtime.Path;
 
 import org.eclipse.jdt.internal.junit.model.JUnitModel;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
 
 public class TestRunSessionSerializationTests3 extends AbstractTestRunSessionSerializationTests {
 
@@ -69,4 +73,52 @@ public class TestRunSessionSerializationTests3 extends AbstractTestRunSessionSer
 		JUnitModel.importTestRunSession(testsFile); // no contents check for now...
 	}
 
+	public void testImportAntReportSummary() throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		buf.append("<testsuites>\n");
+		buf.append("  <testsuite name=\"pack.ATest\" tests=\"3\" failures=\"1\" errors=\"0\" skipped=\"1\" time=\"0.03\">\n");
+		buf.append("    <testcase name=\"testA\" classname=\"pack.ATest\" time=\"0.01\"/>\n");
+		buf.append("    <testcase name=\"testB\" classname=\"pack.ATest\" time=\"0.02\">\n");
+		buf.append("      <failure type=\"junit.framework.AssertionFailedError\">junit.framework.AssertionFailedError</failure>\n");
+		buf.append("    </testcase>\n");
+		buf.append("    <testcase name=\"testC\" classname=\"pack.ATest\" time=\"0\">\n");
+		buf.append("      <skipped/>\n");
+		buf.append("    </testcase>\n");
+		buf.append("  </testsuite>\n");
+		buf.append("  <testsuite name=\"pack.BTest\" tests=\"1\" failures=\"0\" errors=\"1\" time=\"0.01\">\n");
+		buf.append("    <testcase name=\"testD\" classname=\"pack.BTest\" time=\"0.01\">\n");
+		buf.append("      <error type=\"java.lang.RuntimeException\">java.lang.RuntimeException</error>\n");
+		buf.append("    </testcase>\n");
+		buf.append("  </testsuite>\n");
+		buf.append("</testsuites>\n");
+
+		File file= File.createTempFile("TESTS-TestSuites", ".xml");
+		try {
+			Writer writer= new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+			try {
+				writer.write(buf.toString());
+			} finally {
+				writer.close();
+			}
+			TestRunSession session= JUnitModel.importTestRunSession(file);
+			assertCounts(session);
+
+			// the tests are read from a copy of the imported file
+			assertTrue(file.delete());
+			assertEquals(2, session.getTestRoot().getChildren().length);
+			assertCounts(session);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static void assertCounts(TestRunSession session) {
+		assertEquals(4, session.getTotalCount());
+		assertEquals(4, session.getStartedCount());
+		assertEquals(1, session.getFailureCount());
+		assertEquals(1, session.getErrorCount());
+		assertEquals(1, session.getIgnoredCount());
+	}
+
 }
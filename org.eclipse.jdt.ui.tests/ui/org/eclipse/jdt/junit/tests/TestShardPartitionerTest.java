@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+
+import org.eclipse.jdt.internal.junit.launcher.TestShardPartitioner;
+
+public class TestShardPartitionerTest extends TestCase {
+	private IJavaProject fProject;
+	private IPackageFragment fPackage;
+
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject= JavaProjectHelper.createJavaProject("TestProject", "bin");
+		IPackageFragmentRoot root= JavaProjectHelper.addSourceContainer(fProject, "src");
+		fPackage= root.createPackageFragment("p", true, null);
+	}
+
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.delete(fProject);
+		super.tearDown();
+	}
+
+	private IType[] createTypes(int count) {
+		IType[] types= new IType[count];
+		for (int i= 0; i < count; i++)
+			types[i]= fPackage.getCompilationUnit("Test" + i + ".java").getType("Test" + i);
+		return types;
+	}
+
+	private static Map createDurations(IType[] types, double[] durations) {
+		Map map= new HashMap();
+		for (int i= 0; i < durations.length; i++)
+			map.put(types[i].getFullyQualifiedName('.'), new Double(durations[i]));
+		return map;
+	}
+
+	private static double getLoad(IType[] shard, Map durations, double defaultDuration) {
+		double load= 0;
+		for (int i= 0; i < shard.length; i++) {
+			Double duration= (Double) durations.get(shard[i].getFullyQualifiedName('.'));
+			load+= duration != null ? duration.doubleValue() : defaultDuration;
+		}
+		return load;
+	}
+
+	private static void assertPartition(IType[] types, IType[][] shards) {
+		Set all= new HashSet();
+		int count= 0;
+		for (int i= 0; i < shards.length; i++) {
+			assertTrue("empty shard", shards[i].length > 0);
+			for (int j= 0; j < shards[i].length; j++) {
+				assertTrue("duplicate " + shards[i][j].getElementName(), all.add(shards[i][j]));
+				count++;
+			}
+		}
+		assertEquals(types.length, count);
+		for (int i= 0; i < types.length; i++)
+			assertTrue("missing " + types[i].getElementName(), all.contains(types[i]));
+	}
+
+	public void testEveryTypeOnce() throws Exception {
+		IType[] types= createTypes(17);
+		TestShardPartitioner partitioner= new TestShardPartitioner(new HashMap());
+		IType[][] shards= partitioner.partition(types, 4);
+		assertEquals(4, shards.length);
+		assertPartition(types, shards);
+		for (int i= 0; i < shards.length; i++) {
+			assertTrue(shards[i].length >= 4);
+			assertTrue(shards[i].length <= 5);
+		}
+	}
+
+	public void testBalancedByDuration() throws Exception {
+		IType[] types= createTypes(8);
+		double[] durations= { 8, 7, 6, 5, 4, 3, 2, 1 };
+		Map map= createDurations(types, durations);
+		IType[][] shards= new TestShardPartitioner(map).partition(types, 2);
+		assertEquals(2, shards.length);
+		assertPartition(types, shards);
+		assertEquals(18, getLoad(shards[0], map, 0), 0.001);
+		assertEquals(18, getLoad(shards[1], map, 0), 0.001);
+	}
+
+	public void testLongestTypeAlone() throws Exception {
+		IType[] types= createTypes(5);
+		double[] durations= { 1, 1, 20, 1, 1 };
+		Map map= createDurations(types, durations);
+		IType[][] shards= new TestShardPartitioner(map).partition(types, 2);
+		assertPartition(types, shards);
+		IType[] longest= shards[0].length == 1 ? shards[0] : shards[1];
+		assertEquals(1, longest.length);
+		assertEquals(types[2], longest[0]);
+	}
+
+	public void testUnknownTypesTakeAverage() throws Exception {
+		IType[] types= createTypes(6);
+		double[] durations= { 3, 3, 3 }; // the others haven't run yet
+		Map map= createDurations(types, durations);
+		IType[][] shards= new TestShardPartitioner(map).partition(types, 3);
+		assertPartition(types, shards);
+		for (int i= 0; i < shards.length; i++)
+			assertEquals(6, getLoad(shards[i], map, 3), 0.001);
+	}
+
+	public void testShardsKeepOrder() throws Exception {
+		IType[] types= createTypes(10);
+		double[] durations= { 1, 9, 2, 8, 3, 7, 4, 6, 5, 5 };
+		IType[][] shards= new TestShardPartitioner(createDurations(types, durations)).partition(types, 3);
+		assertPartition(types, shards);
+		for (int i= 0; i < shards.length; i++) {
+			for (int j= 1; j < shards[i].length; j++) {
+				int previous= Integer.parseInt(shards[i][j - 1].getElementName().substring(4));
+				int current= Integer.parseInt(shards[i][j].getElementName().substring(4));
+				assertTrue(previous < current);
+			}
+		}
+	}
+
+	public void testMoreShardsThanTypes() throws Exception {
+		IType[] types= createTypes(3);
+		IType[][] shards= new TestShardPartitioner(new HashMap()).partition(types, 8);
+		assertEquals(3, shards.length);
+		assertPartition(types, shards);
+	}
+}
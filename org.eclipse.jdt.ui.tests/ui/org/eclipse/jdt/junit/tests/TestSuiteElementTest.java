@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import junit.framework.TestCase;
+
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+
+/**
+ * Tests that a suite's status, which is cumulated from the counted statuses of its children,
+ * follows children whose status changes again, e.g. when they are rerun.
+ */
+public class TestSuiteElementTest extends TestCase {
+
+	private static void run(TestElement test, Status status) {
+		test.setStatus(Status.RUNNING);
+		test.setStatus(status);
+	}
+
+	public void testRerunFlipsStatus() throws Exception {
+		TestSuiteElement suite= new TestSuiteElement(null, "0", "Suite", 2);
+		TestCaseElement first= new TestCaseElement(suite, "first", "first");
+		TestCaseElement last= new TestCaseElement(suite, "last", "last");
+		assertEquals(Status.NOT_RUN, suite.getStatus());
+
+		first.setStatus(Status.RUNNING);
+		assertEquals(Status.RUNNING, suite.getStatus());
+		first.setStatus(Status.FAILURE);
+		assertEquals(Status.RUNNING_FAILURE, suite.getStatus());
+		run(last, Status.OK);
+		assertEquals(Status.FAILURE, suite.getStatus());
+
+		// rerun the failed child successfully
+		run(first, Status.OK);
+		assertEquals(Status.OK, suite.getStatus());
+
+		// and failing again
+		run(first, Status.FAILURE);
+		assertEquals(Status.FAILURE, suite.getStatus());
+
+		run(first, Status.OK);
+		assertEquals(Status.OK, suite.getStatus());
+	}
+
+	public void testLastChildFlipsStatus() throws Exception {
+		TestSuiteElement suite= new TestSuiteElement(null, "0", "Suite", 2);
+		TestCaseElement first= new TestCaseElement(suite, "first", "first");
+		TestCaseElement last= new TestCaseElement(suite, "last", "last");
+
+		run(first, Status.OK);
+		run(last, Status.FAILURE);
+		assertEquals(Status.FAILURE, suite.getStatus());
+
+		run(last, Status.OK);
+		assertEquals(Status.OK, suite.getStatus());
+
+		run(last, Status.ERROR);
+		assertEquals(Status.ERROR, suite.getStatus());
+
+		run(last, Status.FAILURE);
+		assertEquals(Status.FAILURE, suite.getStatus());
+	}
+
+	public void testNestedSuiteFlipsStatus() throws Exception {
+		TestSuiteElement root= new TestSuiteElement(null, "0", "Root", 2);
+		TestSuiteElement nested= new TestSuiteElement(root, "1", "Nested", 2);
+		TestCaseElement nestedFirst= new TestCaseElement(nested, "nestedFirst", "nestedFirst");
+		TestCaseElement nestedLast= new TestCaseElement(nested, "nestedLast", "nestedLast");
+		TestCaseElement last= new TestCaseElement(root, "last", "last");
+
+		run(nestedFirst, Status.OK);
+		run(nestedLast, Status.OK);
+		run(last, Status.OK);
+		assertEquals(Status.OK, nested.getStatus());
+		assertEquals(Status.OK, root.getStatus());
+
+		run(nestedFirst, Status.FAILURE);
+		assertEquals(Status.FAILURE, nested.getStatus());
+		assertEquals(Status.FAILURE, root.getStatus());
+
+		run(nestedFirst, Status.OK);
+		assertEquals(Status.OK, nested.getStatus());
+		assertEquals(Status.OK, root.getStatus());
+
+		run(nestedFirst, Status.FAILURE);
+		assertEquals(Status.FAILURE, nested.getStatus());
+		assertEquals(Status.FAILURE, root.getStatus());
+	}
+}
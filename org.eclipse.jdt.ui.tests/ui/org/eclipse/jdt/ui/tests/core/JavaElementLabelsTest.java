@@ -18,6 +18,8 @@ import org.eclipse.jdt.testplugin.JavaProjectHelper;
 import org.eclipse.core.runtime.CoreException;
 
 import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.viewers.StyledString;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -32,6 +34,10 @@ import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.ui.JavaElementLabels;
 import org.eclipse.jdt.ui.PreferenceConstants;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.viewsupport.JavaElementImageProvider;
+import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLabelCache;
+
 
 public class JavaElementLabelsTest extends CoreTests {
 
@@ -660,4 +666,156 @@ public class JavaElementLabelsTest extends CoreTests {
 		lab= JavaElementLabels.getTextLabel(foo2, JavaElementLabels.ALL_DEFAULT | JavaElementLabels.ALL_FULLY_QUALIFIED | JavaElementLabels.M_PARAMETER_ANNOTATIONS);
 		assertEqualString(lab, "org.test.Annotations.foo2(@Ann(value=\"\", cl=Annotations.class, ints={1, 2, -19}, ch='\\0', sh=32767, r=@Retention(value=RetentionPolicy.SOURCE)) String)");
 	}
+
+	public void testLabelUpdatedAfterChange() throws Exception {
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		IPackageFragment pack1= sourceFolder.createPackageFragment("org.test", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package org.test;\n");
+		buf.append("public class Changed {\n");
+		buf.append("    public int foo() { return 0; }\n");
+		buf.append("}\n");
+		String content= buf.toString();
+		ICompilationUnit cu= pack1.createCompilationUnit("Changed.java", content, false, null);
+
+		IJavaElement foo= cu.getElementAt(content.indexOf("foo"));
+		long flags= JavaElementLabels.ALL_DEFAULT | JavaElementLabels.M_APP_RETURNTYPE;
+		assertExpectedLabel(foo, "foo() : int", flags);
+		assertExpectedLabel(foo, "foo() : int", flags);
+
+		buf= new StringBuffer();
+		buf.append("package org.test;\n");
+		buf.append("public class Changed {\n");
+		buf.append("    public String foo() { return null; }\n");
+		buf.append("}\n");
+		content= buf.toString();
+		cu= pack1.createCompilationUnit("Changed.java", content, true, null);
+
+		foo= cu.getElementAt(content.indexOf("foo"));
+		assertExpectedLabel(foo, "foo() : String", flags);
+	}
+
+	public void testStyledLabelUpdatedAfterChange() throws Exception {
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		IPackageFragment pack1= sourceFolder.createPackageFragment("org.test", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package org.test;\n");
+		buf.append("public class Changed {\n");
+		buf.append("    public int foo() { return 0; }\n");
+		buf.append("}\n");
+		String content= buf.toString();
+		ICompilationUnit cu= pack1.createCompilationUnit("Changed.java", content, false, null);
+
+		IJavaElement foo= cu.getElementAt(content.indexOf("foo"));
+		long flags= JavaElementLabels.ALL_DEFAULT | JavaElementLabels.M_APP_RETURNTYPE;
+		StyledString label= JavaElementLabels.getStyledElementLabel(foo, flags);
+		assertEqualString(label.getString(), "foo() : int");
+		int styleCount= label.getStyleRanges().length;
+
+		// callers append decorations to the returned label
+		label.append(" [decoration]", StyledString.DECORATIONS_STYLER);
+		label= JavaElementLabels.getStyledElementLabel(foo, flags);
+		assertEqualString(label.getString(), "foo() : int");
+		assertEquals(styleCount, label.getStyleRanges().length);
+
+		buf= new StringBuffer();
+		buf.append("package org.test;\n");
+		buf.append("public class Changed {\n");
+		buf.append("    public String foo() { return null; }\n");
+		buf.append("}\n");
+		content= buf.toString();
+		cu= pack1.createCompilationUnit("Changed.java", content, true, null);
+
+		foo= cu.getElementAt(content.indexOf("foo"));
+		assertEqualString(JavaElementLabels.getStyledElementLabel(foo, flags).getString(), "foo() : String");
+	}
+
+	public void testImageDescriptorUpdatedAfterChange() throws Exception {
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		IPackageFragment pack1= sourceFolder.createPackageFragment("org.test", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package org.test;\n");
+		buf.append("public class Changed {\n");
+		buf.append("    public int foo() { return 0; }\n");
+		buf.append("}\n");
+		String content= buf.toString();
+		ICompilationUnit cu= pack1.createCompilationUnit("Changed.java", content, false, null);
+
+		JavaElementLabelCache cache= JavaPlugin.getDefault().getJavaElementLabelCache();
+		JavaElementImageProvider provider= new JavaElementImageProvider();
+		int flags= JavaElementImageProvider.OVERLAY_ICONS | JavaElementImageProvider.SMALL_ICONS;
+		try {
+			IJavaElement foo= cu.getElementAt(content.indexOf("foo"));
+			assertNotNull(provider.getImageLabel(foo, flags));
+			ImageDescriptor publicDescriptor= cache.getImageDescriptor(foo, flags);
+			assertEquals(provider.getJavaImageDescriptor(foo, flags), publicDescriptor);
+
+			buf= new StringBuffer();
+			buf.append("package org.test;\n");
+			buf.append("public class Changed {\n");
+			buf.append("    private int foo() { return 0; }\n");
+			buf.append("}\n");
+			content= buf.toString();
+			cu= pack1.createCompilationUnit("Changed.java", content, true, null);
+
+			foo= cu.getElementAt(content.indexOf("foo"));
+			assertNull(cache.getImageDescriptor(foo, flags));
+			assertNotNull(provider.getImageLabel(foo, flags));
+			ImageDescriptor privateDescriptor= cache.getImageDescriptor(foo, flags);
+			assertEquals(provider.getJavaImageDescriptor(foo, flags), privateDescriptor);
+			assertFalse(publicDescriptor.equals(privateDescriptor));
+		} finally {
+			provider.dispose();
+		}
+	}
+
+	public void testLabelsOfOtherCompilationUnitKept() throws Exception {
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		IPackageFragment pack1= sourceFolder.createPackageFragment("org.test", false, null);
+		String content= "package org.test;\npublic class Changed {\n    public int foo() { return 0; }\n}\n";
+		ICompilationUnit changed= pack1.createCompilationUnit("Changed.java", content, false, null);
+		String otherContent= "package org.test;\npublic class Other {\n    public int bar() { return 0; }\n}\n";
+		ICompilationUnit other= pack1.createCompilationUnit("Other.java", otherContent, false, null);
+
+		JavaElementLabelCache cache= JavaPlugin.getDefault().getJavaElementLabelCache();
+		long flags= JavaElementLabels.ALL_DEFAULT | JavaElementLabels.M_APP_RETURNTYPE;
+		IJavaElement foo= changed.getElementAt(content.indexOf("foo"));
+		IJavaElement bar= other.getElementAt(otherContent.indexOf("bar"));
+		assertExpectedLabel(foo, "foo() : int", flags);
+		assertExpectedLabel(bar, "bar() : int", flags);
+		assertNotNull(cache.getTextLabel(foo, flags));
+		assertNotNull(cache.getTextLabel(bar, flags));
+
+		content= "package org.test;\npublic class Changed {\n    public String foo() { return null; }\n}\n";
+		changed= pack1.createCompilationUnit("Changed.java", content, true, null);
+
+		assertNull(cache.getTextLabel(foo, flags));
+		assertNotNull(cache.getTextLabel(bar, flags));
+		assertExpectedLabel(changed.getElementAt(content.indexOf("foo")), "foo() : String", flags);
+	}
+
+	public void testLabelsClearedOnPreferenceChange() throws Exception {
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		IPackageFragment pack= sourceFolder.createPackageFragment("org.test.longname", false, null);
+
+		assertExpectedLabel(pack, "org.test.longname", JavaElementLabels.P_COMPRESSED);
+		assertEqualString(JavaElementLabels.getStyledElementLabel(pack, JavaElementLabels.P_COMPRESSED).getString(), "org.test.longname");
+
+		IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+		store.setValue(PreferenceConstants.APPEARANCE_PKG_NAME_PATTERN_FOR_PKG_VIEW, "0");
+		try {
+			// the pattern isn't used as long as package names aren't compressed
+			assertExpectedLabel(pack, "org.test.longname", JavaElementLabels.P_COMPRESSED);
+
+			store.setValue(PreferenceConstants.APPEARANCE_COMPRESS_PACKAGE_NAMES, true);
+			assertExpectedLabel(pack, "longname", JavaElementLabels.P_COMPRESSED);
+			assertEqualString(JavaElementLabels.getStyledElementLabel(pack, JavaElementLabels.P_COMPRESSED).getString(), "longname");
+
+			store.setValue(PreferenceConstants.APPEARANCE_COMPRESS_PACKAGE_NAMES, false);
+			assertExpectedLabel(pack, "org.test.longname", JavaElementLabels.P_COMPRESSED);
+		} finally {
+			store.setToDefault(PreferenceConstants.APPEARANCE_PKG_NAME_PATTERN_FOR_PKG_VIEW);
+			store.setValue(PreferenceConstants.APPEARANCE_COMPRESS_PACKAGE_NAMES, false);
+		}
+	}
 }
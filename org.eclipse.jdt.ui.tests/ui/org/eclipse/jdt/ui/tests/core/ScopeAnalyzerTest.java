@@ -29,6 +29,7 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.IBinding;
 
 import org.eclipse.jdt.internal.corext.dom.ScopeAnalyzer;
+import org.eclipse.jdt.internal.corext.dom.ScopeTable;
 
 import org.eclipse.jdt.internal.ui.javaeditor.ASTProvider;
 
@@ -908,6 +909,62 @@ public class ScopeAnalyzerTest extends CoreTests {
 
 	}
 
+	public void testScopeTableMatchesVisitor() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1.ae", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1.ae;\n");
+		buf.append("import java.io.IOException;\n");
+		buf.append("public class E {\n");
+		buf.append("    int fField;\n");
+		buf.append("    public <T> int goo(int param1, T param2) {\n");
+		buf.append("        int count= 9, count2= 0;\n");
+		buf.append("        {\n");
+		buf.append("            int inner= count;\n");
+		buf.append("            class Local {}\n");
+		buf.append("            new Local();\n");
+		buf.append("        }\n");
+		buf.append("        try {\n");
+		buf.append("            for (int i= 0, j= 0; i < 9; i++) {\n");
+		buf.append("                int k= i + j;\n");
+		buf.append("                throw new IOException();\n");
+		buf.append("            }\n");
+		buf.append("            for (String s : new String[0]) {\n");
+		buf.append("                count+= s.length();\n");
+		buf.append("            }\n");
+		buf.append("        } catch (IOException e) {\n");
+		buf.append("            int k= 0;\n");
+		buf.append("            return k;\n");
+		buf.append("        }\n");
+		buf.append("        int last= count2;\n");
+		buf.append("        return last + fField;\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		String content= buf.toString();
+		ICompilationUnit compilationUnit= pack1.createCompilationUnit("E.java", content, false, null);
+
+		CompilationUnit astRoot= createAST(compilationUnit);
+		assertNoProblems(astRoot);
+		CompilationUnit tableAstRoot= createAST(compilationUnit);
+		ScopeTable.attach(tableAstRoot);
+
+		int flags= ScopeAnalyzer.VARIABLES | ScopeAnalyzer.TYPES;
+		int start= content.indexOf("int count=");
+		int end= content.lastIndexOf("return last");
+		for (int offset= start; offset <= end; offset++) {
+			IBinding[] expected= new ScopeAnalyzer(astRoot).getDeclarationsInScope(offset, flags);
+			IBinding[] actual= new ScopeAnalyzer(tableAstRoot).getDeclarationsInScope(offset, flags);
+			assertEquals("offset " + offset, getNames(expected), getNames(actual));
+		}
+	}
+
+	private static String getNames(IBinding[] bindings) {
+		StringBuffer buf= new StringBuffer();
+		for (int i= 0; i < bindings.length; i++) {
+			buf.append(bindings[i].getName()).append(',');
+		}
+		return buf.toString();
+	}
+
 	private void assertVariables(IBinding[] res, String[] expectedNames) {
 		String[] names= new String[res.length];
 		for (int i= 0; i < res.length; i++) {
@@ -20,7 +20,11 @@ package org.eclipse.jdt.ui.tests.jarexport;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -86,6 +90,7 @@ import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.jarpackager.JarPackagerUtil;
 import org.eclipse.jdt.internal.ui.jarpackagerfat.FatJarAntExporter;
 import org.eclipse.jdt.internal.ui.jarpackagerfat.FatJarPackageWizardPage;
+import org.eclipse.jdt.internal.ui.jarpackagerfat.FatJarPackagerUtil;
 import org.eclipse.jdt.internal.ui.jarpackagerfat.FatJarPackageWizardPage.CopyLibraryHandler;
 import org.eclipse.jdt.internal.ui.jarpackagerfat.FatJarPackageWizardPage.ExtractLibraryHandler;
 import org.eclipse.jdt.internal.ui.jarpackagerfat.FatJarPackageWizardPage.LibraryHandler;
@@ -669,6 +674,41 @@ public class FatJarExportTests extends TestCase {
 	 * @return root element of the parsed xml-document
 	 * @throws Exception if anything went wrong
 	 */
+	/**
+	 * Asserts that the generated archive contains each entry of the library with the same content.
+	 *
+	 * @param generatedArchive the generated archive
+	 * @param library the library which has been extracted into the archive
+	 * @throws Exception if reading fails
+	 */
+	private static void assertExtractedEntries(ZipFile generatedArchive, File library) throws Exception {
+		ZipFile libraryArchive= new ZipFile(library);
+		try {
+			for (Enumeration entries= libraryArchive.entries(); entries.hasMoreElements();) {
+				ZipEntry entry= (ZipEntry) entries.nextElement();
+				String name= entry.getName();
+				if (entry.isDirectory() || name.equalsIgnoreCase("META-INF/MANIFEST.MF")) //$NON-NLS-1$
+					continue;
+				ZipEntry extracted= generatedArchive.getEntry(name);
+				assertNotNull(name, extracted);
+				assertEquals(name, entry.getSize(), extracted.getSize());
+				assertEquals(name, entry.getCrc(), extracted.getCrc());
+				assertTrue(name, Arrays.equals(readEntry(libraryArchive, entry), readEntry(generatedArchive, extracted)));
+			}
+		} finally {
+			libraryArchive.close();
+		}
+	}
+
+	private static byte[] readEntry(ZipFile zipFile, ZipEntry entry) throws Exception {
+		InputStream in= zipFile.getInputStream(entry);
+		try {
+			return FatJarPackagerUtil.readInputStream(in);
+		} finally {
+			in.close();
+		}
+	}
+
 	private static Element readXML(IPath xmlFilePath) throws Exception {
 		InputStream in = null;
 		try {
@@ -863,6 +903,88 @@ public class FatJarExportTests extends TestCase {
 		}
 	}
 
+	public void testExportInternalLib_StoredLibraries() throws Exception {
+		File lib= JavaTestPlugin.getDefault().getFileInPlugin(JavaProjectHelper.MYLIB_STDOUT);
+		IPackageFragmentRoot root= JavaProjectHelper.addLibraryWithImport(fProject, Path.fromOSString(lib.getPath()), null, null);
+
+		// reports how the library's class and its resources are loaded
+		IPackageFragment fragment= fMainRoot.getPackageFragment("org.eclipse.jdt.ui.test"); //$NON-NLS-1$
+		StringBuffer buf= new StringBuffer();
+		buf.append("package org.eclipse.jdt.ui.test;\n"); //$NON-NLS-1$
+		buf.append("import java.util.Enumeration;\n"); //$NON-NLS-1$
+		buf.append("import mylib.Foo;\n"); //$NON-NLS-1$
+		buf.append("public class Main {\n"); //$NON-NLS-1$
+		buf.append("    public static void main(String[] args) throws Exception {\n"); //$NON-NLS-1$
+		buf.append("        new Foo();\n"); //$NON-NLS-1$
+		buf.append("        ClassLoader loader= Foo.class.getClassLoader();\n"); //$NON-NLS-1$
+		buf.append("        System.out.println(loader.getClass().getName());\n"); //$NON-NLS-1$
+		buf.append("        for (Enumeration e= loader.getResources(\"mylib/Foo.class\"); e.hasMoreElements();)\n"); //$NON-NLS-1$
+		buf.append("            System.out.println(e.nextElement());\n"); //$NON-NLS-1$
+		buf.append("        System.out.println(loader.getResourceAsStream(\"mylib/Foo.class\").read());\n"); //$NON-NLS-1$
+		buf.append("    }\n"); //$NON-NLS-1$
+		buf.append("}\n"); //$NON-NLS-1$
+		fragment.createCompilationUnit("Main.java", buf.toString(), true, null); //$NON-NLS-1$
+
+		try {
+			buildProject();
+			JarPackageData data= createJarPackageData(fProject, getName(), new PackageLibraryHandler());
+			data.setCompress(true);
+			data.setStoreLibrariesUncompressed(true);
+
+			ZipFile generatedArchive= createArchive(data);
+			assertNotNull(generatedArchive);
+			ZipEntry libEntry= generatedArchive.getEntry("mylib_stdout.jar"); //$NON-NLS-1$
+			assertNotNull(libEntry);
+			assertEquals(ZipEntry.STORED, libEntry.getMethod());
+			assertEquals(ZipEntry.DEFLATED, generatedArchive.getEntry("org/eclipse/jdt/ui/test/Main.class").getMethod()); //$NON-NLS-1$
+			generatedArchive.close();
+
+			String stdout= runJar(fProject, data.getJarLocation().toOSString());
+			stdout= stdout.replaceAll("\r\n", "\n").replaceAll("\r", "\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			String expected= "created mylib.Foo\n" //$NON-NLS-1$
+					+ "org.eclipse.jdt.internal.jarinjarloader.IndexedRsrcClassLoader\n" //$NON-NLS-1$
+					+ "jar:rsrc:mylib_stdout.jar!/mylib/Foo.class\n" //$NON-NLS-1$
+					+ 0xCA + "\n"; // first byte of the class file magic
+			assertEquals(expected, stdout);
+		} finally {
+			JavaProjectHelper.removeFromClasspath(fProject, root.getPath());
+		}
+	}
+
+	public void testExtractedEntries() throws Exception {
+		File lib= JavaTestPlugin.getDefault().getFileInPlugin(JavaProjectHelper.MYLIB_STDOUT);
+		IPackageFragmentRoot root= JavaProjectHelper.addLibraryWithImport(fProject, Path.fromOSString(lib.getPath()), null, null);
+
+		try {
+			JarPackageData data= createAndRunFatJar(fProject, getName(), true, new ExtractLibraryHandler());
+
+			ZipFile generatedArchive= JarPackagerUtil.getArchiveFile(data.getJarLocation());
+			try {
+				// every entry is written once
+				Set names= new HashSet();
+				for (Enumeration entries= generatedArchive.entries(); entries.hasMoreElements();) {
+					String name= ((ZipEntry) entries.nextElement()).getName();
+					assertTrue(name, names.add(name));
+				}
+
+				int libraries= 0;
+				IPackageFragmentRoot[] roots= fProject.getPackageFragmentRoots();
+				for (int i= 0; i < roots.length; i++) {
+					if (!roots[i].isArchive())
+						continue;
+					File library= roots[i].isExternal() ? roots[i].getPath().toFile() : roots[i].getResource().getLocation().toFile();
+					assertExtractedEntries(generatedArchive, library);
+					libraries++;
+				}
+				assertEquals(2, libraries); // rtstubs15.jar and mylib_stdout.jar
+			} finally {
+				generatedArchive.close();
+			}
+		} finally {
+			JavaProjectHelper.removeFromClasspath(fProject, root.getPath());
+		}
+	}
+
 	public void testExportExternalLib() throws Exception {
 		File lib= JavaTestPlugin.getDefault().getFileInPlugin(JavaProjectHelper.MYLIB_STDOUT);
 		IPackageFragmentRoot root= JavaProjectHelper.addLibrary(fProject, Path.fromOSString(lib.getPath()));
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2012 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.ui.tests.quickfix;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Hashtable;
+import java.util.List;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -23,6 +25,8 @@ import org.eclipse.core.runtime.CoreException;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
 
 import org.eclipse.jface.preference.IPreferenceStore;
 
@@ -32,14 +36,19 @@ import org.eclipse.jface.text.quickassist.IQuickAssistInvocationContext;
 import org.eclipse.jface.text.source.ISourceViewer;
 
 import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IMarkerResolution;
 
 import org.eclipse.ui.texteditor.ITextEditor;
 
+import org.eclipse.ui.views.markers.WorkbenchMarkerResolution;
+
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 
 import org.eclipse.jdt.ui.JavaUI;
@@ -49,6 +58,7 @@ import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+import org.eclipse.jdt.internal.ui.text.correction.CorrectionMarkerResolutionGenerator;
 import org.eclipse.jdt.internal.ui.text.correction.JavaCorrectionAssistant;
 import org.eclipse.jdt.internal.ui.text.correction.JavaCorrectionProcessor;
 
@@ -235,4 +245,104 @@ public class MarkerResolutionTest extends QuickFixTest {
 		}
 	}
 
+	private ICompilationUnit createCUWithUnusedImports(IPackageFragment pack, String typeName) throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("import java.util.List;\n");
+		buf.append("import java.util.Map;\n");
+		buf.append("public class " + typeName + " {\n");
+		buf.append("}\n");
+		return pack.createCompilationUnit(typeName + ".java", buf.toString(), false, null);
+	}
+
+	/**
+	 * Builds the project and returns the unused import markers of the given compilation units,
+	 * alternating between the units.
+	 *
+	 * @param cus the compilation units
+	 * @return the markers
+	 * @throws CoreException if the build fails
+	 */
+	private IMarker[] buildUnusedImportMarkers(ICompilationUnit[] cus) throws CoreException {
+		Hashtable options= JavaCore.getOptions();
+		options.put(JavaCore.COMPILER_PB_UNUSED_IMPORT, JavaCore.WARNING);
+		JavaCore.setOptions(options);
+		fJProject1.getProject().build(IncrementalProjectBuilder.FULL_BUILD, null);
+
+		List[] markersPerCU= new List[cus.length];
+		for (int i= 0; i < cus.length; i++) {
+			markersPerCU[i]= new ArrayList();
+			IMarker[] markers= cus[i].getResource().findMarkers(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, false, IResource.DEPTH_ZERO);
+			for (int k= 0; k < markers.length; k++) {
+				if (markers[k].getAttribute(IJavaModelMarker.ID, -1) == IProblem.UnusedImport)
+					markersPerCU[i].add(markers[k]);
+			}
+			assertEquals(2, markersPerCU[i].size());
+		}
+		List result= new ArrayList();
+		for (int k= 0; k < 2; k++) {
+			for (int i= 0; i < cus.length; i++)
+				result.add(markersPerCU[i].get(k));
+		}
+		return (IMarker[]) result.toArray(new IMarker[result.size()]);
+	}
+
+	private static WorkbenchMarkerResolution getMultiFixResolution(IMarker marker, IMarker[] markers) {
+		IMarkerResolution[] resolutions= new CorrectionMarkerResolutionGenerator().getResolutions(marker);
+		for (int i= 0; i < resolutions.length; i++) {
+			if (resolutions[i] instanceof WorkbenchMarkerResolution) {
+				WorkbenchMarkerResolution resolution= (WorkbenchMarkerResolution) resolutions[i];
+				if (resolution.findOtherMarkers(markers).length > 0)
+					return resolution;
+			}
+		}
+		fail("no resolution fixes similar problems");
+		return null;
+	}
+
+	private static void assertNoImports(String source) {
+		assertTrue(source, source.indexOf("import") == -1);
+		assertTrue(source, source.indexOf("public class") != -1);
+	}
+
+	public void testFixSimilarProblemsInClosedUnits() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit[] cus= new ICompilationUnit[3];
+		for (int i= 0; i < cus.length; i++)
+			cus[i]= createCUWithUnusedImports(pack1, "E" + i);
+		IMarker[] markers= buildUnusedImportMarkers(cus);
+
+		WorkbenchMarkerResolution resolution= getMultiFixResolution(markers[0], markers);
+		// all markers but the resolution's own one
+		assertEquals(markers.length - 1, resolution.findOtherMarkers(markers).length);
+
+		// the markers of a unit aren't adjacent
+		resolution.run(markers, null);
+
+		for (int i= 0; i < cus.length; i++)
+			assertNoImports(cus[i].getSource());
+	}
+
+	public void testFixSimilarProblemsInOpenAndClosedUnits() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit cu1= createCUWithUnusedImports(pack1, "E1");
+		ICompilationUnit cu2= createCUWithUnusedImports(pack1, "E2");
+		IMarker[] markers= buildUnusedImportMarkers(new ICompilationUnit[] { cu1, cu2 });
+
+		// the locations of the open unit are taken from its annotation model
+		IEditorPart part= JavaUI.openInEditor(cu1);
+		try {
+			WorkbenchMarkerResolution resolution= getMultiFixResolution(markers[0], markers);
+			assertEquals(markers.length - 1, resolution.findOtherMarkers(markers).length);
+
+			resolution.run(markers, null);
+
+			IDocument doc= JavaUI.getDocumentProvider().getDocument(part.getEditorInput());
+			assertNoImports(doc.get());
+			assertNoImports(cu2.getSource());
+		} finally {
+			JavaPlugin.getActivePage().closeAllEditors(false);
+		}
+	}
+
 }
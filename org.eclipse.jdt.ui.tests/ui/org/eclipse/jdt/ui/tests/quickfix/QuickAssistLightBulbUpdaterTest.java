@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.quickfix;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.InfixExpression;
+
+import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
+
+import org.eclipse.jdt.internal.ui.text.correction.AssistContext;
+import org.eclipse.jdt.internal.ui.text.correction.JavaCorrectionProcessor;
+import org.eclipse.jdt.internal.ui.text.correction.QuickAssistLightBulbUpdater;
+
+/**
+ * Tests that the light bulb's assist availability cache follows the caret inside a covering node.
+ */
+public class QuickAssistLightBulbUpdaterTest extends QuickFixTest {
+
+	private static final Class THIS= QuickAssistLightBulbUpdaterTest.class;
+
+	private IJavaProject fJProject1;
+	private IPackageFragmentRoot fSourceFolder;
+
+	private QuickAssistLightBulbUpdater fUpdater;
+	private Method fHasAssists;
+	private Map fAvailabilityCache;
+
+	public QuickAssistLightBulbUpdaterTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	protected void setUp() throws Exception {
+		fJProject1= ProjectTestSetup.getProject();
+		fSourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+
+		// availability is computed without an editor, the updater isn't installed
+		fUpdater= new QuickAssistLightBulbUpdater(null, null);
+		fHasAssists= QuickAssistLightBulbUpdater.class.getDeclaredMethod("hasAssists", new Class[] { AssistContext.class, int.class });
+		fHasAssists.setAccessible(true);
+		Field cache= QuickAssistLightBulbUpdater.class.getDeclaredField("fAvailabilityCache");
+		cache.setAccessible(true);
+		fAvailabilityCache= (Map) cache.get(fUpdater);
+	}
+
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.clear(fJProject1, ProjectTestSetup.getDefaultClasspath());
+	}
+
+	private boolean hasAssists(AssistContext context) throws Exception {
+		return ((Boolean) fHasAssists.invoke(fUpdater, new Object[] { context, new Integer(0) })).booleanValue();
+	}
+
+	private static AssistContext createContext(ICompilationUnit cu, CompilationUnit astRoot, int offset, int length) {
+		AssistContext context= new AssistContext(cu, offset, length);
+		context.setASTRoot(astRoot);
+		return context;
+	}
+
+	/**
+	 * Inverts the cached availability of all selections, so that a result served from the
+	 * cache can be told from a computed one.
+	 */
+	private void invertCachedAvailability() {
+		synchronized (fAvailabilityCache) {
+			for (Iterator iter= fAvailabilityCache.entrySet().iterator(); iter.hasNext();) {
+				Map.Entry entry= (Map.Entry) iter.next();
+				entry.setValue(Boolean.valueOf(!((Boolean) entry.getValue()).booleanValue()));
+			}
+		}
+	}
+
+	public void testCaretMovesInsideNode() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("    void foo(boolean a, boolean b) {\n");
+		buf.append("        if (a  &&  b) {\n");
+		buf.append("            foo(a, b);\n");
+		buf.append("        }\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		ICompilationUnit cu= pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+		CompilationUnit astRoot= getASTRoot(cu);
+
+		String str= buf.toString();
+		int[] offsets= { str.indexOf("&&") - 1, str.indexOf("&&"), str.indexOf("&&") + 1, str.indexOf("&&") + 3 };
+		ASTNode coveringNode= null;
+		for (int i= 0; i < offsets.length; i++) {
+			AssistContext context= createContext(cu, astRoot, offsets[i], 0);
+			if (coveringNode == null)
+				coveringNode= context.getCoveringNode();
+			assertTrue(coveringNode instanceof InfixExpression);
+			assertSame(coveringNode, context.getCoveringNode());
+
+			boolean expected= JavaCorrectionProcessor.hasAssists(createContext(cu, astRoot, offsets[i], 0));
+			assertEquals(expected, hasAssists(context));
+			assertEquals(i + 1, fAvailabilityCache.size());
+
+			// a cached result of another caret position in the same node must not be used
+			invertCachedAvailability();
+		}
+
+		// the same caret positions are served from the cache
+		for (int i= 0; i < offsets.length; i++) {
+			boolean expected= JavaCorrectionProcessor.hasAssists(createContext(cu, astRoot, offsets[i], 0));
+			assertEquals(expected, !hasAssists(createContext(cu, astRoot, offsets[i], 0)));
+		}
+		assertEquals(offsets.length, fAvailabilityCache.size());
+	}
+
+	public void testSelectionLengthIsPartOfKey() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("    String foo() {\n");
+		buf.append("        return \"Hello World\";\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		ICompilationUnit cu= pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+		CompilationUnit astRoot= getASTRoot(cu);
+
+		int offset= buf.toString().indexOf("World");
+		AssistContext caret= createContext(cu, astRoot, offset, 0);
+		AssistContext selection= createContext(cu, astRoot, offset, "World".length());
+		assertSame(caret.getCoveringNode(), selection.getCoveringNode());
+
+		assertEquals(JavaCorrectionProcessor.hasAssists(createContext(cu, astRoot, offset, 0)), hasAssists(caret));
+		invertCachedAvailability();
+		assertEquals(JavaCorrectionProcessor.hasAssists(createContext(cu, astRoot, offset, 5)), hasAssists(selection));
+		assertEquals(2, fAvailabilityCache.size());
+	}
+
+	public void testNewASTClearsCache() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class E {\n");
+		buf.append("    String foo() {\n");
+		buf.append("        return \"Hello World\";\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		ICompilationUnit cu= pack1.createCompilationUnit("E.java", buf.toString(), false, null);
+
+		int offset= buf.toString().indexOf("World");
+		boolean expected= JavaCorrectionProcessor.hasAssists(createContext(cu, getASTRoot(cu), offset, 0));
+		assertEquals(expected, hasAssists(createContext(cu, getASTRoot(cu), offset, 0)));
+		invertCachedAvailability();
+		assertEquals(expected, hasAssists(createContext(cu, getASTRoot(cu), offset, 0)));
+		assertEquals(1, fAvailabilityCache.size());
+	}
+}
@@ -93,6 +93,7 @@ public class QuickFixTest extends TestCase {
 		suite.addTest(ConvertIterableLoopQuickFixTest.suite());
 		suite.addTest(AdvancedQuickAssistTest.suite());
 		suite.addTest(AdvancedQuickAssistTest17.suite());
+		suite.addTest(QuickAssistLightBulbUpdaterTest.suite());
 		suite.addTest(CleanUpTestCase.suite());
 		suite.addTest(QuickFixEnablementTest.suite());
 		suite.addTest(SurroundWithTemplateTest.suite());
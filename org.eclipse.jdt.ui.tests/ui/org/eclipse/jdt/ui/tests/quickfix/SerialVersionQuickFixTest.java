@@ -11,7 +11,10 @@
 package org.eclipse.jdt.ui.tests.quickfix;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.Set;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -19,14 +22,23 @@ import junit.framework.TestSuite;
 import org.eclipse.jdt.testplugin.JavaProjectHelper;
 import org.eclipse.jdt.testplugin.TestOptions;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+
 import org.eclipse.jface.preference.IPreferenceStore;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 
 import org.eclipse.jdt.internal.corext.codemanipulation.StubUtility;
@@ -38,6 +50,8 @@ import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.javaeditor.ASTProvider;
+import org.eclipse.jdt.internal.ui.text.correction.SerialVersionHashOperation;
 
 /**
  *
@@ -453,4 +467,60 @@ public class SerialVersionQuickFixTest extends QuickFixTest {
 
 		assertExpectedExistInProposals(proposals, expected);
 	}
+
+	public void testCalculateSerialVersionIds() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test4", false, null);
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test4;\n");
+		buf.append("import java.io.Serializable;\n");
+		buf.append("public class A implements Serializable {\n");
+		buf.append("    private int a;\n");
+		buf.append("    public static class Inner implements Serializable {\n");
+		buf.append("        public void run() {}\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		buf.append("class Other implements Serializable, Cloneable {\n");
+		buf.append("    Object o;\n");
+		buf.append("}\n");
+		ICompilationUnit cu1= pack1.createCompilationUnit("A.java", buf.toString(), false, null);
+
+		buf= new StringBuffer();
+		buf.append("package test4;\n");
+		buf.append("public class B extends A {\n");
+		buf.append("    public String b(int x) { return null; }\n");
+		buf.append("}\n");
+		ICompilationUnit cu2= pack1.createCompilationUnit("B.java", buf.toString(), false, null);
+
+		fProject.getProject().build(IncrementalProjectBuilder.FULL_BUILD, null);
+
+		IType[] types= new IType[] { cu1.getType("A"), cu1.getType("A").getType("Inner"), cu1.getType("Other"), cu2.getType("B") };
+		ASTParser parser= ASTParser.newParser(ASTProvider.SHARED_AST_LEVEL);
+		parser.setProject(fProject);
+		IBinding[] bindings= parser.createBindings(types, null);
+		ITypeBinding[] typeBindings= new ITypeBinding[bindings.length];
+		System.arraycopy(bindings, 0, typeBindings, 0, bindings.length);
+
+		final int[] worked= new int[1];
+		IProgressMonitor monitor= new NullProgressMonitor() {
+			public void worked(int work) {
+				worked[0]+= work;
+			}
+		};
+		Exception[] errors= new Exception[typeBindings.length];
+		Long[] ids= SerialVersionHashOperation.calculateSerialVersionIds(typeBindings, errors, monitor);
+		assertEquals(2 * typeBindings.length, worked[0]);
+
+		Set<Long> distinct= new HashSet<Long>();
+		for (int i= 0; i < typeBindings.length; i++) {
+			assertNull(typeBindings[i].getName(), errors[i]);
+			assertNotNull(typeBindings[i].getName(), ids[i]);
+			assertEquals(typeBindings[i].getName(), SerialVersionHashOperation.calculateSerialVersionId(typeBindings[i], null), ids[i]);
+			distinct.add(ids[i]);
+		}
+		assertEquals(typeBindings.length, distinct.size());
+
+		// unchanged class files give the same ids again
+		Long[] again= SerialVersionHashOperation.calculateSerialVersionIds(typeBindings, new Exception[typeBindings.length], null);
+		assertEquals(Arrays.asList(ids), Arrays.asList(again));
+	}
 }
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.search.ui.ISearchResultListener;
+import org.eclipse.search.ui.SearchResultEvent;
+import org.eclipse.search.ui.text.Match;
+import org.eclipse.search.ui.text.MatchEvent;
+
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchMatch;
+
+import org.eclipse.jdt.internal.ui.search.JavaSearchQuery;
+import org.eclipse.jdt.internal.ui.search.JavaSearchResult;
+import org.eclipse.jdt.internal.ui.search.NewSearchResultCollector;
+
+/**
+ * Tests the match limit and the batching of {@link NewSearchResultCollector}.
+ */
+public class NewSearchResultCollectorTest extends TestCase {
+
+	private static final Class THIS= NewSearchResultCollectorTest.class;
+
+	private JavaSearchResult fResult;
+	/** The sizes of the batches added to the result */
+	private List fBatches;
+	private IMethod fMethod;
+
+	public NewSearchResultCollectorTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new JUnitSourceSetup(test);
+	}
+
+	protected void setUp() throws Exception {
+		fResult= new JavaSearchResult(null);
+		fBatches= new ArrayList();
+		fResult.addListener(new ISearchResultListener() {
+			public void searchResultChanged(SearchResultEvent e) {
+				if (e instanceof MatchEvent && ((MatchEvent) e).getKind() == MatchEvent.ADDED)
+					fBatches.add(new Integer(((MatchEvent) e).getMatches().length));
+			}
+		});
+		fMethod= SearchTestHelper.getMethod("junit.framework.TestCase", "getName", new String[0]);
+	}
+
+	protected void tearDown() throws Exception {
+		System.getProperties().remove(NewSearchResultCollector.MAX_MATCHES_PROPERTY);
+	}
+
+	private void acceptMatches(NewSearchResultCollector collector, int count, int accuracy) throws Exception {
+		for (int i= 0; i < count; i++)
+			collector.acceptSearchMatch(new SearchMatch(fMethod, accuracy, i, 1, SearchEngine.getDefaultSearchParticipant(), fMethod.getResource()));
+	}
+
+	public void testMatchesAreCapped() throws Exception {
+		System.setProperty(NewSearchResultCollector.MAX_MATCHES_PROPERTY, "3");
+		NewSearchResultCollector collector= new NewSearchResultCollector(fResult, true);
+		collector.beginReporting();
+		acceptMatches(collector, 5, SearchMatch.A_ACCURATE);
+		// ignored potential matches aren't skipped matches
+		acceptMatches(collector, 2, SearchMatch.A_INACCURATE);
+		collector.endReporting();
+
+		assertEquals(3, fResult.getMatchCount());
+		assertEquals(2, collector.getSkippedMatchCount());
+		Match[] matches= fResult.getMatches(fMethod);
+		assertEquals(3, matches.length);
+	}
+
+	public void testCappedQueryReportsSkippedMatches() throws Exception {
+		int all= SearchTestHelper.countMethodRefs("junit.framework.Test", "countTestCases", new String[0]);
+		assertTrue(all > 2);
+
+		System.setProperty(NewSearchResultCollector.MAX_MATCHES_PROPERTY, "2");
+		JavaSearchQuery query= SearchTestHelper.runMethodRefQuery("junit.framework.Test", "countTestCases", new String[0]);
+		JavaSearchResult result= (JavaSearchResult) query.getSearchResult();
+		assertEquals(2, result.getMatchCount());
+		assertEquals(all - 2, result.getSkippedMatchCount());
+	}
+
+	public void testEndReportingFlushesBatch() throws Exception {
+		long start= System.currentTimeMillis();
+		NewSearchResultCollector collector= new NewSearchResultCollector(fResult, false);
+		collector.beginReporting();
+		acceptMatches(collector, 1, SearchMatch.A_ACCURATE);
+		// batches are flushed when they are full or after some time
+		if (System.currentTimeMillis() - start < 200)
+			assertEquals(0, fResult.getMatchCount());
+
+		collector.endReporting();
+		assertEquals(1, fResult.getMatchCount());
+		assertEquals(0, collector.getSkippedMatchCount());
+	}
+
+	public void testMatchesAreAddedInBatches() throws Exception {
+		int count= 2500;
+		NewSearchResultCollector collector= new NewSearchResultCollector(fResult, false);
+		collector.beginReporting();
+		acceptMatches(collector, count, SearchMatch.A_ACCURATE);
+		collector.endReporting();
+
+		assertEquals(count, fResult.getMatchCount());
+		int added= 0;
+		for (int i= 0; i < fBatches.size(); i++) {
+			int size= ((Integer) fBatches.get(i)).intValue();
+			assertTrue(size <= 1000);
+			added+= size;
+		}
+		assertEquals(count, added);
+		assertTrue(fBatches.size() >= 3);
+		assertTrue(fBatches.size() < count);
+
+		// all matches share one element handle
+		Match[] matches= fResult.getMatches(fMethod);
+		for (int i= 1; i < matches.length; i++)
+			assertSame(matches[0].getElement(), matches[i].getElement());
+	}
+}
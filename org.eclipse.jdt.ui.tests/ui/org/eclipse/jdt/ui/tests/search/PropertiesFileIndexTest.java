@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.search;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
+
+import org.eclipse.jface.text.IDocument;
+
+import org.eclipse.jdt.core.IJavaProject;
+
+import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
+
+import org.eclipse.jdt.internal.ui.refactoring.nls.search.PropertiesFileIndex;
+
+
+public class PropertiesFileIndexTest extends TestCase {
+
+	private static final Class THIS= PropertiesFileIndexTest.class;
+
+	private IJavaProject fJProject1;
+
+	public PropertiesFileIndexTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	protected void setUp() throws Exception {
+		fJProject1= ProjectTestSetup.getProject();
+	}
+
+	protected void tearDown() throws Exception {
+		IFile file= fJProject1.getProject().getFile("Messages.properties");
+		if (file.exists())
+			file.delete(true, null);
+	}
+
+	private IFile createFile(String content) throws Exception {
+		IFile file= fJProject1.getProject().getFile("Messages.properties");
+		file.create(new ByteArrayInputStream(content.getBytes("ISO-8859-1")), true, null);
+		return file;
+	}
+
+	private void setContents(IFile file, String content) throws Exception {
+		file.setContents(new ByteArrayInputStream(content.getBytes("ISO-8859-1")), true, false, null);
+	}
+
+	private static void assertPosition(String content, String writtenKey, String key, PropertiesFileIndex index) {
+		int[] position= index.getKeyPosition(key);
+		assertNotNull(key, position);
+		assertEquals(key, content.indexOf(writtenKey), position[0]);
+		assertEquals(key, writtenKey.length(), position[1]);
+	}
+
+	public void testKeys() throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("# comment=not a key\n");
+		buf.append("! other comment\n");
+		buf.append("key1=value\n");
+		buf.append("  key2 : value \\\n");
+		buf.append("    continued=not a key\n");
+		buf.append("\n");
+		buf.append("key\\ with\\ space=v\r\n");
+		buf.append("\\u0041key x\r");
+		buf.append("empty\n");
+		String content= buf.toString();
+
+		PropertiesFileIndex index= PropertiesFileIndex.get(createFile(content));
+		assertEquals(Arrays.asList(new String[] { "key1", "key2", "key with space", "Akey", "empty" }), new ArrayList(index.getKeys()));
+		assertEquals(Collections.EMPTY_SET, index.getDuplicateKeys());
+		assertFalse(index.containsKey("continued"));
+		assertFalse(index.containsKey("comment"));
+
+		assertPosition(content, "key1", "key1", index);
+		assertPosition(content, "key2", "key2", index);
+		assertPosition(content, "key\\ with\\ space", "key with space", index);
+		assertPosition(content, "\\u0041key", "Akey", index);
+		assertPosition(content, "empty", "empty", index);
+		assertNull(index.getKeyPosition("missing"));
+	}
+
+	public void testDuplicateKeys() throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("key1=first\n");
+		buf.append("key2=value\n");
+		buf.append("key1=second\n");
+		buf.append("k\\ey2=again\n");
+		String content= buf.toString();
+
+		PropertiesFileIndex index= PropertiesFileIndex.get(createFile(content));
+		assertEquals(2, index.size());
+		assertEquals(new HashSet(Arrays.asList(new String[] { "key1", "key2" })), index.getDuplicateKeys());
+		// duplicate keys are reported at their first definition
+		assertPosition(content, "key1", "key1", index);
+		assertPosition(content, "key2", "key2", index);
+	}
+
+	public void testCachedUntilModified() throws Exception {
+		IFile file= createFile("key1=value\n");
+		PropertiesFileIndex index= PropertiesFileIndex.get(file);
+		assertSame(index, PropertiesFileIndex.get(file));
+
+		setContents(file, "key2=value\n");
+		PropertiesFileIndex modified= PropertiesFileIndex.get(file);
+		assertNotSame(index, modified);
+		assertFalse(modified.containsKey("key1"));
+		assertTrue(modified.containsKey("key2"));
+	}
+
+	public void testOpenDocument() throws Exception {
+		IFile file= createFile("key1=value\n");
+		assertTrue(PropertiesFileIndex.get(file).containsKey("key1"));
+
+		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+		manager.connect(file.getFullPath(), LocationKind.IFILE, null);
+		try {
+			IDocument document= manager.getTextFileBuffer(file.getFullPath(), LocationKind.IFILE).getDocument();
+			document.replace(0, 0, "key0=unsaved\n");
+
+			PropertiesFileIndex index= PropertiesFileIndex.get(file);
+			assertTrue(index.containsKey("key0"));
+			assertTrue(index.containsKey("key1"));
+			assertEquals(0, index.getKeyPosition("key0")[0]);
+			assertSame(index, PropertiesFileIndex.get(file));
+
+			document.replace(0, 13, "");
+			assertFalse(PropertiesFileIndex.get(file).containsKey("key0"));
+		} finally {
+			manager.disconnect(file.getFullPath(), LocationKind.IFILE, null);
+		}
+	}
+
+	public void testUnreadableFile() throws CoreException {
+		IFile file= fJProject1.getProject().getFile("Messages.properties");
+		PropertiesFileIndex index= PropertiesFileIndex.get(file);
+		assertEquals(0, index.size());
+	}
+}
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.search;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.search.ui.NewSearchUI;
+import org.eclipse.search.ui.text.Match;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.tests.core.ProjectTestSetup;
+
+import org.eclipse.jdt.internal.ui.search.JavaSearchResult;
+import org.eclipse.jdt.internal.ui.search.SearchResultUpdater;
+
+/**
+ * Tests that {@link SearchResultUpdater} removes the matches of removed elements.
+ */
+public class SearchResultUpdaterTest extends TestCase {
+
+	private static final Class THIS= SearchResultUpdaterTest.class;
+
+	private IJavaProject fJProject1;
+	private IPackageFragmentRoot fSourceFolder;
+	private JavaSearchResult fResult;
+	private SearchResultUpdater fUpdater;
+
+	public SearchResultUpdaterTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return setUpTest(new TestSuite(THIS));
+	}
+
+	public static Test setUpTest(Test test) {
+		return new ProjectTestSetup(test);
+	}
+
+	protected void setUp() throws Exception {
+		fJProject1= ProjectTestSetup.getProject();
+		fSourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		fResult= new JavaSearchResult(null);
+	}
+
+	protected void tearDown() throws Exception {
+		if (fUpdater != null) {
+			JavaCore.removeElementChangedListener(fUpdater);
+			NewSearchUI.removeQueryListener(fUpdater);
+			fResult.removeListener(fUpdater);
+		}
+		JavaProjectHelper.clear(fJProject1, ProjectTestSetup.getDefaultClasspath());
+	}
+
+	private ICompilationUnit createCU(IPackageFragment pack, String typeName) throws Exception {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package " + pack.getElementName() + ";\n");
+		buf.append("public class " + typeName + " {\n");
+		buf.append("    void foo() {\n");
+		buf.append("    }\n");
+		buf.append("}\n");
+		return pack.createCompilationUnit(typeName + ".java", buf.toString(), false, null);
+	}
+
+	private static Match addMatch(JavaSearchResult result, Object element) {
+		Match match= new Match(element, 0, 1);
+		result.addMatch(match);
+		return match;
+	}
+
+	public void testRemovePackage() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		IPackageFragment pack2= fSourceFolder.createPackageFragment("test2", false, null);
+		IType a= createCU(pack1, "A").findPrimaryType();
+		IType b= createCU(pack1, "B").findPrimaryType();
+		IType c= createCU(pack2, "C").findPrimaryType();
+
+		fUpdater= new SearchResultUpdater(fResult);
+		// matches added before and after the updater was created
+		addMatch(fResult, a.getMethod("foo", new String[0]));
+		addMatch(fResult, b);
+		Match matchC= addMatch(fResult, c);
+		assertEquals(3, fResult.getMatchCount());
+
+		pack1.delete(true, null);
+
+		assertEquals(1, fResult.getMatchCount());
+		assertEquals(1, fResult.getElements().length);
+		assertSame(matchC, fResult.getMatches(c)[0]);
+	}
+
+	public void testRemoveSourceFolder() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		IType a= createCU(pack1, "A").findPrimaryType();
+		addMatch(fResult, a);
+		addMatch(fResult, a.getMethod("foo", new String[0]));
+
+		fUpdater= new SearchResultUpdater(fResult);
+		assertEquals(2, fResult.getMatchCount());
+
+		fSourceFolder.delete(IResource.FORCE, IPackageFragmentRoot.ORIGINATING_PROJECT_CLASSPATH, null);
+
+		assertEquals(0, fResult.getMatchCount());
+	}
+
+	public void testRemoveMember() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit cu= createCU(pack1, "A");
+		IType a= cu.findPrimaryType();
+		Match matchA= addMatch(fResult, a);
+		addMatch(fResult, a.getMethod("foo", new String[0]));
+
+		fUpdater= new SearchResultUpdater(fResult);
+
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test1;\n");
+		buf.append("public class A {\n");
+		buf.append("}\n");
+		pack1.createCompilationUnit("A.java", buf.toString(), true, null);
+
+		assertEquals(1, fResult.getMatchCount());
+		assertSame(matchA, fResult.getMatches(a)[0]);
+	}
+
+	public void testReaddedMatchIsIndexed() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		IPackageFragment pack2= fSourceFolder.createPackageFragment("test2", false, null);
+		IType a= createCU(pack1, "A").findPrimaryType();
+		IType c= createCU(pack2, "C").findPrimaryType();
+
+		fUpdater= new SearchResultUpdater(fResult);
+		Match matchA= addMatch(fResult, a);
+		addMatch(fResult, c);
+		fResult.removeMatch(matchA);
+
+		// a match added again after its container was removed from the index
+		Match matchA2= addMatch(fResult, a);
+		pack2.delete(true, null);
+
+		assertEquals(1, fResult.getMatchCount());
+		assertSame(matchA2, fResult.getMatches(a)[0]);
+
+		pack1.delete(true, null);
+		assertEquals(0, fResult.getMatchCount());
+	}
+}
@@ -23,6 +23,9 @@ public class SearchTest {
 		suite.addTest(ParticipantTest.suite());
 		suite.addTest(FileAdapterTest.suite());
 		suite.addTest(NLSSearchTest.suite());
+		suite.addTest(PropertiesFileIndexTest.suite());
+		suite.addTest(NewSearchResultCollectorTest.suite());
+		suite.addTest(SearchResultUpdaterTest.suite());
 		return suite;
 	}
 }
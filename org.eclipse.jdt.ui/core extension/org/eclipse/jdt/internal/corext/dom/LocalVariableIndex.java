@@ -25,6 +25,20 @@ import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 
 public class LocalVariableIndex extends ASTVisitor {
 
+	private static final String PROPERTY= LocalVariableIndex.class.getName();
+
+	/**
+	 * The result of a previous computation, remembered on the analyzed declaration.
+	 */
+	private static class Result {
+		final int fModificationCount;
+		final int fTopIndex;
+		Result(int modificationCount, int topIndex) {
+			fModificationCount= modificationCount;
+			fTopIndex= topIndex;
+		}
+	}
+
 	private int fTopIndex;
 
 	/**
@@ -63,8 +77,14 @@ public class LocalVariableIndex extends ASTVisitor {
 	}
 
 	private static int doPerform(BodyDeclaration node) {
+		int modificationCount= node.getAST().modificationCount();
+		Object property= node.getProperty(PROPERTY);
+		if (property instanceof Result && ((Result) property).fModificationCount == modificationCount)
+			return ((Result) property).fTopIndex;
+
 		LocalVariableIndex counter= new LocalVariableIndex();
 		node.accept(counter);
+		node.setProperty(PROPERTY, new Result(modificationCount, counter.fTopIndex));
 		return counter.fTopIndex;
 	}
 
@@ -132,9 +132,18 @@ public class ScopeAnalyzer {
 
 	private final CompilationUnit fRoot;
 
+	private final ScopeTable fScopeTable;
+
+	/**
+	 * Creates a scope analyzer for the given AST. If a {@link ScopeTable} is attached to the
+	 * AST, the analyzer answers queries from the precomputed scope table.
+	 *
+	 * @param root the compilation unit AST
+	 */
 	public ScopeAnalyzer(CompilationUnit root) {
 		fTypesVisited= new HashSet<ITypeBinding>();
 		fRoot= root;
+		fScopeTable= ScopeTable.get(root);
 	}
 
 	private void clearLists() {
@@ -270,6 +279,40 @@ public class ScopeAnalyzer {
 		return false;
 	}
 
+	/**
+	 * Collects all elements available in a type: its hierarchy and its outer scopes. If a scope table is
+	 * available, the elements are taken from the table.
+	 *
+	 * @param binding The type binding
+	 * @param flags Flags defining the elements to report
+	 * @param requestor the requestor to which all results are reported
+	 */
+	private void addAllTypeDeclarations(ITypeBinding binding, int flags, DefaultBindingRequestor requestor) {
+		String key= binding.getKey();
+		if (fScopeTable == null || key == null) {
+			addTypeDeclarations(binding, flags, requestor);
+			return;
+		}
+		int kinds= flags & (METHODS | VARIABLES | TYPES);
+		key= key + '#' + kinds;
+		IBinding[] bindings= fScopeTable.getTypeDeclarations(key);
+		if (bindings == null) {
+			final List<IBinding> reported= new ArrayList<IBinding>();
+			addTypeDeclarations(binding, kinds, new IBindingRequestor() {
+				public boolean acceptBinding(IBinding curr) {
+					if (curr != null)
+						reported.add(curr);
+					return false;
+				}
+			});
+			bindings= reported.toArray(new IBinding[reported.size()]);
+			fScopeTable.putTypeDeclarations(key, bindings);
+		}
+		for (int i= 0; i < bindings.length; i++) {
+			requestor.acceptBinding(bindings[i]);
+		}
+	}
+
 	private boolean addOuterDeclarationsForLocalType(ITypeBinding localBinding, int flags, IBindingRequestor requestor) {
 		ASTNode node= fRoot.findDeclaringNode(localBinding);
 		if (node == null) {
@@ -359,7 +402,7 @@ public class ScopeAnalyzer {
 				DefaultBindingRequestor requestor= new DefaultBindingRequestor(parentTypeBinding, flags);
 				if (binding == null) {
 					addLocalDeclarations(selector, flags, requestor);
-					addTypeDeclarations(parentTypeBinding, flags, requestor);
+					addAllTypeDeclarations(parentTypeBinding, flags, requestor);
 				} else {
 					addInherited(binding, flags, requestor);
 				}
@@ -504,7 +547,7 @@ public class ScopeAnalyzer {
 			DefaultBindingRequestor requestor= new DefaultBindingRequestor(binding, flags);
 			addLocalDeclarations(node, offset, flags, requestor);
 			if (binding != null) {
-				addTypeDeclarations(binding, flags, requestor);
+				addAllTypeDeclarations(binding, flags, requestor);
 			}
 			List<IBinding> result= requestor.getResult();
 			return result.toArray(new IBinding[result.size()]);
@@ -821,6 +864,16 @@ public class ScopeAnalyzer {
 		if (hasFlag(VARIABLES, flags) || hasFlag(TYPES, flags)) {
 			BodyDeclaration declaration= ASTResolving.findParentBodyDeclaration(node);
 			if (declaration instanceof MethodDeclaration || declaration instanceof Initializer) {
+				if (fScopeTable != null) {
+					IBinding[] bindings= fScopeTable.getLocalDeclarations(declaration, offset, flags);
+					if (bindings != null) {
+						for (int i= 0; i < bindings.length; i++) {
+							if (requestor.acceptBinding(bindings[i]))
+								return true;
+						}
+						return false;
+					}
+				}
 				ScopeAnalyzerVisitor visitor= new ScopeAnalyzerVisitor(offset, flags, requestor);
 				declaration.accept(visitor);
 				return visitor.fBreak;
@@ -0,0 +1,362 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.dom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.BodyDeclaration;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.Initializer;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.SwitchCase;
+import org.eclipse.jdt.core.dom.TypeDeclarationStatement;
+import org.eclipse.jdt.core.dom.TypeParameter;
+import org.eclipse.jdt.core.dom.VariableDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationExpression;
+import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
+
+/**
+ * Precomputed scope information for a compilation unit AST, used by the {@link ScopeAnalyzer}.
+ * <p>
+ * A scope table is attached to an AST with {@link #attach(CompilationUnit)}. It is filled
+ * lazily: the local declarations of a method or initializer are collected once into arrays
+ * sorted by the offset where the declarations become visible. Scopes are nested, so the
+ * declarations visible at an offset form a chain of enclosing declarations, which is entered
+ * with a binary search. The bindings declared in and inherited by a type are remembered per
+ * type and element kind.
+ * </p>
+ * <p>
+ * Scope tables are thread safe and are meant to be attached to shared ASTs, which are never
+ * modified. If the AST gets modified anyway, the table discards all its content.
+ * </p>
+ */
+public final class ScopeTable {
+
+	private static final String PROPERTY= ScopeTable.class.getName();
+
+	private static final class Declaration {
+		final int fStart;
+		final int fEnd;
+		final int fKind;
+		final IBinding fBinding;
+
+		Declaration(int start, int end, int kind, IBinding binding) {
+			fStart= start;
+			fEnd= end;
+			fKind= kind;
+			fBinding= binding;
+		}
+	}
+
+	/**
+	 * The local declarations of a body declaration.
+	 */
+	private static final class LocalScopes {
+
+		/** Exclusive offsets after which the declarations are visible, sorted ascending */
+		private final int[] fStarts;
+		/** Exclusive offsets up to which the declarations are visible */
+		private final int[] fEnds;
+		/** Either {@link ScopeAnalyzer#VARIABLES} or {@link ScopeAnalyzer#TYPES} */
+		private final int[] fKinds;
+		/**
+		 * Index of the nearest preceding declaration whose scope encloses the scope of the
+		 * declaration, or <code>-1</code>. Scopes end with AST nodes, thus they are either nested
+		 * or disjoint.
+		 */
+		private final int[] fEnclosing;
+		private final IBinding[] fBindings;
+
+		/**
+		 * Ranges of switch case expressions, sorted ascending. The table can't answer queries
+		 * inside them.
+		 */
+		private final int[] fCaseStarts;
+		private final int[] fCaseEnds;
+
+		LocalScopes(List<Declaration> declarations, List<int[]> cases) {
+			Collections.sort(declarations, new Comparator<Declaration>() {
+				public int compare(Declaration d1, Declaration d2) {
+					return d1.fStart - d2.fStart;
+				}
+			});
+			int size= declarations.size();
+			fStarts= new int[size];
+			fEnds= new int[size];
+			fKinds= new int[size];
+			fBindings= new IBinding[size];
+			fEnclosing= new int[size];
+			int[] stack= new int[size];
+			int top= -1;
+			for (int i= 0; i < size; i++) {
+				Declaration declaration= declarations.get(i);
+				fStarts[i]= declaration.fStart;
+				fEnds[i]= declaration.fEnd;
+				fKinds[i]= declaration.fKind;
+				fBindings[i]= declaration.fBinding;
+
+				while (top >= 0 && fEnds[stack[top]] <= fStarts[i])
+					top--;
+				fEnclosing[i]= top >= 0 ? stack[top] : -1;
+				stack[++top]= i;
+			}
+
+			Collections.sort(cases, new Comparator<int[]>() {
+				public int compare(int[] o1, int[] o2) {
+					return o1[0] - o2[0];
+				}
+			});
+			fCaseStarts= new int[cases.size()];
+			fCaseEnds= new int[cases.size()];
+			for (int i= 0; i < fCaseStarts.length; i++) {
+				fCaseStarts[i]= cases.get(i)[0];
+				fCaseEnds[i]= cases.get(i)[1];
+			}
+		}
+
+		IBinding[] getVisibleBindings(int position, int flags) {
+			int caseIndex= lastIndexBefore(fCaseStarts, position + 1);
+			if (caseIndex >= 0 && position < fCaseEnds[caseIndex])
+				return null;
+
+			// every scope containing the position encloses the scope of the last declaration before it
+			int i= lastIndexBefore(fStarts, position);
+			while (i >= 0 && position >= fEnds[i])
+				i= fEnclosing[i];
+
+			List<IBinding> result= new ArrayList<IBinding>();
+			// innermost declarations come first, like the visitor reports them
+			for (; i >= 0; i= fEnclosing[i]) {
+				if ((fKinds[i] & flags) != 0)
+					result.add(fBindings[i]);
+			}
+			return result.toArray(new IBinding[result.size()]);
+		}
+
+		/**
+		 * @param sorted an ascending array
+		 * @param value the value to search
+		 * @return the index of the last element smaller than <code>value</code>, or <code>-1</code>
+		 */
+		private static int lastIndexBefore(int[] sorted, int value) {
+			int low= 0;
+			int high= sorted.length - 1;
+			while (low <= high) {
+				int mid= (low + high) >>> 1;
+				if (sorted[mid] < value)
+					low= mid + 1;
+				else
+					high= mid - 1;
+			}
+			return high;
+		}
+	}
+
+	/**
+	 * Collects the local declarations reachable by the <code>ScopeAnalyzerVisitor</code>.
+	 */
+	private static final class LocalScopesCollector extends HierarchicalASTVisitor {
+
+		private final BodyDeclaration fDeclaration;
+		private final List<Declaration> fDeclarations= new ArrayList<Declaration>();
+		private final List<int[]> fCases= new ArrayList<int[]>();
+
+		LocalScopesCollector(BodyDeclaration declaration) {
+			fDeclaration= declaration;
+		}
+
+		LocalScopes getLocalScopes() {
+			return new LocalScopes(fDeclarations, fCases);
+		}
+
+		private void add(int start, ASTNode declaration, int kind, IBinding binding) {
+			if (binding == null)
+				return;
+			ASTNode container= declaration.getParent();
+			while (container instanceof VariableDeclarationStatement || container instanceof VariableDeclarationExpression) {
+				container= container.getParent();
+			}
+			fDeclarations.add(new Declaration(start, container.getStartPosition() + container.getLength(), kind, binding));
+		}
+
+		@Override
+		public boolean visit(ASTNode node) {
+			return false;
+		}
+
+		@Override
+		public boolean visit(MethodDeclaration node) {
+			if (node == fDeclaration) {
+				if (node.getBody() != null)
+					node.getBody().accept(this);
+				acceptAll(node.parameters());
+				acceptAll(node.typeParameters());
+			}
+			return false;
+		}
+
+		@Override
+		public boolean visit(Initializer node) {
+			return node == fDeclaration;
+		}
+
+		@Override
+		public boolean visit(Statement node) {
+			return true;
+		}
+
+		@Override
+		public boolean visit(SwitchCase node) {
+			if (!node.isDefault()) {
+				int start= node.getExpression().getStartPosition();
+				fCases.add(new int[] { start, start + node.getExpression().getLength() });
+			}
+			return false;
+		}
+
+		@Override
+		public boolean visit(TypeParameter node) {
+			add(node.getStartPosition(), node, ScopeAnalyzer.TYPES, node.getName().resolveBinding());
+			return false;
+		}
+
+		@Override
+		public boolean visit(VariableDeclaration node) {
+			add(node.getStartPosition(), node, ScopeAnalyzer.VARIABLES, node.resolveBinding());
+			return false;
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationStatement node) {
+			acceptAll(node.fragments());
+			return false;
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationExpression node) {
+			acceptAll(node.fragments());
+			return false;
+		}
+
+		@Override
+		public boolean visit(TypeDeclarationStatement node) {
+			add(node.getStartPosition() + node.getLength(), node, ScopeAnalyzer.TYPES, node.resolveBinding());
+			return false;
+		}
+
+		private void acceptAll(List<? extends ASTNode> nodes) {
+			for (int i= 0; i < nodes.size(); i++) {
+				nodes.get(i).accept(this);
+			}
+		}
+	}
+
+	private final CompilationUnit fRoot;
+	private int fModificationCount;
+	private final Map<BodyDeclaration, LocalScopes> fLocalScopes;
+	private final Map<String, IBinding[]> fTypeDeclarations;
+
+	private ScopeTable(CompilationUnit root) {
+		fRoot= root;
+		fModificationCount= root.getAST().modificationCount();
+		fLocalScopes= new HashMap<BodyDeclaration, LocalScopes>();
+		fTypeDeclarations= new HashMap<String, IBinding[]>();
+	}
+
+	/**
+	 * Attaches a scope table to the given AST, unless it already has one.
+	 *
+	 * @param root the compilation unit AST
+	 * @return the scope table attached to the AST
+	 */
+	public static ScopeTable attach(CompilationUnit root) {
+		synchronized (root) {
+			ScopeTable table= (ScopeTable) root.getProperty(PROPERTY);
+			if (table == null) {
+				table= new ScopeTable(root);
+				root.setProperty(PROPERTY, table);
+			}
+			return table;
+		}
+	}
+
+	/**
+	 * Returns the scope table attached to the given AST.
+	 *
+	 * @param root the compilation unit AST
+	 * @return the scope table or <code>null</code> if none has been attached
+	 */
+	public static ScopeTable get(CompilationUnit root) {
+		synchronized (root) {
+			return (ScopeTable) root.getProperty(PROPERTY);
+		}
+	}
+
+	private void checkModification() {
+		int modificationCount= fRoot.getAST().modificationCount();
+		if (modificationCount != fModificationCount) {
+			fLocalScopes.clear();
+			fTypeDeclarations.clear();
+			fModificationCount= modificationCount;
+		}
+	}
+
+	/**
+	 * Returns the local variables and types visible at the given offset, innermost declarations first.
+	 *
+	 * @param declaration the method declaration or initializer enclosing the offset
+	 * @param position the offset
+	 * @param flags flags defining the elements to report, {@link ScopeAnalyzer#VARIABLES} and
+	 *            {@link ScopeAnalyzer#TYPES} are considered
+	 * @return the visible local declarations or <code>null</code> if the table can't answer the query
+	 */
+	synchronized IBinding[] getLocalDeclarations(BodyDeclaration declaration, int position, int flags) {
+		checkModification();
+		LocalScopes scopes= fLocalScopes.get(declaration);
+		if (scopes == null) {
+			LocalScopesCollector collector= new LocalScopesCollector(declaration);
+			declaration.accept(collector);
+			scopes= collector.getLocalScopes();
+			fLocalScopes.put(declaration, scopes);
+		}
+		return scopes.getVisibleBindings(position, flags);
+	}
+
+	/**
+	 * Returns the bindings reported for a type and its outer scopes.
+	 *
+	 * @param key the key of the type binding and the requested kinds
+	 * @return the bindings in the order they have been reported, or <code>null</code> if not yet known
+	 */
+	synchronized IBinding[] getTypeDeclarations(String key) {
+		checkModification();
+		return fTypeDeclarations.get(key);
+	}
+
+	/**
+	 * Remembers the bindings reported for a type and its outer scopes.
+	 *
+	 * @param key the key of the type binding and the requested kinds
+	 * @param bindings the bindings in the order they have been reported
+	 */
+	synchronized void putTypeDeclarations(String key, IBinding[] bindings) {
+		checkModification();
+		fTypeDeclarations.put(key, bindings);
+	}
+}
@@ -10,7 +10,6 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.fix;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
@@ -113,22 +112,27 @@ public class PotentialProgrammingProblemsFix extends CompilationUnitRewriteOpera
 				ASTParser parser= ASTParser.newParser(ASTProvider.SHARED_AST_LEVEL);
 				parser.setProject(fProject);
 				IBinding[] bindings= parser.createBindings(types, new SubProgressMonitor(monitor, 1));
+
+				List<ITypeBinding> typeBindings= new ArrayList<ITypeBinding>(bindings.length);
+				List<IType> bindingTypes= new ArrayList<IType>(bindings.length);
 				for (int i= 0; i < bindings.length; i++) {
-					IBinding curr= bindings[i];
-					if (curr instanceof ITypeBinding) {
-						ITypeBinding typeBinding= (ITypeBinding) curr;
-						try {
-							Long id= SerialVersionHashOperation.calculateSerialVersionId(typeBinding, new SubProgressMonitor(monitor, 1));
-							if (id != null) {
-								setSerialVersionId(typeBinding, id);
-							} else {
-							   	result.addWarning(Messages.format(FixMessages.PotentialProgrammingProblemsFix_calculatingUIDFailed_unknown, BasicElementLabels.getJavaElementName(typeBinding.getName())));
-							}
-						} catch (IOException e) {
-						   	result.addWarning(Messages.format(FixMessages.PotentialProgrammingProblemsFix_calculatingUIDFailed_exception, new String[] { BasicElementLabels.getJavaElementName(typeBinding.getName()), e.getLocalizedMessage()}), JavaStatusContext.create(types[i]));
-				        } catch (CoreException e) {
-						   	result.addWarning(Messages.format(FixMessages.PotentialProgrammingProblemsFix_calculatingUIDFailed_exception, new String[] { BasicElementLabels.getJavaElementName(typeBinding.getName()), e.getLocalizedMessage()}), JavaStatusContext.create(types[i]));
-				        }
+					if (bindings[i] instanceof ITypeBinding) {
+						typeBindings.add((ITypeBinding) bindings[i]);
+						bindingTypes.add(types[i]);
+					}
+				}
+
+				// the class files of all types are read and hashed in one batch
+				Exception[] errors= new Exception[typeBindings.size()];
+				Long[] ids= SerialVersionHashOperation.calculateSerialVersionIds(typeBindings.toArray(new ITypeBinding[typeBindings.size()]), errors, new SubProgressMonitor(monitor, typeBindings.size()));
+				for (int i= 0; i < ids.length; i++) {
+					ITypeBinding typeBinding= typeBindings.get(i);
+					if (ids[i] != null) {
+						setSerialVersionId(typeBinding, ids[i]);
+					} else if (errors[i] != null) {
+					   	result.addWarning(Messages.format(FixMessages.PotentialProgrammingProblemsFix_calculatingUIDFailed_exception, new String[] { BasicElementLabels.getJavaElementName(typeBinding.getName()), errors[i].getLocalizedMessage()}), JavaStatusContext.create(bindingTypes.get(i)));
+					} else {
+					   	result.addWarning(Messages.format(FixMessages.PotentialProgrammingProblemsFix_calculatingUIDFailed_unknown, BasicElementLabels.getJavaElementName(typeBinding.getName())));
 					}
 				}
 			} finally {
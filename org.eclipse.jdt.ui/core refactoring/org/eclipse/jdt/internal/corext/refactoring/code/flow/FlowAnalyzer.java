@@ -11,6 +11,7 @@
 package org.eclipse.jdt.internal.corext.refactoring.code.flow;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -143,6 +144,9 @@ abstract class FlowAnalyzer extends GenericVisitor {
 	private HashMap<ASTNode, FlowInfo> fData = new HashMap<ASTNode, FlowInfo>(100);
 	/* package */ FlowContext fFlowContext= null;
 
+	private List<ASTNode> fRecordedNodes= new ArrayList<ASTNode>();
+	private ASTNode fCachedNode;
+
 	public FlowAnalyzer(FlowContext context) {
 		fFlowContext= context;
 	}
@@ -155,11 +159,64 @@ abstract class FlowAnalyzer extends GenericVisitor {
 		return !traverseNode(node);
 	}
 
+	/**
+	 * Returns whether the flow info computed for the given statement only depends
+	 * on the statement itself and on the flow context configuration, but not on
+	 * the current selection. The flow infos of such statements are memoized on the
+	 * AST and reused by subsequent analyses.
+	 * <p>
+	 * The default implementation returns <code>false</code>.
+	 * </p>
+	 *
+	 * @param node the statement
+	 * @return <code>true</code> if the flow info of the statement can be cached
+	 */
+	protected boolean isCacheable(ASTNode node) {
+		return false;
+	}
+
 	@Override
 	protected final boolean visitNode(ASTNode node) {
 		return traverseNode(node);
 	}
 
+	//---- Flow info caching --------------------------------------------------------------
+
+	private String getCacheKey() {
+		return getClass().getName() + ':' + fFlowContext.getConfigurationKey();
+	}
+
+	@Override
+	public boolean preVisit2(ASTNode node) {
+		if (!FlowInfoCache.isCacheCandidate(node) || !isCacheable(node))
+			return true;
+		FlowInfo info= FlowInfoCache.get(node, getCacheKey(), fFlowContext);
+		if (info != null) {
+			setFlowInfo(node, info);
+			fCachedNode= node;
+			return false;
+		}
+		fRecordedNodes.add(node);
+		fFlowContext.startRecordingLocals();
+		return true;
+	}
+
+	@Override
+	public void postVisit(ASTNode node) {
+		if (node == fCachedNode) {
+			fCachedNode= null;
+			return;
+		}
+		int last= fRecordedNodes.size() - 1;
+		if (last < 0 || fRecordedNodes.get(last) != node)
+			return;
+		fRecordedNodes.remove(last);
+		BitSet locals= fFlowContext.stopRecordingLocals();
+		FlowInfo info= accessFlowInfo(node);
+		if (info != null)
+			FlowInfoCache.put(node, getCacheKey(), info, locals, fFlowContext);
+	}
+
 	//---- Hooks to create Flow info objects. User may introduce their own infos.
 
 	protected ReturnFlowInfo createReturn(ReturnStatement statement) {
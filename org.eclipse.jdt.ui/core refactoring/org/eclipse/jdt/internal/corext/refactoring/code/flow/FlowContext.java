@@ -11,6 +11,7 @@
 package org.eclipse.jdt.internal.corext.refactoring.code.flow;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
 
@@ -26,11 +27,15 @@ import org.eclipse.jdt.core.dom.TryStatement;
 public class FlowContext {
 
 	private static class Enum {
+		private final String fName;
+		private Enum(String name) {
+			fName= name;
+		}
 	}
 
-	public static final Enum MERGE=			new Enum();
-	public static final Enum ARGUMENTS= 	new Enum();
-	public static final Enum RETURN_VALUES= new Enum();
+	public static final Enum MERGE=			new Enum("merge"); //$NON-NLS-1$
+	public static final Enum ARGUMENTS= 	new Enum("arguments"); //$NON-NLS-1$
+	public static final Enum RETURN_VALUES= new Enum("returnValues"); //$NON-NLS-1$
 
 	private int fStart;
 	private int fLength;
@@ -39,6 +44,7 @@ public class FlowContext {
 	private Enum fComputeMode;
 	private IVariableBinding[] fLocals;
 	private List<List<CatchClause>> fExceptionStack;
+	private List<BitSet> fLocalRecorders;
 
 	private static final List<CatchClause> EMPTY_CATCH_CLAUSE= new ArrayList<CatchClause>(0);
 
@@ -111,7 +117,49 @@ public class FlowContext {
 	void manageLocal(IVariableBinding local) {
 		if (fLocals == null)
 			fLocals= new IVariableBinding[fLength];
-		fLocals[local.getVariableId() - fStart]= local;
+		int index= local.getVariableId() - fStart;
+		fLocals[index]= local;
+		if (fLocalRecorders != null) {
+			for (int i= 0; i < fLocalRecorders.size(); i++) {
+				fLocalRecorders.get(i).set(index);
+			}
+		}
+	}
+
+	/**
+	 * Returns a key describing the configuration of this context. Flow infos computed
+	 * under contexts with equal keys are interchangeable.
+	 *
+	 * @return the configuration key
+	 */
+	String getConfigurationKey() {
+		StringBuffer buffer= new StringBuffer();
+		buffer.append(fStart).append(':').append(fLength).append(':');
+		buffer.append(fComputeMode != null ? fComputeMode.fName : null).append(':');
+		buffer.append(fConsiderAccessMode).append(':').append(fLoopReentranceMode);
+		return buffer.toString();
+	}
+
+	//---- Local recording -----------------------------------------------------------
+
+	/**
+	 * Starts recording the indices of all locals that get managed by this context
+	 * until the matching call to {@link #stopRecordingLocals()}. Recordings can be nested.
+	 */
+	void startRecordingLocals() {
+		if (fLocalRecorders == null)
+			fLocalRecorders= new ArrayList<BitSet>(4);
+		fLocalRecorders.add(new BitSet(fLength));
+	}
+
+	/**
+	 * Stops the innermost recording started by {@link #startRecordingLocals()}.
+	 *
+	 * @return the indices of the locals managed since the recording has been started
+	 */
+	BitSet stopRecordingLocals() {
+		Assert.isTrue(fLocalRecorders != null && fLocalRecorders.size() > 0);
+		return fLocalRecorders.remove(fLocalRecorders.size() - 1);
 	}
 
 	//---- Exception handling --------------------------------------------------------
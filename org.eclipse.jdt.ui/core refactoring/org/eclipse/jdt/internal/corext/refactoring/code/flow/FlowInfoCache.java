@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2011 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.code.flow;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+
+/**
+ * Memoizes the flow infos computed for compound statements. The summaries are
+ * stored as a property of the statement node, so they live exactly as long as
+ * the AST. Every summary is keyed by the analyzer and the flow context
+ * configuration it has been computed with and is discarded as soon as the AST
+ * gets modified.
+ */
+final class FlowInfoCache {
+
+	private static final String PROPERTY= FlowInfoCache.class.getName();
+
+	private static class Entry {
+		final int fModificationCount;
+		final FlowInfo fInfo;
+		final IVariableBinding[] fLocals;
+
+		Entry(int modificationCount, FlowInfo info, IVariableBinding[] locals) {
+			fModificationCount= modificationCount;
+			fInfo= info;
+			fLocals= locals;
+		}
+	}
+
+	private FlowInfoCache() {
+	}
+
+	/**
+	 * Returns whether flow infos computed for the given node are worth caching.
+	 *
+	 * @param node the node
+	 * @return <code>true</code> if the node is a statement containing other statements
+	 */
+	static boolean isCacheCandidate(ASTNode node) {
+		switch (node.getNodeType()) {
+			case ASTNode.BLOCK:
+			case ASTNode.IF_STATEMENT:
+			case ASTNode.FOR_STATEMENT:
+			case ASTNode.ENHANCED_FOR_STATEMENT:
+			case ASTNode.WHILE_STATEMENT:
+			case ASTNode.DO_STATEMENT:
+			case ASTNode.TRY_STATEMENT:
+			case ASTNode.SWITCH_STATEMENT:
+			case ASTNode.SYNCHRONIZED_STATEMENT:
+			case ASTNode.LABELED_STATEMENT:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Looks up the flow info for the given node. The locals referenced by the cached
+	 * info are registered with the context.
+	 *
+	 * @param node the statement
+	 * @param key the analyzer and context configuration key
+	 * @param context the flow context of the current analysis
+	 * @return a private copy of the cached flow info or <code>null</code> if none is available
+	 */
+	static FlowInfo get(ASTNode node, String key, FlowContext context) {
+		Entry entry;
+		synchronized (node) {
+			Map<String, Entry> entries= getEntries(node, false);
+			if (entries == null)
+				return null;
+			entry= entries.get(key);
+			if (entry == null)
+				return null;
+			if (entry.fModificationCount != node.getAST().modificationCount()) {
+				entries.remove(key);
+				return null;
+			}
+		}
+		for (int i= 0; i < entry.fLocals.length; i++) {
+			context.manageLocal(entry.fLocals[i]);
+		}
+		return copy(entry.fInfo);
+	}
+
+	/**
+	 * Caches the flow info computed for the given node.
+	 *
+	 * @param node the statement
+	 * @param key the analyzer and context configuration key
+	 * @param info the computed flow info
+	 * @param localIndices the indices of the locals managed while computing the info
+	 * @param context the flow context of the current analysis
+	 */
+	static void put(ASTNode node, String key, FlowInfo info, BitSet localIndices, FlowContext context) {
+		IVariableBinding[] locals= new IVariableBinding[localIndices.cardinality()];
+		int k= 0;
+		for (int i= localIndices.nextSetBit(0); i >= 0; i= localIndices.nextSetBit(i + 1)) {
+			locals[k++]= context.getLocalFromIndex(i);
+		}
+		Entry entry= new Entry(node.getAST().modificationCount(), copy(info), locals);
+		synchronized (node) {
+			getEntries(node, true).put(key, entry);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Entry> getEntries(ASTNode node, boolean create) {
+		Map<String, Entry> entries= (Map<String, Entry>) node.getProperty(PROPERTY);
+		if (entries == null && create) {
+			entries= new HashMap<String, Entry>(4);
+			node.setProperty(PROPERTY, entries);
+		}
+		return entries;
+	}
+
+	private static FlowInfo copy(FlowInfo info) {
+		GenericSequentialFlowInfo result= new GenericSequentialFlowInfo();
+		result.fReturnKind= info.fReturnKind;
+		if (info.fAccessModes != null)
+			result.fAccessModes= info.fAccessModes.clone();
+		if (info.fBranches != null)
+			result.fBranches= new HashSet<String>(info.fBranches);
+		if (info.fTypeVariables != null)
+			result.fTypeVariables= new HashSet<ITypeBinding>(info.fTypeVariables);
+		return result;
+	}
+}
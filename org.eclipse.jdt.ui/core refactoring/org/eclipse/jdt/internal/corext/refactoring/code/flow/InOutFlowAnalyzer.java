@@ -55,6 +55,12 @@ public class InOutFlowAnalyzer extends FlowAnalyzer {
 		return true;
 	}
 
+	@Override
+	protected boolean isCacheable(ASTNode node) {
+		// the flow info of a selected node doesn't depend on the rest of the selection.
+		return true;
+	}
+
 	@Override
 	public void endVisit(Block node) {
 		super.endVisit(node);
@@ -159,6 +159,12 @@ public class InputFlowAnalyzer extends FlowAnalyzer {
 		return node.getStartPosition() >= fSelection.getInclusiveEnd();
 	}
 
+	@Override
+	protected boolean isCacheable(ASTNode node) {
+		// Nodes located completely after the selection are analyzed the same way for every selection.
+		return node.getStartPosition() >= fSelection.getExclusiveEnd();
+	}
+
 	@Override
 	public boolean visit(DoStatement node) {
 		createLoopReentranceVisitor(node);
@@ -73,7 +73,6 @@ import org.eclipse.jdt.internal.corext.refactoring.SearchResultGroup;
 import org.eclipse.jdt.internal.corext.refactoring.base.JavaStatusContext;
 import org.eclipse.jdt.internal.corext.refactoring.base.ReferencesInBinaryContext;
 import org.eclipse.jdt.internal.corext.refactoring.changes.DynamicValidationRefactoringChange;
-import org.eclipse.jdt.internal.corext.refactoring.changes.TextChangeCompatibility;
 import org.eclipse.jdt.internal.corext.refactoring.delegates.DelegateCreator;
 import org.eclipse.jdt.internal.corext.refactoring.delegates.DelegateFieldCreator;
 import org.eclipse.jdt.internal.corext.refactoring.delegates.DelegateMethodCreator;
@@ -704,7 +703,7 @@ public class RenameFieldProcessor extends JavaRenameProcessor implements IRefere
 		TextEdit textEdit= new ReplaceEdit(nameRange.getOffset(), nameRange.getLength(), getNewElementName());
 		ICompilationUnit cu= fField.getCompilationUnit();
 		String groupName= RefactoringCoreMessages.RenameFieldRefactoring_Update_field_declaration;
-		addTextEdit(fChangeManager.get(cu), groupName, textEdit);
+		addTextEdit(cu, groupName, textEdit);
 	}
 
 	private RefactoringStatus addDelegates() throws JavaModelException, CoreException {
@@ -760,11 +759,11 @@ public class RenameFieldProcessor extends JavaRenameProcessor implements IRefere
 		creator.createEdit();
 	}
 
-	private void addTextEdit(TextChange change, String groupName, TextEdit textEdit) {
+	private void addTextEdit(ICompilationUnit cu, String groupName, TextEdit textEdit) {
 		if (fIsComposite)
-			TextChangeCompatibility.addTextEdit(change, groupName, textEdit, fCategorySet);
+			fChangeManager.addTextEdit(cu, groupName, textEdit, fCategorySet);
 		else
-			TextChangeCompatibility.addTextEdit(change, groupName, textEdit);
+			fChangeManager.addTextEdit(cu, groupName, textEdit);
 
 	}
 
@@ -777,7 +776,7 @@ public class RenameFieldProcessor extends JavaRenameProcessor implements IRefere
 				continue;
 			SearchMatch[] results= fReferences[i].getSearchResults();
 			for (int j= 0; j < results.length; j++){
-				addTextEdit(fChangeManager.get(cu), editName, createTextChange(results[j]));
+				addTextEdit(cu, editName, createTextChange(results[j]));
 			}
 			pm.worked(1);
 		}
@@ -811,7 +810,7 @@ public class RenameFieldProcessor extends JavaRenameProcessor implements IRefere
 			for (int j= 0; j < results.length; j++){
 				SearchMatch searchResult= results[j];
 				TextEdit edit= new ReplaceEdit(searchResult.getOffset(), searchResult.getLength(), newAccessorName);
-				addTextEdit(fChangeManager.get(cu), editName, edit);
+				addTextEdit(cu, editName, edit);
 			}
 		}
 	}
@@ -87,7 +87,6 @@ import org.eclipse.jdt.internal.corext.refactoring.base.JavaStatusContext;
 import org.eclipse.jdt.internal.corext.refactoring.base.ReferencesInBinaryContext;
 import org.eclipse.jdt.internal.corext.refactoring.changes.DynamicValidationRefactoringChange;
 import org.eclipse.jdt.internal.corext.refactoring.changes.RenamePackageChange;
-import org.eclipse.jdt.internal.corext.refactoring.changes.TextChangeCompatibility;
 import org.eclipse.jdt.internal.corext.refactoring.participants.JavaProcessors;
 import org.eclipse.jdt.internal.corext.refactoring.rename.RenamePackageProcessor.ImportsManager.ImportChange;
 import org.eclipse.jdt.internal.corext.refactoring.tagging.IQualifiedNameUpdating;
@@ -751,7 +750,7 @@ public class RenamePackageProcessor extends JavaRenameProcessor implements
 						String updatedImport= getUpdatedImport(importDeclaration);
 						updateImport(cu, importDeclaration, updatedImport);
 					} else { // is reference
-						TextChangeCompatibility.addTextEdit(fTextChangeManager.get(cu), RefactoringCoreMessages.RenamePackageRefactoring_update_reference, createTextChange(result));
+						fTextChangeManager.addTextEdit(cu, RefactoringCoreMessages.RenamePackageRefactoring_update_reference, createTextChange(result));
 					}
 				}
 				if (fReferencesToTypesInNamesakes.size() != 0) {
@@ -1091,7 +1090,7 @@ public class RenamePackageProcessor extends JavaRenameProcessor implements
 					TextEdit importEdit= importRewrite.rewriteImports(pm);
 					String name= RefactoringCoreMessages.RenamePackageRefactoring_update_imports;
 					try {
-						TextChangeCompatibility.addTextEdit(changeManager.get(cu), name, importEdit);
+						changeManager.addTextEdit(cu, name, importEdit);
 					} catch (MalformedTreeException e) {
 						JavaPlugin.logErrorMessage("MalformedTreeException while processing cu " + cu); //$NON-NLS-1$
 						throw e;
@@ -1162,7 +1162,7 @@ public class RenameTypeProcessor extends JavaRenameProcessor implements ITextUpd
 		String name= RefactoringCoreMessages.RenameTypeRefactoring_update;
 		int typeNameLength= fType.getElementName().length();
 		ICompilationUnit cu= fType.getCompilationUnit();
-		TextChangeCompatibility.addTextEdit(manager.get(cu), name, new ReplaceEdit(fType.getNameRange().getOffset(), typeNameLength, getNewElementName()));
+		manager.addTextEdit(cu, name, new ReplaceEdit(fType.getNameRange().getOffset(), typeNameLength, getNewElementName()));
 	}
 
 	private void addConstructorRenames(TextChangeManager manager) throws CoreException {
@@ -1178,7 +1178,7 @@ public class RenameTypeProcessor extends JavaRenameProcessor implements ITextUpd
 				 * (checked as a precondition)
 				 */
 				String name= RefactoringCoreMessages.RenameTypeRefactoring_rename_constructor;
-				TextChangeCompatibility.addTextEdit(manager.get(cu), name, new ReplaceEdit(methods[i].getNameRange().getOffset(), typeNameLength, getNewElementName()));
+				manager.addTextEdit(cu, name, new ReplaceEdit(methods[i].getNameRange().getOffset(), typeNameLength, getNewElementName()));
 			}
 		}
 	}
@@ -1196,7 +1196,7 @@ public class RenameTypeProcessor extends JavaRenameProcessor implements ITextUpd
 			for (int j= 0; j < results.length; j++){
 				SearchMatch match= results[j];
 				ReplaceEdit replaceEdit= new ReplaceEdit(match.getOffset(), match.getLength(), getNewElementName());
-				TextChangeCompatibility.addTextEdit(manager.get(cu), name, replaceEdit, CATEGORY_TYPE_RENAME);
+				manager.addTextEdit(cu, name, replaceEdit, CATEGORY_TYPE_RENAME);
 			}
 			pm.worked(1);
 		}
@@ -44,7 +44,6 @@ import org.eclipse.jdt.core.search.SearchMatch;
 
 import org.eclipse.jdt.internal.corext.refactoring.RefactoringCoreMessages;
 import org.eclipse.jdt.internal.corext.refactoring.SearchResultGroup;
-import org.eclipse.jdt.internal.corext.refactoring.changes.TextChangeCompatibility;
 import org.eclipse.jdt.internal.corext.refactoring.rename.RefactoringScanner.TextMatch;
 import org.eclipse.jdt.internal.corext.refactoring.tagging.ITextUpdating;
 import org.eclipse.jdt.internal.corext.refactoring.util.TextChangeManager;
@@ -195,7 +194,7 @@ class TextMatchUpdater {
 			int matchStart= match.getStartPosition();
 			ReplaceEdit edit= new ReplaceEdit(matchStart, fCurrentNameLength, fNewName);
 			try {
-				TextChangeCompatibility.addTextEdit(fManager.get(cu), TEXT_EDIT_LABEL, edit, TEXTUAL_MATCHES);
+				fManager.addTextEdit(cu, TEXT_EDIT_LABEL, edit, TEXTUAL_MATCHES);
 			} catch (MalformedTreeException e) {
 				// conflicting update -> omit text match
 			}
@@ -41,7 +41,6 @@ import org.eclipse.jdt.internal.corext.refactoring.RefactoringCoreMessages;
 import org.eclipse.jdt.internal.corext.refactoring.RefactoringSearchEngine;
 import org.eclipse.jdt.internal.corext.refactoring.RefactoringSearchEngine2;
 import org.eclipse.jdt.internal.corext.refactoring.SearchResultGroup;
-import org.eclipse.jdt.internal.corext.refactoring.changes.TextChangeCompatibility;
 import org.eclipse.jdt.internal.corext.refactoring.nls.changes.CreateTextFileChange;
 import org.eclipse.jdt.internal.corext.refactoring.rename.TypeOccurrenceCollector;
 import org.eclipse.jdt.internal.corext.refactoring.util.JavaElementUtil;
@@ -72,7 +71,7 @@ public final class CreateCopyOfCompilationUnitChange extends CreateTextFileChang
 				continue;
 			int offset= searchResult.getOffset();
 			int length= searchResult.getLength();
-			TextChangeCompatibility.addTextEdit(manager.get(copy), name, new ReplaceEdit(offset, length, newName));
+			manager.addTextEdit(copy, name, new ReplaceEdit(offset, length, newName));
 		}
 		return manager;
 	}
@@ -111,7 +111,7 @@ public class MoveCuUpdateCreator {
 			ICompilationUnit cu= iter.next();
 			ImportRewrite importRewrite= fImportRewrites.get(cu);
 			if (importRewrite != null && importRewrite.hasRecordedChanges()) {
-				TextChangeCompatibility.addTextEdit(changeManager.get(cu), RefactoringCoreMessages.MoveCuUpdateCreator_update_imports, importRewrite.rewriteImports(null));
+				changeManager.addTextEdit(cu, RefactoringCoreMessages.MoveCuUpdateCreator_update_imports, importRewrite.rewriteImports(null));
 			}
 		}
 	}
@@ -12,23 +12,68 @@ package org.eclipse.jdt.internal.corext.refactoring.util;
 
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.eclipse.text.edits.MalformedTreeException;
+import org.eclipse.text.edits.TextEdit;
+
+import org.eclipse.ltk.core.refactoring.GroupCategorySet;
 import org.eclipse.ltk.core.refactoring.TextChange;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.refactoring.CompilationUnitChange;
 
+import org.eclipse.jdt.internal.corext.refactoring.changes.TextChangeCompatibility;
+
 
 /**
  * A <code>TextChangeManager</code> manages associations between <code>ICompilationUnit</code>
  * or <code>IFile</code> and <code>TextChange</code> objects.
+ * <p>
+ * The manager is thread safe: changes for different compilation units can be created
+ * concurrently. Looking up the change of a compilation unit doesn't block. The
+ * <code>TextChange</code> objects themselves are not thread safe; clients that modify a
+ * change from several threads must do so through
+ * {@link #addTextEdit(ICompilationUnit, String, TextEdit)} or while holding the lock returned
+ * by {@link #getLock(ICompilationUnit)}.
+ * </p>
+ * <p>
+ * Appending an edit takes the lock of the compilation unit's stripe. It can't be deferred to a
+ * lock-free queue, because the edit is inserted into the change's edit tree right away, so that
+ * callers get the <code>MalformedTreeException</code> of an overlapping edit, e.g. to omit a
+ * conflicting textual match.
+ * </p>
  */
 public class TextChangeManager {
 
-	private Map<ICompilationUnit, TextChange> fMap= new HashMap<ICompilationUnit, TextChange>(10);
+	private static final int LOCK_STRIPES= 32;
+
+	/**
+	 * Orders compilation units by name and, for equal names, by handle identifier,
+	 * so that the order of the managed changes doesn't depend on the order in which
+	 * they have been created.
+	 */
+	private static final Comparator<ICompilationUnit> COMPILATION_UNIT_ORDER= new Comparator<ICompilationUnit>() {
+		public int compare(ICompilationUnit o1, ICompilationUnit o2) {
+			int result= o1.getElementName().compareTo(o2.getElementName());
+			if (result != 0)
+				return result;
+			return o1.getHandleIdentifier().compareTo(o2.getHandleIdentifier());
+		}
+	};
+
+	/**
+	 * Stands for a <code>null</code> change passed to {@link #manage(ICompilationUnit, TextChange)},
+	 * since the concurrent map doesn't take <code>null</code> values.
+	 */
+	private static final Object NULL_CHANGE= new Object();
+
+	/** The changes, or {@link #NULL_CHANGE}, by compilation unit */
+	private final ConcurrentMap<ICompilationUnit, Object> fMap= new ConcurrentHashMap<ICompilationUnit, Object>(16);
+
+	private final Object[] fLocks;
 
 	private final boolean fKeepExecutedTextEdits;
 
@@ -38,6 +83,10 @@ public class TextChangeManager {
 
 	public TextChangeManager(boolean keepExecutedTextEdits) {
 		fKeepExecutedTextEdits= keepExecutedTextEdits;
+		fLocks= new Object[LOCK_STRIPES];
+		for (int i= 0; i < fLocks.length; i++) {
+			fLocks[i]= new Object();
+		}
 	}
 
 	/**
@@ -45,10 +94,13 @@ public class TextChangeManager {
 	 * change to this manager.
 	 *
 	 * @param cu the compilation unit (key)
-	 * @param change the change associated with the compilation unit
+	 * @param change the change associated with the compilation unit. If it is <code>null</code>,
+	 *  the compilation unit is managed without a change: it is part of
+	 *  {@link #getAllCompilationUnits()}, its entry in {@link #getAllChanges()} is
+	 *  <code>null</code>, and {@link #get(ICompilationUnit)} creates a new change for it
 	 */
 	public void manage(ICompilationUnit cu, TextChange change) {
-		fMap.put(cu, change);
+		fMap.put(cu, change != null ? change : NULL_CHANGE);
 	}
 
 	/**
@@ -59,13 +111,69 @@ public class TextChangeManager {
 	 * @return the text change associated with the given compilation unit.
 	 */
 	public TextChange get(ICompilationUnit cu) {
-		TextChange result= fMap.get(cu);
-		if (result == null) {
-			result= new CompilationUnitChange(cu.getElementName(), cu);
-			result.setKeepPreviewEdits(fKeepExecutedTextEdits);
-			fMap.put(cu, result);
+		Object result= fMap.get(cu);
+		if (result instanceof TextChange)
+			return (TextChange) result;
+
+		TextChange change= new CompilationUnitChange(cu.getElementName(), cu);
+		change.setKeepPreviewEdits(fKeepExecutedTextEdits);
+		while (true) {
+			if (result == null) {
+				result= fMap.putIfAbsent(cu, change);
+				if (result == null)
+					return change;
+			} else if (fMap.replace(cu, NULL_CHANGE, change)) {
+				return change;
+			} else {
+				result= fMap.get(cu);
+			}
+			if (result instanceof TextChange)
+				return (TextChange) result; // created concurrently
+		}
+	}
+
+	/**
+	 * Returns the lock guarding modifications of the <code>TextChange</code> associated with the
+	 * given compilation unit. Changes of different compilation units may share a lock.
+	 *
+	 * @param cu the compilation unit
+	 * @return the lock object for the compilation unit
+	 */
+	public Object getLock(ICompilationUnit cu) {
+		return fLocks[(cu.hashCode() & 0x7fffffff) % fLocks.length];
+	}
+
+	/**
+	 * Adds a text edit to the <code>TextChange</code> associated with the given compilation unit.
+	 * This method may be called concurrently from several threads.
+	 *
+	 * @param cu the compilation unit
+	 * @param name the name of the text edit group to create
+	 * @param edit the text edit to add
+	 * @throws MalformedTreeException if the edit can't be added to the change
+	 */
+	public void addTextEdit(ICompilationUnit cu, String name, TextEdit edit) throws MalformedTreeException {
+		TextChange change= get(cu);
+		synchronized (getLock(cu)) {
+			TextChangeCompatibility.addTextEdit(change, name, edit);
+		}
+	}
+
+	/**
+	 * Adds a text edit to the <code>TextChange</code> associated with the given compilation unit.
+	 * This method may be called concurrently from several threads.
+	 *
+	 * @param cu the compilation unit
+	 * @param name the name of the text edit group to create
+	 * @param edit the text edit to add
+	 * @param groupCategories the group categories of the text edit group
+	 * @throws MalformedTreeException if the edit can't be added to the change
+	 */
+	public void addTextEdit(ICompilationUnit cu, String name, TextEdit edit, GroupCategorySet groupCategories) throws MalformedTreeException {
+		TextChange change= get(cu);
+		synchronized (getLock(cu)) {
+			TextChangeCompatibility.addTextEdit(change, name, edit, groupCategories);
 		}
-		return result;
 	}
 
 	/**
@@ -76,7 +184,8 @@ public class TextChangeManager {
 	 * @return the removed <tt>TextChange</tt>.
 	 */
 	public TextChange remove(ICompilationUnit unit) {
-		return fMap.remove(unit);
+		Object result= fMap.remove(unit);
+		return result instanceof TextChange ? (TextChange) result : null;
 	}
 
 	/**
@@ -88,17 +197,22 @@ public class TextChangeManager {
 		Set<ICompilationUnit> cuSet= fMap.keySet();
 		ICompilationUnit[] cus= cuSet.toArray(new ICompilationUnit[cuSet.size()]);
 		// sort by cu name:
-		Arrays.sort(cus, new Comparator<ICompilationUnit>() {
-			public int compare(ICompilationUnit o1, ICompilationUnit o2) {
-				String name1= o1.getElementName();
-				String name2= o2.getElementName();
-				return name1.compareTo(name2);
-			}
-		});
+		Arrays.sort(cus, COMPILATION_UNIT_ORDER);
 
 		TextChange[] textChanges= new TextChange[cus.length];
+		int count= 0;
 		for (int i= 0; i < cus.length; i++) {
-			textChanges[i]= fMap.get(cus[i]);
+			Object change= fMap.get(cus[i]);
+			if (change instanceof TextChange)
+				textChanges[count++]= (TextChange) change;
+			else if (change == NULL_CHANGE)
+				textChanges[count++]= null;
+			// else removed concurrently
+		}
+		if (count < textChanges.length) {
+			TextChange[] result= new TextChange[count];
+			System.arraycopy(textChanges, 0, result, 0, count);
+			return result;
 		}
 		return textChanges;
 	}
@@ -109,7 +223,8 @@ public class TextChangeManager {
 	 * @return all compilation units managed by this instance
 	 */
 	public ICompilationUnit[] getAllCompilationUnits(){
-		return fMap.keySet().toArray(new ICompilationUnit[fMap.keySet().size()]);
+		Set<ICompilationUnit> cuSet= fMap.keySet();
+		return cuSet.toArray(new ICompilationUnit[cuSet.size()]);
 	}
 
 	/**
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.jarinjarloader;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.security.CodeSource;
+import java.security.cert.Certificate;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Vector;
+import java.util.jar.Manifest;
+
+/**
+ * A class loader for the redirected class path which looks up classes and resources
+ * in a {@link NestedJarIndex}. Entries which aren't indexed are found by the
+ * {@link URLClassLoader} as before.
+ * <p>
+ * This class will be compiled into the binary jar-in-jar-loader.zip. This ZIP is used for the
+ * "Runnable JAR File Exporter"
+ * </p>
+ *
+ * @since 3.9
+ */
+final class IndexedRsrcClassLoader extends URLClassLoader {
+
+	private final NestedJarIndex index;
+	private final URL[] rsrcUrls;
+	private final CodeSource[] codeSources;
+	/** Index of the first class path entry which isn't indexed, it may shadow entries of later ones */
+	private final int firstUnindexed;
+
+	IndexedRsrcClassLoader(URL[] rsrcUrls, NestedJarIndex index) {
+		super(rsrcUrls, null);
+		this.index = index;
+		this.rsrcUrls = rsrcUrls;
+		this.codeSources = new CodeSource[rsrcUrls.length];
+		int i = 0;
+		while (i < rsrcUrls.length && index.isIndexed(i))
+			i++;
+		this.firstUnindexed = i;
+	}
+
+	protected Class findClass(String name) throws ClassNotFoundException {
+		String path = name.replace('.', '/').concat(".class"); //$NON-NLS-1$
+		NestedJarIndex.Entry entry = findEntry(path);
+		if (entry != null) {
+			byte[] bytes;
+			try {
+				bytes = index.read(entry);
+			} catch (IOException e) {
+				return super.findClass(name);
+			}
+			int lastDot = name.lastIndexOf('.');
+			if (lastDot != -1)
+				definePackage(name.substring(0, lastDot), entry.classPathIndex);
+			return defineClass(name, bytes, 0, bytes.length, getCodeSource(entry.classPathIndex));
+		}
+		return super.findClass(name);
+	}
+
+	public URL findResource(String name) {
+		NestedJarIndex.Entry entry = findEntry(name);
+		if (entry != null) {
+			try {
+				return index.getURL(entry, name);
+			} catch (MalformedURLException e) {
+				// fall through
+			}
+		}
+		return super.findResource(name);
+	}
+
+	public Enumeration findResources(String name) throws IOException {
+		Vector result = new Vector();
+		for (NestedJarIndex.Entry entry = index.getEntry(name); entry != null && entry.classPathIndex < firstUnindexed; entry = entry.next)
+			result.addElement(index.getURL(entry, name));
+		if (firstUnindexed < rsrcUrls.length) {
+			// the URL class loader finds the resources of all class path entries again
+			Set indexedSpecs = new HashSet();
+			for (int i = 0; i < firstUnindexed; i++)
+				indexedSpecs.add(index.getSpec(i, name));
+			Enumeration urls = super.findResources(name);
+			while (urls.hasMoreElements()) {
+				URL url = (URL) urls.nextElement();
+				if (!indexedSpecs.contains(url.toExternalForm()))
+					result.addElement(url);
+			}
+		}
+		return result.elements();
+	}
+
+	/**
+	 * Returns the indexed entry with the given name, unless a class path entry
+	 * which isn't indexed comes before the one containing the entry.
+	 *
+	 * @param name the entry name
+	 * @return the entry or <code>null</code>
+	 */
+	private NestedJarIndex.Entry findEntry(String name) {
+		NestedJarIndex.Entry entry = index.getEntry(name);
+		if (entry == null || entry.classPathIndex > firstUnindexed)
+			return null;
+		return entry;
+	}
+
+	private void definePackage(String packageName, int classPathIndex) {
+		synchronized (this) {
+			if (getPackage(packageName) != null)
+				return;
+			Manifest manifest = index.getManifest(classPathIndex);
+			try {
+				if (manifest != null)
+					definePackage(packageName, manifest, rsrcUrls[classPathIndex]);
+				else
+					definePackage(packageName, null, null, null, null, null, null, null);
+			} catch (IllegalArgumentException e) {
+				// defined concurrently
+			}
+		}
+	}
+
+	private synchronized CodeSource getCodeSource(int classPathIndex) {
+		if (codeSources[classPathIndex] == null)
+			codeSources[classPathIndex] = new CodeSource(rsrcUrls[classPathIndex], (Certificate[]) null);
+		return codeSources[classPathIndex];
+	}
+}
@@ -13,12 +13,14 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.jarinjarloader;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
@@ -51,13 +53,55 @@ public class JarRsrcLoader {
 			else
 				rsrcUrls[i] = new URL(JIJConstants.JAR_INTERNAL_URL_PROTOCOL_WITH_COLON + rsrcPath + JIJConstants.JAR_INTERNAL_SEPARATOR);    
 		}
-		ClassLoader jceClassLoader = new URLClassLoader(rsrcUrls, null);
+		ClassLoader jceClassLoader = createClassLoader(rsrcUrls, mi.rsrcClassPath);
 		Thread.currentThread().setContextClassLoader(jceClassLoader);
 		Class c = Class.forName(mi.rsrcMainClass, true, jceClassLoader);
 		Method main = c.getMethod(JIJConstants.MAIN_METHOD_NAME, new Class[]{args.getClass()}); 
 		main.invoke((Object)null, new Object[]{args});
 	}
 
+	/**
+	 * Creates the class loader for the redirected class path. If the application has been
+	 * started from a local jar which is the only entry on the class path, the classes are
+	 * loaded from an index of the jar. Otherwise the libraries are accessed through
+	 * <code>jar:rsrc:</code> URLs.
+	 * 
+	 * @param rsrcUrls the URLs of the redirected class path
+	 * @param rsrcClassPath the redirected class path
+	 * @return the class loader
+	 */
+	private static ClassLoader createClassLoader(URL[] rsrcUrls, String[] rsrcClassPath) {
+		File jar = getRunnableJar();
+		if (jar != null) {
+			NestedJarIndex index = NestedJarIndex.create(jar, rsrcClassPath);
+			if (index != null)
+				return new IndexedRsrcClassLoader(rsrcUrls, index);
+		}
+		return new URLClassLoader(rsrcUrls, null);
+	}
+
+	private static File getRunnableJar() {
+		try {
+			String classPath = System.getProperty("java.class.path"); //$NON-NLS-1$
+			if (classPath == null || classPath.indexOf(File.pathSeparatorChar) != -1)
+				return null;
+			URL location = JarRsrcLoader.class.getProtectionDomain().getCodeSource().getLocation();
+			if (!"file".equals(location.getProtocol())) //$NON-NLS-1$
+				return null;
+			File jar = new File(URLDecoder.decode(location.getFile(), JIJConstants.UTF8_ENCODING));
+			if (!jar.isFile() || !jar.getCanonicalFile().equals(new File(classPath).getCanonicalFile()))
+				return null;
+			return jar;
+		} catch (SecurityException e) {
+			return null;
+		} catch (IOException e) {
+			return null;
+		} catch (NullPointerException e) {
+			// no code source
+			return null;
+		}
+	}
+
 	private static ManifestInfo getManifestInfo() throws IOException {
 		Enumeration resEnum;
 		resEnum = Thread.currentThread().getContextClassLoader().getResources(JarFile.MANIFEST_NAME); 
@@ -0,0 +1,462 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.jarinjarloader;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * An index of the entries of the runnable jar and of the libraries stored
+ * uncompressed inside of it. Entries are read with positioned reads from the
+ * runnable jar, so nested libraries don't have to be extracted.
+ * <p>
+ * Libraries which are compressed inside of the runnable jar can't be indexed,
+ * their class path entries are reported by {@link #isIndexed(int)}.
+ * </p>
+ * <p>
+ * Signed jars aren't indexed either, since classes defined from the index don't
+ * get code signers and their signatures wouldn't be verified. A signed runnable
+ * jar isn't indexed at all, a signed library is left to the URL class loader.
+ * </p>
+ * This class will be compiled into the binary jar-in-jar-loader.zip. This ZIP is used for the
+ * "Runnable JAR File Exporter"
+ *
+ * @since 3.9
+ */
+final class NestedJarIndex {
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int LOCAL_HEADER_SIZE = 30;
+	private static final int CENTRAL_HEADER_SIZE = 46;
+	private static final int END_SIZE = 22;
+	private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+	private static final int STORED = 0;
+	private static final int DEFLATED = 8;
+
+	/**
+	 * An entry in the runnable jar or in one of its libraries.
+	 */
+	static final class Entry {
+		final int classPathIndex;
+		final int method;
+		final int compressedSize;
+		final int size;
+		/** Offset of the local header in the runnable jar */
+		final long headerOffset;
+		/** Offset of the data in the runnable jar, computed lazily */
+		long dataOffset = -1;
+		/** The entry with the same name in a later class path entry, or <code>null</code> */
+		Entry next;
+
+		Entry(int classPathIndex, int method, int compressedSize, int size, long headerOffset) {
+			this.classPathIndex = classPathIndex;
+			this.method = method;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.headerOffset = headerOffset;
+		}
+	}
+
+	/**
+	 * Serves the content of an indexed entry.
+	 */
+	private final class EntryURLStreamHandler extends URLStreamHandler {
+		private final Entry entry;
+
+		EntryURLStreamHandler(Entry entry) {
+			this.entry = entry;
+		}
+
+		protected URLConnection openConnection(URL u) throws IOException {
+			return new URLConnection(u) {
+				public void connect() throws IOException {
+				}
+				public InputStream getInputStream() throws IOException {
+					return new ByteArrayInputStream(read(entry));
+				}
+				public int getContentLength() {
+					return entry.size;
+				}
+			};
+		}
+
+		protected void parseURL(URL url, String spec, int start, int limit) {
+			setURL(url, url.getProtocol(), "", -1, null, null, spec.substring(start, limit), null, null); //$NON-NLS-1$
+		}
+	}
+
+	private final RandomAccessFile file;
+	private final String[] classPath;
+	private final boolean[] indexed;
+	/**
+	 * Maps entry names to the {@link Entry} of the first class path entry containing it,
+	 * the entries of later class path entries are linked by {@link Entry#next}
+	 */
+	private final Map entries = new HashMap();
+	private final Entry[] manifestEntries;
+	private final Manifest[] manifests;
+	private final boolean[] manifestRead;
+
+	private NestedJarIndex(RandomAccessFile file, String[] classPath) {
+		this.file = file;
+		this.classPath = classPath;
+		this.indexed = new boolean[classPath.length];
+		this.manifestEntries = new Entry[classPath.length];
+		this.manifests = new Manifest[classPath.length];
+		this.manifestRead = new boolean[classPath.length];
+	}
+
+	/**
+	 * Indexes the given runnable jar.
+	 *
+	 * @param jar the runnable jar
+	 * @param classPath the redirected class path, as specified in the manifest
+	 * @return the index, or <code>null</code> if the jar can't be indexed
+	 */
+	static NestedJarIndex create(File jar, String[] classPath) {
+		RandomAccessFile file = null;
+		try {
+			file = new RandomAccessFile(jar, "r"); //$NON-NLS-1$
+			NestedJarIndex index = new NestedJarIndex(file, classPath);
+			if (index.build())
+				return index;
+		} catch (IOException e) {
+			// fall back to the URL class loader
+		}
+		if (file != null) {
+			try {
+				file.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param classPathIndex the index of a redirected class path entry
+	 * @return <code>true</code> if all entries of the class path entry are indexed
+	 */
+	boolean isIndexed(int classPathIndex) {
+		return indexed[classPathIndex];
+	}
+
+	/**
+	 * @param name the name of an entry
+	 * @return the first indexed entry with the given name, or <code>null</code>
+	 */
+	Entry getEntry(String name) {
+		return (Entry) entries.get(name);
+	}
+
+	/**
+	 * Returns an URL for an indexed entry. The URL looks like the URL the
+	 * {@link RsrcURLStreamHandler} would create, but is served from the index.
+	 *
+	 * @param entry the entry
+	 * @param name the name of the entry
+	 * @return the URL
+	 * @throws MalformedURLException if the URL can't be created
+	 */
+	URL getURL(Entry entry, String name) throws MalformedURLException {
+		return new URL(null, getSpec(entry.classPathIndex, name), new EntryURLStreamHandler(entry));
+	}
+
+	/**
+	 * Returns the external form of the URL the {@link RsrcURLStreamHandler} creates
+	 * for an entry of a class path entry.
+	 *
+	 * @param classPathIndex the index of a redirected class path entry
+	 * @param name the name of the entry
+	 * @return the URL spec
+	 */
+	String getSpec(int classPathIndex, String name) {
+		String rsrcPath = classPath[classPathIndex];
+		if (rsrcPath.endsWith(JIJConstants.PATH_SEPARATOR))
+			return JIJConstants.INTERNAL_URL_PROTOCOL_WITH_COLON + getDirectoryPrefix(rsrcPath) + name;
+		return JIJConstants.JAR_INTERNAL_URL_PROTOCOL_WITH_COLON + rsrcPath + JIJConstants.JAR_INTERNAL_SEPARATOR + name;
+	}
+
+	/**
+	 * @param classPathIndex the index of a redirected class path entry
+	 * @return the manifest of the library, or <code>null</code> if it has none
+	 */
+	synchronized Manifest getManifest(int classPathIndex) {
+		if (!manifestRead[classPathIndex]) {
+			manifestRead[classPathIndex] = true;
+			Entry entry = manifestEntries[classPathIndex];
+			if (entry != null) {
+				try {
+					manifests[classPathIndex] = new Manifest(new ByteArrayInputStream(read(entry)));
+				} catch (IOException e) {
+					// no manifest
+				}
+			}
+		}
+		return manifests[classPathIndex];
+	}
+
+	/**
+	 * Reads the content of an entry.
+	 *
+	 * @param entry the entry
+	 * @return the uncompressed content
+	 * @throws IOException if the entry can't be read
+	 */
+	byte[] read(Entry entry) throws IOException {
+		byte[] data;
+		synchronized (file) {
+			if (entry.dataOffset == -1) {
+				byte[] header = new byte[LOCAL_HEADER_SIZE];
+				readFully(entry.headerOffset, header, 0, LOCAL_HEADER_SIZE);
+				if (getInt(header, 0) != LOCAL_HEADER_SIGNATURE)
+					throw new IOException("Invalid local header"); //$NON-NLS-1$
+				entry.dataOffset = entry.headerOffset + LOCAL_HEADER_SIZE + getShort(header, 26) + getShort(header, 28);
+			}
+			if (entry.method == STORED) {
+				data = new byte[entry.size];
+				readFully(entry.dataOffset, data, 0, entry.size);
+				return data;
+			}
+			// one extra byte for the inflater, see Inflater(boolean)
+			data = new byte[entry.compressedSize + 1];
+			readFully(entry.dataOffset, data, 0, entry.compressedSize);
+		}
+
+		Inflater inflater = new Inflater(true);
+		try {
+			inflater.setInput(data);
+			byte[] result = new byte[entry.size];
+			int length = 0;
+			while (length < result.length) {
+				int count = inflater.inflate(result, length, result.length - length);
+				if (count == 0 && (inflater.finished() || inflater.needsInput()))
+					throw new IOException("Truncated entry"); //$NON-NLS-1$
+				length += count;
+			}
+			return result;
+		} catch (DataFormatException e) {
+			throw new IOException(e.getMessage());
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private boolean build() throws IOException {
+		long length = file.length();
+		long[] directory = findCentralDirectory(0, length);
+		if (directory == null)
+			return false;
+		byte[] outer = new byte[(int) directory[1]];
+		readFully(directory[0], outer, 0, outer.length);
+
+		// maps the names of the stored libraries to their data range
+		Map libraries = new HashMap();
+		for (int i = 0; i < classPath.length; i++) {
+			if (!classPath[i].endsWith(JIJConstants.PATH_SEPARATOR))
+				libraries.put(classPath[i], null);
+		}
+		int pos = 0;
+		while (pos + CENTRAL_HEADER_SIZE <= outer.length && getInt(outer, pos) == CENTRAL_HEADER_SIGNATURE) {
+			int nameLength = getShort(outer, pos + 28);
+			String name = getName(outer, pos + CENTRAL_HEADER_SIZE, nameLength);
+			if (isSignatureFile(name))
+				return false;
+			if (libraries.containsKey(name) && isSupported(outer, pos, true)) {
+				byte[] header = new byte[LOCAL_HEADER_SIZE];
+				long headerOffset = getUnsignedInt(outer, pos + 42);
+				readFully(headerOffset, header, 0, LOCAL_HEADER_SIZE);
+				long dataOffset = headerOffset + LOCAL_HEADER_SIZE + getShort(header, 26) + getShort(header, 28);
+				libraries.put(name, new long[] { dataOffset, getUnsignedInt(outer, pos + 20) });
+			}
+			pos = nextHeader(outer, pos);
+		}
+
+		for (int i = 0; i < classPath.length; i++) {
+			String rsrcPath = classPath[i];
+			if (rsrcPath.endsWith(JIJConstants.PATH_SEPARATOR)) {
+				indexDirectory(i, outer, getDirectoryPrefix(rsrcPath));
+				indexed[i] = true;
+			} else {
+				long[] range = (long[]) libraries.get(rsrcPath);
+				if (range != null)
+					indexed[i] = indexLibrary(i, range[0], range[1]);
+			}
+		}
+		return true;
+	}
+
+	private void indexDirectory(int classPathIndex, byte[] directory, String prefix) {
+		int pos = 0;
+		while (pos + CENTRAL_HEADER_SIZE <= directory.length && getInt(directory, pos) == CENTRAL_HEADER_SIGNATURE) {
+			String name = getName(directory, pos + CENTRAL_HEADER_SIZE, getShort(directory, pos + 28));
+			if (name.startsWith(prefix) && isSupported(directory, pos, false))
+				addEntry(name.substring(prefix.length()), classPathIndex, directory, pos, 0);
+			pos = nextHeader(directory, pos);
+		}
+	}
+
+	private boolean indexLibrary(int classPathIndex, long start, long length) throws IOException {
+		long[] range = findCentralDirectory(start, length);
+		if (range == null)
+			return false;
+		byte[] directory = new byte[(int) range[1]];
+		readFully(range[0], directory, 0, directory.length);
+		// check all entries first, a partially indexed library would shadow later class path entries
+		int pos = 0;
+		while (pos + CENTRAL_HEADER_SIZE <= directory.length && getInt(directory, pos) == CENTRAL_HEADER_SIGNATURE) {
+			if (!isSupported(directory, pos, false))
+				return false;
+			if (isSignatureFile(getName(directory, pos + CENTRAL_HEADER_SIZE, getShort(directory, pos + 28))))
+				return false;
+			pos = nextHeader(directory, pos);
+		}
+		if (pos != directory.length)
+			return false;
+		pos = 0;
+		while (pos < directory.length) {
+			addEntry(getName(directory, pos + CENTRAL_HEADER_SIZE, getShort(directory, pos + 28)), classPathIndex, directory, pos, start);
+			pos = nextHeader(directory, pos);
+		}
+		return true;
+	}
+
+	private void addEntry(String name, int classPathIndex, byte[] directory, int pos, long base) {
+		if (name.length() == 0 || name.endsWith(JIJConstants.PATH_SEPARATOR))
+			return;
+		Entry first = (Entry) entries.get(name);
+		Entry last = first;
+		while (last != null && last.next != null)
+			last = last.next;
+		if (last != null && last.classPathIndex == classPathIndex)
+			return; // duplicate entry, the first one is used
+		Entry entry = new Entry(classPathIndex, getShort(directory, pos + 10),
+				(int) getUnsignedInt(directory, pos + 20), (int) getUnsignedInt(directory, pos + 24),
+				base + getUnsignedInt(directory, pos + 42));
+		if (name.equals(JarFile.MANIFEST_NAME))
+			manifestEntries[classPathIndex] = entry;
+		if (last == null)
+			entries.put(name, entry);
+		else
+			last.next = entry;
+	}
+
+	/**
+	 * @param name the name of an entry
+	 * @return whether the entry is a signature file, see {@link JarFile}
+	 */
+	private static boolean isSignatureFile(String name) {
+		if (!name.regionMatches(true, 0, "META-INF/", 0, 9) || name.indexOf('/', 9) != -1) //$NON-NLS-1$
+			return false;
+		String upperCase = name.toUpperCase(Locale.ENGLISH);
+		return upperCase.endsWith(".SF") || upperCase.endsWith(".DSA") || upperCase.endsWith(".RSA") || upperCase.endsWith(".EC") //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				|| upperCase.startsWith("META-INF/SIG-"); //$NON-NLS-1$
+	}
+
+	/**
+	 * @param directory the central directory
+	 * @param pos the position of a central header
+	 * @param storedOnly <code>true</code> if only stored entries are supported
+	 * @return whether the entry can be read by {@link #read(Entry)}
+	 */
+	private static boolean isSupported(byte[] directory, int pos, boolean storedOnly) {
+		int flags = getShort(directory, pos + 8);
+		int method = getShort(directory, pos + 10);
+		if ((flags & 1) != 0) // encrypted
+			return false;
+		if (method != STORED && (storedOnly || method != DEFLATED))
+			return false;
+		// sizes and offsets of zip64 entries are stored in the extra field
+		return getUnsignedInt(directory, pos + 20) < Integer.MAX_VALUE
+				&& getUnsignedInt(directory, pos + 24) < Integer.MAX_VALUE
+				&& getUnsignedInt(directory, pos + 42) != 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Finds the central directory of a zip file.
+	 *
+	 * @param start the offset of the zip file in the runnable jar
+	 * @param length the length of the zip file
+	 * @return the offset and the length of the central directory in the runnable jar,
+	 *  or <code>null</code> if it can't be found
+	 * @throws IOException if reading fails
+	 */
+	private long[] findCentralDirectory(long start, long length) throws IOException {
+		if (length < END_SIZE)
+			return null;
+		int tailLength = (int) Math.min(length, END_SIZE + MAX_COMMENT_SIZE);
+		byte[] tail = new byte[tailLength];
+		readFully(start + length - tailLength, tail, 0, tailLength);
+		for (int pos = tailLength - END_SIZE; pos >= 0; pos--) {
+			if (getInt(tail, pos) == END_SIGNATURE && pos + END_SIZE + getShort(tail, pos + 20) == tailLength) {
+				long size = getUnsignedInt(tail, pos + 12);
+				long offset = getUnsignedInt(tail, pos + 16);
+				if (offset + size > length || size > Integer.MAX_VALUE)
+					return null;
+				return new long[] { start + offset, size };
+			}
+		}
+		return null;
+	}
+
+	private static int nextHeader(byte[] directory, int pos) {
+		return pos + CENTRAL_HEADER_SIZE + getShort(directory, pos + 28) + getShort(directory, pos + 30) + getShort(directory, pos + 32);
+	}
+
+	private void readFully(long offset, byte[] buffer, int start, int length) throws IOException {
+		synchronized (file) {
+			file.seek(offset);
+			file.readFully(buffer, start, length);
+		}
+	}
+
+	private static String getDirectoryPrefix(String rsrcPath) {
+		return rsrcPath.equals(JIJConstants.CURRENT_DIR) ? "" : rsrcPath; //$NON-NLS-1$
+	}
+
+	private static String getName(byte[] buffer, int pos, int length) {
+		try {
+			return new String(buffer, pos, length, JIJConstants.UTF8_ENCODING);
+		} catch (UnsupportedEncodingException e) {
+			return new String(buffer, pos, length);
+		}
+	}
+
+	private static int getShort(byte[] buffer, int pos) {
+		return (buffer[pos] & 0xFF) | ((buffer[pos + 1] & 0xFF) << 8);
+	}
+
+	private static int getInt(byte[] buffer, int pos) {
+		return getShort(buffer, pos) | (getShort(buffer, pos + 2) << 16);
+	}
+
+	private static long getUnsignedInt(byte[] buffer, int pos) {
+		return getInt(buffer, pos) & 0xFFFFFFFFL;
+	}
+}
@@ -14,8 +14,11 @@ package org.eclipse.jdt.internal.ui.refactoring.nls.search;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.core.resources.IFile;
 
@@ -66,7 +69,7 @@ public class NLSSearchQuery implements ISearchQuery {
 	/*
 	 * @see org.eclipse.search.ui.ISearchQuery#run(org.eclipse.core.runtime.IProgressMonitor)
 	 */
-	public IStatus run(IProgressMonitor monitor) {
+	public IStatus run(final IProgressMonitor monitor) {
 		monitor.beginTask("", 5 * fWrapperClass.length); //$NON-NLS-1$
 
 		try {
@@ -80,43 +83,55 @@ public class NLSSearchQuery implements ISearchQuery {
 					return JavaUIStatus.createError(0, Messages.format(NLSSearchMessages.NLSSearchQuery_wrapperNotExists, JavaElementLabels.getElementLabel(wrapperClass, JavaElementLabels.ALL_DEFAULT)), null);
 				if (! wrapperClass.exists())
 					return JavaUIStatus.createError(0, Messages.format(NLSSearchMessages.NLSSearchQuery_propertiesNotExists, BasicElementLabels.getResourceName(propertieFile)), null);
+			}
+
+			int threads= Math.min(fWrapperClass.length, Runtime.getRuntime().availableProcessors());
+			if (threads <= 1) {
+				for (int i= 0; i < fWrapperClass.length; i++) {
+					IStatus status= search(fWrapperClass[i], fPropertiesFile[i], new SubProgressMonitor(monitor, 5));
+					if (!status.isOK())
+						return status;
+				}
+				return Status.OK_STATUS;
+			}
 
-				SearchPattern pattern= SearchPattern.createPattern(wrapperClass, IJavaSearchConstants.REFERENCES, SearchUtils.GENERICS_AGNOSTIC_MATCH_RULE);
-				SearchParticipant[] participants= new SearchParticipant[] {SearchEngine.getDefaultSearchParticipant()};
-
-				NLSSearchResultRequestor requestor= new NLSSearchResultRequestor(propertieFile, fResult);
-				try {
-					SearchEngine engine= new SearchEngine();
-					engine.search(pattern, participants, fScope, requestor, new SubProgressMonitor(monitor, 4));
-					requestor.reportUnusedPropertyNames(new SubProgressMonitor(monitor, 1));
-
-					ICompilationUnit compilationUnit= ((IType)wrapperClass).getCompilationUnit();
-					CompilationUnitEntry groupElement= new CompilationUnitEntry(NLSSearchMessages.NLSSearchResultCollector_unusedKeys, compilationUnit);
-
-					boolean hasUnusedPropertie= false;
-					IField[] fields= ((IType)wrapperClass).getFields();
-					for (int j= 0; j < fields.length; j++) {
-						IField field= fields[j];
-						if (isNLSField(field)) {
-							ISourceRange sourceRange= field.getSourceRange();
-							if (sourceRange != null) {
-								String fieldName= field.getElementName();
-								if (!requestor.hasPropertyKey(fieldName)) {
-									fResult.addMatch(new Match(compilationUnit, sourceRange.getOffset(), sourceRange.getLength()));
-								}
-								if (!requestor.isUsedPropertyKey(fieldName)) {
-									hasUnusedPropertie= true;
-									fResult.addMatch(new Match(groupElement, sourceRange.getOffset(), sourceRange.getLength()));
-								}
+			// the accessor classes are independent of each other, search them concurrently
+			final IStatus[] statuses= new IStatus[fWrapperClass.length];
+			Job[] jobs= new Job[fWrapperClass.length];
+			for (int i= 0; i < fWrapperClass.length; i++) {
+				final int index= i;
+				jobs[i]= new Job(NLSSearchMessages.NLSSearchQuery_job_name) {
+					@Override
+					protected IStatus run(final IProgressMonitor jobMonitor) {
+						statuses[index]= search(fWrapperClass[index], fPropertiesFile[index], new NullProgressMonitor() {
+							@Override
+							public boolean isCanceled() {
+								return monitor.isCanceled() || jobMonitor.isCanceled();
 							}
-						}
+						});
+						return Status.OK_STATUS;
 					}
-					if (hasUnusedPropertie)
-						fResult.addCompilationUnitGroup(groupElement);
-
-				} catch (CoreException e) {
-					return new Status(e.getStatus().getSeverity(), JavaPlugin.getPluginId(), IStatus.OK, NLSSearchMessages.NLSSearchQuery_error, e);
+				};
+				jobs[i].setSystem(true);
+				jobs[i].schedule();
+			}
+			try {
+				for (int i= 0; i < jobs.length; i++) {
+					jobs[i].join();
+					IStatus result= jobs[i].getResult();
+					if (result != null && result.getSeverity() == IStatus.ERROR)
+						return result; // the search threw an exception
+					if (monitor.isCanceled())
+						throw new OperationCanceledException();
+					if (statuses[i] != null && !statuses[i].isOK())
+						return statuses[i];
+					monitor.worked(5);
 				}
+			} catch (InterruptedException e) {
+				throw new OperationCanceledException();
+			} finally {
+				for (int i= 0; i < jobs.length; i++)
+					jobs[i].cancel();
 			}
 		} finally {
 			monitor.done();
@@ -124,6 +139,49 @@ public class NLSSearchQuery implements ISearchQuery {
 		return 	Status.OK_STATUS;
 	}
 
+	private IStatus search(IJavaElement wrapperClass, IFile propertieFile, IProgressMonitor monitor) {
+		monitor.beginTask("", 5); //$NON-NLS-1$
+		SearchPattern pattern= SearchPattern.createPattern(wrapperClass, IJavaSearchConstants.REFERENCES, SearchUtils.GENERICS_AGNOSTIC_MATCH_RULE);
+		SearchParticipant[] participants= new SearchParticipant[] {SearchEngine.getDefaultSearchParticipant()};
+
+		NLSSearchResultRequestor requestor= new NLSSearchResultRequestor(propertieFile, fResult);
+		try {
+			SearchEngine engine= new SearchEngine();
+			engine.search(pattern, participants, fScope, requestor, new SubProgressMonitor(monitor, 4));
+			requestor.reportUnusedPropertyNames(new SubProgressMonitor(monitor, 1));
+
+			ICompilationUnit compilationUnit= ((IType)wrapperClass).getCompilationUnit();
+			CompilationUnitEntry groupElement= new CompilationUnitEntry(NLSSearchMessages.NLSSearchResultCollector_unusedKeys, compilationUnit);
+
+			boolean hasUnusedPropertie= false;
+			IField[] fields= ((IType)wrapperClass).getFields();
+			for (int j= 0; j < fields.length; j++) {
+				IField field= fields[j];
+				if (isNLSField(field)) {
+					ISourceRange sourceRange= field.getSourceRange();
+					if (sourceRange != null) {
+						String fieldName= field.getElementName();
+						if (!requestor.hasPropertyKey(fieldName)) {
+							fResult.addMatch(new Match(compilationUnit, sourceRange.getOffset(), sourceRange.getLength()));
+						}
+						if (!requestor.isUsedPropertyKey(fieldName)) {
+							hasUnusedPropertie= true;
+							fResult.addMatch(new Match(groupElement, sourceRange.getOffset(), sourceRange.getLength()));
+						}
+					}
+				}
+			}
+			if (hasUnusedPropertie)
+				fResult.addCompilationUnitGroup(groupElement);
+
+		} catch (CoreException e) {
+			return new Status(e.getStatus().getSeverity(), JavaPlugin.getPluginId(), IStatus.OK, NLSSearchMessages.NLSSearchQuery_error, e);
+		} finally {
+			monitor.done();
+		}
+		return Status.OK_STATUS;
+	}
+
 	private boolean isNLSField(IField field) throws JavaModelException {
 		int flags= field.getFlags();
 		if (!Flags.isPublic(flags))
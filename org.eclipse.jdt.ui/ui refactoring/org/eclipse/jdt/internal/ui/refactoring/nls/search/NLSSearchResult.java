@@ -11,12 +11,12 @@
 
 package org.eclipse.jdt.internal.ui.refactoring.nls.search;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
@@ -56,8 +56,9 @@ public class NLSSearchResult extends AbstractTextSearchResult implements IEditor
 
 	public NLSSearchResult(NLSSearchQuery query) {
 		fQuery= query;
-		fFileEntryGroups= new ArrayList<FileEntry>();
-		fCompilationUnitGroups= new ArrayList<CompilationUnitEntry>();
+		// groups are added by concurrent searches
+		fFileEntryGroups= new CopyOnWriteArrayList<FileEntry>();
+		fCompilationUnitGroups= new CopyOnWriteArrayList<CompilationUnitEntry>();
 	}
 
 	public void addFileEntryGroup(FileEntry group) {
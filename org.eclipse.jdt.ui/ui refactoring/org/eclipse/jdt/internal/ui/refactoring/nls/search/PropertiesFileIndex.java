@@ -0,0 +1,306 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.refactoring.nls.search;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * The keys of a properties file and the positions where they are defined.
+ * <p>
+ * The file is parsed in a single pass following the syntax of
+ * {@link java.util.Properties}. Indices are cached per file
+ * and reused until the file or its document gets modified.
+ * </p>
+ * <p>
+ * Files which aren't open are decoded with the file's charset, like the document
+ * of an editor would be, so that the positions match the editor. Unlike
+ * {@link java.util.Properties#load(java.io.InputStream)}, which always decodes
+ * ISO-8859-1, this gives different keys for non-ASCII characters that aren't
+ * escaped, if the file's charset isn't ISO-8859-1.
+ * </p>
+ *
+ * @since 3.9
+ */
+public class PropertiesFileIndex {
+
+	private static final int CACHE_SIZE= 20;
+
+	private static final Map<IFile, PropertiesFileIndex> fgCache= new LinkedHashMap<IFile, PropertiesFileIndex>(CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IFile, PropertiesFileIndex> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	/** Maps keys to the offset and length of their first definition, in file order */
+	private final Map<String, int[]> fKeys;
+	private final Set<String> fDuplicateKeys;
+	private final long fStamp;
+	private final boolean fDocumentStamp;
+
+	private PropertiesFileIndex(long stamp, boolean documentStamp) {
+		fKeys= new LinkedHashMap<String, int[]>();
+		fDuplicateKeys= new HashSet<String>();
+		fStamp= stamp;
+		fDocumentStamp= documentStamp;
+	}
+
+	/**
+	 * Returns the index of the given properties file. The content of the file's
+	 * document is used if the file is open.
+	 *
+	 * @param file the properties file
+	 * @return the index, empty if the file can't be read
+	 */
+	public static PropertiesFileIndex get(IFile file) {
+		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+		ITextFileBuffer buffer= manager.getTextFileBuffer(file.getFullPath(), LocationKind.IFILE);
+		IDocument document= buffer != null ? buffer.getDocument() : null;
+
+		long stamp;
+		boolean documentStamp= document != null;
+		if (document instanceof IDocumentExtension4)
+			stamp= ((IDocumentExtension4) document).getModificationStamp();
+		else if (document == null)
+			stamp= file.getModificationStamp();
+		else
+			stamp= IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP; // can't tell whether the document has changed
+
+		synchronized (fgCache) {
+			PropertiesFileIndex index= fgCache.get(file);
+			if (index != null && index.fStamp == stamp && index.fDocumentStamp == documentStamp && stamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP)
+				return index;
+		}
+
+		PropertiesFileIndex index= new PropertiesFileIndex(stamp, documentStamp);
+		try {
+			if (document != null)
+				index.parse(document.get());
+			else
+				index.parse(read(file));
+		} catch (CoreException e) {
+			JavaPlugin.log(e);
+			return new PropertiesFileIndex(stamp, documentStamp);
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+			return new PropertiesFileIndex(stamp, documentStamp);
+		}
+		synchronized (fgCache) {
+			fgCache.put(file, index);
+		}
+		return index;
+	}
+
+	/**
+	 * @return the defined keys, in the order of their first definition
+	 */
+	public Set<String> getKeys() {
+		return Collections.unmodifiableSet(fKeys.keySet());
+	}
+
+	/**
+	 * @return the keys which are defined more than once
+	 */
+	public Set<String> getDuplicateKeys() {
+		return Collections.unmodifiableSet(fDuplicateKeys);
+	}
+
+	public boolean containsKey(String key) {
+		return fKeys.containsKey(key);
+	}
+
+	public int size() {
+		return fKeys.size();
+	}
+
+	/**
+	 * Returns the position of the first definition of the given key.
+	 *
+	 * @param key the key
+	 * @return the offset and the length of the key as written in the file,
+	 *  or <code>null</code> if the key isn't defined
+	 */
+	public int[] getKeyPosition(String key) {
+		return fKeys.get(key);
+	}
+
+	private static String read(IFile file) throws CoreException, IOException {
+		InputStream stream= file.getContents();
+		try {
+			Reader reader= new InputStreamReader(stream, file.getCharset());
+			StringBuffer buffer= new StringBuffer();
+			char[] chars= new char[8192];
+			int read;
+			while ((read= reader.read(chars)) != -1) {
+				buffer.append(chars, 0, read);
+			}
+			return buffer.toString();
+		} finally {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	private void parse(String content) {
+		int length= content.length();
+		int pos= 0;
+		while (pos < length) {
+			pos= skipWhitespace(content, pos);
+			if (pos == length)
+				break;
+			char c= content.charAt(pos);
+			if (c == '\n' || c == '\r') {
+				pos++;
+				continue;
+			}
+			if (c == '#' || c == '!') {
+				pos= skipToLineEnd(content, pos);
+				continue;
+			}
+
+			int keyStart= pos;
+			StringBuffer key= new StringBuffer();
+			while (pos < length) {
+				c= content.charAt(pos);
+				if (c == '=' || c == ':' || isWhitespace(c) || c == '\n' || c == '\r')
+					break;
+				if (c == '\\') {
+					pos= unescape(content, pos + 1, key);
+				} else {
+					key.append(c);
+					pos++;
+				}
+			}
+			addKey(key.toString(), keyStart, pos - keyStart);
+			pos= skipValue(content, pos);
+		}
+	}
+
+	private void addKey(String key, int offset, int length) {
+		if (fKeys.containsKey(key))
+			fDuplicateKeys.add(key);
+		else
+			fKeys.put(key, new int[] { offset, length });
+	}
+
+	/**
+	 * Appends the character denoted by the escape sequence at the given position.
+	 *
+	 * @param content the content
+	 * @param pos the position after the backslash
+	 * @param result the buffer to append to
+	 * @return the position after the escape sequence
+	 */
+	private static int unescape(String content, int pos, StringBuffer result) {
+		int length= content.length();
+		if (pos == length)
+			return pos;
+		char c= content.charAt(pos++);
+		switch (c) {
+			case '\r':
+				if (pos < length && content.charAt(pos) == '\n')
+					pos++;
+				//$FALL-THROUGH$
+			case '\n':
+				// line continuation
+				return skipWhitespace(content, pos);
+			case 't':
+				result.append('\t');
+				return pos;
+			case 'n':
+				result.append('\n');
+				return pos;
+			case 'r':
+				result.append('\r');
+				return pos;
+			case 'f':
+				result.append('\f');
+				return pos;
+			case 'u':
+				if (pos + 4 <= length) {
+					try {
+						result.append((char) Integer.parseInt(content.substring(pos, pos + 4), 16));
+						return pos + 4;
+					} catch (NumberFormatException e) {
+						// malformed, take the characters literally
+					}
+				}
+				result.append(c);
+				return pos;
+			default:
+				result.append(c);
+				return pos;
+		}
+	}
+
+	private static int skipValue(String content, int pos) {
+		int length= content.length();
+		while (pos < length) {
+			char c= content.charAt(pos);
+			if (c == '\n' || c == '\r')
+				return pos;
+			if (c == '\\')
+				pos= unescape(content, pos + 1, new StringBuffer(1));
+			else
+				pos++;
+		}
+		return pos;
+	}
+
+	private static int skipToLineEnd(String content, int pos) {
+		int length= content.length();
+		while (pos < length) {
+			char c= content.charAt(pos);
+			if (c == '\n' || c == '\r')
+				return pos;
+			pos++;
+		}
+		return pos;
+	}
+
+	private static int skipWhitespace(String content, int pos) {
+		int length= content.length();
+		while (pos < length && isWhitespace(content.charAt(pos)))
+			pos++;
+		return pos;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\f';
+	}
+}
@@ -106,6 +106,7 @@ import org.eclipse.jdt.internal.ui.text.java.hover.JavaEditorTextHoverDescriptor
 import org.eclipse.jdt.internal.ui.text.spelling.SpellCheckEngine;
 import org.eclipse.jdt.internal.ui.viewsupport.ImageDescriptorRegistry;
 import org.eclipse.jdt.internal.ui.viewsupport.ImagesOnFileSystemRegistry;
+import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLabelCache;
 import org.eclipse.jdt.internal.ui.viewsupport.ProblemMarkerManager;
 import org.eclipse.jdt.internal.ui.wizards.buildpaths.ClasspathAttributeConfigurationDescriptors;
 
@@ -213,6 +214,12 @@ public class JavaPlugin extends AbstractUIPlugin {
 	 */
 	private ASTProvider fASTProvider;
 
+	/**
+	 * The cache of Java element labels and images.
+	 * @since 3.9
+	 */
+	private JavaElementLabelCache fJavaElementLabelCache;
+
 	/**
 	 * The combined preference store.
 	 * @since 3.0
@@ -551,6 +558,13 @@ public class JavaPlugin extends AbstractUIPlugin {
 				fASTProvider= null;
 			}
 
+			synchronized (this) {
+				if (fJavaElementLabelCache != null) {
+					fJavaElementLabelCache.dispose();
+					fJavaElementLabelCache= null;
+				}
+			}
+
 			if (fWorkingCopyManager != null) {
 				fWorkingCopyManager.shutdown();
 				fWorkingCopyManager= null;
@@ -712,6 +726,20 @@ public class JavaPlugin extends AbstractUIPlugin {
 		return fASTProvider;
 	}
 
+	/**
+	 * Returns the cache of Java element labels and images.
+	 *
+	 * @return the label cache
+	 * @since 3.9
+	 */
+	public synchronized JavaElementLabelCache getJavaElementLabelCache() {
+		if (fJavaElementLabelCache == null) {
+			fJavaElementLabelCache= new JavaElementLabelCache();
+			fJavaElementLabelCache.install();
+		}
+		return fJavaElementLabelCache;
+	}
+
 	public synchronized MembersOrderPreferenceCache getMemberOrderPreferenceCache() {
 		// initialized on startup
 		return fMembersOrderPreferenceCache;
@@ -210,6 +210,7 @@ public final class JavaUIMessages extends NLS {
 	public static String Spelling_disable_info;
 	public static String Spelling_case_label;
 	public static String Spelling_error_case_label;
+	public static String Spelling_check_job_name;
 	public static String AbstractSpellingDictionary_encodingError;
 
 	public static String JavaAnnotationHover_multipleMarkersAtThisLine;
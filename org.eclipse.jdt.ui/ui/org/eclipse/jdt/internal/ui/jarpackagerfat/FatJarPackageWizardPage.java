@@ -267,6 +267,7 @@ public class FatJarPackageWizardPage extends AbstractJarDestinationWizardPage {
 	private static final String STORE_ANTSCRIPT_LOCATION= PAGE_NAME + ".ANTSCRIPT_LOCATION"; //$NON-NLS-1$
 	private static final String STORE_ANTSCRIPT_LOCATION_HISTORY= PAGE_NAME + ".ANTSCRIPT_LOCATION_HISTORY"; //$NON-NLS-1$
 	private static final String STORE_LIBRARY_HANDLING= PAGE_NAME + ".LIBRARY_HANDLING"; //$NON-NLS-1$
+	private static final String STORE_LIBRARIES_UNCOMPRESSED= PAGE_NAME + ".LIBRARIES_UNCOMPRESSED"; //$NON-NLS-1$
 
 	private static final String ANTSCRIPT_EXTENSION= "xml"; //$NON-NLS-1$
 
@@ -290,6 +291,7 @@ public class FatJarPackageWizardPage extends AbstractJarDestinationWizardPage {
 	private Composite fLibraryHandlingGroup;
 	private Button fExtractJarsRadioButton;
 	private Button fPackageJarsRadioButton;
+	private Button fStoreLibrariesUncompressedCheckbox;
 	private Button fCopyJarFilesRadioButton;
 
 	public FatJarPackageWizardPage(JarPackageData jarPackage, IStructuredSelection selection) {
@@ -474,6 +476,7 @@ public class FatJarPackageWizardPage extends AbstractJarDestinationWizardPage {
 					fLibraryHandler= new ExtractLibraryHandler();
 			}
 		});
+		fExtractJarsRadioButton.addListener(SWT.Selection, this);
 
 		fPackageJarsRadioButton= new Button(fLibraryHandlingGroup, SWT.RADIO | SWT.LEFT);
 		fPackageJarsRadioButton.setText(FatJarPackagerMessages.FatJarPackageWizardPage_packageJars_text);
@@ -484,6 +487,14 @@ public class FatJarPackageWizardPage extends AbstractJarDestinationWizardPage {
 					fLibraryHandler= new PackageLibraryHandler();
 			}
 		});
+		fPackageJarsRadioButton.addListener(SWT.Selection, this);
+
+		fStoreLibrariesUncompressedCheckbox= new Button(fLibraryHandlingGroup, SWT.CHECK | SWT.LEFT);
+		fStoreLibrariesUncompressedCheckbox.setText(FatJarPackagerMessages.FatJarPackageWizardPage_storeLibrariesUncompressed_text);
+		GridData data= new GridData(GridData.FILL_HORIZONTAL);
+		data.horizontalIndent= 20;
+		fStoreLibrariesUncompressedCheckbox.setLayoutData(data);
+		fStoreLibrariesUncompressedCheckbox.addListener(SWT.Selection, this);
 
 		fCopyJarFilesRadioButton= new Button(fLibraryHandlingGroup, SWT.RADIO | SWT.LEFT);
 		fCopyJarFilesRadioButton.setText(FatJarPackagerMessages.FatJarPackageWizardPage_copyJarFiles_text);
@@ -494,6 +505,7 @@ public class FatJarPackageWizardPage extends AbstractJarDestinationWizardPage {
 					fLibraryHandler= new CopyLibraryHandler();
 			}
 		});
+		fCopyJarFilesRadioButton.addListener(SWT.Selection, this);
 
 		// set default for first selection (no previous widget settings to restore)
 		setLibraryHandler(new ExtractLibraryHandler());
@@ -531,6 +543,8 @@ public class FatJarPackageWizardPage extends AbstractJarDestinationWizardPage {
 			path= path.addFileExtension(ANTSCRIPT_EXTENSION);
 
 		fAntScriptLocation= getAbsoluteLocation(path);
+
+		fJarPackage.setStoreLibrariesUncompressed(fStoreLibrariesUncompressedCheckbox.getSelection());
 	}
 
 	@Override
@@ -539,6 +553,8 @@ public class FatJarPackageWizardPage extends AbstractJarDestinationWizardPage {
 		fAntScriptLabel.setEnabled(antScriptSave);
 		fAntScriptNamesCombo.setEnabled(antScriptSave);
 		fAntScriptBrowseButton.setEnabled(antScriptSave);
+
+		fStoreLibrariesUncompressedCheckbox.setEnabled(fPackageJarsRadioButton.getSelection());
 	}
 
 	@Override
@@ -946,6 +962,7 @@ public class FatJarPackageWizardPage extends AbstractJarDestinationWizardPage {
 			} catch (NumberFormatException ignore) { // also thrown if no value was stored (null)
 			}
 			setLibraryHandler(createLibraryHandlerById(libraryHandling));
+			fStoreLibrariesUncompressedCheckbox.setSelection(settings.getBoolean(STORE_LIBRARIES_UNCOMPRESSED));
 
 			// LAUNCH CONFIG
 			String name= settings.get(STORE_LAUNCH_CONFIGURATION_SELECTION_NAME);
@@ -998,6 +1015,7 @@ public class FatJarPackageWizardPage extends AbstractJarDestinationWizardPage {
 
 			// LIBRARY HANDLING
 			settings.put(STORE_LIBRARY_HANDLING, getLibraryHandler().getID());
+			settings.put(STORE_LIBRARIES_UNCOMPRESSED, fStoreLibrariesUncompressedCheckbox.getSelection());
 
 			// LAUNCH CONFIG
 			int index= fLaunchConfigurationCombo.getSelectionIndex();
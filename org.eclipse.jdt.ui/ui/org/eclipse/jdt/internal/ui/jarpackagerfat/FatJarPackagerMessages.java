@@ -32,6 +32,8 @@ public final class FatJarPackagerMessages extends NLS {
 
 	public static String FatJarBuilder_error_readingArchiveFile;
 
+	public static String UnpackFatJarBuilder_readJob_name;
+
 	public static String FatJarPackageWizard_JarExportProblems_message;
 
 	public static String FatJarPackageWizardPage_destinationGroupTitle;
@@ -44,6 +46,8 @@ public final class FatJarPackagerMessages extends NLS {
 
 	public static String FatJarPackageWizardPage_packageJars_text;
 
+	public static String FatJarPackageWizardPage_storeLibrariesUncompressed_text;
+
 	public static String FatJarPackageWizardPage_copyJarFiles_text;
 
 	public static String FatJarPackageWizardPage_error_missingClassFile;
@@ -54,6 +54,8 @@ public class FatJarRsrcUrlBuilder extends FatJarBuilder {
 	
 	private Set<String> jarNames;
 	private JarPackageData fJarPackage;
+	/** Buffer used to compute the CRC of the libraries, shared by all archives */
+	private final byte[] fReadBuffer= new byte[64 * 1024];
 
 	/**
 	 * {@inheritDoc}
@@ -122,11 +124,14 @@ public class FatJarRsrcUrlBuilder extends FatJarBuilder {
 		jarNames.add(jarName);
 		JarEntry newEntry = new JarEntry(jarName);
 		newEntry.setMethod(ZipEntry.STORED);
-		byte[] readBuffer= new byte[4096];             
 		try {
-			if (!fJarPackage.isCompressed())
-				JarPackagerUtil.calculateCrcAndSize(newEntry, new FileInputStream(jarPathFile), readBuffer);
-			getJarWriter().addZipEntryStream(newEntry, new FileInputStream(jarPathFile), jarName);
+			// stored libraries are read directly by the jar-in-jar loader, except for signed ones
+			if (!fJarPackage.isCompressed() || fJarPackage.isStoreLibrariesUncompressed()) {
+				JarPackagerUtil.calculateCrcAndSize(newEntry, new FileInputStream(jarPathFile), fReadBuffer);
+				getJarWriter().addStoredZipEntryStream(newEntry, new FileInputStream(jarPathFile), jarName);
+			} else {
+				getJarWriter().addZipEntryStream(newEntry, new FileInputStream(jarPathFile), jarName);
+			}
 		} catch (FileNotFoundException e) {
 			throw new RuntimeException(e);
 		} catch (IOException e) {
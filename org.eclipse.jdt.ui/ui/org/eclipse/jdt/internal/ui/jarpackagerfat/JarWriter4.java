@@ -91,6 +91,27 @@ public class JarWriter4 extends JarWriter3 {
 		addEntry(newEntry, is);
 	}
 
+	/**
+	 * Adds an entry which is stored uncompressed, regardless of the compression
+	 * setting of the jar package.
+	 *
+	 * @param zipEntry the entry, must have its size and CRC set
+	 * @param is the content of the entry
+	 * @param path the path of the entry in the jar
+	 * @throws IOException if writing the entry fails
+	 * @since 3.9
+	 */
+	public void addStoredZipEntryStream(ZipEntry zipEntry, InputStream is, String path) throws IOException {
+		if (fJarPackage.areDirectoryEntriesIncluded())
+			addDirectories(path);
+		JarEntry newEntry= new JarEntry(path.replace(File.separatorChar, '/'));
+		newEntry.setMethod(ZipEntry.STORED);
+		newEntry.setSize(zipEntry.getSize());
+		newEntry.setCrc(zipEntry.getCrc());
+		newEntry.setTime(System.currentTimeMillis());
+		addEntry(newEntry, is);
+	}
+
 	public void write(File file, IPath destinationPath) throws CoreException {
 		try {
 			addFile(file, destinationPath);
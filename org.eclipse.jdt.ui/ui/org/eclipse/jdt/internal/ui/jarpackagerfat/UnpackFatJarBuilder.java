@@ -12,18 +12,32 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.jarpackagerfat;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 
+import org.eclipse.swt.widgets.Shell;
+
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.jarpackager.IManifestProvider;
+import org.eclipse.jdt.ui.jarpackager.JarPackageData;
 
 import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
 
@@ -36,6 +50,158 @@ public class UnpackFatJarBuilder extends FatJarBuilder {
 
 	public static final String BUILDER_ID= "org.eclipse.jdt.ui.fat_jar_builder"; //$NON-NLS-1$
 
+	/** Larger entries are read by the writing thread */
+	private static final int MAX_PREFETCH_SIZE= 1024 * 1024;
+	/** Maximum number of entries read ahead of the writing thread */
+	private static final int PREFETCH_WINDOW= 64;
+
+	/**
+	 * An entry of an archive which is copied into the generated jar.
+	 */
+	private static class PendingEntry {
+		final ZipEntry fEntry;
+		/** Whether a read job has finished with the entry, guarded by the {@link EntryPrefetcher} */
+		boolean fDone;
+		/** The content, or <code>null</code> if the writing thread has to read the entry */
+		byte[] fContent;
+		/** The exception thrown while reading the entry, or <code>null</code> */
+		Exception fException;
+
+		PendingEntry(ZipEntry entry) {
+			fEntry= entry;
+		}
+
+		boolean isPrefetched() {
+			return fEntry.getSize() >= 0 && fEntry.getSize() <= MAX_PREFETCH_SIZE;
+		}
+	}
+
+	/**
+	 * Reads the entries of an archive ahead of the writing thread. The entries are claimed
+	 * in order by the read jobs and by the writing thread. The writing thread reads an entry
+	 * itself if no job has claimed it yet, so the jobs don't have to run for the export to
+	 * proceed.
+	 */
+	private static class EntryPrefetcher {
+		private final ZipFile fZipFile;
+		private final PendingEntry[] fEntries;
+		/** Index of the next entry to claim */
+		private int fNext;
+		/** Number of entries which have been written */
+		private int fWritten;
+		private boolean fStopped;
+
+		EntryPrefetcher(ZipFile zipFile, PendingEntry[] entries) {
+			fZipFile= zipFile;
+			fEntries= entries;
+		}
+
+		void readEntries(IProgressMonitor monitor) {
+			while (true) {
+				PendingEntry entry;
+				synchronized (this) {
+					while (!fStopped && fNext < fEntries.length && fNext >= fWritten + PREFETCH_WINDOW) {
+						try {
+							wait();
+						} catch (InterruptedException e) {
+							return;
+						}
+					}
+					if (fStopped || fNext == fEntries.length || monitor.isCanceled())
+						return;
+					entry= fEntries[fNext++];
+				}
+				byte[] content= null;
+				Exception exception= null;
+				try {
+					if (entry.isPrefetched())
+						content= read(entry.fEntry);
+				} catch (IOException e) {
+					exception= e;
+				} catch (RuntimeException e) {
+					exception= e;
+				} finally {
+					synchronized (this) {
+						entry.fContent= content;
+						entry.fException= exception;
+						entry.fDone= true;
+						notifyAll();
+					}
+				}
+			}
+		}
+
+		private byte[] read(ZipEntry entry) throws IOException {
+			InputStream stream= fZipFile.getInputStream(entry);
+			try {
+				return FatJarPackagerUtil.readInputStream(stream);
+			} finally {
+				stream.close();
+			}
+		}
+
+		/**
+		 * Returns the content of the given entry once it has been read.
+		 *
+		 * @param index the index of the entry, all previous entries have been written
+		 * @return the content, or <code>null</code> if the writing thread has to read the entry
+		 * @throws IOException if the entry couldn't be read
+		 */
+		synchronized byte[] awaitContent(int index) throws IOException {
+			if (index == fNext) {
+				fNext++;
+				return null;
+			}
+			PendingEntry entry= fEntries[index];
+			while (!entry.fDone) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					throw new OperationCanceledException();
+				}
+			}
+			if (entry.fException instanceof IOException)
+				throw (IOException) entry.fException;
+			if (entry.fException != null)
+				throw (RuntimeException) entry.fException;
+			byte[] content= entry.fContent;
+			entry.fContent= null;
+			return content;
+		}
+
+		synchronized void written() {
+			fWritten++;
+			notifyAll();
+		}
+
+		synchronized void stop() {
+			fStopped= true;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Reads entries for the writing thread.
+	 */
+	private static class ReadJob extends Job {
+		private final EntryPrefetcher fPrefetcher;
+
+		ReadJob(EntryPrefetcher prefetcher) {
+			super(FatJarPackagerMessages.UnpackFatJarBuilder_readJob_name);
+			fPrefetcher= prefetcher;
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			fPrefetcher.readEntries(monitor);
+			return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+		}
+	}
+
+	/** Maps the names of the entries copied from archives to their CRC and size */
+	private Map<String, long[]> fCopiedEntries;
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -68,36 +234,138 @@ public class UnpackFatJarBuilder extends FatJarBuilder {
 	/**
 	 * {@inheritDoc}
 	 */
+	@Override
+	public void open(JarPackageData jarPackage, Shell displayShell, MultiStatus status) throws CoreException {
+		super.open(jarPackage, displayShell, status);
+		fCopiedEntries= new HashMap<String, long[]>();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void close() throws CoreException {
+		fCopiedEntries= null;
+		super.close();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The entries are inflated by read jobs while the previous entries are
+	 * compressed and written. Entries which have already been copied from another
+	 * archive with the same content are skipped.
+	 * </p>
+	 * <p>
+	 * Compressed entries can't be copied without inflating and deflating them again:
+	 * {@link ZipFile} only provides the inflated content of an entry, and the
+	 * <code>JarOutputStream</code> of the {@link JarWriter4} deflates all data written
+	 * to a compressed entry. Copying the compressed data would need a zip reader and
+	 * writer of our own.
+	 * </p>
+	 */
 	public void writeArchive(ZipFile jarFile, IProgressMonitor progressMonitor) {
+		List<PendingEntry> entries= new ArrayList<PendingEntry>();
 		Enumeration<? extends ZipEntry> jarEntriesEnum= jarFile.entries();
 		while (jarEntriesEnum.hasMoreElements()) {
 			ZipEntry jarEntry= jarEntriesEnum.nextElement();
-			if (!jarEntry.isDirectory()) {
+			if (jarEntry.isDirectory() || isExcluded(jarEntry.getName()) || isCopied(jarEntry))
+				progressMonitor.worked(1);
+			else
+				entries.add(new PendingEntry(jarEntry));
+		}
+
+		EntryPrefetcher prefetcher= new EntryPrefetcher(jarFile, entries.toArray(new PendingEntry[entries.size()]));
+		Job[] jobs= new Job[Math.min(entries.size(), Runtime.getRuntime().availableProcessors() - 1)];
+		for (int i= 0; i < jobs.length; i++) {
+			jobs[i]= new ReadJob(prefetcher);
+			jobs[i].schedule();
+		}
+		try {
+			for (int i= 0; i < entries.size(); i++) {
+				if (progressMonitor.isCanceled())
+					throw new OperationCanceledException();
+				ZipEntry jarEntry= entries.get(i).fEntry;
 				String entryName= jarEntry.getName();
-				addFile(entryName, jarEntry, jarFile);
+				try {
+					byte[] content= prefetcher.awaitContent(i);
+					if (content != null) {
+						getJarWriter().addZipEntryStream(jarEntry, new ByteArrayInputStream(content), entryName);
+						markCopied(jarEntry);
+					} else {
+						addFile(entryName, jarEntry, jarFile);
+					}
+				} catch (IOException ex) {
+					handleException(ex, entryName, jarFile);
+				}
+				prefetcher.written();
+				progressMonitor.worked(1);
+			}
+		} finally {
+			prefetcher.stop();
+			for (int i= 0; i < jobs.length; i++)
+				jobs[i].cancel();
+			// the archive is closed by the caller, wait for the jobs to finish reading from it
+			for (int i= 0; i < jobs.length; i++) {
+				try {
+					jobs[i].join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
 			}
-			progressMonitor.worked(1);
-			if (progressMonitor.isCanceled())
-				throw new OperationCanceledException();
 		}
 	}
 
-	private void addFile(String destinationPath, ZipEntry jarEntry, ZipFile zipFile) {
+	private boolean isExcluded(String destinationPath) {
 		// Handle META-INF/MANIFEST.MF
-		if (destinationPath.equalsIgnoreCase("META-INF/MANIFEST.MF") //$NON-NLS-1$
-				|| (isRemoveSigners() && destinationPath.startsWith("META-INF/") && destinationPath.endsWith(".SF"))) { //$NON-NLS-1$//$NON-NLS-2$
+		return destinationPath.equalsIgnoreCase("META-INF/MANIFEST.MF") //$NON-NLS-1$
+				|| (isRemoveSigners() && destinationPath.startsWith("META-INF/") && destinationPath.endsWith(".SF")); //$NON-NLS-1$//$NON-NLS-2$
+	}
+
+	/**
+	 * Checks whether an entry with the same name and content has already been copied
+	 * from another archive. Entries with the same name but different content are
+	 * reported as duplicates when they are written.
+	 *
+	 * @param jarEntry the entry
+	 * @return <code>true</code> if the entry can be skipped
+	 */
+	private boolean isCopied(ZipEntry jarEntry) {
+		long[] copied= fCopiedEntries.get(jarEntry.getName());
+		return copied != null && copied[0] == jarEntry.getCrc() && copied[1] == jarEntry.getSize();
+	}
+
+	/**
+	 * Records an entry which has been written, unless an entry with the same name
+	 * has been written before.
+	 *
+	 * @param jarEntry the entry
+	 */
+	private void markCopied(ZipEntry jarEntry) {
+		long crc= jarEntry.getCrc();
+		long size= jarEntry.getSize();
+		if (crc == -1 || size == -1 || fCopiedEntries.containsKey(jarEntry.getName()))
 			return;
-		}
+		fCopiedEntries.put(jarEntry.getName(), new long[] { crc, size });
+	}
+
+	private void addFile(String destinationPath, ZipEntry jarEntry, ZipFile zipFile) {
 		try {
 			getJarWriter().addZipEntry(jarEntry, zipFile, destinationPath);
+			markCopied(jarEntry);
 		} catch (IOException ex) {
-			if (ex instanceof ZipException && ex.getMessage() != null && ex.getMessage().startsWith("duplicate entry:")) {//$NON-NLS-1$
-				// ignore duplicates in META-INF (*.SF, *.RSA)
-				if (!destinationPath.startsWith("META-INF/")) { //$NON-NLS-1$
-					addWarning(ex.getMessage(), ex);
-				}
-			} else
-				addWarning(Messages.format(FatJarPackagerMessages.FatJarBuilder_error_readingArchiveFile, new Object[] { BasicElementLabels.getResourceName(zipFile.getName()), ex.getLocalizedMessage() }), ex);
+			handleException(ex, destinationPath, zipFile);
 		}
 	}
+
+	private void handleException(IOException ex, String destinationPath, ZipFile zipFile) {
+		if (ex instanceof ZipException && ex.getMessage() != null && ex.getMessage().startsWith("duplicate entry:")) {//$NON-NLS-1$
+			// ignore duplicates in META-INF (*.SF, *.RSA)
+			if (!destinationPath.startsWith("META-INF/")) { //$NON-NLS-1$
+				addWarning(ex.getMessage(), ex);
+			}
+		} else
+			addWarning(Messages.format(FatJarPackagerMessages.FatJarBuilder_error_readingArchiveFile, new Object[] { BasicElementLabels.getResourceName(zipFile.getName()), ex.getLocalizedMessage() }), ex);
+	}
 }
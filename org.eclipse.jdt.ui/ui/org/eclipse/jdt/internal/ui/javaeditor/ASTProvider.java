@@ -37,6 +37,7 @@ import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import org.eclipse.jdt.internal.corext.dom.ASTNodes;
+import org.eclipse.jdt.internal.corext.dom.ScopeTable;
 
 import org.eclipse.jdt.ui.JavaUI;
 import org.eclipse.jdt.ui.SharedASTProvider;
@@ -387,6 +388,8 @@ public final class ASTProvider {
 		if (fAST != null)
 			disposeAST();
 
+		if (ast != null)
+			ScopeTable.attach(ast);
 		fAST= ast;
 
 		// Signal AST change
@@ -17,10 +17,13 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.GC;
@@ -64,6 +67,7 @@ import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.DefaultLineTracker;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.jface.text.ILineTracker;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
@@ -402,81 +406,103 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 
 	/**
 	 * Internal structure for mapping positions to some value.
-	 * The reason for this specific structure is that positions can
-	 * change over time. Thus a lookup is based on value and not
-	 * on hash value.
+	 * Positions can change over time. Thus the lookup is based on the current
+	 * offset and length of the positions, and the index is rebuilt whenever
+	 * the document has been modified since it was built.
+	 *
+	 * @since 3.9
 	 */
-	protected static class ReverseMap {
+	protected static class PositionIndex {
 
 		static class Entry {
 			Position fPosition;
 			Object fValue;
 		}
 
-		private List<Entry> fList= new ArrayList<Entry>(2);
-		private int fAnchor= 0;
+		private Set<Entry> fEntries= new LinkedHashSet<Entry>();
+		private Map<Long, Entry> fIndex;
+		private long fIndexStamp;
+		/** Tells whether positions of several entries were equal when the index was built */
+		private boolean fHasCollisions;
+		private IDocument fDocument;
 
-		public ReverseMap() {
+		public PositionIndex() {
 		}
 
-		public Object get(Position position) {
+		/**
+		 * Sets the document whose modifications invalidate the index.
+		 *
+		 * @param document the document, or <code>null</code>
+		 */
+		public void setDocument(IDocument document) {
+			fDocument= document;
+			fIndex= null;
+		}
 
-			Entry entry;
+		private static Long getKey(Position position) {
+			return new Long(((long) position.getOffset() << 32) | (position.getLength() & 0xFFFFFFFFL));
+		}
 
-			// behind anchor
-			int length= fList.size();
-			for (int i= fAnchor; i < length; i++) {
-				entry= fList.get(i);
-				if (entry.fPosition.equals(position)) {
-					fAnchor= i;
-					return entry.fValue;
-				}
-			}
+		private long getModificationStamp() {
+			if (fDocument instanceof IDocumentExtension4)
+				return ((IDocumentExtension4) fDocument).getModificationStamp();
+			return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+		}
 
-			// before anchor
-			for (int i= 0; i < fAnchor; i++) {
-				entry= fList.get(i);
-				if (entry.fPosition.equals(position)) {
-					fAnchor= i;
-					return entry.fValue;
+		private Map<Long, Entry> getIndex() {
+			long stamp= getModificationStamp();
+			if (fIndex == null || stamp != fIndexStamp || stamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+				fIndex= new HashMap<Long, Entry>(fEntries.size() * 2);
+				fHasCollisions= false;
+				for (Iterator<Entry> iter= fEntries.iterator(); iter.hasNext();) {
+					Entry entry= iter.next();
+					Long key= getKey(entry.fPosition);
+					if (fIndex.containsKey(key))
+						fHasCollisions= true; // the first entry wins
+					else
+						fIndex.put(key, entry);
 				}
+				fIndexStamp= stamp;
 			}
+			return fIndex;
+		}
 
-			return null;
+		private Entry getEntry(Position position) {
+			return getIndex().get(getKey(position));
 		}
 
-		private int getIndex(Position position) {
-			Entry entry;
-			int length= fList.size();
-			for (int i= 0; i < length; i++) {
-				entry= fList.get(i);
-				if (entry.fPosition.equals(position))
-					return i;
-			}
-			return -1;
+		public Object get(Position position) {
+			Entry entry= getEntry(position);
+			return entry != null ? entry.fValue : null;
 		}
 
 		public void put(Position position,  Object value) {
-			int index= getIndex(position);
-			if (index == -1) {
-				Entry entry= new Entry();
+			Entry entry= getEntry(position);
+			if (entry == null) {
+				entry= new Entry();
 				entry.fPosition= position;
 				entry.fValue= value;
-				fList.add(entry);
+				fEntries.add(entry);
+				fIndex.put(getKey(position), entry);
 			} else {
-				Entry entry= fList.get(index);
 				entry.fValue= value;
 			}
 		}
 
 		public void remove(Position position) {
-			int index= getIndex(position);
-			if (index > -1)
-				fList.remove(index);
+			Entry entry= getEntry(position);
+			if (entry != null) {
+				fEntries.remove(entry);
+				if (fHasCollisions)
+					fIndex= null; // another entry might have to take its place
+				else
+					fIndex.remove(getKey(position));
+			}
 		}
 
 		public void clear() {
-			fList.clear();
+			fEntries.clear();
+			fIndex= null;
 		}
 	}
 
@@ -492,6 +518,48 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 			List<IProblem> fReportedProblems;
 		}
 
+		/**
+		 * Identifies a problem by its id, position, severity, message and arguments, so that
+		 * the annotation of an unchanged problem can be kept when problems are reported again.
+		 *
+		 * @since 3.9
+		 */
+		private static final class ProblemKey {
+			private final int fId;
+			private final int fOffset;
+			private final int fLength;
+			private final boolean fIsError;
+			private final boolean fIsWarning;
+			private final String fMessage;
+			private final String[] fArguments;
+
+			ProblemKey(IProblem problem, Position position) {
+				fId= problem.getID();
+				fOffset= position.getOffset();
+				fLength= position.getLength();
+				fIsError= problem.isError();
+				fIsWarning= problem.isWarning();
+				fMessage= problem.getMessage();
+				fArguments= problem.getArguments();
+			}
+
+			@Override
+			public int hashCode() {
+				return ((fId * 31 + fOffset) * 31 + fLength) * 31 + (fMessage == null ? 0 : fMessage.hashCode());
+			}
+
+			@Override
+			public boolean equals(Object obj) {
+				if (!(obj instanceof ProblemKey))
+					return false;
+				ProblemKey other= (ProblemKey) obj;
+				return fId == other.fId && fOffset == other.fOffset && fLength == other.fLength
+						&& fIsError == other.fIsError && fIsWarning == other.fIsWarning
+						&& (fMessage == null ? other.fMessage == null : fMessage.equals(other.fMessage))
+						&& Arrays.equals(fArguments, other.fArguments);
+			}
+		}
+
 		private ThreadLocal<ProblemRequestorState> fProblemRequestorState= new ThreadLocal<ProblemRequestorState>();
 		private int fStateCount= 0;
 
@@ -501,9 +569,11 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 		private boolean fIsActive= false;
 		private boolean fIsHandlingTemporaryProblems;
 
-		private ReverseMap fReverseMap= new ReverseMap();
+		private PositionIndex fPositionIndex= new PositionIndex();
 		private List<JavaMarkerAnnotation> fPreviouslyOverlaid= null;
 		private List<JavaMarkerAnnotation> fCurrentlyOverlaid= new ArrayList<JavaMarkerAnnotation>();
+		/** The marker annotations whose overlay changed while the problems were reported */
+		private List<JavaMarkerAnnotation> fChangedOverlays;
 		private Thread fActiveThread;
 
 
@@ -515,6 +585,18 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 			fCompilationUnit= unit;
 		}
 
+		/*
+		 * @see org.eclipse.jface.text.source.AnnotationModel#connect(org.eclipse.jface.text.IDocument)
+		 * @since 3.9
+		 */
+		@Override
+		public void connect(IDocument document) {
+			super.connect(document);
+			synchronized (getLockObject()) {
+				fPositionIndex.setDocument(document);
+			}
+		}
+
 		@Override
 		protected MarkerAnnotation createMarkerAnnotation(IMarker marker) {
 			if (JavaMarkerAnnotation.isJavaAnnotation(marker))
@@ -629,6 +711,10 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 
 		/**
 		 * Signals the end of problem reporting.
+		 * <p>
+		 * The reported problems are compared with the current temporary problem annotations,
+		 * and only the annotations of problems which are gone or new are removed or added.
+		 * </p>
 		 *
 		 * @param reportedProblems the problems to report
 		 */
@@ -644,13 +730,21 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 
 				fPreviouslyOverlaid= fCurrentlyOverlaid;
 				fCurrentlyOverlaid= new ArrayList<JavaMarkerAnnotation>();
-
-				if (fGeneratedAnnotations.size() > 0) {
-					temporaryProblemsChanged= true;
-					removeAnnotations(fGeneratedAnnotations, false, true);
-					fGeneratedAnnotations.clear();
+				fChangedOverlays= new ArrayList<JavaMarkerAnnotation>();
+
+				List<ProblemAnnotation> removedAnnotations= new ArrayList<ProblemAnnotation>();
+				Map<ProblemKey, Object> previousAnnotations= new HashMap<ProblemKey, Object>(fGeneratedAnnotations.size() * 2);
+				for (Iterator<ProblemAnnotation> e= fGeneratedAnnotations.iterator(); e.hasNext();) {
+					ProblemAnnotation annotation= e.next();
+					Position position= getPosition(annotation);
+					if (position != null && !position.isDeleted())
+						putAnnotation(previousAnnotations, new ProblemKey(annotation.fProblem, position), annotation);
+					else
+						removedAnnotations.add(annotation);
 				}
 
+				List<ProblemAnnotation> generatedAnnotations= new ArrayList<ProblemAnnotation>();
+
 				if (reportedProblems != null && reportedProblems.size() > 0) {
 
 					Iterator<IProblem> e= reportedProblems.iterator();
@@ -665,11 +759,19 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 						Position position= createPositionFromProblem(problem);
 						if (position != null) {
 
+							ProblemAnnotation annotation= takeAnnotation(previousAnnotations, new ProblemKey(problem, position));
+							if (annotation != null) {
+								// unchanged problem, keep the annotation
+								overlayMarkers(getPosition(annotation), annotation);
+								generatedAnnotations.add(annotation);
+								continue;
+							}
+
 							try {
-								ProblemAnnotation annotation= new ProblemAnnotation(problem, fCompilationUnit);
+								annotation= new ProblemAnnotation(problem, fCompilationUnit);
 								overlayMarkers(position, annotation);
 								addAnnotation(annotation, position, false);
-								fGeneratedAnnotations.add(annotation);
+								generatedAnnotations.add(annotation);
 
 								temporaryProblemsChanged= true;
 							} catch (BadLocationException x) {
@@ -679,14 +781,70 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 					}
 				}
 
+				// if canceled, the remaining problems haven't been reported, thus keep their annotations
+				List<ProblemAnnotation> remainingAnnotations= isCanceled ? generatedAnnotations : removedAnnotations;
+				for (Iterator<Object> e= previousAnnotations.values().iterator(); e.hasNext();) {
+					Object cached= e.next();
+					if (cached instanceof List) {
+						@SuppressWarnings("unchecked")
+						List<ProblemAnnotation> list= (List<ProblemAnnotation>) cached;
+						remainingAnnotations.addAll(list);
+					} else {
+						remainingAnnotations.add((ProblemAnnotation) cached);
+					}
+				}
+				if (removedAnnotations.size() > 0) {
+					temporaryProblemsChanged= true;
+					removeAnnotations(removedAnnotations, false, true);
+				}
+				fGeneratedAnnotations.clear();
+				fGeneratedAnnotations.addAll(generatedAnnotations);
+
 				removeMarkerOverlays(isCanceled);
 				fPreviouslyOverlaid= null;
+
+				// kept problem annotations don't change the model, but the overlaid markers must be repainted
+				for (Iterator<JavaMarkerAnnotation> e= fChangedOverlays.iterator(); e.hasNext();) {
+					modifyAnnotation(e.next(), false);
+					temporaryProblemsChanged= true;
+				}
+				fChangedOverlays= null;
 			}
 
 			if (temporaryProblemsChanged)
 				fireModelChanged();
 		}
 
+		private static void putAnnotation(Map<ProblemKey, Object> annotations, ProblemKey key, ProblemAnnotation annotation) {
+			Object cached= annotations.get(key);
+			if (cached == null) {
+				annotations.put(key, annotation);
+			} else if (cached instanceof List) {
+				@SuppressWarnings("unchecked")
+				List<ProblemAnnotation> list= (List<ProblemAnnotation>) cached;
+				list.add(annotation);
+			} else {
+				List<ProblemAnnotation> list= new ArrayList<ProblemAnnotation>(2);
+				list.add((ProblemAnnotation) cached);
+				list.add(annotation);
+				annotations.put(key, list);
+			}
+		}
+
+		private static ProblemAnnotation takeAnnotation(Map<ProblemKey, Object> annotations, ProblemKey key) {
+			Object cached= annotations.get(key);
+			if (cached instanceof List) {
+				@SuppressWarnings("unchecked")
+				List<ProblemAnnotation> list= (List<ProblemAnnotation>) cached;
+				ProblemAnnotation annotation= list.remove(0);
+				if (list.isEmpty())
+					annotations.remove(key);
+				return annotation;
+			}
+			annotations.remove(key);
+			return (ProblemAnnotation) cached;
+		}
+
 		private void removeMarkerOverlays(boolean isCanceled) {
 			if (isCanceled) {
 				fCurrentlyOverlaid.addAll(fPreviouslyOverlaid);
@@ -694,6 +852,8 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 				Iterator<JavaMarkerAnnotation> e= fPreviouslyOverlaid.iterator();
 				while (e.hasNext()) {
 					JavaMarkerAnnotation annotation= e.next();
+					if (annotation.hasOverlay())
+						fChangedOverlays.add(annotation);
 					annotation.setOverlay(null);
 				}
 			}
@@ -709,6 +869,8 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 			if (value instanceof  JavaMarkerAnnotation) {
 				JavaMarkerAnnotation annotation= (JavaMarkerAnnotation) value;
 				if (annotation.isProblem()) {
+					if (annotation.getOverlay() != problemAnnotation)
+						fChangedOverlays.add(annotation);
 					annotation.setOverlay(problemAnnotation);
 					fPreviouslyOverlaid.remove(annotation);
 					fCurrentlyOverlaid.add(annotation);
@@ -786,7 +948,7 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 
 		private Object getAnnotations(Position position) {
 			synchronized (getLockObject()) {
-				return fReverseMap.get(position);
+				return fPositionIndex.get(position);
 			}
 		}
 
@@ -798,9 +960,9 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 			super.addAnnotation(annotation, position, fireModelChanged);
 
 			synchronized (getLockObject()) {
-				Object cached= fReverseMap.get(position);
+				Object cached= fPositionIndex.get(position);
 				if (cached == null)
-					fReverseMap.put(position, annotation);
+					fPositionIndex.put(position, annotation);
 				else if (cached instanceof List) {
 					@SuppressWarnings("unchecked")
 					List<Object> list= (List<Object>) cached;
@@ -809,7 +971,7 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 					List<Object> list= new ArrayList<Object>(2);
 					list.add(cached);
 					list.add(annotation);
-					fReverseMap.put(position, list);
+					fPositionIndex.put(position, list);
 				}
 			}
 		}
@@ -821,7 +983,7 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 		protected void removeAllAnnotations(boolean fireModelChanged) {
 			super.removeAllAnnotations(fireModelChanged);
 			synchronized (getLockObject()) {
-				fReverseMap.clear();
+				fPositionIndex.clear();
 			}
 		}
 
@@ -832,17 +994,17 @@ public class CompilationUnitDocumentProvider extends TextFileDocumentProvider im
 		protected void removeAnnotation(Annotation annotation, boolean fireModelChanged) {
 			Position position= getPosition(annotation);
 			synchronized (getLockObject()) {
-				Object cached= fReverseMap.get(position);
+				Object cached= fPositionIndex.get(position);
 				if (cached instanceof List) {
 					@SuppressWarnings("unchecked")
 					List<Object> list= (List<Object>) cached;
 					list.remove(annotation);
 					if (list.size() == 1) {
-						fReverseMap.put(position, list.get(0));
+						fPositionIndex.put(position, list.get(0));
 						list.clear();
 					}
 				} else if (cached instanceof Annotation) {
-					fReverseMap.remove(position);
+					fPositionIndex.remove(position);
 				}
 			}
 			super.removeAnnotation(annotation, fireModelChanged);
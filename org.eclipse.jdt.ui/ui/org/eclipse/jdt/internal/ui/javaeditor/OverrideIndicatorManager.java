@@ -11,10 +11,14 @@
 
 package org.eclipse.jdt.internal.ui.javaeditor;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -123,11 +127,52 @@ class OverrideIndicatorManager implements IJavaReconcilingListener {
 		}
 	}
 
+	/**
+	 * The result of looking for the method which a method overrides, together with
+	 * the state of the supertype hierarchy it has been computed for.
+	 *
+	 * @since 3.9
+	 */
+	private static final class OverrideInfo {
+		final String fHierarchyVersion;
+		final int fModifiers;
+		/** The annotation text or <code>null</code> if the method doesn't override a method */
+		final String fText;
+		final boolean fIsImplements;
+
+		OverrideInfo(String hierarchyVersion, int modifiers, String text, boolean isImplements) {
+			fHierarchyVersion= hierarchyVersion;
+			fModifiers= modifiers;
+			fText= text;
+			fIsImplements= isImplements;
+		}
+	}
+
 	static final String ANNOTATION_TYPE= "org.eclipse.jdt.ui.overrideIndicator"; //$NON-NLS-1$
 
 	private IAnnotationModel fAnnotationModel;
 	private Object fAnnotationModelLockObject;
-	private Annotation[] fOverrideAnnotations;
+	/**
+	 * The override indicators in the annotation model by method binding key,
+	 * or <code>null</code> if there are none.
+	 */
+	private Map<String, OverrideIndicator> fOverrideAnnotations;
+	/**
+	 * Override indicators of methods whose key is not unique, e.g. duplicate methods.
+	 * @since 3.9
+	 */
+	private List<OverrideIndicator> fDuplicateAnnotations;
+	/**
+	 * The override infos of the last update by method binding key.
+	 * @since 3.9
+	 */
+	private Map<String, OverrideInfo> fOverrideInfos= new HashMap<String, OverrideInfo>();
+	/**
+	 * The supertype hierarchies of types which aren't declared in the AST by type key, see
+	 * {@link #appendType(ITypeBinding, CompilationUnit, StringBuffer, Set, Map)}.
+	 * @since 3.9
+	 */
+	private Map<String, String> fExternalHierarchies= new HashMap<String, String>();
 	private ITypeRoot fJavaElement;
 
 
@@ -161,17 +206,25 @@ class OverrideIndicatorManager implements IJavaReconcilingListener {
 	/**
 	 * Updates the override and implements annotations based
 	 * on the given AST.
+	 * <p>
+	 * The overridden method is only looked up again for methods whose binding key or
+	 * modifiers changed, or whose supertype hierarchy changed, see
+	 * {@link #getHierarchyVersion(ITypeBinding, CompilationUnit, Map)}. Indicators of
+	 * unchanged methods stay in the annotation model.
+	 * </p>
 	 *
 	 * @param ast the compilation unit AST
 	 * @param progressMonitor the progress monitor
 	 * @since 3.0
 	 */
-	protected void updateAnnotations(CompilationUnit ast, IProgressMonitor progressMonitor) {
+	protected void updateAnnotations(final CompilationUnit ast, IProgressMonitor progressMonitor) {
 
 		if (ast == null || progressMonitor.isCanceled())
 			return;
 
-		final Map<Annotation, Position> annotationMap= new HashMap<Annotation, Position>(50);
+		final Map<String, OverrideInfo> overrideInfos= new HashMap<String, OverrideInfo>(fOverrideInfos.size() * 2);
+		final Map<ITypeBinding, String> hierarchyVersions= new HashMap<ITypeBinding, String>();
+		final List<MethodDeclaration> overridingMethods= new ArrayList<MethodDeclaration>();
 
 		ast.accept(new ASTVisitor(false) {
 			/*
@@ -181,27 +234,14 @@ class OverrideIndicatorManager implements IJavaReconcilingListener {
 			public boolean visit(MethodDeclaration node) {
 				IMethodBinding binding= node.resolveBinding();
 				if (binding != null) {
-					IMethodBinding definingMethod= Bindings.findOverriddenMethod(binding, true);
-					if (definingMethod != null) {
-
-						ITypeBinding definingType= definingMethod.getDeclaringClass();
-						String qualifiedMethodName= definingType.getQualifiedName() + "." + binding.getName(); //$NON-NLS-1$
-
-						boolean isImplements= JdtFlags.isAbstract(definingMethod);
-						String text;
-						if (isImplements)
-							text= Messages.format(JavaEditorMessages.OverrideIndicatorManager_implements, BasicElementLabels.getJavaElementName(qualifiedMethodName));
-						else
-							text= Messages.format(JavaEditorMessages.OverrideIndicatorManager_overrides, BasicElementLabels.getJavaElementName(qualifiedMethodName));
-
-						SimpleName name= node.getName();
-						Position position= new Position(name.getStartPosition(), name.getLength());
-
-						annotationMap.put(
-								new OverrideIndicator(isImplements, text, binding.getKey()),
-								position);
-
-					}
+					String key= binding.getKey();
+					String hierarchyVersion= getHierarchyVersion(binding.getDeclaringClass(), ast, hierarchyVersions, fExternalHierarchies);
+					OverrideInfo info= fOverrideInfos.get(key);
+					if (info == null || info.fModifiers != binding.getModifiers() || !info.fHierarchyVersion.equals(hierarchyVersion))
+						info= computeOverrideInfo(binding, hierarchyVersion);
+					overrideInfos.put(key, info);
+					if (info.fText != null)
+						overridingMethods.add(node);
 				}
 				return true;
 			}
@@ -210,19 +250,181 @@ class OverrideIndicatorManager implements IJavaReconcilingListener {
 		if (progressMonitor.isCanceled())
 			return;
 
+		fOverrideInfos= overrideInfos;
+
 		synchronized (fAnnotationModelLockObject) {
-			if (fAnnotationModel instanceof IAnnotationModelExtension) {
-				((IAnnotationModelExtension)fAnnotationModel).replaceAnnotations(fOverrideAnnotations, annotationMap);
-			} else {
-				removeAnnotations();
-				Iterator<Entry<Annotation, Position>> iter= annotationMap.entrySet().iterator();
-				while (iter.hasNext()) {
-					Entry<Annotation, Position> mapEntry= iter.next();
-					fAnnotationModel.addAnnotation(mapEntry.getKey(), mapEntry.getValue());
+			Map<String, OverrideIndicator> previousAnnotations= fOverrideAnnotations != null ? fOverrideAnnotations : new HashMap<String, OverrideIndicator>();
+			Map<String, OverrideIndicator> annotations= new HashMap<String, OverrideIndicator>(overridingMethods.size() * 2);
+			List<OverrideIndicator> duplicateAnnotations= new ArrayList<OverrideIndicator>();
+			List<Annotation> removedAnnotations= new ArrayList<Annotation>();
+			Map<Annotation, Position> addedAnnotations= new HashMap<Annotation, Position>();
+
+			for (Iterator<MethodDeclaration> iter= overridingMethods.iterator(); iter.hasNext();) {
+				MethodDeclaration node= iter.next();
+				String key= node.resolveBinding().getKey();
+				OverrideInfo info= overrideInfos.get(key);
+				SimpleName name= node.getName();
+				Position position= new Position(name.getStartPosition(), name.getLength());
+
+				if (annotations.containsKey(key)) {
+					OverrideIndicator annotation= new OverrideIndicator(info.fIsImplements, info.fText, key);
+					addedAnnotations.put(annotation, position);
+					duplicateAnnotations.add(annotation);
+					continue;
+				}
+
+				OverrideIndicator annotation= previousAnnotations.remove(key);
+				if (annotation != null && annotation.isOverwriteIndicator() == info.fIsImplements && info.fText.equals(annotation.getText())) {
+					Position currentPosition= fAnnotationModel.getPosition(annotation);
+					if (!position.equals(currentPosition)) {
+						if (fAnnotationModel instanceof IAnnotationModelExtension) {
+							((IAnnotationModelExtension)fAnnotationModel).modifyAnnotationPosition(annotation, position);
+						} else {
+							removedAnnotations.add(annotation);
+							addedAnnotations.put(annotation, position);
+						}
+					}
+				} else {
+					if (annotation != null)
+						removedAnnotations.add(annotation);
+					annotation= new OverrideIndicator(info.fIsImplements, info.fText, key);
+					addedAnnotations.put(annotation, position);
 				}
+				annotations.put(key, annotation);
 			}
-			fOverrideAnnotations= annotationMap.keySet().toArray(new Annotation[annotationMap.keySet().size()]);
+			removedAnnotations.addAll(previousAnnotations.values());
+			if (fDuplicateAnnotations != null)
+				removedAnnotations.addAll(fDuplicateAnnotations);
+
+			if (!removedAnnotations.isEmpty() || !addedAnnotations.isEmpty()) {
+				if (fAnnotationModel instanceof IAnnotationModelExtension) {
+					Annotation[] removed= removedAnnotations.toArray(new Annotation[removedAnnotations.size()]);
+					((IAnnotationModelExtension)fAnnotationModel).replaceAnnotations(removed, addedAnnotations);
+				} else {
+					for (Iterator<Annotation> iter= removedAnnotations.iterator(); iter.hasNext();)
+						fAnnotationModel.removeAnnotation(iter.next());
+					Iterator<Entry<Annotation, Position>> iter= addedAnnotations.entrySet().iterator();
+					while (iter.hasNext()) {
+						Entry<Annotation, Position> mapEntry= iter.next();
+						fAnnotationModel.addAnnotation(mapEntry.getKey(), mapEntry.getValue());
+					}
+				}
+			}
+			fOverrideAnnotations= annotations;
+			fDuplicateAnnotations= duplicateAnnotations.isEmpty() ? null : duplicateAnnotations;
+		}
+	}
+
+	/**
+	 * Looks for the method which the given method overrides.
+	 *
+	 * @param binding the method binding
+	 * @param hierarchyVersion the version of the declaring type's hierarchy
+	 * @return the override info
+	 * @since 3.9
+	 */
+	private static OverrideInfo computeOverrideInfo(IMethodBinding binding, String hierarchyVersion) {
+		IMethodBinding definingMethod= Bindings.findOverriddenMethod(binding, true);
+		if (definingMethod == null)
+			return new OverrideInfo(hierarchyVersion, binding.getModifiers(), null, false);
+
+		ITypeBinding definingType= definingMethod.getDeclaringClass();
+		String qualifiedMethodName= definingType.getQualifiedName() + "." + binding.getName(); //$NON-NLS-1$
+
+		boolean isImplements= JdtFlags.isAbstract(definingMethod);
+		String text;
+		if (isImplements)
+			text= Messages.format(JavaEditorMessages.OverrideIndicatorManager_implements, BasicElementLabels.getJavaElementName(qualifiedMethodName));
+		else
+			text= Messages.format(JavaEditorMessages.OverrideIndicatorManager_overrides, BasicElementLabels.getJavaElementName(qualifiedMethodName));
+		return new OverrideInfo(hierarchyVersion, binding.getModifiers(), text, isImplements);
+	}
+
+	/**
+	 * Returns a string which changes whenever the result of looking for overridden methods
+	 * in the supertypes of the given type can change. It consists of the keys of all
+	 * supertypes and, for supertypes declared in the given AST, of the keys and modifiers
+	 * of their methods.
+	 * <p>
+	 * Changes of supertypes in other compilation units or class files don't show up here.
+	 * They are picked up by forced reconciles, which drop all cached results, see
+	 * {@link #reconciled(CompilationUnit, boolean, IProgressMonitor)}.
+	 * </p>
+	 *
+	 * @param type the declaring type of the methods
+	 * @param ast the AST
+	 * @param versions the versions computed for this AST so far
+	 * @param externalHierarchies the hierarchies of supertypes which aren't declared in the AST
+	 * @return the hierarchy version
+	 * @since 3.9
+	 */
+	private static String getHierarchyVersion(ITypeBinding type, CompilationUnit ast, Map<ITypeBinding, String> versions, Map<String, String> externalHierarchies) {
+		String version= versions.get(type);
+		if (version == null) {
+			StringBuffer buf= new StringBuffer();
+			appendSupertypes(type, ast, buf, new HashSet<String>(), externalHierarchies);
+			version= buf.toString();
+			versions.put(type, version);
 		}
+		return version;
+	}
+
+	private static boolean appendSupertypes(ITypeBinding type, CompilationUnit ast, StringBuffer buf, Set<String> visited, Map<String, String> externalHierarchies) {
+		boolean isDeclaredInAST= false;
+		ITypeBinding superclass= type.getSuperclass();
+		if (superclass != null)
+			isDeclaredInAST|= appendType(superclass, ast, buf, visited, externalHierarchies);
+		ITypeBinding[] interfaces= type.getInterfaces();
+		for (int i= 0; i < interfaces.length; i++)
+			isDeclaredInAST|= appendType(interfaces[i], ast, buf, visited, externalHierarchies);
+		return isDeclaredInAST;
+	}
+
+	/**
+	 * Appends the key of the given type and of its supertypes. For types declared in the AST,
+	 * the keys and modifiers of their methods are appended, too.
+	 * <p>
+	 * The hierarchy of a type which isn't declared in the AST is computed once and then taken
+	 * from the given map, unless it contains a type declared in the AST. It can only change
+	 * with the Java model, which clears the map.
+	 * </p>
+	 *
+	 * @param type the type
+	 * @param ast the AST
+	 * @param buf the buffer to append to
+	 * @param visited the keys of the types appended so far
+	 * @param externalHierarchies the hierarchies of types which aren't declared in the AST
+	 * @return <code>true</code> if the type or one of its supertypes is declared in the AST
+	 * @since 3.9
+	 */
+	private static boolean appendType(ITypeBinding type, CompilationUnit ast, StringBuffer buf, Set<String> visited, Map<String, String> externalHierarchies) {
+		String key= type.getKey();
+		if (!visited.add(key))
+			return false; // already appended by this walk
+
+		if (ast.findDeclaringNode(type.getTypeDeclaration()) != null) {
+			buf.append(key).append(';');
+			IMethodBinding[] methods= type.getDeclaredMethods();
+			for (int i= 0; i < methods.length; i++)
+				buf.append(methods[i].getKey()).append(methods[i].getModifiers()).append(';');
+			appendSupertypes(type, ast, buf, visited, externalHierarchies);
+			return true;
+		}
+
+		String hierarchy= externalHierarchies.get(key);
+		if (hierarchy == null) {
+			StringBuffer hierarchyBuf= new StringBuffer();
+			hierarchyBuf.append(key).append(';');
+			boolean isDeclaredInAST= appendSupertypes(type, ast, hierarchyBuf, new HashSet<String>(), externalHierarchies);
+			hierarchy= hierarchyBuf.toString();
+			buf.append(hierarchy);
+			if (isDeclaredInAST)
+				return true;
+			externalHierarchies.put(key, hierarchy);
+			return false;
+		}
+		buf.append(hierarchy);
+		return false;
 	}
 
 	/**
@@ -233,13 +435,17 @@ class OverrideIndicatorManager implements IJavaReconcilingListener {
 			return;
 
 		synchronized (fAnnotationModelLockObject) {
+			List<Annotation> annotations= new ArrayList<Annotation>(fOverrideAnnotations.values());
+			if (fDuplicateAnnotations != null)
+				annotations.addAll(fDuplicateAnnotations);
 			if (fAnnotationModel instanceof IAnnotationModelExtension) {
-				((IAnnotationModelExtension)fAnnotationModel).replaceAnnotations(fOverrideAnnotations, null);
+				((IAnnotationModelExtension)fAnnotationModel).replaceAnnotations(annotations.toArray(new Annotation[annotations.size()]), null);
 			} else {
-				for (int i= 0, length= fOverrideAnnotations.length; i < length; i++)
-					fAnnotationModel.removeAnnotation(fOverrideAnnotations[i]);
+				for (Iterator<Annotation> iter= annotations.iterator(); iter.hasNext();)
+					fAnnotationModel.removeAnnotation(iter.next());
 			}
 			fOverrideAnnotations= null;
+			fDuplicateAnnotations= null;
 		}
 	}
 
@@ -253,6 +459,11 @@ class OverrideIndicatorManager implements IJavaReconcilingListener {
 	 * @see org.eclipse.jdt.internal.ui.text.java.IJavaReconcilingListener#reconciled(CompilationUnit, boolean, IProgressMonitor)
 	 */
 	public void reconciled(CompilationUnit ast, boolean forced, IProgressMonitor progressMonitor) {
+		if (forced) {
+			// the Java model changed, e.g. a supertype in another compilation unit
+			fOverrideInfos= new HashMap<String, OverrideInfo>();
+			fExternalHierarchies= new HashMap<String, String>();
+		}
 		updateAnnotations(ast, progressMonitor);
 	}
 }
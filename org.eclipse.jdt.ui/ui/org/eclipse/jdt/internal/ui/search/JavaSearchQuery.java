@@ -142,6 +142,7 @@ public class JavaSearchQuery implements ISearchQuery {
 
 
 			engine.search(pattern, new SearchParticipant[] { SearchEngine.getDefaultSearchParticipant() }, fPatternData.getScope(), collector, mainSearchPM);
+			textResult.setSkippedMatchCount(collector.getSkippedMatchCount());
 			for (int i= 0; i < participantDescriptors.length; i++) {
 				final ISearchRequestor requestor= new SearchRequestor(participantDescriptors[i].getParticipant(), textResult);
 				final IProgressMonitor participantPM= new SubProgressMonitor(monitor, ticks[i]);
@@ -174,6 +175,8 @@ public class JavaSearchQuery implements ISearchQuery {
 			return e.getStatus();
 		}
 		String message= Messages.format(SearchMessages.JavaSearchQuery_status_ok_message, String.valueOf(textResult.getMatchCount()));
+		if (textResult.getSkippedMatchCount() > 0)
+			message= Messages.format(SearchMessages.JavaSearchQuery_status_skipped_message, new Object[] { message, String.valueOf(textResult.getSkippedMatchCount()) });
 		return new Status(IStatus.OK, JavaPlugin.getPluginId(), 0, message, null);
 	}
 
@@ -22,6 +22,8 @@ import org.eclipse.search.ui.ISearchQuery;
 import org.eclipse.search.ui.text.Match;
 import org.eclipse.search.ui.text.MatchFilter;
 
+import org.eclipse.jdt.internal.corext.util.Messages;
+
 import org.eclipse.jdt.ui.search.IMatchPresentation;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
@@ -30,6 +32,7 @@ public class JavaSearchResult extends AbstractJavaSearchResult {
 
 	private final JavaSearchQuery fQuery;
 	private final Map<Object, IMatchPresentation> fElementsToParticipants;
+	private volatile int fSkippedMatchCount;
 
 	public JavaSearchResult(JavaSearchQuery query) {
 		fQuery= query;
@@ -48,7 +51,22 @@ public class JavaSearchResult extends AbstractJavaSearchResult {
 	 * @see org.eclipse.search.ui.ISearchResult#getLabel()
 	 */
 	public String getLabel() {
-		return fQuery.getResultLabel(getMatchCount());
+		String label= fQuery.getResultLabel(getMatchCount());
+		if (fSkippedMatchCount > 0)
+			label= Messages.format(SearchMessages.JavaSearchResult_label_skipped_matches, new Object[] { label, String.valueOf(fSkippedMatchCount) });
+		return label;
+	}
+
+	/**
+	 * @return the number of matches which were found but not added to this result
+	 * @since 3.9
+	 */
+	public int getSkippedMatchCount() {
+		return fSkippedMatchCount;
+	}
+
+	void setSkippedMatchCount(int count) {
+		fSkippedMatchCount= count;
 	}
 
 	/* (non-Javadoc)
@@ -103,6 +121,7 @@ public class JavaSearchResult extends AbstractJavaSearchResult {
 		synchronized(this) {
 			fElementsToParticipants.clear();
 		}
+		fSkippedMatchCount= 0;
 		super.removeAll();
 	}
 
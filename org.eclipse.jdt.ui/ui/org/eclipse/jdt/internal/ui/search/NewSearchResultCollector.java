@@ -10,9 +10,15 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.search;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.eclipse.core.runtime.CoreException;
 
 import org.eclipse.search.ui.text.AbstractTextSearchResult;
+import org.eclipse.search.ui.text.Match;
 
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.search.FieldDeclarationMatch;
@@ -24,14 +30,45 @@ import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchRequestor;
 
+/**
+ * Collects the matches of a Java search into a search result.
+ * <p>
+ * The enclosing elements of the matches are interned so that all matches in the same element
+ * share one element handle, and the matches are added to the result in batches. Matches beyond
+ * the limit given by the system property {@value #MAX_MATCHES_PROPERTY} are only counted.
+ * </p>
+ */
 public class NewSearchResultCollector extends SearchRequestor {
+
+	/**
+	 * System property for the maximum number of matches added to a search result.
+	 * @since 3.9
+	 */
+	public static final String MAX_MATCHES_PROPERTY= "org.eclipse.jdt.ui.search.maxMatches"; //$NON-NLS-1$
+
+	private static final int DEFAULT_MAX_MATCHES= 1000000;
+
+	private static final int BATCH_SIZE= 1000;
+	private static final long BATCH_DELAY= 200;
+
 	private AbstractTextSearchResult fSearch;
 	private boolean fIgnorePotentials;
 
+	private final Map<IJavaElement, IJavaElement> fElements;
+	private final List<Match> fBatch;
+	private long fLastFlush;
+	private final int fMaxMatches;
+	private int fMatchCount;
+	private int fSkippedMatchCount;
+
 	public NewSearchResultCollector(AbstractTextSearchResult search, boolean ignorePotentials) {
 		super();
 		fSearch= search;
 		fIgnorePotentials= ignorePotentials;
+		fElements= new HashMap<IJavaElement, IJavaElement>();
+		fBatch= new ArrayList<Match>(BATCH_SIZE);
+		fLastFlush= System.currentTimeMillis();
+		fMaxMatches= Integer.getInteger(MAX_MATCHES_PROPERTY, DEFAULT_MAX_MATCHES).intValue();
 	}
 
 	@Override
@@ -40,6 +77,10 @@ public class NewSearchResultCollector extends SearchRequestor {
 		if (enclosingElement != null) {
 			if (fIgnorePotentials && (match.getAccuracy() == SearchMatch.A_INACCURATE))
 				return;
+			if (fMatchCount >= fMaxMatches) {
+				fSkippedMatchCount++;
+				return;
+			}
 			boolean isWriteAccess= false;
 			boolean isReadAccess= false;
 			if (match instanceof FieldReferenceMatch) {
@@ -60,16 +101,49 @@ public class NewSearchResultCollector extends SearchRequestor {
 				MethodReferenceMatch methodRef= (MethodReferenceMatch) match;
 				isSuperInvocation= methodRef.isSuperInvocation();
 			}
-			fSearch.addMatch(new JavaElementMatch(enclosingElement, match.getRule(), match.getOffset(), match.getLength(), match.getAccuracy(), isReadAccess, isWriteAccess, match.isInsideDocComment(), isSuperInvocation));
+			fMatchCount++;
+			fBatch.add(new JavaElementMatch(intern(enclosingElement), match.getRule(), match.getOffset(), match.getLength(), match.getAccuracy(), isReadAccess, isWriteAccess, match.isInsideDocComment(), isSuperInvocation));
+			if (fBatch.size() >= BATCH_SIZE || System.currentTimeMillis() - fLastFlush > BATCH_DELAY)
+				flush();
 		}
 	}
 
+	private IJavaElement intern(IJavaElement element) {
+		IJavaElement interned= fElements.get(element);
+		if (interned == null) {
+			fElements.put(element, element);
+			return element;
+		}
+		return interned;
+	}
+
+	private void flush() {
+		if (!fBatch.isEmpty()) {
+			fSearch.addMatches(fBatch.toArray(new Match[fBatch.size()]));
+			fBatch.clear();
+		}
+		fLastFlush= System.currentTimeMillis();
+	}
+
+	/**
+	 * Returns the number of matches which haven't been added to the search result because
+	 * there were too many.
+	 *
+	 * @return the number of skipped matches
+	 * @since 3.9
+	 */
+	public int getSkippedMatchCount() {
+		return fSkippedMatchCount;
+	}
+
 	@Override
 	public void beginReporting() {
 	}
 
 	@Override
 	public void endReporting() {
+		flush();
+		fElements.clear();
 	}
 
 	@Override
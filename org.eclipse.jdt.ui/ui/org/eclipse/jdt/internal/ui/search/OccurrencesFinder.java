@@ -12,6 +12,7 @@ package org.eclipse.jdt.internal.ui.search;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -96,7 +97,35 @@ public class OccurrencesFinder extends ASTVisitor implements IOccurrencesFinder
 		if (fResult == null) {
 			fResult= new ArrayList<OccurrenceLocation>();
 			fWriteUsages= new HashSet<Name>();
-			fRoot.accept(this);
+			String key= fTargetIsStaticMethodImport ? null : fTarget.getKey();
+			if (key != null)
+				addOccurrences(OccurrencesIndex.get(fRoot), key);
+			else
+				fRoot.accept(this);
+		}
+	}
+
+	/**
+	 * Adds the occurrences of the target from the index of the AST. The result is the same
+	 * as the one of visiting the AST.
+	 *
+	 * @param index the index of the AST
+	 * @param key the key of the target
+	 */
+	private void addOccurrences(OccurrencesIndex index, String key) {
+		Set<Name> added= new HashSet<Name>();
+		if (fTarget instanceof IMethodBinding) {
+			for (Iterator<SimpleName> iter= index.getStaticImports().iterator(); iter.hasNext();) {
+				SimpleName name= iter.next();
+				IBinding binding= ((QualifiedName) name.getParent()).resolveBinding();
+				if (binding instanceof IMethodBinding && addPossibleStaticImport(name, (IMethodBinding) binding))
+					added.add(name);
+			}
+		}
+		for (Iterator<Name> iter= index.getOccurrences(key).iterator(); iter.hasNext();) {
+			Name name= iter.next();
+			if (added.add(name))
+				addOccurrence(name, index.isWriteAccess(name));
 		}
 	}
 
@@ -241,20 +270,23 @@ public class OccurrencesFinder extends ASTVisitor implements IOccurrencesFinder
 
 	private boolean addUsage(Name node, IBinding binding) {
 		if (binding != null && Bindings.equals(getBindingDeclaration(binding), fTarget)) {
-			int flag= 0;
-			String description= fReadDescription;
-			if (fTarget instanceof IVariableBinding) {
-				boolean isWrite= fWriteUsages.remove(node);
-				flag= isWrite ? F_WRITE_OCCURRENCE : F_READ_OCCURRENCE;
-				if (isWrite)
-					description= fWriteDescription;
-			}
-			fResult.add(new OccurrenceLocation(node.getStartPosition(), node.getLength(), flag, description));
+			addOccurrence(node, fWriteUsages.remove(node));
 			return true;
 		}
 		return false;
 	}
 
+	private void addOccurrence(Name node, boolean isWrite) {
+		int flag= 0;
+		String description= fReadDescription;
+		if (fTarget instanceof IVariableBinding) {
+			flag= isWrite ? F_WRITE_OCCURRENCE : F_READ_OCCURRENCE;
+			if (isWrite)
+				description= fWriteDescription;
+		}
+		fResult.add(new OccurrenceLocation(node.getStartPosition(), node.getLength(), flag, description));
+	}
+
 	public int getSearchKind() {
 		return K_OCCURRENCE;
 	}
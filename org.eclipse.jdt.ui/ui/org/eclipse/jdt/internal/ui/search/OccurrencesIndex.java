@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.ParameterizedType;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression.Operator;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SimpleType;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.Type;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+/**
+ * The names in an AST grouped by the key of the declaration of their binding.
+ * <p>
+ * The index contains the same occurrences as the ones {@link OccurrencesFinder} finds
+ * by visiting the AST, so that the occurrences of a binding can be looked up without
+ * visiting the AST again for every selection. The index is stored as a property of the
+ * AST, so that it lives as long as the AST.
+ * </p>
+ *
+ * @since 3.9
+ */
+public final class OccurrencesIndex extends ASTVisitor {
+
+	private static final String PROPERTY= OccurrencesIndex.class.getName();
+
+	/** Maps binding keys to the names referring to the binding, in the order of the AST */
+	private final Map<String, List<Name>> fOccurrences;
+	private final Set<Name> fWriteUsages;
+	/** The names of the methods imported by static imports */
+	private final List<SimpleName> fStaticImports;
+
+	/**
+	 * The keys of the qualified names currently visited which have been added with the key,
+	 * their children must not be added again with the same key.
+	 */
+	private final List<String> fQualifiedNameKeys;
+
+	private OccurrencesIndex() {
+		super(true);
+		fOccurrences= new HashMap<String, List<Name>>();
+		fWriteUsages= new HashSet<Name>();
+		fStaticImports= new ArrayList<SimpleName>();
+		fQualifiedNameKeys= new ArrayList<String>();
+	}
+
+	/**
+	 * Returns the index of the given AST. The index is built if it doesn't exist yet.
+	 * It is built without holding a lock, if two threads ask for the index of the same
+	 * AST at the same time, both build it and the first one to finish wins.
+	 *
+	 * @param root the AST
+	 * @return the index
+	 */
+	public static OccurrencesIndex get(CompilationUnit root) {
+		synchronized (root) {
+			OccurrencesIndex index= (OccurrencesIndex) root.getProperty(PROPERTY);
+			if (index != null)
+				return index;
+		}
+		OccurrencesIndex index= new OccurrencesIndex();
+		root.accept(index);
+		synchronized (root) {
+			OccurrencesIndex existing= (OccurrencesIndex) root.getProperty(PROPERTY);
+			if (existing != null)
+				return existing;
+			root.setProperty(PROPERTY, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the names referring to the binding with the given key.
+	 *
+	 * @param key the key of the binding declaration
+	 * @return the names, in the order of the AST
+	 */
+	public List<Name> getOccurrences(String key) {
+		List<Name> names= fOccurrences.get(key);
+		if (names == null)
+			return Collections.emptyList();
+		return names;
+	}
+
+	public boolean isWriteAccess(Name name) {
+		return fWriteUsages.contains(name);
+	}
+
+	/**
+	 * @return the names of the methods imported by static imports
+	 */
+	public List<SimpleName> getStaticImports() {
+		return fStaticImports;
+	}
+
+	@Override
+	public boolean visit(QualifiedName node) {
+		IBinding binding= node.resolveBinding();
+		if (binding instanceof IVariableBinding && ((IVariableBinding)binding).isField()) {
+			SimpleName name= node.getName();
+			return visitQualifiedName(name, name.resolveBinding());
+		}
+		if (binding instanceof IMethodBinding && isStaticImport(node)) {
+			fStaticImports.add(node.getName());
+			fQualifiedNameKeys.add(null);
+			return true;
+		}
+		return visitQualifiedName(node, binding);
+	}
+
+	private boolean visitQualifiedName(Name node, IBinding binding) {
+		String key= getKey(binding);
+		if (key != null && !fQualifiedNameKeys.contains(key))
+			addUsage(node, key);
+		fQualifiedNameKeys.add(key);
+		return true;
+	}
+
+	@Override
+	public void endVisit(QualifiedName node) {
+		fQualifiedNameKeys.remove(fQualifiedNameKeys.size() - 1);
+	}
+
+	private static boolean isStaticImport(QualifiedName node) {
+		ASTNode parent= node.getParent();
+		return parent instanceof ImportDeclaration && ((ImportDeclaration) parent).isStatic();
+	}
+
+	@Override
+	public boolean visit(SimpleName node) {
+		String key= getKey(node.resolveBinding());
+		if (key != null && !fQualifiedNameKeys.contains(key))
+			addUsage(node, key);
+		return true;
+	}
+
+	@Override
+	public boolean visit(ClassInstanceCreation node) {
+		Type type= node.getType();
+		if (type instanceof ParameterizedType) {
+			type= ((ParameterizedType) type).getType();
+		}
+		if (type instanceof SimpleType) {
+			Name name= ((SimpleType) type).getName();
+			if (name instanceof QualifiedName)
+				name= ((QualifiedName)name).getName();
+			String key= getKey(node.resolveConstructorBinding());
+			if (key != null)
+				addUsage(name, key);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean visit(Assignment node) {
+		addWrite(getSimpleName(node.getLeftHandSide()));
+		return true;
+	}
+
+	@Override
+	public boolean visit(SingleVariableDeclaration node) {
+		addWrite(node.getName());
+		return true;
+	}
+
+	@Override
+	public boolean visit(VariableDeclarationFragment node) {
+		if (node.getParent() instanceof FieldDeclaration || node.getInitializer() != null)
+			addWrite(node.getName());
+		return true;
+	}
+
+	@Override
+	public boolean visit(PrefixExpression node) {
+		PrefixExpression.Operator operator= node.getOperator();
+		if (operator == Operator.INCREMENT || operator == Operator.DECREMENT)
+			addWrite(getSimpleName(node.getOperand()));
+		return true;
+	}
+
+	@Override
+	public boolean visit(PostfixExpression node) {
+		addWrite(getSimpleName(node.getOperand()));
+		return true;
+	}
+
+	private void addWrite(SimpleName name) {
+		if (name != null)
+			fWriteUsages.add(name);
+	}
+
+	private void addUsage(Name node, String key) {
+		List<Name> names= fOccurrences.get(key);
+		if (names == null) {
+			names= new ArrayList<Name>(2);
+			fOccurrences.put(key, names);
+		}
+		names.add(node);
+	}
+
+	private static SimpleName getSimpleName(Expression expression) {
+		if (expression instanceof SimpleName)
+			return ((SimpleName)expression);
+		else if (expression instanceof QualifiedName)
+			return (((QualifiedName) expression).getName());
+		else if (expression instanceof FieldAccess)
+			return ((FieldAccess)expression).getName();
+		return null;
+	}
+
+	/**
+	 * Returns the key of the declaration of the given binding.
+	 *
+	 * @param binding the binding or <code>null</code>
+	 * @return the key or <code>null</code> if the binding has none
+	 */
+	static String getKey(IBinding binding) {
+		if (binding == null)
+			return null;
+		switch (binding.getKind()) {
+			case IBinding.TYPE :
+				binding= ((ITypeBinding)binding).getTypeDeclaration();
+				break;
+			case IBinding.METHOD :
+				binding= ((IMethodBinding)binding).getMethodDeclaration();
+				break;
+			case IBinding.VARIABLE :
+				binding= ((IVariableBinding)binding).getVariableDeclaration();
+				break;
+			default:
+				break;
+		}
+		return binding.getKey();
+	}
+}
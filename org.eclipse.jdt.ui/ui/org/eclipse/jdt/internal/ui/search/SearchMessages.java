@@ -219,6 +219,8 @@ public final class SearchMessages extends NLS {
 	public static String JavaSearchQuery_error_unsupported_pattern;
 	public static String JavaSearchQuery_singularReferencesWithMatchLocations;
 	public static String JavaSearchQuery_status_ok_message;
+	public static String JavaSearchQuery_status_skipped_message;
+	public static String JavaSearchResult_label_skipped_matches;
 	public static String JavaSearchQuery_error_participant_estimate;
 	public static String JavaSearchQuery_error_participant_search;
 	public static String SearchParticipant_error_noID;
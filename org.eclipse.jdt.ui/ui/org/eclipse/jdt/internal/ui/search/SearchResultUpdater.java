@@ -10,8 +10,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.search;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.IAdaptable;
@@ -21,8 +23,12 @@ import org.eclipse.core.resources.IResourceDelta;
 
 import org.eclipse.search.ui.IQueryListener;
 import org.eclipse.search.ui.ISearchQuery;
+import org.eclipse.search.ui.ISearchResultListener;
 import org.eclipse.search.ui.NewSearchUI;
+import org.eclipse.search.ui.SearchResultEvent;
 import org.eclipse.search.ui.text.Match;
+import org.eclipse.search.ui.text.MatchEvent;
+import org.eclipse.search.ui.text.RemoveAllEvent;
 
 import org.eclipse.jdt.core.ElementChangedEvent;
 import org.eclipse.jdt.core.IElementChangedListener;
@@ -30,7 +36,14 @@ import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.JavaCore;
 
-public class SearchResultUpdater implements IElementChangedListener, IQueryListener {
+/**
+ * Removes the matches of elements which no longer exist from a search result.
+ * <p>
+ * The elements of the result are indexed by their compilation unit or class file, and those by
+ * their ancestors, so that a delta only needs to look at the elements below the changed ones.
+ * </p>
+ */
+public class SearchResultUpdater implements IElementChangedListener, IQueryListener, ISearchResultListener {
 
 	JavaSearchResult fResult;
 	private static final int REMOVED_FLAGS= IJavaElementDelta.F_MOVED_TO |
@@ -38,13 +51,131 @@ public class SearchResultUpdater implements IElementChangedListener, IQueryListe
 									IJavaElementDelta.F_CLOSED |
 									IJavaElementDelta.F_CONTENT;
 
+	/**
+	 * Maps compilation units and class files (or the elements themselves if they aren't
+	 * inside one) to the elements of the result they contain.
+	 */
+	private final Map<Object, Set<Object>> fElementsByContainer;
+
+	/**
+	 * Maps the ancestors of the keys of {@link #fElementsByContainer} to these keys.
+	 */
+	private final Map<Object, Set<Object>> fContainersByAncestor;
+
 	public SearchResultUpdater(JavaSearchResult result) {
 		fResult= result;
+		fElementsByContainer= new HashMap<Object, Set<Object>>();
+		fContainersByAncestor= new HashMap<Object, Set<Object>>();
+		fResult.addListener(this);
+		synchronized (this) {
+			Object[] elements= fResult.getElements();
+			for (int i= 0; i < elements.length; i++) {
+				addToIndex(elements[i]);
+			}
+		}
 		NewSearchUI.addQueryListener(this);
 		JavaCore.addElementChangedListener(this);
 		// TODO make this work with resources
 	}
 
+	/*
+	 * @see org.eclipse.search.ui.ISearchResultListener#searchResultChanged(org.eclipse.search.ui.SearchResultEvent)
+	 */
+	public void searchResultChanged(SearchResultEvent e) {
+		if (e instanceof MatchEvent) {
+			MatchEvent event= (MatchEvent) e;
+			Match[] matches= event.getMatches();
+			synchronized (this) {
+				for (int i= 0; i < matches.length; i++) {
+					Object element= matches[i].getElement();
+					if (event.getKind() == MatchEvent.ADDED)
+						addToIndex(element);
+					else if (fResult.getMatchCount(element) == 0)
+						removeFromIndex(element);
+				}
+			}
+		} else if (e instanceof RemoveAllEvent) {
+			synchronized (this) {
+				fElementsByContainer.clear();
+				fContainersByAncestor.clear();
+			}
+		}
+	}
+
+	private void addToIndex(Object element) {
+		Object container= getContainer(element);
+		if (addTo(fElementsByContainer, container, element)) {
+			Object ancestor= getParent(container);
+			while (ancestor != null && addTo(fContainersByAncestor, ancestor, container))
+				ancestor= getParent(ancestor);
+		}
+	}
+
+	private void removeFromIndex(Object element) {
+		Object container= getContainer(element);
+		Set<Object> elements= fElementsByContainer.get(container);
+		if (elements != null && elements.remove(element) && elements.isEmpty()) {
+			fElementsByContainer.remove(container);
+			for (Object ancestor= getParent(container); ancestor != null; ancestor= getParent(ancestor)) {
+				Set<Object> containers= fContainersByAncestor.get(ancestor);
+				if (containers != null) {
+					containers.remove(container);
+					if (containers.isEmpty())
+						fContainersByAncestor.remove(ancestor);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds a value to a set in a map.
+	 *
+	 * @param map the map
+	 * @param key the key
+	 * @param value the value
+	 * @return <code>true</code> if the set for <code>key</code> was created
+	 */
+	private static boolean addTo(Map<Object, Set<Object>> map, Object key, Object value) {
+		Set<Object> set= map.get(key);
+		boolean created= set == null;
+		if (created) {
+			set= new HashSet<Object>();
+			map.put(key, set);
+		}
+		set.add(value);
+		return created;
+	}
+
+	private static Object getContainer(Object element) {
+		if (element instanceof IJavaElement) {
+			IJavaElement javaElement= (IJavaElement) element;
+			IJavaElement container= javaElement.getAncestor(IJavaElement.COMPILATION_UNIT);
+			if (container == null)
+				container= javaElement.getAncestor(IJavaElement.CLASS_FILE);
+			if (container != null)
+				return container;
+		}
+		return element;
+	}
+
+	/**
+	 * Returns the elements of the result which are the given element or one of its descendants.
+	 *
+	 * @param ancestor the element
+	 * @param result the set to add the elements to
+	 */
+	private synchronized void collectElements(Object ancestor, Set<Object> result) {
+		Set<Object> elements= fElementsByContainer.get(getContainer(ancestor));
+		if (elements != null)
+			result.addAll(elements);
+		Set<Object> containers= fContainersByAncestor.get(ancestor);
+		if (containers != null) {
+			for (Iterator<Object> iter= containers.iterator(); iter.hasNext();) {
+				result.addAll(fElementsByContainer.get(iter.next()));
+			}
+		}
+	}
+
 	public void elementChanged(ElementChangedEvent event) {
 		//long t0= System.currentTimeMillis();
 		IJavaElementDelta delta= event.getDelta();
@@ -59,7 +190,11 @@ public class SearchResultUpdater implements IElementChangedListener, IQueryListe
 	}
 
 	private void handleRemoved(Set<IAdaptable> removedElements) {
-		Object[] elements= fResult.getElements();
+		Set<Object> candidates= new HashSet<Object>();
+		for (Iterator<IAdaptable> iter= removedElements.iterator(); iter.hasNext();) {
+			collectElements(iter.next(), candidates);
+		}
+		Object[] elements= candidates.toArray();
 		for (int i= 0; i < elements.length; i++) {
 			if (isContainedInRemoved(removedElements, elements[i])) {
 				if (elements[i] instanceof IJavaElement) {
@@ -87,19 +222,13 @@ public class SearchResultUpdater implements IElementChangedListener, IQueryListe
 	}
 
 	private boolean isContainedInRemoved(Set<IAdaptable> removedElements, Object object) {
-		for (Iterator<IAdaptable> elements= removedElements.iterator(); elements.hasNext();) {
-			if (isParentOf(elements.next(), object))
+		for (Object ancestor= object; ancestor != null; ancestor= getParent(ancestor)) {
+			if (removedElements.contains(ancestor))
 				return true;
 		}
 		return false;
 	}
 
-	private boolean isParentOf(Object ancestor, Object descendant) {
-		while (descendant != null && !ancestor.equals(descendant))
-			descendant= getParent(descendant);
-		return descendant != null;
-	}
-
 	private Object getParent(Object object) {
 		if (object instanceof IJavaElement)
 			return ((IJavaElement)object).getParent();
@@ -138,6 +267,7 @@ public class SearchResultUpdater implements IElementChangedListener, IQueryListe
 		if (fResult.equals(query.getSearchResult())) {
 			JavaCore.removeElementChangedListener(this);
 			NewSearchUI.removeQueryListener(this);
+			fResult.removeListener(this);
 		}
 	}
 
@@ -28,6 +28,11 @@ public class CompositeReconcilingStrategy  implements IReconcilingStrategy, IRec
 
 	/** The list of internal reconciling strategies. */
 	private IReconcilingStrategy[] fStrategies;
+	/**
+	 * The progress monitor of the reconciler.
+	 * @since 3.9
+	 */
+	private IProgressMonitor fProgressMonitor;
 
 	/**
 	 * Creates a new, empty composite reconciling strategy.
@@ -71,7 +76,7 @@ public class CompositeReconcilingStrategy  implements IReconcilingStrategy, IRec
 		if (fStrategies == null)
 			return;
 
-		for (int i= 0; i < fStrategies.length; i++)
+		for (int i= 0; i < fStrategies.length && !isCanceled(); i++)
 			fStrategies[i].reconcile(dirtyRegion, subRegion);
 	}
 
@@ -82,14 +87,36 @@ public class CompositeReconcilingStrategy  implements IReconcilingStrategy, IRec
 		if (fStrategies == null)
 			return;
 
-		for (int i= 0; i < fStrategies.length; i++)
+		for (int i= 0; i < fStrategies.length && !isCanceled(); i++)
 			fStrategies[i].reconcile(partition);
 	}
 
+	/**
+	 * Tells whether the reconcile has been canceled, e.g. because the document changed.
+	 * The remaining strategies are not run in that case, since their results are stale.
+	 *
+	 * @return <code>true</code> if the progress monitor has been canceled
+	 * @since 3.9
+	 */
+	protected boolean isCanceled() {
+		return fProgressMonitor != null && fProgressMonitor.isCanceled();
+	}
+
+	/**
+	 * Returns the progress monitor set by the reconciler.
+	 *
+	 * @return the progress monitor or <code>null</code>
+	 * @since 3.9
+	 */
+	protected IProgressMonitor getProgressMonitor() {
+		return fProgressMonitor;
+	}
+
 	/*
 	 * @see org.eclipse.jface.text.reconciler.IReconcilingStrategyExtension#setProgressMonitor(org.eclipse.core.runtime.IProgressMonitor)
 	 */
 	public void setProgressMonitor(IProgressMonitor monitor) {
+		fProgressMonitor= monitor;
 		if (fStrategies == null)
 			return;
 
@@ -81,7 +81,7 @@ public class JavaCompositeReconcilingStrategy  extends CompositeReconcilingStrat
 					e.beginReportingSequence();
 					super.reconcile(dirtyRegion, subRegion);
 				} finally {
-					e.endReportingSequence();
+					endReportingSequence(e);
 				}
 			} else {
 				super.reconcile(dirtyRegion, subRegion);
@@ -103,7 +103,7 @@ public class JavaCompositeReconcilingStrategy  extends CompositeReconcilingStrat
 					e.beginReportingSequence();
 					super.reconcile(partition);
 				} finally {
-					e.endReportingSequence();
+					endReportingSequence(e);
 				}
 			} else {
 				super.reconcile(partition);
@@ -114,6 +114,23 @@ public class JavaCompositeReconcilingStrategy  extends CompositeReconcilingStrat
 	}
 
 
+	/**
+	 * Ends the reporting sequence. If the reconcile has been canceled in the meantime,
+	 * the problem requestor drops the incomplete set of problems and keeps the
+	 * previously reported ones until the next reconcile.
+	 *
+	 * @param extension the problem requestor
+	 * @since 3.9
+	 */
+	private void endReportingSequence(IProblemRequestorExtension extension) {
+		extension.setProgressMonitor(getProgressMonitor());
+		try {
+			extension.endReportingSequence();
+		} finally {
+			extension.setProgressMonitor(null);
+		}
+	}
+
 	/**
 	 * Tells this strategy whether to inform its listeners.
 	 *
@@ -19,6 +19,8 @@ import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Shell;
 
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Platform;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IMarkerDelta;
@@ -33,6 +35,7 @@ import org.eclipse.jface.util.PropertyChangeEvent;
 
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.reconciler.DirtyRegion;
 import org.eclipse.jface.text.reconciler.MonoReconciler;
 
 import org.eclipse.ui.IEditorInput;
@@ -58,9 +61,28 @@ import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
 
 /**
  * A reconciler that is also activated on editor activation.
+ * <p>
+ * The reconciler measures how long reconciling its editor takes and stretches the delay
+ * after the last keystroke for expensive compilation units, so that fast typing does not
+ * trigger reconciles which are canceled by the next keystroke anyway.
+ * </p>
  */
 public class JavaReconciler extends MonoReconciler {
 
+	private static final boolean DEBUG= "true".equalsIgnoreCase(Platform.getDebugOption("org.eclipse.jdt.ui/debug/Reconciler"));  //$NON-NLS-1$//$NON-NLS-2$
+
+	/**
+	 * The maximal delay in milliseconds to which the delay is stretched.
+	 * @since 3.9
+	 */
+	private static final int MAX_DELAY= 3000;
+
+	/**
+	 * The weight of the last reconcile time in the average reconcile time.
+	 * @since 3.9
+	 */
+	private static final double AVERAGE_WEIGHT= 0.25;
+
 	/**
 	 * Internal part listener for activating the reconciler.
 	 */
@@ -274,6 +296,27 @@ public class JavaReconciler extends MonoReconciler {
 	 */
 	private ITypeRoot fReconciledElement;
 
+	/**
+	 * The delay that has been set, i.e. the minimal delay.
+	 * @since 3.9
+	 */
+	private int fBaseDelay;
+	/**
+	 * The weighted average duration of completed reconciles in milliseconds.
+	 * @since 3.9
+	 */
+	private double fAverageReconcileTime;
+	/**
+	 * The number of completed reconciles.
+	 * @since 3.9
+	 */
+	private int fReconcileCount;
+	/**
+	 * The number of canceled reconciles.
+	 * @since 3.9
+	 */
+	private int fCanceledCount;
+
 	/**
 	 * Creates a new reconciler.
 	 *
@@ -402,10 +445,63 @@ public class JavaReconciler extends MonoReconciler {
 	 */
 	@Override
 	protected void initialProcess() {
+		long start= System.currentTimeMillis();
 		synchronized (fMutex) {
 			super.initialProcess();
 		}
 		fIninitalProcessDone= true;
+		reconciled(System.currentTimeMillis() - start);
+	}
+
+	/*
+	 * @see org.eclipse.jface.text.reconciler.MonoReconciler#process(org.eclipse.jface.text.reconciler.DirtyRegion)
+	 * @since 3.9
+	 */
+	@Override
+	protected void process(DirtyRegion dirtyRegion) {
+		long start= System.currentTimeMillis();
+		super.process(dirtyRegion);
+		reconciled(System.currentTimeMillis() - start);
+	}
+
+	/*
+	 * @see org.eclipse.jface.text.reconciler.AbstractReconciler#setDelay(int)
+	 * @since 3.9
+	 */
+	@Override
+	public void setDelay(int delay) {
+		fBaseDelay= delay;
+		super.setDelay(delay);
+	}
+
+	/**
+	 * Records the duration of a reconcile and adapts the delay to it. Canceled reconciles
+	 * are only counted, since they don't tell how long a complete reconcile takes.
+	 *
+	 * @param time the duration of the reconcile in milliseconds
+	 * @since 3.9
+	 */
+	private void reconciled(long time) {
+		IProgressMonitor monitor= getProgressMonitor();
+		if (monitor != null && monitor.isCanceled()) {
+			fCanceledCount++;
+			if (DEBUG)
+				System.out.println("JavaReconciler > canceled after " + time + " ms, canceled: " + fCanceledCount + ": " + fTextEditor.getTitle()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			return;
+		}
+
+		if (fReconcileCount == 0)
+			fAverageReconcileTime= time;
+		else
+			fAverageReconcileTime= AVERAGE_WEIGHT * time + (1 - AVERAGE_WEIGHT) * fAverageReconcileTime;
+		fReconcileCount++;
+
+		// don't start a reconcile before the user paused for about as long as it takes
+		int delay= Math.max(fBaseDelay, Math.min(MAX_DELAY, (int) fAverageReconcileTime));
+		super.setDelay(delay);
+
+		if (DEBUG)
+			System.out.println("JavaReconciler > reconciled in " + time + " ms, average: " + (long) fAverageReconcileTime + " ms, delay: " + delay + " ms, completed: " + fReconcileCount + ", canceled: " + fCanceledCount + ": " + fTextEditor.getTitle()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
 	}
 
 	/**
@@ -151,6 +151,14 @@ public final class ContributedProcessorDescriptor {
 		return null;
 	}
 
+	/**
+	 * @return the id of the contributed processor
+	 * @since 3.9
+	 */
+	public String getId() {
+		return fConfigurationElement.getAttribute(ID);
+	}
+
 	public boolean canHandleMarkerType(String markerType) {
 		return fHandledMarkerTypes == null || fHandledMarkerTypes.contains(markerType);
 	}
@@ -12,6 +12,7 @@ package org.eclipse.jdt.internal.ui.text.correction;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
@@ -156,37 +157,41 @@ public class CorrectionMarkerResolutionGenerator implements IMarkerResolutionGen
 			}
 		}
 
+		/**
+		 * Returns the problem locations of the given markers grouped by compilation unit. The
+		 * compilation unit and the annotation model are looked up once per file.
+		 *
+		 * @param markers the markers
+		 * @return the targets, one per compilation unit
+		 */
 		private MultiFixTarget[] getCleanUpTargets(IMarker[] markers) {
-			Hashtable<ICompilationUnit, List<IProblemLocation>> problemLocations= new Hashtable<ICompilationUnit, List<IProblemLocation>>();
+			Hashtable<IFile, List<IMarker>> fileMarkers= new Hashtable<IFile, List<IMarker>>();
 			for (int i= 0; i < markers.length; i++) {
-				IMarker marker= markers[i];
-				ICompilationUnit cu= getCompilationUnit(marker);
-
-				if (cu != null) {
-					IEditorInput input= EditorUtility.getEditorInput(cu);
-					IProblemLocation location= findProblemLocation(input, marker);
-					if (location != null) {
-						List<IProblemLocation> l= problemLocations.get(cu.getPrimary());
-						if (l == null) {
-							l= new ArrayList<IProblemLocation>();
-							problemLocations.put(cu.getPrimary(), l);
-						}
-						l.add(location);
+				IResource res= markers[i].getResource();
+				if (res instanceof IFile && res.isAccessible()) {
+					List<IMarker> l= fileMarkers.get(res);
+					if (l == null) {
+						l= new ArrayList<IMarker>();
+						fileMarkers.put((IFile) res, l);
 					}
+					l.add(markers[i]);
 				}
 			}
 
-			MultiFixTarget[] result= new MultiFixTarget[problemLocations.size()];
-			int i= 0;
-			for (Iterator<Map.Entry<ICompilationUnit, List<IProblemLocation>>> iterator= problemLocations.entrySet().iterator(); iterator.hasNext();) {
-				Map.Entry<ICompilationUnit, List<IProblemLocation>> entry= iterator.next();
-				ICompilationUnit cu= entry.getKey();
-				List<IProblemLocation> locations= entry.getValue();
-				result[i]= new MultiFixTarget(cu, locations.toArray(new IProblemLocation[locations.size()]));
-				i++;
+			List<MultiFixTarget> result= new ArrayList<MultiFixTarget>(fileMarkers.size());
+			for (Iterator<Entry<IFile, List<IMarker>>> iterator= fileMarkers.entrySet().iterator(); iterator.hasNext();) {
+				Entry<IFile, List<IMarker>> entry= iterator.next();
+				IJavaElement element= JavaCore.create(entry.getKey());
+				if (element instanceof ICompilationUnit) {
+					ICompilationUnit cu= (ICompilationUnit) element;
+					IEditorInput input= EditorUtility.getEditorInput(cu);
+					List<IProblemLocation> locations= findProblemLocations(input, entry.getValue(), cu);
+					if (!locations.isEmpty())
+						result.add(new MultiFixTarget(cu.getPrimary(), locations.toArray(new IProblemLocation[locations.size()])));
+				}
 			}
 
-			return result;
+			return result.toArray(new MultiFixTarget[result.size()]);
 		}
 
 		/* (non-Javadoc)
@@ -223,6 +228,7 @@ public class CorrectionMarkerResolutionGenerator implements IMarkerResolutionGen
 				return NO_MARKERS;
 
 			final List<IMarker> result= new ArrayList<IMarker>();
+			String markerType= MarkerUtilities.getMarkerType(fMarker);
 
 			for (Iterator<Entry<IFile, List<IMarker>>> iterator= fileMarkerTable.entrySet().iterator(); iterator.hasNext();) {
 				Map.Entry<IFile, List<IMarker>> entry= iterator.next();
@@ -235,7 +241,7 @@ public class CorrectionMarkerResolutionGenerator implements IMarkerResolutionGen
 
 					for (int i= 0, size= fileMarkers.size(); i < size; i++) {
 						IMarker marker= fileMarkers.get(i);
-						IProblemLocation problem= createFromMarker(marker, unit);
+						IProblemLocation problem= createFromMarker(marker, unit, markerType);
 						if (problem != null && multiFix.canFix(unit, problem)) {
 							result.add(marker);
 						}
@@ -396,15 +402,70 @@ public class CorrectionMarkerResolutionGenerator implements IMarkerResolutionGen
 		return null;
 	}
 
+	/**
+	 * Returns the problem locations of markers on the same compilation unit. Unlike
+	 * {@link #findProblemLocation(IEditorInput, IMarker)}, the annotation model is only
+	 * traversed once.
+	 *
+	 * @param input the editor input of the compilation unit
+	 * @param markers the markers on the compilation unit
+	 * @param cu the compilation unit
+	 * @return the problem locations of the markers which have one
+	 */
+	private static List<IProblemLocation> findProblemLocations(IEditorInput input, List<IMarker> markers, ICompilationUnit cu) {
+		List<IProblemLocation> result= new ArrayList<IProblemLocation>(markers.size());
+		IAnnotationModel model= JavaPlugin.getDefault().getCompilationUnitDocumentProvider().getAnnotationModel(input);
+		if (model != null) { // open in editor
+			Map<IMarker, IProblemLocation> locations= new HashMap<IMarker, IProblemLocation>();
+			Iterator<Annotation> iter= model.getAnnotationIterator();
+			while (iter.hasNext()) {
+				Annotation curr= iter.next();
+				if (curr instanceof JavaMarkerAnnotation) {
+					JavaMarkerAnnotation annot= (JavaMarkerAnnotation) curr;
+					IMarker marker= annot.getMarker();
+					if (marker != null && !locations.containsKey(marker)) {
+						Position pos= model.getPosition(annot);
+						if (pos != null) {
+							locations.put(marker, new ProblemLocation(pos.getOffset(), pos.getLength(), annot));
+						}
+					}
+				}
+			}
+			for (int i= 0, size= markers.size(); i < size; i++) {
+				IProblemLocation location= locations.get(markers.get(i));
+				if (location != null)
+					result.add(location);
+			}
+		} else { // not open in editor
+			for (int i= 0, size= markers.size(); i < size; i++) {
+				IProblemLocation location= createFromMarker(markers.get(i), cu);
+				if (location != null)
+					result.add(location);
+			}
+		}
+		return result;
+	}
+
 	private static IProblemLocation createFromMarker(IMarker marker, ICompilationUnit cu) {
+		return createFromMarker(marker, cu, MarkerUtilities.getMarkerType(marker));
+	}
+
+	private static final String[] PROBLEM_ATTRIBUTES= { IJavaModelMarker.ID, IMarker.CHAR_START, IMarker.CHAR_END, IMarker.SEVERITY };
+
+	private static IProblemLocation createFromMarker(IMarker marker, ICompilationUnit cu, String markerType) {
+		if (cu == null || markerType == null)
+			return null;
 		try {
-			int id= marker.getAttribute(IJavaModelMarker.ID, -1);
-			int start= marker.getAttribute(IMarker.CHAR_START, -1);
-			int end= marker.getAttribute(IMarker.CHAR_END, -1);
-			int severity= marker.getAttribute(IMarker.SEVERITY, IMarker.SEVERITY_INFO);
+			// read all attributes at once instead of looking up the marker for each attribute
+			Object[] values= marker.getAttributes(PROBLEM_ATTRIBUTES);
+			int id= getIntValue(values[0], -1);
+			int start= getIntValue(values[1], -1);
+			int end= getIntValue(values[2], -1);
+			int severity= getIntValue(values[3], IMarker.SEVERITY_INFO);
+			if (id == -1 || start == -1 || end == -1)
+				return null;
 			String[] arguments= CorrectionEngine.getProblemArguments(marker);
-			String markerType= marker.getType();
-			if (cu != null && id != -1 && start != -1 && end != -1 && arguments != null) {
+			if (arguments != null) {
 				boolean isError= (severity == IMarker.SEVERITY_ERROR);
 				return new ProblemLocation(start, end - start, id, arguments, isError, markerType);
 			}
@@ -414,5 +475,9 @@ public class CorrectionMarkerResolutionGenerator implements IMarkerResolutionGen
 		return null;
 	}
 
+	private static int getIntValue(Object value, int defaultValue) {
+		return value instanceof Integer ? ((Integer) value).intValue() : defaultValue;
+	}
+
 
 }
@@ -16,9 +16,11 @@ import java.util.Arrays;
 import java.util.Collection;
 
 import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
@@ -69,6 +71,8 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 	private static final String QUICKFIX_PROCESSOR_CONTRIBUTION_ID= "quickFixProcessors"; //$NON-NLS-1$
 	private static final String QUICKASSIST_PROCESSOR_CONTRIBUTION_ID= "quickAssistProcessors"; //$NON-NLS-1$
 
+	private static final boolean DEBUG= "true".equalsIgnoreCase(Platform.getDebugOption("org.eclipse.jdt.ui/debug/QuickAssist"));  //$NON-NLS-1$//$NON-NLS-2$
+
 	private static ContributedProcessorDescriptor[] fgContributedAssistProcessors= null;
 	private static ContributedProcessorDescriptor[] fgContributedCorrectionProcessors= null;
 
@@ -147,11 +151,33 @@ public class JavaCorrectionProcessor implements org.eclipse.jface.text.quickassi
 	}
 
 	public static boolean hasAssists(IInvocationContext context) {
+		return hasAssists(context, null);
+	}
+
+	/**
+	 * Tests whether any of the quick assist processors has assists for the given context.
+	 *
+	 * @param context the invocation context
+	 * @param monitor the monitor which is checked for cancellation before each processor,
+	 *            or <code>null</code>
+	 * @return <code>true</code> if there are assists
+	 * @throws OperationCanceledException if the monitor has been canceled
+	 * @since 3.9
+	 */
+	public static boolean hasAssists(IInvocationContext context, IProgressMonitor monitor) {
 		ContributedProcessorDescriptor[] processors= getAssistProcessors();
 		SafeHasAssist collector= new SafeHasAssist(context);
 
 		for (int i= 0; i < processors.length; i++) {
+			if (monitor != null && monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			long start= DEBUG ? System.currentTimeMillis() : 0;
 			collector.process(processors[i]);
+			if (DEBUG) {
+				long time= System.currentTimeMillis() - start;
+				System.out.println("JavaCorrectionProcessor > hasAssists: " + processors[i].getId() + " took " + time + " ms, result: " + collector.hasAssists()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
 			if (collector.hasAssists()) {
 				return true;
 			}
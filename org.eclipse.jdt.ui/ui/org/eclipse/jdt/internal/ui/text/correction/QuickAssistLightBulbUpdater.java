@@ -12,6 +12,8 @@ package org.eclipse.jdt.internal.ui.text.correction;
 
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.GC;
@@ -20,8 +22,14 @@ import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.widgets.Canvas;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.jface.viewers.ISelectionChangedListener;
+import org.eclipse.jface.viewers.ISelectionProvider;
+import org.eclipse.jface.viewers.SelectionChangedEvent;
 
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
@@ -43,6 +51,7 @@ import org.eclipse.ui.editors.text.EditorsUI;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 import org.eclipse.jdt.ui.JavaUI;
@@ -102,14 +111,71 @@ public class QuickAssistLightBulbUpdater {
 
 	}
 
+	/**
+	 * Key of the assist availability cache. Assists may depend on where inside the covering
+	 * node the selection is, e.g. on an operator of an infix expression.
+	 */
+	private static final class AvailabilityKey {
+		private final ASTNode fCoveringNode;
+		private final int fOffset;
+		private final int fLength;
+
+		AvailabilityKey(ASTNode coveringNode, int offset, int length) {
+			fCoveringNode= coveringNode;
+			fOffset= offset;
+			fLength= length;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof AvailabilityKey))
+				return false;
+			AvailabilityKey other= (AvailabilityKey) obj;
+			return fCoveringNode == other.fCoveringNode && fOffset == other.fOffset && fLength == other.fLength;
+		}
+
+		@Override
+		public int hashCode() {
+			return (fCoveringNode.hashCode() * 31 + fOffset) * 31 + fLength;
+		}
+	}
+
+	/**
+	 * Maximum number of selections whose assist availability is remembered.
+	 */
+	private static final int AVAILABILITY_CACHE_SIZE= 100;
+
 	private final Annotation fAnnotation;
 	private boolean fIsAnnotationShown;
 	private ITextEditor fEditor;
 	private ITextViewer fViewer;
 
 	private ISelectionListenerWithAST fListener;
+	private ISelectionChangedListener fSelectionStampListener;
 	private IPropertyChangeListener fPropertyChangeListener;
 
+	/**
+	 * Incremented on every selection change, a computation for an older stamp is stale.
+	 */
+	private volatile int fSelectionStamp;
+
+	/**
+	 * The AST of which the nodes in {@link #fAvailabilityCache} are.
+	 */
+	private CompilationUnit fCachedASTRoot;
+
+	/**
+	 * Maps selections to whether assists are available.
+	 */
+	private final Map<AvailabilityKey, Boolean> fAvailabilityCache= new LinkedHashMap<AvailabilityKey, Boolean>(16, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<AvailabilityKey, Boolean> eldest) {
+			return size() > AVAILABILITY_CACHE_SIZE;
+		}
+	};
+
 	public QuickAssistLightBulbUpdater(ITextEditor part, ITextViewer viewer) {
 		fEditor= part;
 		fViewer= viewer;
@@ -129,6 +195,16 @@ public class QuickAssistLightBulbUpdater {
 			}
 		};
 		SelectionListenerWithASTManager.getDefault().addListener(fEditor, fListener);
+
+		ISelectionProvider selectionProvider= fEditor.getSelectionProvider();
+		if (selectionProvider != null) {
+			fSelectionStampListener= new ISelectionChangedListener() {
+				public void selectionChanged(SelectionChangedEvent event) {
+					fSelectionStamp++;
+				}
+			};
+			selectionProvider.addSelectionChangedListener(fSelectionStampListener);
+		}
 	}
 
 	private void uninstallSelectionListener() {
@@ -136,6 +212,16 @@ public class QuickAssistLightBulbUpdater {
 			SelectionListenerWithASTManager.getDefault().removeListener(fEditor, fListener);
 			fListener= null;
 		}
+		if (fSelectionStampListener != null) {
+			ISelectionProvider selectionProvider= fEditor.getSelectionProvider();
+			if (selectionProvider != null)
+				selectionProvider.removeSelectionChangedListener(fSelectionStampListener);
+			fSelectionStampListener= null;
+		}
+		synchronized (fAvailabilityCache) {
+			fAvailabilityCache.clear();
+			fCachedASTRoot= null;
+		}
 		IAnnotationModel model= getAnnotationModel();
 		if (model != null) {
 			removeLightBulb(model);
@@ -200,6 +286,7 @@ public class QuickAssistLightBulbUpdater {
 
 
 	private void doSelectionChanged(int offset, int length, CompilationUnit astRoot) {
+		final int selectionStamp= fSelectionStamp;
 
 		final IAnnotationModel model= getAnnotationModel();
 		final ICompilationUnit cu= getCompilationUnit();
@@ -216,14 +303,64 @@ public class QuickAssistLightBulbUpdater {
 			return; // there is already a quick fix light bulb at the new location
 		}
 
-		calculateLightBulb(model, context);
+		boolean needsAnnotation;
+		try {
+			needsAnnotation= hasAssists(context, selectionStamp);
+		} catch (OperationCanceledException e) {
+			return; // the selection has changed, the light bulb is updated for the new selection
+		}
+		synchronized (this) {
+			calculateLightBulb(model, context, needsAnnotation);
+		}
+	}
+
+	/**
+	 * Tests whether there are assists for the given context. The result is cached for the covering
+	 * node and the selection as long as the AST doesn't change. The computation is abandoned as
+	 * soon as the selection changes.
+	 *
+	 * @param context the context
+	 * @param selectionStamp the selection stamp of the context
+	 * @return <code>true</code> if there are assists
+	 * @throws OperationCanceledException if the selection has changed
+	 */
+	private boolean hasAssists(AssistContext context, final int selectionStamp) {
+		AvailabilityKey key= null;
+		ASTNode coveringNode= context.getCoveringNode();
+		if (coveringNode != null) {
+			key= new AvailabilityKey(coveringNode, context.getSelectionOffset(), context.getSelectionLength());
+			synchronized (fAvailabilityCache) {
+				if (fCachedASTRoot != context.getASTRoot()) {
+					fAvailabilityCache.clear();
+					fCachedASTRoot= context.getASTRoot();
+				}
+				Boolean available= fAvailabilityCache.get(key);
+				if (available != null)
+					return available.booleanValue();
+			}
+		}
+
+		boolean available= JavaCorrectionProcessor.hasAssists(context, new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return selectionStamp != fSelectionStamp;
+			}
+		});
+
+		if (key != null) {
+			synchronized (fAvailabilityCache) {
+				if (fCachedASTRoot == context.getASTRoot())
+					fAvailabilityCache.put(key, Boolean.valueOf(available));
+			}
+		}
+		return available;
 	}
 
 	/*
-	 * Needs to be called synchronized
+	 * Needs to be called synchronized on this updater, which guards the shown annotation.
+	 * The availability cache has its own lock.
 	 */
-	private void calculateLightBulb(IAnnotationModel model, IInvocationContext context) {
-		boolean needsAnnotation= JavaCorrectionProcessor.hasAssists(context);
+	private void calculateLightBulb(IAnnotationModel model, IInvocationContext context, boolean needsAnnotation) {
 		if (fIsAnnotationShown) {
 			model.removeAnnotation(fAnnotation);
 		}
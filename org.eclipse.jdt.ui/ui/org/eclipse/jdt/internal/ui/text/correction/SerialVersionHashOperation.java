@@ -19,6 +19,12 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
@@ -28,8 +34,10 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
@@ -83,26 +91,214 @@ public final class SerialVersionHashOperation extends AbstractSerialVersionOpera
 
 	private static final String STATIC_CLASS_INITIALIZER= "<clinit>"; //$NON-NLS-1$
 
+	private static final int CACHE_SIZE= 10000;
+
+	/** The maximum number of jobs reading class files */
+	private static final int MAX_JOBS= 4;
+
+	/**
+	 * Maps the paths of class files to their modification stamp and serial version id.
+	 */
+	private static final Map<IPath, long[]> fgIdCache= new LinkedHashMap<IPath, long[]>(100, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IPath, long[]> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private static final Comparator<char[]> INTERFACE_NAME_COMPARATOR= new Comparator<char[]>() {
+		public int compare(char[] o1, char[] o2) {
+			return CharOperation.compareTo(o1, o2);
+		}
+	};
+
+	private static final Comparator<IFieldInfo> FIELD_COMPARATOR= new Comparator<IFieldInfo>() {
+		public int compare(IFieldInfo o1, IFieldInfo o2) {
+			return CharOperation.compareTo(o1.getName(), o2.getName());
+		}
+	};
+
+	private static final Comparator<IMethodInfo> METHOD_COMPARATOR= new Comparator<IMethodInfo>() {
+		public int compare(IMethodInfo mi1, IMethodInfo mi2) {
+			if (mi1.isConstructor() != mi2.isConstructor()) {
+				return mi1.isConstructor() ? -1 : 1;
+			} else if (mi1.isConstructor()) {
+				return 0;
+			}
+			int res= CharOperation.compareTo(mi1.getName(), mi2.getName());
+			if (res != 0) {
+				return res;
+			}
+			return CharOperation.compareTo(mi1.getDescriptor(), mi2.getDescriptor());
+		}
+	};
+
 	public static Long calculateSerialVersionId(ITypeBinding typeBinding, final IProgressMonitor monitor) throws CoreException, IOException {
 		try {
 			IFile classfileResource= getClassfile(typeBinding);
 			if (classfileResource == null)
 				return null;
 
-			InputStream contents= classfileResource.getContents();
+			return calculateSerialVersionId(classfileResource);
+		} finally {
+			if (monitor != null)
+				monitor.done();
+		}
+	}
+
+	/**
+	 * Calculates the serial version ids of the given types. The class files are looked up
+	 * once per compilation unit, and read and hashed concurrently. One unit of work is
+	 * reported for every type whose class file has been looked up, and for every type
+	 * whose id has been calculated.
+	 *
+	 * @param typeBindings the types
+	 * @param errors an array of the same length as <code>typeBindings</code> which receives the
+	 *  exception for each type whose class file couldn't be found or read. Errors are wrapped
+	 *  in an {@link InvocationTargetException}
+	 * @param monitor the progress monitor or <code>null</code>
+	 * @return the serial version ids, <code>null</code> for types whose id couldn't be calculated
+	 * @throws OperationCanceledException if the monitor has been canceled
+	 * @since 3.9
+	 */
+	public static Long[] calculateSerialVersionIds(ITypeBinding[] typeBindings, final Exception[] errors, final IProgressMonitor monitor) {
+		final Long[] ids= new Long[typeBindings.length];
+		try {
+			if (monitor != null)
+				monitor.beginTask("", typeBindings.length * 2); //$NON-NLS-1$
+
+			final IFile[] classFiles= new IFile[typeBindings.length];
+			Map<ICompilationUnit, Map<String, IFile>> classFilesByUnit= new HashMap<ICompilationUnit, Map<String, IFile>>();
+			for (int i= 0; i < typeBindings.length; i++) {
+				try {
+					IType type= (IType) typeBindings[i].getJavaElement();
+					if (type != null && type.getCompilationUnit() != null) {
+						ICompilationUnit unit= type.getCompilationUnit();
+						Map<String, IFile> unitClassFiles= classFilesByUnit.get(unit);
+						if (unitClassFiles == null) {
+							unitClassFiles= getClassfiles(unit);
+							classFilesByUnit.put(unit, unitClassFiles);
+						}
+						classFiles[i]= unitClassFiles.get(getClassfileName(typeBindings[i]));
+						if (classFiles[i] == null)
+							throw new CoreException(new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, CorrectionMessages.SerialVersionHashOperation_error_classnotfound));
+					}
+				} catch (CoreException e) {
+					errors[i]= e;
+				}
+				if (monitor != null) {
+					if (monitor.isCanceled())
+						throw new OperationCanceledException();
+					monitor.worked(1);
+				}
+			}
+
+			// the hashes are computed by a few jobs, the results are collected as they are done
+			final BlockingQueue<Integer> done= new LinkedBlockingQueue<Integer>();
+			final int[] next= new int[1];
+			int pending= 0;
+			for (int i= 0; i < classFiles.length; i++) {
+				if (classFiles[i] != null)
+					pending++;
+				else if (monitor != null)
+					monitor.worked(1);
+			}
+			Job[] jobs= new Job[Math.min(pending, MAX_JOBS)];
+			for (int i= 0; i < jobs.length; i++) {
+				jobs[i]= new Job(CorrectionMessages.SerialVersionHashOperation_computing_id) {
+					@Override
+					protected IStatus run(IProgressMonitor jobMonitor) {
+						while (true) {
+							int index;
+							synchronized (next) {
+								while (next[0] < classFiles.length && classFiles[next[0]] == null)
+									next[0]++;
+								if (next[0] == classFiles.length)
+									return Status.OK_STATUS;
+								index= next[0]++;
+							}
+							try {
+								if (!jobMonitor.isCanceled())
+									ids[index]= calculateSerialVersionId(classFiles[index]);
+							} catch (Exception e) {
+								errors[index]= e;
+							} catch (Error e) {
+								errors[index]= new InvocationTargetException(e, e.toString());
+							} finally {
+								done.add(new Integer(index));
+							}
+						}
+					}
+				};
+				jobs[i].setSystem(true);
+				jobs[i].schedule();
+			}
 			try {
-				IClassFileReader cfReader= ToolFactory.createDefaultClassFileReader(contents, IClassFileReader.ALL);
-				if (cfReader != null) {
-					return calculateSerialVersionId(cfReader);
+				while (pending > 0) {
+					if (monitor != null && monitor.isCanceled())
+						throw new OperationCanceledException();
+					if (done.poll(100, TimeUnit.MILLISECONDS) != null) {
+						pending--;
+						if (monitor != null)
+							monitor.worked(1);
+					}
 				}
+			} catch (InterruptedException e) {
+				throw new OperationCanceledException();
 			} finally {
-				contents.close();
+				for (int i= 0; i < jobs.length; i++)
+					jobs[i].cancel();
+			}
+			for (int i= 0; i < classFiles.length; i++) {
+				if (errors[i] instanceof RuntimeException)
+					throw (RuntimeException) errors[i];
 			}
-			return null;
 		} finally {
 			if (monitor != null)
 				monitor.done();
 		}
+		return ids;
+	}
+
+	/**
+	 * Calculates the serial version id from the given class file. The id is reused if the
+	 * class file hasn't changed since it was last calculated.
+	 *
+	 * @param classfile the class file
+	 * @return the serial version id or <code>null</code>
+	 * @throws CoreException if the class file can't be accessed
+	 * @throws IOException if the class file can't be read
+	 */
+	private static Long calculateSerialVersionId(IFile classfile) throws CoreException, IOException {
+		IPath path= classfile.getFullPath();
+		long stamp= classfile.getModificationStamp();
+		if (stamp != IResource.NULL_STAMP) {
+			synchronized (fgIdCache) {
+				long[] cached= fgIdCache.get(path);
+				if (cached != null && cached[0] == stamp)
+					return new Long(cached[1]);
+			}
+		}
+
+		Long id= null;
+		InputStream contents= classfile.getContents();
+		try {
+			IClassFileReader cfReader= ToolFactory.createDefaultClassFileReader(contents, IClassFileReader.ALL);
+			if (cfReader != null) {
+				id= calculateSerialVersionId(cfReader);
+			}
+		} finally {
+			contents.close();
+		}
+
+		if (id != null && stamp != IResource.NULL_STAMP) {
+			synchronized (fgIdCache) {
+				fgIdCache.put(path, new long[] { stamp, id.longValue() });
+			}
+		}
+		return id;
 	}
 
 	private static String getClassName(char[] name) {
@@ -204,21 +400,13 @@ public final class SerialVersionHashOperation extends AbstractSerialVersionOpera
 
 	private static char[][] getSortedInterfacesNames(IClassFileReader cfReader) {
 		char[][] interfaceNames= cfReader.getInterfaceNames();
-		Arrays.sort(interfaceNames, new Comparator<char[]>() {
-			public int compare(char[] o1, char[] o2) {
-				return CharOperation.compareTo(o1, o2);
-			}
-		});
+		Arrays.sort(interfaceNames, INTERFACE_NAME_COMPARATOR);
 		return interfaceNames;
 	}
 
 	private static IFieldInfo[] getSortedFields(IClassFileReader cfReader) {
 		IFieldInfo[] allFields= cfReader.getFieldInfos();
-		Arrays.sort(allFields, new Comparator<IFieldInfo>() {
-			public int compare(IFieldInfo o1, IFieldInfo o2) {
-				return CharOperation.compareTo(o1.getName(), o2.getName());
-			}
-		});
+		Arrays.sort(allFields, FIELD_COMPARATOR);
 		return allFields;
 	}
 
@@ -234,20 +422,7 @@ public final class SerialVersionHashOperation extends AbstractSerialVersionOpera
 
 	private static IMethodInfo[] getSortedMethods(IClassFileReader cfReader) {
 		IMethodInfo[] allMethods= cfReader.getMethodInfos();
-		Arrays.sort(allMethods, new Comparator<IMethodInfo>() {
-			public int compare(IMethodInfo mi1, IMethodInfo mi2) {
-				if (mi1.isConstructor() != mi2.isConstructor()) {
-					return mi1.isConstructor() ? -1 : 1;
-				} else if (mi1.isConstructor()) {
-					return 0;
-				}
-				int res= CharOperation.compareTo(mi1.getName(), mi2.getName());
-				if (res != 0) {
-					return res;
-				}
-				return CharOperation.compareTo(mi1.getDescriptor(), mi2.getDescriptor());
-			}
-		});
+		Arrays.sort(allMethods, METHOD_COMPARATOR);
 		return allMethods;
 	}
 
@@ -258,9 +433,13 @@ public final class SerialVersionHashOperation extends AbstractSerialVersionOpera
 			return null;
 		}
 
-		IRegion region= JavaCore.newRegion();
-		region.add(type.getCompilationUnit());
+		IFile classfile= getClassfiles(type.getCompilationUnit()).get(getClassfileName(typeBinding));
+		if (classfile == null)
+			throw new CoreException(new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, CorrectionMessages.SerialVersionHashOperation_error_classnotfound));
+		return classfile;
+	}
 
+	private static String getClassfileName(ITypeBinding typeBinding) throws CoreException {
 		String name= typeBinding.getBinaryName();
 		if (name != null) {
 			int packStart= name.lastIndexOf('.');
@@ -271,16 +450,28 @@ public final class SerialVersionHashOperation extends AbstractSerialVersionOpera
 			throw new CoreException(new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, CorrectionMessages.SerialVersionHashOperation_error_classnotfound));
 		}
 
-		name += ".class"; //$NON-NLS-1$
+		return name + ".class"; //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the class files generated for the given compilation unit.
+	 *
+	 * @param unit the compilation unit
+	 * @return a map from the names of the class files to the class files
+	 */
+	private static Map<String, IFile> getClassfiles(ICompilationUnit unit) {
+		IRegion region= JavaCore.newRegion();
+		region.add(unit);
 
+		Map<String, IFile> result= new HashMap<String, IFile>();
 		IResource[] classFiles= JavaCore.getGeneratedResources(region, false);
 		for (int i= 0; i < classFiles.length; i++) {
 			IResource resource= classFiles[i];
-			if (resource.getType() == IResource.FILE && resource.getName().equals(name)) {
-				return (IFile) resource;
+			if (resource.getType() == IResource.FILE && !result.containsKey(resource.getName())) {
+				result.put(resource.getName(), (IFile) resource);
 			}
 		}
-		throw new CoreException(new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, CorrectionMessages.SerialVersionHashOperation_error_classnotfound));
+		return result;
 	}
 
 	/**
@@ -10,8 +10,21 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.spelling;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 import org.eclipse.core.runtime.AssertionFailedException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.jface.preference.IPreferenceStore;
 
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
@@ -24,16 +37,133 @@ import org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector;
 import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.text.IJavaPartitions;
 
+import org.eclipse.jdt.internal.ui.JavaUIMessages;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.DefaultSpellChecker;
 import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEvent;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEventListener;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.RankedWordProposal;
 
 
 /**
  * Java spelling engine
+ * <p>
+ * The spelling problems found in the partitions of a document are remembered. When the
+ * document is checked again, only partitions whose content has changed are checked.
+ * If there are many of them, they are checked concurrently.
+ * </p>
  *
  * @since 3.1
  */
 public class JavaSpellingEngine extends SpellingEngine {
 
+	/**
+	 * Minimum number of partitions to check before they are checked concurrently.
+	 * @since 3.9
+	 */
+	private static final int MIN_CONCURRENT_PARTITIONS= 16;
+
+	/**
+	 * The spell events of the partitions of a document, keyed by the content of the partition.
+	 * Valid as long as the spell checker and its settings don't change.
+	 *
+	 * @since 3.9
+	 */
+	private static class PartitionCache {
+		final ISpellChecker fChecker;
+		final int fStamp;
+		final String fSettings;
+		Map<String, PartitionEvents> fPartitions= new HashMap<String, PartitionEvents>();
+
+		PartitionCache(ISpellChecker checker, int stamp, String settings) {
+			fChecker= checker;
+			fStamp= stamp;
+			fSettings= settings;
+		}
+
+		boolean isValid(ISpellChecker checker, int stamp, String settings) {
+			return fChecker == checker && fStamp == stamp && fSettings.equals(settings);
+		}
+	}
+
+	/**
+	 * Records the spell events of a partition.
+	 *
+	 * @since 3.9
+	 */
+	private static class PartitionEvents implements ISpellEventListener {
+		final int fOffset;
+		final List<ISpellEvent> fEvents= new ArrayList<ISpellEvent>();
+
+		PartitionEvents(int offset) {
+			fOffset= offset;
+		}
+
+		public void handle(ISpellEvent event) {
+			fEvents.add(event);
+		}
+
+		/**
+		 * Forwards the recorded events to the given listener.
+		 *
+		 * @param listener the listener
+		 * @param offset the current offset of the partition
+		 */
+		void replay(SpellEventListener listener, int offset) {
+			int delta= offset - fOffset;
+			for (int i= 0, size= fEvents.size(); i < size && !listener.isProblemsThresholdReached(); i++) {
+				ISpellEvent event= fEvents.get(i);
+				listener.handle(delta == 0 ? event : new ShiftedSpellEvent(event, delta));
+			}
+		}
+	}
+
+	/**
+	 * A spell event of a partition which has moved since it was checked.
+	 *
+	 * @since 3.9
+	 */
+	private static class ShiftedSpellEvent implements ISpellEvent {
+		private final ISpellEvent fEvent;
+		private final int fDelta;
+
+		ShiftedSpellEvent(ISpellEvent event, int delta) {
+			fEvent= event;
+			fDelta= delta;
+		}
+
+		public int getBegin() {
+			return fEvent.getBegin() + fDelta;
+		}
+
+		public int getEnd() {
+			return fEvent.getEnd() + fDelta;
+		}
+
+		public Set<RankedWordProposal> getProposals() {
+			return fEvent.getProposals();
+		}
+
+		public String getWord() {
+			return fEvent.getWord();
+		}
+
+		public boolean isMatch() {
+			return fEvent.isMatch();
+		}
+
+		public boolean isStart() {
+			return fEvent.isStart();
+		}
+	}
+
+	/**
+	 * The partition caches of the checked documents. Shared by all engines, since the
+	 * spelling service creates a new engine for every check.
+	 * @since 3.9
+	 */
+	private static final Map<IDocument, PartitionCache> fgPartitionCaches= Collections.synchronizedMap(new WeakHashMap<IDocument, PartitionCache>());
+
 
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.spelling.SpellingEngine#check(org.eclipse.jface.text.IDocument, org.eclipse.jface.text.IRegion[], org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker, org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector, org.eclipse.core.runtime.IProgressMonitor)
@@ -41,6 +171,14 @@ public class JavaSpellingEngine extends SpellingEngine {
 	@Override
 	protected void check(IDocument document, IRegion[] regions, ISpellChecker checker, ISpellingProblemCollector collector, IProgressMonitor monitor) {
 		SpellEventListener listener= new SpellEventListener(collector, document);
+		PartitionCache cache= getPartitionCache(document, checker);
+		if (cache != null) {
+			synchronized (cache) {
+				checkIncrementally(document, regions, checker, cache, listener, monitor);
+			}
+			return;
+		}
+
 		boolean isIgnoringJavaStrings= PreferenceConstants.getPreferenceStore().getBoolean(PreferenceConstants.SPELLING_IGNORE_JAVA_STRINGS);
 		try {
 			for (int i= 0; i < regions.length; i++) {
@@ -69,4 +207,178 @@ public class JavaSpellingEngine extends SpellingEngine {
 			// ignore: the document has been changed in another thread and will be checked again
 		}
 	}
+
+	/**
+	 * Spell checks the partitions whose content isn't in the cache and reports the problems of
+	 * all partitions.
+	 *
+	 * @param document the document
+	 * @param regions the regions
+	 * @param checker the spell checker
+	 * @param cache the partition cache of the document
+	 * @param listener the listener to report the problems to
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @since 3.9
+	 */
+	private void checkIncrementally(IDocument document, IRegion[] regions, ISpellChecker checker, PartitionCache cache, SpellEventListener listener, IProgressMonitor monitor) {
+		boolean isIgnoringJavaStrings= PreferenceConstants.getPreferenceStore().getBoolean(PreferenceConstants.SPELLING_IGNORE_JAVA_STRINGS);
+		List<ITypedRegion> partitionsToReport= new ArrayList<ITypedRegion>();
+		List<String> contents= new ArrayList<String>();
+		Map<String, PartitionEvents> checked= new HashMap<String, PartitionEvents>();
+		List<PartitionEvents> eventsToCheck= new ArrayList<PartitionEvents>();
+		List<SpellCheckIterator> iteratorsToCheck= new ArrayList<SpellCheckIterator>();
+		try {
+			for (int i= 0; i < regions.length; i++) {
+				IRegion region= regions[i];
+				ITypedRegion[] partitions= TextUtilities.computePartitioning(document, IJavaPartitions.JAVA_PARTITIONING, region.getOffset(), region.getLength(), false);
+				for (int index= 0; index < partitions.length; index++) {
+					if (monitor != null && monitor.isCanceled())
+						return;
+
+					ITypedRegion partition= partitions[index];
+					final String type= partition.getType();
+
+					if (isIgnoringJavaStrings && type.equals(IJavaPartitions.JAVA_STRING))
+						continue;
+
+					if (!type.equals(IDocument.DEFAULT_CONTENT_TYPE) && !type.equals(IJavaPartitions.JAVA_CHARACTER)) {
+						String content= document.get(partition.getOffset(), partition.getLength());
+						partitionsToReport.add(partition);
+						contents.add(content);
+						if (!cache.fPartitions.containsKey(content) && !checked.containsKey(content)) {
+							PartitionEvents partitionEvents= new PartitionEvents(partition.getOffset());
+							checked.put(content, partitionEvents);
+							eventsToCheck.add(partitionEvents);
+							iteratorsToCheck.add(new SpellCheckIterator(document, partition, checker.getLocale()));
+						}
+					}
+				}
+			}
+		} catch (BadLocationException x) {
+			// ignore: the document has been changed in another thread and will be checked again
+			return;
+		} catch (AssertionFailedException x) {
+			// ignore: the document has been changed in another thread and will be checked again
+			return;
+		}
+
+		if (!checkPartitions(checker, iteratorsToCheck, eventsToCheck, monitor))
+			return;
+
+		// report the problems in document order and forget the partitions which no longer exist
+		Map<String, PartitionEvents> retained= new HashMap<String, PartitionEvents>();
+		for (int i= 0, size= partitionsToReport.size(); i < size; i++) {
+			String content= contents.get(i);
+			PartitionEvents partitionEvents= checked.get(content);
+			if (partitionEvents == null)
+				partitionEvents= cache.fPartitions.get(content);
+			retained.put(content, partitionEvents);
+			if (!listener.isProblemsThresholdReached())
+				partitionEvents.replay(listener, partitionsToReport.get(i).getOffset());
+		}
+		cache.fPartitions= retained;
+	}
+
+	/**
+	 * Checks the given partitions, concurrently in jobs if there are many of them.
+	 *
+	 * @param checker the spell checker
+	 * @param iterators the iterators of the partitions
+	 * @param events the listeners recording the events of the partitions
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @return <code>false</code> if canceled
+	 * @since 3.9
+	 */
+	private boolean checkPartitions(final ISpellChecker checker, final List<SpellCheckIterator> iterators, final List<PartitionEvents> events, final IProgressMonitor monitor) {
+		int threads= Math.min(Runtime.getRuntime().availableProcessors(), iterators.size() / MIN_CONCURRENT_PARTITIONS);
+		if (threads <= 1) {
+			for (int i= 0; i < iterators.size(); i++) {
+				if (monitor != null && monitor.isCanceled())
+					return false;
+				checker.execute(events.get(i), iterators.get(i));
+			}
+			return true;
+		}
+
+		final int[] next= new int[1];
+		Job[] jobs= new Job[threads];
+		for (int i= 0; i < jobs.length; i++) {
+			jobs[i]= new Job(JavaUIMessages.Spelling_check_job_name) {
+				@Override
+				protected IStatus run(IProgressMonitor jobMonitor) {
+					while (true) {
+						if (jobMonitor.isCanceled() || monitor != null && monitor.isCanceled())
+							return Status.CANCEL_STATUS;
+						int index;
+						synchronized (next) {
+							if (next[0] == iterators.size())
+								return Status.OK_STATUS;
+							index= next[0]++;
+						}
+						checker.execute(events.get(index), iterators.get(index));
+					}
+				}
+			};
+			jobs[i].setSystem(true);
+			jobs[i].schedule();
+		}
+		try {
+			for (int i= 0; i < jobs.length; i++) {
+				jobs[i].join();
+				if (!jobs[i].getResult().isOK())
+					return false; // canceled, or the check failed and the job manager logged the exception
+			}
+			return true;
+		} catch (InterruptedException e) {
+			return false;
+		} finally {
+			for (int i= 0; i < jobs.length; i++)
+				jobs[i].cancel();
+		}
+	}
+
+	/**
+	 * Returns the partition cache of the given document, creating a new one if the spell checker
+	 * or its settings have changed.
+	 *
+	 * @param document the document
+	 * @param checker the spell checker
+	 * @return the partition cache or <code>null</code> if the checker doesn't support caching
+	 * @since 3.9
+	 */
+	private PartitionCache getPartitionCache(IDocument document, ISpellChecker checker) {
+		if (!(checker instanceof DefaultSpellChecker))
+			return null;
+
+		int stamp= ((DefaultSpellChecker) checker).getModificationStamp();
+		String settings= getSettings();
+		synchronized (fgPartitionCaches) {
+			PartitionCache cache= fgPartitionCaches.get(document);
+			if (cache == null || !cache.isValid(checker, stamp, settings)) {
+				cache= new PartitionCache(checker, stamp, settings);
+				fgPartitionCaches.put(document, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * Returns the spelling preferences which affect the result of a spell check.
+	 *
+	 * @return the preference values
+	 * @since 3.9
+	 */
+	private static String getSettings() {
+		IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+		StringBuffer buffer= new StringBuffer();
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_DIGITS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_MIXED));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_SENTENCE));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_UPPER));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_URLS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_NON_LETTERS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_SINGLE_LETTERS));
+		buffer.append(store.getInt(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD));
+		return buffer.toString();
+	}
 }
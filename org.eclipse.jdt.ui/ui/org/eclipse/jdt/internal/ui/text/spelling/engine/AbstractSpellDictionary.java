@@ -29,6 +29,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -119,6 +120,12 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 */
 	protected static final float LOAD_FACTOR= 0.85f;
 
+	/**
+	 * Counts the modifications of all dictionaries.
+	 * @since 3.9
+	 */
+	private static final AtomicInteger fgModificationCount= new AtomicInteger();
+
 	/** The phonetic distance algorithm */
 	private IPhoneticDistanceAlgorithm fDistanceAlgorithm= new DefaultPhoneticDistanceAlgorithm();
 
@@ -501,6 +508,8 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 			list.add(wordBytes);
 			fHashBuckets.put(hashBytes, list);
 		}
+		// after the word is added, so that no result computed before is cached for the new count
+		fgModificationCount.incrementAndGet();
 	}
 
 	/*
@@ -720,6 +729,18 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		fLoaded= false;
 		fMustLoad= true;
 		fHashBuckets.clear();
+		fgModificationCount.incrementAndGet();
+	}
+
+	/**
+	 * Returns a count which changes whenever words are added to or removed from any
+	 * dictionary.
+	 *
+	 * @return the modification count
+	 * @since 3.9
+	 */
+	static int getModificationCount() {
+		return fgModificationCount.get();
 	}
 
 	/*
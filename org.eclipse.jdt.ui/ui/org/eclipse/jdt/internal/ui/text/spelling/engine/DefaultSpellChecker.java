@@ -14,7 +14,11 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.Assert;
 
@@ -121,10 +125,41 @@ public class DefaultSpellChecker implements ISpellChecker {
 	}
 
 	/**
-	 * The dictionaries to use for spell checking. Synchronized to avoid
-	 * concurrent modifications.
+	 * Maximum number of words in the word cache.
+	 * @since 3.9
 	 */
-	private final Set<ISpellDictionary> fDictionaries= Collections.synchronizedSet(new HashSet<ISpellDictionary>());
+	private static final int WORD_CACHE_SIZE= 10000;
+
+	/**
+	 * The dictionaries to use for spell checking. Copied on write so that
+	 * they can be iterated while being modified.
+	 */
+	private final Set<ISpellDictionary> fDictionaries= new CopyOnWriteArraySet<ISpellDictionary>();
+
+	/**
+	 * Caches whether words are found in one of the dictionaries. Cleared whenever
+	 * the dictionaries change.
+	 * @since 3.9
+	 */
+	private final Map<String, Boolean> fWordCache= new ConcurrentHashMap<String, Boolean>();
+
+	/**
+	 * The dictionary modification count the word cache is valid for.
+	 * @since 3.9
+	 */
+	private volatile int fDictionaryModificationCount= AbstractSpellDictionary.getModificationCount();
+
+	/**
+	 * Incremented whenever the result of spell checking may change.
+	 * @since 3.9
+	 */
+	private final AtomicInteger fModificationStamp= new AtomicInteger();
+
+	/**
+	 * Whether the dictionaries strip non-letters, <code>null</code> if not known yet.
+	 * @since 3.9
+	 */
+	private volatile Boolean fStripNonLetters;
 
 	/**
 	 * The words to be ignored. Synchronized to avoid concurrent modifications.
@@ -161,24 +196,16 @@ public class DefaultSpellChecker implements ISpellChecker {
 	 * @see org.eclipse.spelling.done.ISpellChecker#addDictionary(org.eclipse.spelling.done.ISpellDictionary)
 	 */
 	public final void addDictionary(final ISpellDictionary dictionary) {
-		// synchronizing is necessary as this is a write access
 		fDictionaries.add(dictionary);
+		invalidateWordCache();
 	}
 
 	/*
 	 * @see org.eclipse.jdt.ui.text.spelling.engine.ISpellChecker#acceptsWords()
 	 */
 	public boolean acceptsWords() {
-		// synchronizing might not be needed here since acceptWords is
-		// a read-only access and only called in the same thread as
-		// the modifying methods add/checkWord (?)
-		Set<ISpellDictionary> copy;
-		synchronized (fDictionaries) {
-			copy= new HashSet<ISpellDictionary>(fDictionaries);
-		}
-
 		ISpellDictionary dictionary= null;
-		for (final Iterator<ISpellDictionary> iterator= copy.iterator(); iterator.hasNext();) {
+		for (final Iterator<ISpellDictionary> iterator= fDictionaries.iterator(); iterator.hasNext();) {
 
 			dictionary= iterator.next();
 			if (dictionary.acceptsWords())
@@ -191,19 +218,13 @@ public class DefaultSpellChecker implements ISpellChecker {
 	 * @see org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker#addWord(java.lang.String)
 	 */
 	public void addWord(final String word) {
-		// synchronizing is necessary as this is a write access
-		Set<ISpellDictionary> copy;
-		synchronized (fDictionaries) {
-			copy= new HashSet<ISpellDictionary>(fDictionaries);
-		}
-
 		final String addable= word.toLowerCase();
-		for (final Iterator<ISpellDictionary> iterator= copy.iterator(); iterator.hasNext();) {
+		for (final Iterator<ISpellDictionary> iterator= fDictionaries.iterator(); iterator.hasNext();) {
 			ISpellDictionary dictionary= iterator.next();
 			if (dictionary.acceptsWords())
 				dictionary.addWord(addable);
 		}
-
+		invalidateWordCache();
 	}
 
 	/*
@@ -212,6 +233,7 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void checkWord(final String word) {
 		// synchronizing is necessary as this is a write access
 		fIgnored.remove(word.toLowerCase());
+		fModificationStamp.incrementAndGet();
 	}
 
 	/*
@@ -230,9 +252,13 @@ public class DefaultSpellChecker implements ISpellChecker {
 
 		iterator.setIgnoreSingleLetters(ignoreSingleLetters);
 
-		Iterator<ISpellDictionary> iter= fDictionaries.iterator();
-		while (iter.hasNext())
-			iter.next().setStripNonLetters(ignoreNonLetters);
+		if (fStripNonLetters == null || fStripNonLetters.booleanValue() != ignoreNonLetters) {
+			Iterator<ISpellDictionary> iter= fDictionaries.iterator();
+			while (iter.hasNext())
+				iter.next().setStripNonLetters(ignoreNonLetters);
+			fStripNonLetters= Boolean.valueOf(ignoreNonLetters);
+			invalidateWordCache();
+		}
 
 		String word= null;
 		boolean starts= false;
@@ -275,19 +301,10 @@ public class DefaultSpellChecker implements ISpellChecker {
 	 * @see org.eclipse.spelling.done.ISpellChecker#getProposals(java.lang.String,boolean)
 	 */
 	public Set<RankedWordProposal> getProposals(final String word, final boolean sentence) {
-
-		// synchronizing might not be needed here since getProposals is
-		// a read-only access and only called in the same thread as
-		// the modifing methods add/removeDictionary (?)
-		Set<ISpellDictionary> copy;
-		synchronized (fDictionaries) {
-			copy= new HashSet<ISpellDictionary>(fDictionaries);
-		}
-
 		ISpellDictionary dictionary= null;
 		final HashSet<RankedWordProposal> proposals= new HashSet<RankedWordProposal>();
 
-		for (final Iterator<ISpellDictionary> iterator= copy.iterator(); iterator.hasNext();) {
+		for (final Iterator<ISpellDictionary> iterator= fDictionaries.iterator(); iterator.hasNext();) {
 
 			dictionary= iterator.next();
 			proposals.addAll(dictionary.getProposals(word, sentence));
@@ -301,37 +318,70 @@ public class DefaultSpellChecker implements ISpellChecker {
 	public final void ignoreWord(final String word) {
 		// synchronizing is necessary as this is a write access
 		fIgnored.add(word.toLowerCase());
+		fModificationStamp.incrementAndGet();
 	}
 
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker#isCorrect(java.lang.String)
 	 */
 	public final boolean isCorrect(final String word) {
-		// synchronizing is necessary as this is called from execute
-		Set<ISpellDictionary> copy;
-		synchronized (fDictionaries) {
-			copy= new HashSet<ISpellDictionary>(fDictionaries);
-		}
-
 		if (fIgnored.contains(word.toLowerCase()))
 			return true;
 
-		ISpellDictionary dictionary= null;
-		for (final Iterator<ISpellDictionary> iterator= copy.iterator(); iterator.hasNext();) {
+		int stamp= getModificationStamp();
+		Boolean cached= fWordCache.get(word);
+		if (cached != null)
+			return cached.booleanValue();
 
-			dictionary= iterator.next();
-			if (dictionary.isCorrect(word))
-				return true;
+		boolean correct= false;
+		for (final Iterator<ISpellDictionary> iterator= fDictionaries.iterator(); iterator.hasNext();) {
+			if (iterator.next().isCorrect(word)) {
+				correct= true;
+				break;
+			}
 		}
-		return false;
+
+		if (stamp == getModificationStamp()) {
+			if (fWordCache.size() >= WORD_CACHE_SIZE)
+				fWordCache.clear();
+			fWordCache.put(word, Boolean.valueOf(correct));
+		}
+		return correct;
+	}
+
+	/**
+	 * Returns a stamp which changes whenever the dictionaries, the ignored words or
+	 * the dictionary settings change, i.e. whenever a spell check may have a
+	 * different result.
+	 *
+	 * @return the modification stamp
+	 * @since 3.9
+	 */
+	public int getModificationStamp() {
+		int count= AbstractSpellDictionary.getModificationCount();
+		if (count != fDictionaryModificationCount) {
+			fDictionaryModificationCount= count;
+			invalidateWordCache();
+		}
+		return fModificationStamp.get();
+	}
+
+	/**
+	 * Clears the word cache after the dictionaries have changed.
+	 *
+	 * @since 3.9
+	 */
+	private void invalidateWordCache() {
+		fModificationStamp.incrementAndGet();
+		fWordCache.clear();
 	}
 
 	/*
 	 * @see org.eclipse.spelling.done.ISpellChecker#removeDictionary(org.eclipse.spelling.done.ISpellDictionary)
 	 */
 	public final void removeDictionary(final ISpellDictionary dictionary) {
-		// synchronizing is necessary as this is a write access
 		fDictionaries.remove(dictionary);
+		invalidateWordCache();
 	}
 
 	/*
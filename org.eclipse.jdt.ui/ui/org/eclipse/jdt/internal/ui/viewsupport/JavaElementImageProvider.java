@@ -80,6 +80,7 @@ public class JavaElementImageProvider {
 	}
 
 	private ImageDescriptorRegistry fRegistry;
+	private JavaElementLabelCache fLabelCache;
 
 	public JavaElementImageProvider() {
 		fRegistry= null; // lazy initialization
@@ -110,10 +111,25 @@ public class JavaElementImageProvider {
 		return fRegistry;
 	}
 
+	private JavaElementLabelCache getLabelCache() {
+		if (fLabelCache == null) {
+			fLabelCache= JavaPlugin.getDefault().getJavaElementLabelCache();
+		}
+		return fLabelCache;
+	}
+
 
 	private ImageDescriptor computeDescriptor(Object element, int flags){
 		if (element instanceof IJavaElement) {
-			return getJavaImageDescriptor((IJavaElement) element, flags);
+			IJavaElement javaElement= (IJavaElement) element;
+			JavaElementLabelCache cache= getLabelCache();
+			int generation= cache.getGeneration();
+			ImageDescriptor descriptor= cache.getImageDescriptor(javaElement, flags);
+			if (descriptor == null) {
+				descriptor= getJavaImageDescriptor(javaElement, flags);
+				cache.putImageDescriptor(javaElement, flags, descriptor, generation);
+			}
+			return descriptor;
 		} else if (element instanceof IFile) {
 			IFile file= (IFile) element;
 			if (JavaCore.isJavaLikeFileName(file.getName())) {
@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.viewsupport;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.jface.viewers.StyledString;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IOpenable;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+
+/**
+ * Caches the labels and image descriptors of Java elements, so that repainting a view doesn't
+ * compose them again. The cache is shared by all views, entries are looked up by element and
+ * rendering flags.
+ * <p>
+ * Elements are weakly referenced. Entries are removed when a Java element delta reports a change
+ * of the element or one of its ancestors, and the cache is cleared when a preference changes.
+ * The entries are grouped by the openable which contains their element, e.g. the compilation
+ * unit of a method, so that a changed compilation unit only affects its own entries.
+ * </p>
+ * <p>
+ * Labels and image descriptors are computed outside of the cache's lock. They are only added if
+ * the cache hasn't been invalidated since the lookup started, see {@link #getGeneration()}.
+ * </p>
+ *
+ * @since 3.9
+ */
+public class JavaElementLabelCache implements IElementChangedListener, IPropertyChangeListener {
+
+	/**
+	 * Delta flags which don't mean that the element itself changed.
+	 */
+	private static final int IGNORED_FLAGS= IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_FINE_GRAINED | IJavaElementDelta.F_AST_AFFECTED;
+
+	private static final class Entry {
+		Map<Long, String> fTextLabels;
+		Map<Long, StyledString> fStyledLabels;
+		Map<Integer, ImageDescriptor> fImageDescriptors;
+	}
+
+	/**
+	 * The entries by element, grouped by the openable containing the element, see
+	 * {@link #getOpenable(IJavaElement)}. The openable of a group is weakly referenced, too.
+	 * Elements keep their ancestors, and thus the group's openable, alive while they are referenced.
+	 */
+	private final Map<IJavaElement, Map<IJavaElement, Entry>> fEntries= new WeakHashMap<IJavaElement, Map<IJavaElement, Entry>>();
+	private int fGeneration;
+	private IPreferenceStore fPreferenceStore;
+
+	/**
+	 * Starts listening for Java element deltas and preference changes.
+	 */
+	public void install() {
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		fPreferenceStore= PreferenceConstants.getPreferenceStore();
+		fPreferenceStore.addPropertyChangeListener(this);
+	}
+
+	/**
+	 * Stops listening and clears the cache.
+	 */
+	public void dispose() {
+		JavaCore.removeElementChangedListener(this);
+		if (fPreferenceStore != null) {
+			fPreferenceStore.removePropertyChangeListener(this);
+			fPreferenceStore= null;
+		}
+		clear();
+	}
+
+	/**
+	 * Returns the generation of the cache. It is to be passed to the <code>put</code> methods
+	 * and has to be read before looking up the value which is put.
+	 *
+	 * @return the generation, which is incremented whenever entries are removed
+	 */
+	public synchronized int getGeneration() {
+		return fGeneration;
+	}
+
+	public synchronized String getTextLabel(IJavaElement element, long flags) {
+		Entry entry= lookup(element);
+		if (entry == null || entry.fTextLabels == null)
+			return null;
+		return entry.fTextLabels.get(new Long(flags));
+	}
+
+	public synchronized void putTextLabel(IJavaElement element, long flags, String label, int generation) {
+		Entry entry= getEntry(element, generation);
+		if (entry != null) {
+			if (entry.fTextLabels == null)
+				entry.fTextLabels= new HashMap<Long, String>(4);
+			entry.fTextLabels.put(new Long(flags), label);
+		}
+	}
+
+	/**
+	 * Returns the cached styled label.
+	 *
+	 * @param element the element
+	 * @param flags the rendering flags
+	 * @return a copy of the cached label, which can be modified, or <code>null</code>
+	 */
+	public StyledString getStyledLabel(IJavaElement element, long flags) {
+		StyledString label;
+		synchronized (this) {
+			Entry entry= lookup(element);
+			if (entry == null || entry.fStyledLabels == null)
+				return null;
+			label= entry.fStyledLabels.get(new Long(flags));
+		}
+		return label != null ? copy(label) : null;
+	}
+
+	/**
+	 * Adds a copy of the given styled label to the cache.
+	 *
+	 * @param element the element
+	 * @param flags the rendering flags
+	 * @param label the label
+	 * @param generation the generation when the lookup of the label started
+	 */
+	public void putStyledLabel(IJavaElement element, long flags, StyledString label, int generation) {
+		StyledString copy= copy(label);
+		synchronized (this) {
+			Entry entry= getEntry(element, generation);
+			if (entry != null) {
+				if (entry.fStyledLabels == null)
+					entry.fStyledLabels= new HashMap<Long, StyledString>(4);
+				entry.fStyledLabels.put(new Long(flags), copy);
+			}
+		}
+	}
+
+	public synchronized ImageDescriptor getImageDescriptor(IJavaElement element, int flags) {
+		Entry entry= lookup(element);
+		if (entry == null || entry.fImageDescriptors == null)
+			return null;
+		return entry.fImageDescriptors.get(new Integer(flags));
+	}
+
+	public synchronized void putImageDescriptor(IJavaElement element, int flags, ImageDescriptor descriptor, int generation) {
+		Entry entry= getEntry(element, generation);
+		if (entry != null) {
+			if (entry.fImageDescriptors == null)
+				entry.fImageDescriptors= new HashMap<Integer, ImageDescriptor>(2);
+			entry.fImageDescriptors.put(new Integer(flags), descriptor);
+		}
+	}
+
+	private Entry lookup(IJavaElement element) {
+		Map<IJavaElement, Entry> entries= fEntries.get(getOpenable(element));
+		return entries != null ? entries.get(element) : null;
+	}
+
+	private Entry getEntry(IJavaElement element, int generation) {
+		if (generation != fGeneration)
+			return null; // invalidated while the value was computed
+		IJavaElement openable= getOpenable(element);
+		Map<IJavaElement, Entry> entries= fEntries.get(openable);
+		if (entries == null) {
+			entries= new WeakHashMap<IJavaElement, Entry>();
+			fEntries.put(openable, entries);
+		}
+		Entry entry= entries.get(element);
+		if (entry == null) {
+			entry= new Entry();
+			entries.put(element, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Returns the openable which contains the given element, e.g. the compilation unit or class
+	 * file of a member, or the element itself if it is an openable.
+	 *
+	 * @param element the element
+	 * @return the openable
+	 */
+	private static IJavaElement getOpenable(IJavaElement element) {
+		IOpenable openable= element.getOpenable();
+		return openable instanceof IJavaElement ? (IJavaElement) openable : element;
+	}
+
+	private static StyledString copy(StyledString label) {
+		StyledString copy= new StyledString();
+		copy.append(label);
+		return copy;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public synchronized void clear() {
+		fGeneration++;
+		fEntries.clear();
+	}
+
+	/*
+	 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
+	 */
+	public void elementChanged(ElementChangedEvent event) {
+		Set<IJavaElement> changedElements= new HashSet<IJavaElement>();
+		Set<IJavaElement> changedSubtrees= new HashSet<IJavaElement>();
+		collectChanges(event.getDelta(), changedElements, changedSubtrees);
+
+		synchronized (this) {
+			fGeneration++;
+			if (fEntries.isEmpty())
+				return;
+
+			for (Iterator<IJavaElement> iter= changedElements.iterator(); iter.hasNext();) {
+				IJavaElement element= iter.next();
+				Map<IJavaElement, Entry> entries= fEntries.get(getOpenable(element));
+				if (entries != null)
+					entries.remove(element);
+			}
+			for (Iterator<IJavaElement> iter= changedSubtrees.iterator(); iter.hasNext();)
+				removeSubtree(iter.next());
+		}
+	}
+
+	/**
+	 * Removes the entries of the given element and its descendants. Only the group of the
+	 * compilation unit or class file is looked at if the element is inside of one.
+	 *
+	 * @param root the element
+	 */
+	private void removeSubtree(IJavaElement root) {
+		IJavaElement openable= getOpenable(root);
+		int type= openable.getElementType();
+		if (type == IJavaElement.COMPILATION_UNIT || type == IJavaElement.CLASS_FILE) {
+			if (root.equals(openable)) {
+				fEntries.remove(openable);
+			} else {
+				Map<IJavaElement, Entry> entries= fEntries.get(openable);
+				if (entries != null) {
+					for (Iterator<IJavaElement> iter= entries.keySet().iterator(); iter.hasNext();) {
+						if (isInSubtree(iter.next(), root))
+							iter.remove();
+					}
+				}
+			}
+		} else {
+			// the groups of all openables in the subtree, e.g. of a package fragment
+			for (Iterator<IJavaElement> iter= fEntries.keySet().iterator(); iter.hasNext();) {
+				if (isInSubtree(iter.next(), root))
+					iter.remove();
+			}
+		}
+	}
+
+	/**
+	 * Collects the elements whose labels can have changed. The label and image of an element
+	 * can depend on its children, e.g. for empty packages or runnable types, thus every element
+	 * in the delta is changed. The labels of all descendants can change if an element has been
+	 * added or removed, if its delta has flags which don't just describe changed children, or if
+	 * the delta doesn't tell which children changed.
+	 *
+	 * @param delta the delta
+	 * @param changedElements the elements which changed
+	 * @param changedSubtrees the elements whose descendants changed, too
+	 */
+	private static void collectChanges(IJavaElementDelta delta, Set<IJavaElement> changedElements, Set<IJavaElement> changedSubtrees) {
+		IJavaElement element= delta.getElement();
+		changedElements.add(element);
+
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		int flags= delta.getFlags() & ~IGNORED_FLAGS;
+		if ((delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) != 0)
+			flags&= ~IJavaElementDelta.F_CONTENT; // the children tell what changed
+
+		if (delta.getKind() != IJavaElementDelta.CHANGED || flags != 0 || children.length == 0) {
+			changedSubtrees.add(element);
+		}
+		for (int i= 0; i < children.length; i++)
+			collectChanges(children[i], changedElements, changedSubtrees);
+	}
+
+	private static boolean isInSubtree(IJavaElement element, IJavaElement root) {
+		for (IJavaElement ancestor= element; ancestor != null; ancestor= ancestor.getParent()) {
+			if (root.equals(ancestor))
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * @see org.eclipse.jface.util.IPropertyChangeListener#propertyChange(org.eclipse.jface.util.PropertyChangeEvent)
+	 */
+	public void propertyChange(PropertyChangeEvent event) {
+		// e.g. the package name compression and abbreviation patterns
+		clear();
+	}
+}
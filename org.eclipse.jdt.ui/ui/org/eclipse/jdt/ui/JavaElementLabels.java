@@ -44,9 +44,11 @@ import org.eclipse.jdt.internal.corext.util.Strings;
 
 import org.eclipse.jdt.launching.JavaRuntime;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.JavaUIMessages;
 import org.eclipse.jdt.internal.ui.packageview.ClassPathContainer;
 import org.eclipse.jdt.internal.ui.viewsupport.BasicElementLabels;
+import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLabelCache;
 import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLabelComposer;
 
 
@@ -487,9 +489,16 @@ public class JavaElementLabels {
 	 * @return the label of the Java element
 	 */
 	public static String getElementLabel(IJavaElement element, long flags) {
-		StringBuffer result= new StringBuffer();
-		getElementLabel(element, flags, result);
-		return Strings.markJavaElementLabelLTR(result.toString());
+		JavaElementLabelCache cache= JavaPlugin.getDefault().getJavaElementLabelCache();
+		int generation= cache.getGeneration();
+		String label= cache.getTextLabel(element, flags);
+		if (label == null) {
+			StringBuffer result= new StringBuffer();
+			getElementLabel(element, flags, result);
+			label= Strings.markJavaElementLabelLTR(result.toString());
+			cache.putTextLabel(element, flags, label, generation);
+		}
+		return label;
 	}
 
 	/**
@@ -502,9 +511,16 @@ public class JavaElementLabels {
 	 * @since 3.4
 	 */
 	public static StyledString getStyledElementLabel(IJavaElement element, long flags) {
-		StyledString result= new StyledString();
-		getElementLabel(element, flags, result);
-		return Strings.markJavaElementLabelLTR(result);
+		JavaElementLabelCache cache= JavaPlugin.getDefault().getJavaElementLabelCache();
+		int generation= cache.getGeneration();
+		StyledString label= cache.getStyledLabel(element, flags);
+		if (label == null) {
+			StyledString result= new StyledString();
+			getElementLabel(element, flags, result);
+			label= Strings.markJavaElementLabelLTR(result);
+			cache.putStyledLabel(element, flags, label, generation);
+		}
+		return label;
 	}
 
 	/**
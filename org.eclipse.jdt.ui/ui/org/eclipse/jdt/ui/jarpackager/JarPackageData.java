@@ -131,6 +131,9 @@ public class JarPackageData {
 	// Add directory entries to the jar
 	private boolean fIncludeDirectoryEntries;
 
+	// Store libraries which are packaged into a runnable jar uncompressed
+	private boolean fStoreLibrariesUncompressed;
+
 	// Projects for which to store refactoring information
 	private IProject[] fRefactoringProjects= {};
 
@@ -194,6 +197,29 @@ public class JarPackageData {
 		fCompress= state;
 	}
 
+	/**
+	 * Tells whether libraries which are packaged into a runnable JAR are stored uncompressed,
+	 * even if the JAR is compressed. The class loader of the runnable JAR reads classes
+	 * directly from stored libraries, compressed libraries have to be extracted first.
+	 *
+	 * @return <code>true</code> if packaged libraries are stored uncompressed
+	 * @since 3.9
+	 */
+	public boolean isStoreLibrariesUncompressed() {
+		return fStoreLibrariesUncompressed;
+	}
+
+	/**
+	 * Set whether libraries which are packaged into a runnable JAR are stored uncompressed,
+	 * even if the JAR is compressed. The default is <code>false</code>.
+	 *
+	 * @param state a boolean indicating the new state
+	 * @since 3.9
+	 */
+	public void setStoreLibrariesUncompressed(boolean state) {
+		fStoreLibrariesUncompressed= state;
+	}
+
 	/**
 	 * Tells whether files can be overwritten without warning.
 	 *
@@ -23,7 +23,9 @@ public class AllTests {
 	public static Test suite() {
 		TestSuite suite= new TestSuite("All LTK Refactoring Core Tests"); //$NON-NLS-1$
 		
+		suite.addTestSuite(ContentHashValidationStateTest.class);
 		suite.addTestSuite(RefactoringContextTest.class);
+		suite.addTestSuite(UndoEditStoreTest.class);
 		
 		suite.addTest(ParticipantTests.suite());
 		suite.addTest(RefactoringHistoryTests.suite());
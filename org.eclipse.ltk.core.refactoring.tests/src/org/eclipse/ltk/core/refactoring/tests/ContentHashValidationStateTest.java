@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import java.io.ByteArrayInputStream;
+
+import junit.framework.TestCase;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
+
+import org.eclipse.jface.text.IDocument;
+
+import org.eclipse.ltk.core.refactoring.tests.util.SimpleTestProject;
+import org.eclipse.ltk.internal.core.refactoring.BufferValidationState;
+
+public class ContentHashValidationStateTest extends TestCase {
+
+	private SimpleTestProject fProject;
+
+	protected void setUp() throws Exception {
+		fProject= new SimpleTestProject();
+	}
+
+	protected void tearDown() throws Exception {
+		fProject.delete();
+	}
+
+	public void testSavedFile() throws Exception {
+		IFile file= fProject.createFile(fProject.getProject(), "A.txt", "content"); //$NON-NLS-1$ //$NON-NLS-2$
+		BufferValidationState state= BufferValidationState.createContentHashState(file);
+		try {
+			assertTrue(state.isValid(false).isOK());
+			file.setContents(new ByteArrayInputStream("changed".getBytes()), true, false, null); //$NON-NLS-1$
+			assertTrue(state.isValid(false).hasFatalError());
+			file.setContents(new ByteArrayInputStream("content".getBytes()), true, false, null); //$NON-NLS-1$
+			assertTrue(state.isValid(false).isOK());
+		} finally {
+			state.dispose();
+		}
+	}
+
+	public void testDirtyBuffer() throws Exception {
+		IFile file= fProject.createFile(fProject.getProject(), "B.txt", "content"); //$NON-NLS-1$ //$NON-NLS-2$
+		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+		manager.connect(file.getFullPath(), LocationKind.IFILE, null);
+		try {
+			IDocument document= manager.getTextFileBuffer(file.getFullPath(), LocationKind.IFILE).getDocument();
+			document.replace(0, 0, "dirty "); //$NON-NLS-1$
+			BufferValidationState state= BufferValidationState.createContentHashState(file);
+			try {
+				assertTrue(state.wasDirty());
+				assertTrue(state.isValid(false).isOK());
+
+				document.replace(0, 0, "more "); //$NON-NLS-1$
+				assertTrue(state.isValid(false).hasFatalError());
+
+				document.replace(0, 5, ""); //$NON-NLS-1$
+				assertTrue(state.isValid(false).isOK());
+			} finally {
+				state.dispose();
+			}
+		} finally {
+			manager.disconnect(file.getFullPath(), LocationKind.IFILE, null);
+		}
+	}
+
+	public void testPreparedHashes() throws Exception {
+		IFile[] files= new IFile[10];
+		BufferValidationState[] states= new BufferValidationState[files.length];
+		for (int i= 0; i < files.length; i++) {
+			files[i]= fProject.createFile(fProject.getProject(), "C" + i + ".txt", "content " + i); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			states[i]= BufferValidationState.createContentHashState(files[i]);
+		}
+		try {
+			files[3].setContents(new ByteArrayInputStream("changed".getBytes()), true, false, null); //$NON-NLS-1$
+
+			BufferValidationState.prepareValidation(files, new NullProgressMonitor());
+			try {
+				for (int i= 0; i < files.length; i++) {
+					assertEquals(String.valueOf(i), i == 3, states[i].isValid(false).hasFatalError());
+				}
+			} finally {
+				BufferValidationState.finishValidation();
+			}
+		} finally {
+			for (int i= 0; i < states.length; i++)
+				states[i].dispose();
+		}
+	}
+
+	public void testCanceledPreparation() throws Exception {
+		IFile file= fProject.createFile(fProject.getProject(), "D.txt", "content"); //$NON-NLS-1$ //$NON-NLS-2$
+		BufferValidationState state= BufferValidationState.createContentHashState(file);
+		try {
+			NullProgressMonitor monitor= new NullProgressMonitor();
+			monitor.setCanceled(true);
+			BufferValidationState.prepareValidation(new Object[] { file }, monitor);
+			try {
+				// the hash is computed when validating
+				file.setContents(new ByteArrayInputStream("changed".getBytes()), true, false, null); //$NON-NLS-1$
+				assertTrue(state.isValid(false).hasFatalError());
+			} finally {
+				BufferValidationState.finishValidation();
+			}
+		} finally {
+			state.dispose();
+		}
+	}
+
+	public void testNeedsValidationPreparation() throws Exception {
+		IFile file= fProject.createFile(fProject.getProject(), "E.txt", "content"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(BufferValidationState.needsValidationPreparation());
+		BufferValidationState state= BufferValidationState.createContentHashState(file);
+		try {
+			assertTrue(BufferValidationState.needsValidationPreparation());
+		} finally {
+			state.dispose();
+		}
+		assertFalse(BufferValidationState.needsValidationPreparation());
+	}
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import junit.framework.TestCase;
+
+import org.eclipse.text.edits.DeleteEdit;
+import org.eclipse.text.edits.InsertEdit;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+import org.eclipse.text.edits.UndoEdit;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+
+import org.eclipse.ltk.internal.core.refactoring.UndoEditStore;
+
+public class UndoEditStoreTest extends TestCase {
+
+	private static final String CONTENT= "0123456789abcdefghij"; //$NON-NLS-1$
+
+	protected void setUp() throws Exception {
+		UndoEditStore.setSpillThreshold(0);
+	}
+
+	protected void tearDown() throws Exception {
+		UndoEditStore.setSpillThreshold(-1);
+	}
+
+	private void assertUndo(TextEdit edit) throws Exception {
+		IDocument document= new Document(CONTENT);
+		UndoEdit undo= edit.apply(document, TextEdit.CREATE_UNDO);
+		String modified= document.get();
+
+		long diskFootprint= UndoEditStore.getDiskFootprint();
+		UndoEditStore.Payload payload= UndoEditStore.store(new UndoEdit[] { undo });
+		assertTrue(payload.isSpilled());
+		assertEquals(diskFootprint + payload.getSize(), UndoEditStore.getDiskFootprint());
+
+		TextEdit[] restored= payload.getEdits();
+		assertEquals(1, restored.length);
+		UndoEdit redo= restored[0].apply(document, TextEdit.CREATE_UNDO);
+		assertEquals(CONTENT, document.get());
+		redo.apply(document);
+		assertEquals(modified, document.get());
+
+		payload.dispose();
+		assertEquals(diskFootprint, UndoEditStore.getDiskFootprint());
+	}
+
+	public void testReplace() throws Exception {
+		MultiTextEdit edit= new MultiTextEdit();
+		edit.addChild(new ReplaceEdit(2, 3, "xy")); //$NON-NLS-1$
+		edit.addChild(new ReplaceEdit(10, 1, "long replacement")); //$NON-NLS-1$
+		assertUndo(edit);
+	}
+
+	public void testInsertAndDelete() throws Exception {
+		MultiTextEdit edit= new MultiTextEdit();
+		edit.addChild(new InsertEdit(0, "start ")); //$NON-NLS-1$
+		edit.addChild(new DeleteEdit(4, 6));
+		edit.addChild(new InsertEdit(12, "\u00e4\u00f6\u00fc")); //$NON-NLS-1$
+		edit.addChild(new InsertEdit(20, " end")); //$NON-NLS-1$
+		assertUndo(edit);
+	}
+
+	public void testMultipleUndos() throws Exception {
+		IDocument document= new Document(CONTENT);
+		UndoEdit first= new ReplaceEdit(0, 5, "first").apply(document, TextEdit.CREATE_UNDO); //$NON-NLS-1$
+		UndoEdit second= new DeleteEdit(3, 10).apply(document, TextEdit.CREATE_UNDO);
+
+		UndoEditStore.Payload payload= UndoEditStore.store(new UndoEdit[] { second, first });
+		assertTrue(payload.isSpilled());
+		TextEdit[] restored= payload.getEdits();
+		for (int i= 0; i < restored.length; i++) {
+			restored[i].apply(document);
+		}
+		assertEquals(CONTENT, document.get());
+		payload.dispose();
+	}
+
+	public void testBelowThreshold() throws Exception {
+		UndoEditStore.setSpillThreshold(Long.MAX_VALUE);
+		IDocument document= new Document(CONTENT);
+		UndoEdit undo= new ReplaceEdit(0, 5, "x").apply(document, TextEdit.CREATE_UNDO); //$NON-NLS-1$
+
+		long memoryFootprint= UndoEditStore.getMemoryFootprint();
+		UndoEditStore.Payload payload= UndoEditStore.store(new UndoEdit[] { undo });
+		assertFalse(payload.isSpilled());
+		assertEquals(memoryFootprint + payload.getSize(), UndoEditStore.getMemoryFootprint());
+		assertSame(undo, payload.getEdits()[0]);
+		payload.dispose();
+		assertEquals(memoryFootprint, UndoEditStore.getMemoryFootprint());
+	}
+}
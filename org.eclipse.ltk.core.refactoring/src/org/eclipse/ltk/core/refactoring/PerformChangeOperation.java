@@ -22,6 +22,7 @@ import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 
+import org.eclipse.ltk.internal.core.refactoring.BufferValidationState;
 import org.eclipse.ltk.internal.core.refactoring.NotCancelableProgressMonitor;
 
 /**
@@ -244,7 +245,15 @@ public class PerformChangeOperation implements IWorkspaceRunnable {
 				boolean undoInitialized= false;
 				try {
 					monitor.beginTask("", 10); //$NON-NLS-1$
-					fValidationStatus= fChange.isValid(new SubProgressMonitor(monitor, 1));
+					// computing the affected objects may be expensive, thus only ask
+					// for them if there are content hashes to compute in advance
+					if (BufferValidationState.needsValidationPreparation())
+						BufferValidationState.prepareValidation(fChange.getAffectedObjects(), monitor);
+					try {
+						fValidationStatus= fChange.isValid(new SubProgressMonitor(monitor, 1));
+					} finally {
+						BufferValidationState.finishValidation();
+					}
 					if (fValidationStatus.hasFatalError())
 						return;
 					boolean aboutToPerformChangeCalled= false;
@@ -10,8 +10,19 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.core.refactoring;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
@@ -68,6 +79,8 @@ public abstract class BufferValidationState {
 		}
 	}
 
+	private static boolean fgContentHashMode= Boolean.getBoolean("org.eclipse.ltk.core.refactoring.contentHashValidation"); //$NON-NLS-1$
+
 	public static BufferValidationState create(IFile file) {
 		ITextFileBuffer buffer= getBuffer(file);
 		if (buffer == null) {
@@ -78,6 +91,8 @@ public abstract class BufferValidationState {
 				return new ModificationStampValidationState(file);
 			} else {
 				if (buffer.isDirty()) {
+					if (isContentHashMode())
+						return createContentHashState(file);
 					return new NoStampValidationState(file);
 				} else {
 					return new ModificationStampValidationState(file);
@@ -86,6 +101,77 @@ public abstract class BufferValidationState {
 		}
 	}
 
+	/**
+	 * Creates a validation state which compares a hash of the file's content, taken from
+	 * the dirty buffer if there is one. {@link #create(IFile)} only uses it for dirty files
+	 * whose document doesn't support modification stamps.
+	 *
+	 * @param file the file
+	 * @return the validation state
+	 */
+	public static BufferValidationState createContentHashState(IFile file) {
+		return new ContentHashValidationState(file);
+	}
+
+	/**
+	 * Returns whether files without modification stamps are validated by
+	 * comparing content hashes instead of listening to document changes.
+	 *
+	 * @return <code>true</code> if the content hash mode is enabled
+	 */
+	public static synchronized boolean isContentHashMode() {
+		return fgContentHashMode;
+	}
+
+	/**
+	 * Enables or disables the content hash mode. Validation states created
+	 * before are not affected.
+	 *
+	 * @param enabled <code>true</code> to enable the content hash mode
+	 */
+	public static synchronized void setContentHashMode(boolean enabled) {
+		fgContentHashMode= enabled;
+	}
+
+	/**
+	 * Returns whether {@link #prepareValidation(Object[], IProgressMonitor)} has anything to do,
+	 * i.e. whether there are live validation states comparing content hashes. Lets callers
+	 * avoid computing the affected objects of a change otherwise.
+	 *
+	 * @return <code>true</code> if validation states comparing content hashes exist
+	 */
+	public static boolean needsValidationPreparation() {
+		return ContentHashValidationState.hasStates();
+	}
+
+	/**
+	 * Computes the current content hashes of the given files in parallel, so
+	 * that validation states validated by the current thread don't have to
+	 * compute them one after the other. Must be followed by a call to
+	 * {@link #finishValidation()}.
+	 * <p>
+	 * This only concerns dirty files whose document doesn't support modification
+	 * stamps while the content hash mode is enabled, see {@link #isContentHashMode()}.
+	 * The states of all other files compare modification stamps and don't need
+	 * any preparation.
+	 * </p>
+	 *
+	 * @param affectedObjects the objects affected by the change about to be validated,
+	 *  or <code>null</code>
+	 * @param pm the progress monitor, only used to check for cancellation. If canceled,
+	 *  the hashes are computed when validating
+	 */
+	public static void prepareValidation(Object[] affectedObjects, IProgressMonitor pm) {
+		ContentHashValidationState.prepare(affectedObjects, pm);
+	}
+
+	/**
+	 * Discards the content hashes computed by {@link #prepareValidation(Object[], IProgressMonitor)}.
+	 */
+	public static void finishValidation() {
+		ContentHashValidationState.finish();
+	}
+
 	public boolean wasDirty() {
 		return fWasDirty;
 	}
@@ -341,6 +427,217 @@ class ModificationStampValidationState extends BufferValidationState {
 	}
 }
 
+/**
+ * Buffer validation state for dirty files whose document does not support
+ * modification stamps. Unlike {@link NoStampValidationState} it doesn't attach
+ * any listeners. It records a hash of the content and compares it with the hash of
+ * the current content when validated.
+ * <p>
+ * Only used if the content hash mode is enabled. Files which are saved or whose
+ * document supports modification stamps, i.e. nearly all files, are validated by
+ * {@link ModificationStampValidationState}.
+ * </p>
+ */
+class ContentHashValidationState extends BufferValidationState {
+
+	private static final long FNV_OFFSET_BASIS= 0xcbf29ce484222325L;
+	private static final long FNV_PRIME= 0x100000001b3L;
+	/** Maximum number of jobs hashing the contents in addition to the validating thread */
+	private static final int MAX_JOBS= 4;
+
+	/** Number of live states per file */
+	private static final Map fgFiles= new HashMap();
+	/** Maps files to their current content hash while the current thread validates a change */
+	private static final ThreadLocal fgPreparedHashes= new ThreadLocal();
+
+	private final long fContentHash;
+	private boolean fDisposed;
+
+	public ContentHashValidationState(IFile file) {
+		super(file);
+		long hash= 0;
+		try {
+			hash= computeHash(file);
+		} catch (CoreException e) {
+			// isValid will report the problem when reading the content again
+		}
+		fContentHash= hash;
+		synchronized (fgFiles) {
+			Integer count= (Integer) fgFiles.get(file);
+			fgFiles.put(file, new Integer(count == null ? 1 : count.intValue() + 1));
+		}
+	}
+
+	public RefactoringStatus isValid(boolean needsSaving, boolean resilientForDerived) throws CoreException {
+		RefactoringStatus result= super.isValid(needsSaving, resilientForDerived);
+		if (result.hasFatalError())
+			return result;
+		if (fContentHash != getCurrentHash()) {
+			result.addFatalError(Messages.format(
+				RefactoringCoreMessages.TextChanges_error_content_changed,
+				BasicElementLabels.getPathLabel(fFile.getFullPath(), false)
+				));
+		}
+		return result;
+	}
+
+	public void dispose() {
+		synchronized (fgFiles) {
+			if (fDisposed)
+				return;
+			fDisposed= true;
+			int count= ((Integer) fgFiles.get(fFile)).intValue() - 1;
+			if (count == 0)
+				fgFiles.remove(fFile);
+			else
+				fgFiles.put(fFile, new Integer(count));
+		}
+	}
+
+	private long getCurrentHash() throws CoreException {
+		Map prepared= (Map) fgPreparedHashes.get();
+		if (prepared != null) {
+			Long hash= (Long) prepared.get(fFile);
+			if (hash != null)
+				return hash.longValue();
+		}
+		return computeHash(fFile);
+	}
+
+	static boolean hasStates() {
+		synchronized (fgFiles) {
+			return !fgFiles.isEmpty();
+		}
+	}
+
+	static void prepare(Object[] affectedObjects, IProgressMonitor pm) {
+		if (affectedObjects == null)
+			return;
+		final IFile[] files;
+		synchronized (fgFiles) {
+			if (fgFiles.isEmpty())
+				return;
+			Map candidates= new HashMap();
+			for (int i= 0; i < affectedObjects.length; i++) {
+				if (fgFiles.containsKey(affectedObjects[i]))
+					candidates.put(affectedObjects[i], affectedObjects[i]);
+			}
+			files= (IFile[]) candidates.keySet().toArray(new IFile[candidates.size()]);
+		}
+		final long[] hashes= new long[files.length];
+		final boolean[] computed= new boolean[files.length];
+		final int[] next= new int[1];
+		class HashJob extends Job {
+			HashJob() {
+				super(RefactoringCoreMessages.BufferValidationState_hash_job);
+				setSystem(true);
+			}
+			// reading the contents doesn't need a scheduling rule, thus the jobs
+			// run while the change holds the workspace rule
+			protected IStatus run(IProgressMonitor monitor) {
+				computeHashes(monitor);
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+			void computeHashes(IProgressMonitor monitor) {
+				while (!monitor.isCanceled()) {
+					int index;
+					synchronized (next) {
+						if (next[0] == files.length)
+							return;
+						index= next[0]++;
+					}
+					try {
+						hashes[index]= computeHash(files[index]);
+						computed[index]= true;
+					} catch (CoreException e) {
+						// computed again when validated
+					} catch (RuntimeException e) {
+						// computed again when validated
+					}
+				}
+			}
+		}
+		int count= Math.min(files.length, Math.min(MAX_JOBS, Runtime.getRuntime().availableProcessors()));
+		Job[] jobs= new Job[Math.max(count - 1, 0)];
+		for (int i= 0; i < jobs.length; i++) {
+			jobs[i]= new HashJob();
+			jobs[i].schedule();
+		}
+		new HashJob().computeHashes(pm);
+		if (pm.isCanceled()) {
+			for (int i= 0; i < jobs.length; i++)
+				jobs[i].cancel();
+		}
+		for (int i= 0; i < jobs.length; i++) {
+			try {
+				jobs[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				for (int j= 0; j < jobs.length; j++)
+					jobs[j].cancel();
+				return; // the other jobs may still write into the arrays
+			}
+		}
+		if (pm.isCanceled())
+			return;
+
+		Map result= new HashMap();
+		for (int i= 0; i < files.length; i++) {
+			if (computed[i])
+				result.put(files[i], new Long(hashes[i]));
+		}
+		fgPreparedHashes.set(result);
+	}
+
+	static void finish() {
+		fgPreparedHashes.set(null);
+	}
+
+	private static long computeHash(IFile file) throws CoreException {
+		ITextFileBuffer buffer= getBuffer(file);
+		if (buffer != null)
+			return hash(buffer.getDocument().get());
+		if (!file.exists())
+			return 0;
+
+		InputStream stream= file.getContents(true);
+		try {
+			Reader reader= new InputStreamReader(stream, file.getCharset(true));
+			long hash= FNV_OFFSET_BASIS;
+			char[] chars= new char[8192];
+			boolean first= true;
+			int read;
+			while ((read= reader.read(chars)) != -1) {
+				int start= 0;
+				// file buffers don't include the byte order mark in the document
+				if (first && read > 0 && chars[0] == '\uFEFF')
+					start= 1;
+				first= false;
+				for (int i= start; i < read; i++) {
+					hash= (hash ^ chars[i]) * FNV_PRIME;
+				}
+			}
+			return hash;
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IStatus.ERROR, e.getMessage(), e));
+		} finally {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				// ignore
+			}
+		}
+	}
+
+	private static long hash(String content) {
+		long hash= FNV_OFFSET_BASIS;
+		for (int i= 0, length= content.length(); i < length; i++) {
+			hash= (hash ^ content.charAt(i)) * FNV_PRIME;
+		}
+		return hash;
+	}
+}
+
 /*
 class SavedBufferValidationState extends BufferValidationState {
 	private long fModificationStamp;
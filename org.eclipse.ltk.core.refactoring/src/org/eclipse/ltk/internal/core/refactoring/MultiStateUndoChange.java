@@ -65,7 +65,7 @@ public class MultiStateUndoChange extends Change {
 
 	private int fSaveMode;
 
-	private UndoEdit[] fUndos;
+	private UndoEditStore.Payload fUndos;
 
 	private BufferValidationState fValidationState;
 
@@ -93,7 +93,7 @@ public class MultiStateUndoChange extends Change {
 		Assert.isNotNull(undos);
 		fName= name;
 		fFile= file;
-		fUndos= undos;
+		fUndos= UndoEditStore.store(undos);
 		fContentStampToRestore= stamp;
 		fSaveMode= saveMode;
 	}
@@ -127,6 +127,7 @@ public class MultiStateUndoChange extends Change {
 		if (fValidationState != null) {
 			fValidationState.dispose();
 		}
+		fUndos.dispose();
 	}
 
 	/**
@@ -221,8 +222,9 @@ public class MultiStateUndoChange extends Change {
 			ContentStamp currentStamp= ContentStamps.get(fFile, document);
 			// perform the changes
 			LinkedList list= new LinkedList();
-			for (int index= 0; index < fUndos.length; index++) {
-				UndoEdit edit= fUndos[index];
+			TextEdit[] undos= fUndos.getEdits();
+			for (int index= 0; index < undos.length; index++) {
+				TextEdit edit= undos[index];
 				UndoEdit redo= edit.apply(document, TextEdit.CREATE_UNDO);
 				list.addFirst(redo);
 
@@ -20,6 +20,8 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String BufferValidationState_character_encoding_changed;
 
+	public static String BufferValidationState_hash_job;
+
 	public static String BufferValidationState_no_character_encoding;
 
 	private static final String BUNDLE_NAME= "org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages";//$NON-NLS-1$
@@ -256,6 +258,8 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String UndoableOperation2ChangeAdapter_no_undo_available;
 
+	public static String UndoEditStore_cannot_read;
+
 	public static String UndoManager2_no_change;
 
 	public static String UnknownRefactoringDescriptor_cannot_create_refactoring;
@@ -0,0 +1,413 @@
+/*******************************************************************************
+ * Copyright (c) 2012 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.text.edits.MalformedTreeException;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+import org.eclipse.text.edits.UndoEdit;
+
+/**
+ * Holds the undo edits of undo changes.
+ * <p>
+ * Undo edits keep the original text of all modified regions. Once the text of an undo
+ * payload exceeds a threshold, the payload is written to a compressed file in the plug-in's
+ * state location and only read back when the undo change gets performed.
+ * </p>
+ * <p>
+ * A spilled undo edit is restored as a {@link MultiTextEdit} that performs the same
+ * replacements as the original undo edit. Applying it yields a regular undo edit for redo.
+ * Undo edits that can't be represented this way always stay in memory.
+ * </p>
+ *
+ * @since 3.6
+ */
+public final class UndoEditStore {
+
+	/**
+	 * The payload of an undo change.
+	 */
+	public static final class Payload {
+
+		private UndoEdit[] fEdits;
+		private File fFile;
+		private final int fEditCount;
+		private final long fSize;
+		private boolean fDisposed;
+
+		private Payload(UndoEdit[] edits, long size) {
+			fEdits= edits;
+			fEditCount= edits.length;
+			fSize= size;
+		}
+
+		/**
+		 * Returns the edits to apply in order to perform the undo. Loads the edits
+		 * from disk if the payload has been spilled.
+		 *
+		 * @return the edits to apply
+		 * @throws CoreException if the spilled edits can't be read
+		 */
+		public TextEdit[] getEdits() throws CoreException {
+			Assert.isTrue(!fDisposed);
+			synchronized (this) {
+				if (fFile == null)
+					return fEdits;
+			}
+			return read(this);
+		}
+
+		/**
+		 * Returns whether the payload has been written to disk.
+		 *
+		 * @return <code>true</code> if the payload has been spilled
+		 */
+		public synchronized boolean isSpilled() {
+			return fFile != null;
+		}
+
+		/**
+		 * Returns the estimated size of the undo text held by this payload.
+		 *
+		 * @return the size in bytes
+		 */
+		public long getSize() {
+			return fSize;
+		}
+
+		/**
+		 * Releases the payload and deletes its file, if any.
+		 */
+		public void dispose() {
+			File file;
+			synchronized (this) {
+				if (fDisposed)
+					return;
+				fDisposed= true;
+				file= fFile;
+				fEdits= null;
+				fFile= null;
+			}
+			released(file != null, fSize);
+			if (file != null)
+				file.delete();
+		}
+	}
+
+	/**
+	 * A replacement in the coordinates of the unmodified document.
+	 */
+	private static final class Replacement {
+		final int fOffset;
+		final int fLength;
+		final String fText;
+
+		Replacement(int offset, int length, String text) {
+			fOffset= offset;
+			fLength= length;
+			fText= text;
+		}
+	}
+
+	/** Payloads with more bytes of undo text are spilled to disk */
+	private static final long DEFAULT_SPILL_THRESHOLD= 256 * 1024;
+
+	private static final String STORE_DIRECTORY= "undo"; //$NON-NLS-1$
+	private static final String FILE_PREFIX= "undo"; //$NON-NLS-1$
+	private static final String FILE_SUFFIX= ".gz"; //$NON-NLS-1$
+	private static final String ENCODING= "UTF-8"; //$NON-NLS-1$
+
+	private static long fgSpillThreshold= DEFAULT_SPILL_THRESHOLD;
+	private static long fgMemoryFootprint= 0;
+	private static long fgDiskFootprint= 0;
+	private static File fgStoreDirectory= null;
+
+	private UndoEditStore() {
+		// Not for instantiation
+	}
+
+	/**
+	 * Creates the payload for the given undo edits. The payload is spilled to disk
+	 * if its text exceeds the spill threshold.
+	 *
+	 * @param edits the undo edits
+	 * @return the payload
+	 */
+	public static Payload store(UndoEdit[] edits) {
+		Assert.isNotNull(edits);
+		long size= 0;
+		for (int i= 0; i < edits.length; i++) {
+			size+= getSize(edits[i]);
+		}
+		Payload payload= new Payload(edits, size);
+		boolean spilled= false;
+		if (size > getSpillThreshold())
+			spilled= spill(payload);
+		synchronized (UndoEditStore.class) {
+			if (spilled)
+				fgDiskFootprint+= size;
+			else
+				fgMemoryFootprint+= size;
+		}
+		return payload;
+	}
+
+	/**
+	 * Returns the estimated size of the undo text currently held in memory.
+	 *
+	 * @return the size in bytes
+	 */
+	public static synchronized long getMemoryFootprint() {
+		return fgMemoryFootprint;
+	}
+
+	/**
+	 * Returns the estimated size of the undo text currently spilled to disk,
+	 * measured before compression.
+	 *
+	 * @return the size in bytes
+	 */
+	public static synchronized long getDiskFootprint() {
+		return fgDiskFootprint;
+	}
+
+	/**
+	 * Returns the size of undo text above which payloads are spilled to disk.
+	 *
+	 * @return the threshold in bytes
+	 */
+	public static synchronized long getSpillThreshold() {
+		return fgSpillThreshold;
+	}
+
+	/**
+	 * Sets the size of undo text above which payloads are spilled to disk.
+	 *
+	 * @param threshold the threshold in bytes, or <code>-1</code> to restore the default
+	 */
+	public static synchronized void setSpillThreshold(long threshold) {
+		fgSpillThreshold= threshold < 0 ? DEFAULT_SPILL_THRESHOLD : threshold;
+	}
+
+	/**
+	 * Deletes all spilled payloads. Called when the plug-in is stopped.
+	 */
+	public static synchronized void shutdown() {
+		if (fgStoreDirectory != null) {
+			deleteFiles(fgStoreDirectory);
+			fgStoreDirectory= null;
+		}
+	}
+
+	private static synchronized void released(boolean spilled, long size) {
+		if (spilled)
+			fgDiskFootprint-= size;
+		else
+			fgMemoryFootprint-= size;
+	}
+
+	private static long getSize(UndoEdit edit) {
+		long size= 0;
+		TextEdit[] children= edit.getChildren();
+		for (int i= 0; i < children.length; i++) {
+			if (children[i] instanceof ReplaceEdit)
+				size+= 2L * ((ReplaceEdit) children[i]).getText().length();
+		}
+		return size;
+	}
+
+	/**
+	 * Converts the children of an undo edit into replacements in the coordinates of
+	 * the document the undo edit gets applied to. The children of an undo edit are
+	 * applied from the last to the first one, each in the coordinates of the document
+	 * modified by the previous ones.
+	 *
+	 * @param edit the undo edit
+	 * @return a list of non-overlapping {@link Replacement}s sorted by offset, or
+	 *  <code>null</code> if the undo edit can't be represented this way
+	 */
+	private static List toReplacements(UndoEdit edit) {
+		TextEdit[] children= edit.getChildren();
+		List result= new ArrayList(children.length);
+		for (int i= children.length - 1; i >= 0; i--) {
+			TextEdit child= children[i];
+			if (!(child instanceof ReplaceEdit) || child.hasChildren())
+				return null;
+			ReplaceEdit replace= (ReplaceEdit) child;
+			int offset= replace.getOffset();
+			int end= offset + replace.getLength();
+			int shift= 0;
+			int index= 0;
+			for (; index < result.size(); index++) {
+				Replacement applied= (Replacement) result.get(index);
+				int appliedStart= applied.fOffset + shift;
+				int appliedEnd= appliedStart + applied.fText.length();
+				boolean before= end <= appliedStart;
+				boolean after= offset >= appliedEnd;
+				if (before && after)
+					return null; // two insertions at the same position
+				if (before)
+					break;
+				if (!after)
+					return null; // overlapping replacements
+				shift+= applied.fText.length() - applied.fLength;
+			}
+			result.add(index, new Replacement(offset - shift, replace.getLength(), replace.getText()));
+		}
+		return result;
+	}
+
+	private static TextEdit toTextEdit(List replacements) throws MalformedTreeException {
+		MultiTextEdit result= new MultiTextEdit();
+		for (int i= 0; i < replacements.size(); i++) {
+			Replacement replacement= (Replacement) replacements.get(i);
+			result.addChild(new ReplaceEdit(replacement.fOffset, replacement.fLength, replacement.fText));
+		}
+		return result;
+	}
+
+	private static boolean spill(Payload payload) {
+		UndoEdit[] edits= payload.fEdits;
+		List[] replacements= new List[edits.length];
+		try {
+			for (int i= 0; i < edits.length; i++) {
+				replacements[i]= toReplacements(edits[i]);
+				if (replacements[i] == null)
+					return false;
+				toTextEdit(replacements[i]); // make sure the edit can be restored
+			}
+		} catch (MalformedTreeException e) {
+			return false;
+		}
+
+		File file= null;
+		DataOutputStream stream= null;
+		try {
+			file= File.createTempFile(FILE_PREFIX, FILE_SUFFIX, getStoreDirectory());
+			stream= new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(file))));
+			stream.writeInt(replacements.length);
+			for (int i= 0; i < replacements.length; i++) {
+				List list= replacements[i];
+				stream.writeInt(list.size());
+				for (int k= 0; k < list.size(); k++) {
+					Replacement replacement= (Replacement) list.get(k);
+					stream.writeInt(replacement.fOffset);
+					stream.writeInt(replacement.fLength);
+					byte[] text= replacement.fText.getBytes(ENCODING);
+					stream.writeInt(text.length);
+					stream.write(text);
+				}
+			}
+			stream.close();
+			stream= null;
+		} catch (IOException e) {
+			RefactoringCorePlugin.log(e);
+			if (file != null)
+				file.delete();
+			return false;
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+		synchronized (payload) {
+			payload.fFile= file;
+			payload.fEdits= null;
+		}
+		return true;
+	}
+
+	private static TextEdit[] read(Payload payload) throws CoreException {
+		File file;
+		synchronized (payload) {
+			file= payload.fFile;
+		}
+		DataInputStream stream= null;
+		try {
+			stream= new DataInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))));
+			int count= stream.readInt();
+			if (count != payload.fEditCount)
+				throw new IOException("Corrupt undo store: " + file); //$NON-NLS-1$
+			TextEdit[] result= new TextEdit[count];
+			for (int i= 0; i < count; i++) {
+				int size= stream.readInt();
+				List list= new ArrayList(size);
+				for (int k= 0; k < size; k++) {
+					int offset= stream.readInt();
+					int length= stream.readInt();
+					byte[] text= new byte[stream.readInt()];
+					stream.readFully(text);
+					list.add(new Replacement(offset, length, new String(text, ENCODING)));
+				}
+				result[i]= toTextEdit(list);
+			}
+			return result;
+		} catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IStatus.ERROR, RefactoringCoreMessages.UndoEditStore_cannot_read, e));
+		} catch (MalformedTreeException e) {
+			throw Changes.asCoreException(e);
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+					// ignore
+				}
+			}
+		}
+	}
+
+	private static synchronized File getStoreDirectory() throws IOException {
+		if (fgStoreDirectory == null) {
+			File directory= RefactoringCorePlugin.getDefault().getStateLocation().append(STORE_DIRECTORY).toFile();
+			if (directory.exists()) {
+				// left over from a previous session
+				deleteFiles(directory);
+			} else if (!directory.mkdirs()) {
+				throw new IOException("Cannot create undo store: " + directory); //$NON-NLS-1$
+			}
+			fgStoreDirectory= directory;
+		}
+		return fgStoreDirectory;
+	}
+
+	private static void deleteFiles(File directory) {
+		File[] files= directory.listFiles();
+		if (files != null) {
+			for (int i= 0; i < files.length; i++) {
+				files[i].delete();
+			}
+		}
+	}
+}
@@ -250,6 +250,18 @@ public class UndoManager2 implements IUndoManager {
 		// nothing to do since we have a shared undo manager anyways.
 	}
 
+	/**
+	 * Returns the estimated size of the undo text held in memory by the text
+	 * changes on the undo and redo stacks. Undo text of large changes is kept
+	 * on disk and not included.
+	 *
+	 * @return the size in bytes
+	 * @see UndoEditStore
+	 */
+	public long getUndoMemoryFootprint() {
+		return UndoEditStore.getMemoryFootprint();
+	}
+
 	private void handleException(ExecutionException e) throws CoreException {
 		Throwable cause= e.getCause();
 		if (cause instanceof CoreException) {